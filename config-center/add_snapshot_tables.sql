@@ -63,6 +63,9 @@ CREATE TABLE IF NOT EXISTS config_publish_records (
     success_count INT DEFAULT 0 COMMENT '成功数量',
     fail_count INT DEFAULT 0 COMMENT '失败数量',
     error_message TEXT COMMENT '错误信息',
+    propagation_p50_ms BIGINT NULL COMMENT '发布到客户端生效延迟P50（毫秒）',
+    propagation_p99_ms BIGINT NULL COMMENT '发布到客户端生效延迟P99（毫秒）',
+    propagation_max_ms BIGINT NULL COMMENT '发布到客户端生效最大延迟（毫秒）',
     published_by VARCHAR(64) NOT NULL COMMENT '发布人',
     published_at TIMESTAMP NULL COMMENT '发布时间',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
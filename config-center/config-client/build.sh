@@ -10,7 +10,7 @@ echo "Java版本: $java_version"
 
 # 清理之前的构建
 echo "清理之前的构建..."
-rm -rf target/
+rm -rf target/ config-client-*/target/
 
 # 编译
 echo "编译项目..."
@@ -40,7 +40,8 @@ mvn package -DskipTests
 
 if [ $? -eq 0 ]; then
     echo "打包成功"
-    echo "JAR文件位置: target/config-client-1.0.0.jar"
+    echo "核心JAR: config-client-core/target/config-client-core-1.0.0.jar"
+    echo "聚合JAR: config-client-all/target/config-client-1.0.0.jar"
 else
     echo "打包失败"
     exit 1
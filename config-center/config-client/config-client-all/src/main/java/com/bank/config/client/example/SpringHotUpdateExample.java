@@ -2,6 +2,7 @@ package com.bank.config.client.example;
 
 import com.bank.config.client.ConfigClient;
 import com.bank.config.client.hotupdate.ConfigValue;
+import com.bank.config.client.spring.ConfigRefreshPostProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,6 +58,14 @@ public class SpringHotUpdateExample {
         return configClient;
     }
     
+    /**
+     * 注册配置中心 PropertySource，@Value 和 @ConfigurationProperties 在配置变化时自动重新绑定
+     */
+    @Bean
+    public static ConfigRefreshPostProcessor configRefreshPostProcessor(ConfigClient configClient) {
+        return new ConfigRefreshPostProcessor(configClient);
+    }
+    
     /**
      * 配置热更新服务示例
      */
@@ -177,7 +186,7 @@ public class SpringHotUpdateExample {
         private void checkWebSocketStatus() {
             try {
                 // 获取WebSocket客户端状态
-                if (configClient.getWebSocketClient() != null) {
+                if (configClient.getPushChannel() != null) {
                     logger.info("WebSocket客户端已创建");
                     // 这里可以添加更多状态检查
                 } else {
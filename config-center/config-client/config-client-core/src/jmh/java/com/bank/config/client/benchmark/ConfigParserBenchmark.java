@@ -0,0 +1,167 @@
+package com.bank.config.client.benchmark;
+
+import com.bank.config.client.parser.ConfigParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConfigParser 扁平化基准测试
+ * 对比流式扁平化与原先"先反序列化为嵌套Map再递归扁平化"的实现，
+ * 通过 GC profiler 输出分配速率（gc.alloc.rate.norm 为每次解析分配的字节数）
+ *
+ * @author bank
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigParserBenchmark {
+
+    /**
+     * 顶层分组数，每组 50 个配置项加一个 10 元素的列表
+     */
+    @Param({"20", "2000"})
+    private int groups;
+
+    private ConfigParser parser;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper yamlMapper;
+    private String json;
+    private String yaml;
+    private String xml;
+
+    @Setup
+    public void setup() {
+        parser = new ConfigParser();
+        jsonMapper = new ObjectMapper();
+        yamlMapper = new ObjectMapper(new YAMLFactory());
+
+        StringBuilder jsonBuilder = new StringBuilder("{");
+        StringBuilder yamlBuilder = new StringBuilder();
+        StringBuilder xmlBuilder = new StringBuilder("<config>");
+        for (int g = 0; g < groups; g++) {
+            if (g > 0) {
+                jsonBuilder.append(',');
+            }
+            jsonBuilder.append("\"group").append(g).append("\":{\"settings\":{");
+            yamlBuilder.append("group").append(g).append(":\n  settings:\n");
+            xmlBuilder.append("<group").append(g).append("><settings>");
+            for (int i = 0; i < 50; i++) {
+                if (i > 0) {
+                    jsonBuilder.append(',');
+                }
+                jsonBuilder.append("\"key").append(i).append("\":\"value-").append(g).append('-').append(i).append('"');
+                yamlBuilder.append("    key").append(i).append(": value-").append(g).append('-').append(i).append('\n');
+                xmlBuilder.append("<key").append(i).append(">value-").append(g).append('-').append(i)
+                    .append("</key").append(i).append('>');
+            }
+            jsonBuilder.append("},\"hosts\":[");
+            yamlBuilder.append("  hosts:\n");
+            xmlBuilder.append("</settings><hosts>");
+            for (int i = 0; i < 10; i++) {
+                if (i > 0) {
+                    jsonBuilder.append(',');
+                }
+                jsonBuilder.append("\"host-").append(i).append('"');
+                yamlBuilder.append("    - host-").append(i).append('\n');
+                xmlBuilder.append("<host>host-").append(i).append("</host>");
+            }
+            jsonBuilder.append("]}");
+            xmlBuilder.append("</hosts></group").append(g).append('>');
+        }
+        json = jsonBuilder.append('}').toString();
+        yaml = yamlBuilder.toString();
+        xml = xmlBuilder.append("</config>").toString();
+    }
+
+    @Benchmark
+    public Map<String, String> jsonStreaming() {
+        return parser.parseJson(json);
+    }
+
+    @Benchmark
+    public Map<String, String> jsonTree() throws Exception {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> tree = jsonMapper.readValue(json, Map.class);
+        return flattenMap(tree, "");
+    }
+
+    @Benchmark
+    public Map<String, String> yamlStreaming() {
+        return parser.parseYaml(yaml);
+    }
+
+    @Benchmark
+    public Map<String, String> yamlTree() throws Exception {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> tree = yamlMapper.readValue(yaml, Map.class);
+        return flattenMap(tree, "");
+    }
+
+    @Benchmark
+    public Map<String, String> xmlStreaming() {
+        return parser.parseXml(xml);
+    }
+
+    /**
+     * 原先 ConfigParser 的递归扁平化实现，作为对照
+     */
+    private static Map<String, String> flattenMap(Map<String, Object> map, String prefix) {
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            String key = prefix.isEmpty() ? entry.getKey() : prefix + "." + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> nestedMap = (Map<String, Object>) value;
+                result.putAll(flattenMap(nestedMap, key));
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                for (int i = 0; i < list.size(); i++) {
+                    Object item = list.get(i);
+                    if (item instanceof Map) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> itemMap = (Map<String, Object>) item;
+                        result.putAll(flattenMap(itemMap, key + "[" + i + "]"));
+                    } else {
+                        result.put(key + "[" + i + "]", String.valueOf(item));
+                    }
+                }
+            } else {
+                result.put(key, String.valueOf(value));
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ConfigParserBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
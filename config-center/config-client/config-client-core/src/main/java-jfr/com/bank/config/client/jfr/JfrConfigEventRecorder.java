@@ -0,0 +1,152 @@
+package com.bank.config.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 基于 jdk.jfr 的配置事件记录器
+ * 由 ConfigEvents 反射加载，只在 JDK 11 及以上构建时编译。
+ * 事件未启用时 begin 返回 null，调用方不会再提交
+ *
+ * @author bank
+ */
+public class JfrConfigEventRecorder implements ConfigEventRecorder {
+
+    @Override
+    public Object beginRefresh() {
+        return begin(new RefreshEvent());
+    }
+
+    @Override
+    public void commitRefresh(Object event, long revision, int keyCount, long bytes, boolean success) {
+        RefreshEvent refresh = (RefreshEvent) event;
+        refresh.end();
+        if (refresh.shouldCommit()) {
+            refresh.revision = revision;
+            refresh.keyCount = keyCount;
+            refresh.bytes = bytes;
+            refresh.success = success;
+            refresh.commit();
+        }
+    }
+
+    @Override
+    public Object beginCacheSwap() {
+        return begin(new CacheSwapEvent());
+    }
+
+    @Override
+    public void commitCacheSwap(Object event, long revision, int keyCount) {
+        CacheSwapEvent swap = (CacheSwapEvent) event;
+        swap.end();
+        if (swap.shouldCommit()) {
+            swap.revision = revision;
+            swap.keyCount = keyCount;
+            swap.commit();
+        }
+    }
+
+    @Override
+    public Object beginListenerDispatch() {
+        return begin(new ListenerDispatchEvent());
+    }
+
+    @Override
+    public void commitListenerDispatch(Object event, int listenerCount, int keyCount) {
+        ListenerDispatchEvent dispatch = (ListenerDispatchEvent) event;
+        dispatch.end();
+        if (dispatch.shouldCommit()) {
+            dispatch.listenerCount = listenerCount;
+            dispatch.keyCount = keyCount;
+            dispatch.commit();
+        }
+    }
+
+    @Override
+    public Object beginHotUpdate() {
+        return begin(new HotUpdateEvent());
+    }
+
+    @Override
+    public void commitHotUpdate(Object event, int appliedBindings, int keyCount) {
+        HotUpdateEvent hotUpdate = (HotUpdateEvent) event;
+        hotUpdate.end();
+        if (hotUpdate.shouldCommit()) {
+            hotUpdate.appliedBindings = appliedBindings;
+            hotUpdate.keyCount = keyCount;
+            hotUpdate.commit();
+        }
+    }
+
+    private static Event begin(Event event) {
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Name("com.bank.config.Refresh")
+    @Label("Config Refresh")
+    @Description("从配置服务器拉取并应用配置")
+    @Category({"Config Center", "Client"})
+    @StackTrace(false)
+    public static class RefreshEvent extends Event {
+        @Label("Revision")
+        long revision;
+
+        @Label("Key Count")
+        int keyCount;
+
+        @Label("Response Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.bank.config.CacheSwap")
+    @Label("Config Cache Swap")
+    @Description("替换本地配置缓存")
+    @Category({"Config Center", "Client"})
+    @StackTrace(false)
+    public static class CacheSwapEvent extends Event {
+        @Label("Revision")
+        long revision;
+
+        @Label("Key Count")
+        int keyCount;
+    }
+
+    @Name("com.bank.config.ListenerDispatch")
+    @Label("Config Listener Dispatch")
+    @Description("通知配置刷新监听器")
+    @Category({"Config Center", "Client"})
+    @StackTrace(false)
+    public static class ListenerDispatchEvent extends Event {
+        @Label("Listener Count")
+        int listenerCount;
+
+        @Label("Key Count")
+        int keyCount;
+    }
+
+    @Name("com.bank.config.HotUpdate")
+    @Label("Config Hot Update")
+    @Description("把变更的配置应用到绑定的字段和方法")
+    @Category({"Config Center", "Client"})
+    @StackTrace(false)
+    public static class HotUpdateEvent extends Event {
+        @Label("Applied Bindings")
+        int appliedBindings;
+
+        @Label("Key Count")
+        int keyCount;
+    }
+}
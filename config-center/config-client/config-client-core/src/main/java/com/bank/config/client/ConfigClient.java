@@ -0,0 +1,1944 @@
+package com.bank.config.client;
+
+import com.bank.config.client.agent.MappedConfigSnapshot;
+import com.bank.config.client.agent.SharedSnapshotReader;
+import com.bank.config.client.cache.ConfigCache;
+import com.bank.config.client.cache.KeySubscription;
+import com.bank.config.client.cache.PlaceholderResolver;
+import com.bank.config.client.poller.ConfigPoller;
+import com.bank.config.client.push.ConfigPushChannel;
+import com.bank.config.client.push.ConfigPushChannels;
+import com.bank.config.client.poller.ConfigChangeListener;
+import com.bank.config.client.parser.ConfigConverter;
+import com.bank.config.client.parser.ConfigParser;
+import com.bank.config.client.security.ConfigSecurity;
+import com.bank.config.client.fallback.ConfigFallback;
+import com.bank.config.client.fallback.DefaultConfigFallback;
+import com.bank.config.client.retry.CircuitBreaker;
+import com.bank.config.client.retry.ConfigRetry;
+import com.bank.config.client.retry.ConfigServerException;
+import com.bank.config.client.runtime.ConfigClientRuntime;
+import com.bank.config.client.retry.RetryBudget;
+import com.bank.config.client.jfr.ConfigEvents;
+import com.bank.config.client.metrics.AppliedRevisionReporter;
+import com.bank.config.client.metrics.ConfigMetrics;
+import com.bank.config.client.metrics.KeyAccessReporter;
+import com.bank.config.client.metrics.KeyAccessTracker;
+import com.bank.config.client.metrics.OpenMetricsExporter;
+import com.bank.config.client.health.ConfigHealthCheck;
+import com.bank.config.client.hotupdate.ConfigHotUpdateManager;
+import com.bank.config.client.hotupdate.BoundConfig;
+import com.bank.config.client.hotupdate.ConfigBinder;
+import com.bank.config.client.hotupdate.ConfigHotUpdateProcessor;
+import com.bank.config.client.watch.SseConfigWatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 配置客户端核心类
+ * 提供配置拉取、缓存、监听等功能
+ * 
+ * @author bank
+ */
+public class ConfigClient {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigClient.class);
+
+    // 读取统计最多跟踪的配置键数量
+    private static final int MAX_TRACKED_KEYS = 100000;
+
+    private final String serverUrl;
+    private final String appCode;
+    private final String envCode;
+    private final String token;
+    private final long pollInterval;
+    private final String cacheFile;
+    private final boolean enablePolling;
+    private final boolean enableCache;
+    private final long cacheExpireTime;
+
+    private final ConfigCache cache;
+    private final ConfigPoller poller;
+    private final ConfigParser parser;
+    private final ConfigConverter converter;
+    private final ConfigBinder binder;
+    private final ConfigSecurity security;
+    private final ConfigFallback fallback;
+    private final ConfigRetry retry;
+    private final ConfigMetrics metrics;
+    private final OpenMetricsExporter metricsExporter;
+    private final ConfigHealthCheck healthCheck;
+    private final ConfigClientRuntime runtime;
+    private final long healthProbeInterval;
+    private final boolean offlineFirst;
+    private final long startupTimeout;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    
+    // 热更新相关组件
+    private final ConfigHotUpdateManager hotUpdateManager;
+    private final ConfigHotUpdateProcessor hotUpdateProcessor;
+    
+    // WebSocket推送通道，由 config-client-websocket 模块提供
+    private ConfigPushChannel pushChannel;
+    private final boolean enableWebSocket;
+    private final Long appId;
+    private final String instanceId;
+    private final String instanceIp;
+    private final String clientVersion;
+
+    // SSE监听
+    private final boolean enableWatch;
+    private SseConfigWatcher watcher;
+
+    // 刷新任务，以及是否已有后台重试链
+    private final Callable<Void> refreshTask = this::doRefresh;
+    private final AtomicBoolean refreshRetryPending = new AtomicBoolean(false);
+
+    // 配置生效上报
+    private final AppliedRevisionReporter appliedReporter;
+
+    // 上报和子集登记使用的实例标识，未指定实例ID时使用进程标识
+    private final String clientInstanceId;
+
+    // 子集同步时订阅的配置，为空表示同步全部配置
+    private final KeySubscription subscription;
+
+    // 配置读取上报
+    private final KeyAccessReporter accessReporter;
+    private final long keyAccessReportInterval;
+
+    // 两阶段发布中已暂存、等待提交的配置
+    private final AtomicReference<StagedConfig> stagedConfig = new AtomicReference<>();
+
+    // 配置应用锁：SSE、WebSocket、拉取、后台重试和提交都可能同时替换缓存，
+    // 修订号检查和替换必须在同一把锁内完成；网络请求不在锁内执行
+    private final Object applyLock = new Object();
+
+    // 连接主机级配置代理时读取的共享快照，为空表示直接与服务器同步
+    private final SharedSnapshotReader snapshotReader;
+    private final long snapshotCheckInterval;
+    private volatile ScheduledFuture<?> snapshotCheckTask;
+    private long attachedGeneration;
+
+    private final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<BoundConfig<?>> boundConfigs = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    private ConfigClient(ConfigClientBuilder builder) {
+        this.serverUrl = builder.serverUrl;
+        this.appCode = builder.appCode;
+        this.envCode = builder.envCode;
+        this.token = builder.token;
+        this.pollInterval = builder.pollInterval;
+        this.cacheFile = builder.cacheFile;
+        // 连接代理时由代理负责拉取、推送和持久化，本进程只读共享快照
+        boolean attached = builder.sharedSnapshot != null;
+        this.snapshotReader = attached ? new SharedSnapshotReader(new java.io.File(builder.sharedSnapshot)) : null;
+        this.snapshotCheckInterval = builder.sharedSnapshotCheckInterval;
+        this.enablePolling = builder.enablePolling && !attached;
+        this.enableCache = builder.enableCache || attached;
+        this.cacheExpireTime = builder.cacheExpireTime;
+
+        // 初始化组件，所有定时任务共用JVM内的共享运行时
+        this.runtime = ConfigClientRuntime.acquire();
+        this.cache = new ConfigCache(attached ? null : cacheFile, cacheExpireTime);
+        this.parser = new ConfigParser();
+        this.converter = new ConfigConverter();
+        this.binder = new ConfigBinder(this.converter);
+        this.security = new ConfigSecurity(token, appCode, envCode);
+        this.cache.setDecryptor(security::decrypt);
+        this.cache.setPlaceholderResolution(builder.resolvePlaceholders);
+        // 共享快照本身不在堆上，无需再转为紧凑形式
+        this.cache.setCompactStorage(builder.compactStorage && !attached);
+        // 共享快照由配置代理维护，本地不保留历史
+        this.cache.setHistorySize(attached ? 0 : builder.historySize);
+        this.fallback = new DefaultConfigFallback();
+        this.retry = new ConfigRetry(3, 1000, 2.0, 10000,
+            new CircuitBreaker(builder.circuitFailureThreshold, builder.circuitOpenDuration), new RetryBudget());
+        this.metrics = new ConfigMetrics();
+        this.retry.setMetrics(this.metrics);
+        this.retry.setRuntime(this.runtime);
+        this.healthCheck = new ConfigHealthCheck(this, builder.healthProbeTimeout, security);
+        this.healthProbeInterval = builder.healthProbeInterval;
+        this.offlineFirst = builder.offlineFirst;
+        this.startupTimeout = builder.startupTimeout;
+        this.httpClient = createHttpClient(builder);
+        this.objectMapper = new ObjectMapper();
+        
+        // 初始化热更新组件
+        this.hotUpdateManager = new ConfigHotUpdateManager(this.cache, this.runtime, this.converter);
+        this.hotUpdateManager.setMetrics(this.metrics);
+        this.hotUpdateProcessor = new ConfigHotUpdateProcessor(this.hotUpdateManager, this.cache);
+
+        // 初始化拉取器
+        if (builder.adaptiveMinInterval > 0 && builder.adaptiveMaxInterval > builder.adaptiveMinInterval) {
+            this.poller = new ConfigPoller(this, pollInterval, builder.pollJitter,
+                builder.adaptiveMinInterval, builder.adaptiveMaxInterval);
+        } else {
+            this.poller = new ConfigPoller(this, pollInterval, builder.pollJitter, pollInterval, pollInterval);
+        }
+        
+        // 初始化WebSocket客户端
+        this.enableWebSocket = builder.enableWebSocket && !attached;
+        this.appId = builder.appId;
+        this.instanceId = builder.instanceId;
+        this.instanceIp = builder.instanceIp;
+
+        Map<String, String> metricLabels = new LinkedHashMap<>();
+        metricLabels.put("app", appCode);
+        metricLabels.put("env", envCode);
+        metricLabels.put("instance", instanceId);
+        this.metricsExporter = new OpenMetricsExporter(metrics, metricLabels);
+        this.clientVersion = builder.clientVersion;
+        
+        // 如果启用WebSocket，创建WebSocket推送通道
+        if (enableWebSocket) {
+            this.pushChannel = createPushChannel();
+        }
+
+        // 配置生效上报，未指定实例ID时使用进程标识
+        this.clientInstanceId = instanceId != null ? instanceId
+            : java.lang.management.ManagementFactory.getRuntimeMXBean().getName();
+        if (builder.reportApplied) {
+            this.appliedReporter = new AppliedRevisionReporter(serverUrl, appCode, envCode, clientInstanceId,
+                security, httpClient, runtime);
+        } else {
+            this.appliedReporter = null;
+        }
+
+        // 子集同步：只拉取和接收订阅的配置，未订阅的配置在第一次读取时按需拉取并加入订阅
+        if (builder.subsetSync && !attached) {
+            this.subscription = new KeySubscription(builder.subscribedKeys, builder.subscribedPrefixes,
+                builder.maxSubscribedKeys);
+            this.cache.setSubscribedKeys(subscription.getLearnedKeys());
+        } else {
+            this.subscription = null;
+        }
+
+        // 配置读取统计，定时上报给服务端
+        this.keyAccessReportInterval = builder.keyAccessReportInterval;
+        if (builder.trackKeyAccess && !attached) {
+            KeyAccessTracker tracker = new KeyAccessTracker(builder.keyAccessSampleRate, MAX_TRACKED_KEYS);
+            this.cache.setAccessTracker(tracker);
+            this.accessReporter = new KeyAccessReporter(tracker, serverUrl, appCode, envCode, clientInstanceId,
+                security, httpClient, runtime);
+        } else {
+            this.accessReporter = null;
+        }
+
+        // 如果启用SSE监听，创建SSE监听器
+        this.enableWatch = builder.enableWatch && !attached;
+        if (enableWatch) {
+            // 子集同步时带上实例ID，服务端按登记的子集过滤推送
+            String watchInstanceId = subscription != null ? clientInstanceId : null;
+            this.watcher = new SseConfigWatcher(serverUrl, appCode, envCode, watchInstanceId, security,
+                builder.watchReadTimeout, new SseConfigWatcher.WatchEventListener() {
+                    @Override
+                    public void onConfigEvent(Map<String, Object> event) {
+                        applyWatchEvent(event);
+                    }
+
+                    @Override
+                    public void onCommit(Map<String, Object> event) {
+                        commitConfig(((Number) event.get("revision")).longValue(),
+                            ((Number) event.get("timestamp")).longValue());
+                    }
+
+                    @Override
+                    public void onRollback(Map<String, Object> event) {
+                        rollbackTo(((Number) event.get("revision")).longValue());
+                    }
+
+                    @Override
+                    public void onNotification(Map<String, Object> event) {
+                        logger.info("收到配置变更通知: {}", event);
+                    }
+
+                    @Override
+                    public void onConnected() {
+                        healthCheck.recordSuccess(ConfigHealthCheck.Source.PUSH);
+                    }
+
+                    @Override
+                    public void onConnectionLost(Exception cause) {
+                        healthCheck.recordFailure(ConfigHealthCheck.Source.PUSH, cause);
+                    }
+                });
+        }
+    }
+
+    /**
+     * 创建WebSocket推送通道并设置监听器
+     *
+     * @return 推送通道，classpath 中没有 config-client-websocket 模块时返回null
+     */
+    private ConfigPushChannel createPushChannel() {
+        ConfigPushChannel channel = ConfigPushChannels.createWebSocket(serverUrl, appId, appCode, envCode,
+                instanceId, instanceIp, clientVersion);
+        if (channel == null) {
+            logger.warn("已启用WebSocket推送，但classpath中没有 config-client-websocket 模块，只使用拉取和SSE监听");
+            return null;
+        }
+        channel.setListener(new ConfigPushChannel.Listener() {
+            @Override
+            public void onConfigUpdate(Long appId, Long envId, Map<String, Object> configData,
+                                       long revision, long timestamp) {
+                long receivedAt = System.nanoTime();
+                logger.info("收到WebSocket配置更新: appId={}, envId={}, revision={}", appId, envId, revision);
+                
+                // 将配置数据转换为Map<String, String>格式
+                Map<String, String> newConfigs = convertConfigData(configData);
+                synchronized (applyLock) {
+                    if (revision > 0 && revision <= cache.getRevision()) {
+                        logger.debug("忽略已应用的配置修订: {}", revision);
+                        return;
+                    }
+                    
+                    try {
+                        if (revision > 0) {
+                            applyConfigs(newConfigs, revision);
+                            onRevisionApplied(revision, timestamp, receivedAt, ConfigHealthCheck.Source.PUSH);
+                            return;
+                        }
+                        
+                        // 更新本地缓存
+                        List<PlaceholderResolver.KeyChange> changes = enableCache
+                            ? updateCache(newConfigs) : Collections.<PlaceholderResolver.KeyChange>emptyList();
+                        
+                        // 通知所有监听器并触发热更新
+                        notifyConfigRefresh(enableCache ? cache.getResolvedSnapshot() : newConfigs, changes);
+                    } catch (Exception e) {
+                        logger.error("应用WebSocket配置更新失败: revision={}", revision, e);
+                        onRevisionFailed(revision, e);
+                    }
+                }
+            }
+
+            @Override
+            public void onConfigPrepare(Long appId, Long envId, long revision, long timestamp,
+                                        Map<String, Object> configData) {
+                stageConfig(revision, timestamp, convertConfigData(configData));
+            }
+
+            @Override
+            public void onConfigCommit(Long appId, Long envId, long revision, long timestamp) {
+                commitConfig(revision, timestamp);
+            }
+
+            @Override
+            public void onRollback(Long appId, Long envId, long revision, long timestamp) {
+                rollbackTo(revision);
+            }
+
+            @Override
+            public void onNotification(Long appId, Long envId, String versionNumber, String changeType) {
+                logger.info("收到配置变更通知: appId={}, envId={}, version={}, type={}", 
+                    appId, envId, versionNumber, changeType);
+                
+                // 可以在这里添加特定的通知处理逻辑
+                if ("PUBLISH".equals(changeType)) {
+                    logger.info("配置已发布，版本: {}", versionNumber);
+                }
+            }
+
+            // 推送连接状态计入健康状态
+            @Override
+            public void onConnected() {
+                healthCheck.recordSuccess(ConfigHealthCheck.Source.PUSH);
+            }
+
+            @Override
+            public void onDisconnected(Throwable cause) {
+                healthCheck.recordFailure(ConfigHealthCheck.Source.PUSH, cause);
+            }
+        });
+        return channel;
+    }
+    
+    /**
+     * 应用SSE配置事件
+     * 增量仅在本地修订号与事件的 previousRevision 一致时应用，否则重新拉取全量配置
+     */
+    @SuppressWarnings("unchecked")
+    private void applyWatchEvent(Map<String, Object> event) {
+        long receivedAt = System.nanoTime();
+        long revision = event.get("revision") instanceof Number ? ((Number) event.get("revision")).longValue() : 0L;
+        long timestamp = event.get("timestamp") instanceof Number ? ((Number) event.get("timestamp")).longValue() : 0L;
+        Map<String, String> fullConfigs = event.get("configData") instanceof Map
+            ? convertConfigData((Map<String, Object>) event.get("configData")) : null;
+
+        synchronized (applyLock) {
+            if (revision > 0 && revision <= cache.getRevision()) {
+                logger.debug("忽略已应用的配置修订: {}", revision);
+                return;
+            }
+
+            Map<String, String> newConfigs = fullConfigs;
+            if (newConfigs == null) {
+                long previousRevision = event.get("previousRevision") instanceof Number
+                    ? ((Number) event.get("previousRevision")).longValue() : 0L;
+                // 本地回滚后当前配置不是增量基准对应的配置
+                if (previousRevision == 0L || previousRevision != cache.getRevision() || cache.getRolledBackRevision() != 0L) {
+                    logger.info("本地修订号{}与增量基准{}不一致，重新拉取配置", cache.getRevision(), previousRevision);
+                } else {
+                    newConfigs = cache.withDelta((Map<String, String>) event.get("changed"),
+                        (Collection<String>) event.get("removed"));
+                    if (subscription != null) {
+                        // 服务端未按子集过滤时（如连接到未登记子集的节点）丢弃未订阅的配置
+                        newConfigs = subscription.filter(newConfigs);
+                    }
+                }
+            }
+
+            if (newConfigs != null) {
+                if ("CONFIG_PREPARE".equals(event.get("type"))) {
+                    stageConfig(revision, timestamp, newConfigs);
+                    return;
+                }
+
+                logger.info("收到SSE配置: revision={}, 共{}个配置项", revision, newConfigs.size());
+                try {
+                    applyConfigs(newConfigs, revision);
+                    onRevisionApplied(revision, timestamp, receivedAt, ConfigHealthCheck.Source.PUSH);
+                } catch (Exception e) {
+                    logger.error("应用SSE配置失败: revision={}", revision, e);
+                    onRevisionFailed(revision, e);
+                }
+                return;
+            }
+        }
+        // 增量基准不一致，在锁外重新拉取
+        refreshConfigUpTo(revision);
+    }
+
+    /**
+     * 暂存待提交的配置，只保留修订号最大的一份
+     */
+    private void stageConfig(long revision, long publishTimestamp, Map<String, String> configs) {
+        synchronized (applyLock) {
+            if (revision <= cache.getRevision()) {
+                logger.debug("忽略已应用的暂存配置: revision={}", revision);
+                return;
+            }
+            StagedConfig staged = new StagedConfig(revision, publishTimestamp, configs);
+            stagedConfig.accumulateAndGet(staged,
+                (current, candidate) -> current != null && current.revision >= candidate.revision ? current : candidate);
+        }
+        logger.info("配置已暂存: revision={}, 共{}个配置项", revision, configs.size());
+    }
+
+    /**
+     * 提交暂存的配置：一次引用替换完成切换，再持久化和通知监听器
+     *
+     * @param revision 提交的修订号
+     * @param commitTimestamp 服务端发出提交消息的时间
+     */
+    private void commitConfig(long revision, long commitTimestamp) {
+        long receivedAt = System.nanoTime();
+        synchronized (applyLock) {
+            StagedConfig staged = stagedConfig.get();
+            if (staged != null && staged.revision == revision && stagedConfig.compareAndSet(staged, null)) {
+                if (revision <= cache.getRevision()) {
+                    logger.debug("忽略已应用的提交: revision={}", revision);
+                    return;
+                }
+                try {
+                    List<PlaceholderResolver.KeyChange> changes = swapCache(staged.configs, revision);
+                    long now = System.currentTimeMillis();
+                    metrics.recordCommitApply(now - commitTimestamp, now - staged.stagedAt);
+                    logger.info("配置已提交: revision={}, 提交延迟{}ms", revision, now - commitTimestamp);
+
+                    if (enableCache) {
+                        cache.saveToFile();
+                    }
+                    notifyConfigRefresh(cache.getResolvedSnapshot(), changes);
+                    onRevisionApplied(revision, staged.publishTimestamp, receivedAt, ConfigHealthCheck.Source.PUSH);
+                } catch (Exception e) {
+                    logger.error("提交暂存配置失败: revision={}", revision, e);
+                    onRevisionFailed(revision, e);
+                }
+                return;
+            }
+            if (revision <= cache.getRevision()) {
+                return;
+            }
+        }
+        // 没有收到暂存消息（如重连期间），在锁外拉取全量配置
+        logger.warn("未找到修订{}的暂存配置，重新拉取配置", revision);
+        metrics.recordMissedCommit();
+        refreshConfigUpTo(revision);
+    }
+
+    /**
+     * 重新拉取全量配置，并确保本地修订号不低于已知的修订号
+     */
+    private void refreshConfigUpTo(long revision) {
+        refreshConfig();
+        // 回滚状态下拉取到的仍是旧配置时不提高修订号，等待服务端发布该修订后再应用
+        synchronized (applyLock) {
+            if (cache.getRevision() < revision && cache.getRolledBackRevision() == 0L) {
+                cache.setRevision(revision);
+                if (enableCache) {
+                    cache.saveToFile();
+                }
+            }
+        }
+    }
+
+    /**
+     * 修订生效：记录传播延迟并上报服务端
+     *
+     * @param publishTimestamp 服务端发布时间，未知时为0
+     * @param receivedAt 收到配置时的 System.nanoTime()
+     * @param source 送达该修订的通道，成功计入该通道的健康状态
+     */
+    private void onRevisionApplied(long revision, long publishTimestamp, long receivedAt,
+                                   ConfigHealthCheck.Source source) {
+        healthCheck.recordSuccess(source);
+        metrics.recordReceiveToApplied(System.nanoTime() - receivedAt);
+        long publishToApplied = -1L;
+        if (publishTimestamp > 0) {
+            publishToApplied = Math.max(0L, System.currentTimeMillis() - publishTimestamp);
+            metrics.recordPublishToApplied(publishToApplied);
+        }
+        if (appliedReporter != null) {
+            appliedReporter.report(revision, true, publishToApplied, null);
+        }
+    }
+
+    /**
+     * 修订生效失败：上报服务端
+     */
+    private void onRevisionFailed(long revision, Exception e) {
+        if (appliedReporter != null) {
+            appliedReporter.report(revision, false, -1L, e.getMessage());
+        }
+    }
+
+    /**
+     * 应用完整配置
+     */
+    private void applyConfigs(Map<String, String> newConfigs, long revision) {
+        List<PlaceholderResolver.KeyChange> changes = swapCache(newConfigs, revision);
+        if (enableCache) {
+            cache.saveToFile();
+        }
+        notifyConfigRefresh(cache.getResolvedSnapshot(), changes);
+    }
+
+    /**
+     * 更新缓存并记录替换耗时
+     *
+     * @return 有效值发生变化的配置
+     */
+    private List<PlaceholderResolver.KeyChange> updateCache(Map<String, String> newConfigs) {
+        return updateCache(newConfigs, null);
+    }
+
+    /**
+     * 更新缓存及加密项并记录替换耗时
+     *
+     * @param encryptedKeys 新配置中的加密项，为空时沿用当前加密项
+     * @return 有效值发生变化的配置
+     */
+    private List<PlaceholderResolver.KeyChange> updateCache(Map<String, String> newConfigs, Set<String> encryptedKeys) {
+        long start = System.nanoTime();
+        List<PlaceholderResolver.KeyChange> changes = cache.updateConfigs(newConfigs, encryptedKeys);
+        metrics.recordCacheSwapLatency(System.nanoTime() - start);
+        metrics.recordConfigTimestamp(System.currentTimeMillis());
+        return changes;
+    }
+
+    /**
+     * 整体替换缓存并记录替换耗时
+     *
+     * @return 有效值发生变化的配置
+     */
+    private List<PlaceholderResolver.KeyChange> swapCache(Map<String, String> newConfigs, long revision) {
+        return swapCache(newConfigs, null, revision);
+    }
+
+    /**
+     * 整体替换缓存及加密项并记录替换耗时
+     *
+     * @param encryptedKeys 新配置中的加密项，为空时沿用当前加密项
+     * @return 有效值发生变化的配置
+     */
+    private List<PlaceholderResolver.KeyChange> swapCache(Map<String, String> newConfigs, Set<String> encryptedKeys,
+                                                          long revision) {
+        long start = System.nanoTime();
+        List<PlaceholderResolver.KeyChange> changes = cache.swap(newConfigs, encryptedKeys, revision);
+        metrics.recordCacheSwapLatency(System.nanoTime() - start);
+        metrics.recordConfigTimestamp(System.currentTimeMillis());
+        return changes;
+    }
+
+    /**
+     * 转换配置数据格式，子集同步时只保留订阅的配置
+     */
+    private Map<String, String> convertConfigData(Map<String, Object> configData) {
+        long start = System.nanoTime();
+        Map<String, String> result = new java.util.HashMap<>();
+        convertConfigDataRecursive(configData, "", result);
+        metrics.recordParseLatency(System.nanoTime() - start);
+        return result;
+    }
+    
+    /**
+     * 递归转换配置数据
+     */
+    private void convertConfigDataRecursive(Map<String, Object> configData, String prefix, Map<String, String> result) {
+        for (Map.Entry<String, Object> entry : configData.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            String fullKey = prefix.isEmpty() ? key : prefix + "." + key;
+            
+            if (value instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> nestedMap = (Map<String, Object>) value;
+                convertConfigDataRecursive(nestedMap, fullKey, result);
+            } else if (subscription == null || subscription.matches(fullKey)) {
+                result.put(fullKey, value != null ? value.toString() : "");
+            }
+        }
+    }
+
+    /**
+     * 初始化客户端
+     */
+    public void initialize() {
+        if (initialized.compareAndSet(false, true)) {
+            logger.info("初始化配置客户端: appCode={}, envCode={}", appCode, envCode);
+            long initStart = System.currentTimeMillis();
+            
+            try {
+                if (snapshotReader != null) {
+                    // 连接主机级配置代理，不加载本地缓存文件，也不访问服务器
+                    attachSharedSnapshot();
+                } else {
+                    // 加载本地缓存
+                    if (enableCache) {
+                        cache.loadFromFile();
+                        if (!cache.isEmpty()) {
+                            metrics.recordConfigTimestamp(cache.getLastUpdateMillis());
+                        }
+                    }
+
+                    // 如果缓存过期或不存在，从服务器拉取
+                    if (offlineFirst) {
+                        bootstrapOfflineFirst();
+                    } else if (cache.isExpired() || cache.isEmpty()) {
+                        refreshConfig();
+                    }
+                }
+
+                // 启动定时拉取
+                if (enablePolling) {
+                    poller.startPolling();
+                }
+                
+                // 初始化WebSocket推送通道（如果还没有初始化）
+                if (enableWebSocket && pushChannel == null && appId != null && instanceId != null) {
+                    this.pushChannel = createPushChannel();
+                }
+
+                long initDuration = System.currentTimeMillis() - initStart;
+                metrics.recordStartupDuration(initDuration);
+                logger.info("配置客户端初始化完成，耗时{}ms", initDuration);
+            } catch (Exception e) {
+                logger.error("配置客户端初始化失败", e);
+                throw new RuntimeException("配置客户端初始化失败", e);
+            }
+        }
+    }
+
+    /**
+     * 连接共享快照：代理尚未发布时最多等待 startupTimeout，之后按 snapshotCheckInterval 检查发布代数
+     */
+    private void attachSharedSnapshot() {
+        long deadline = System.currentTimeMillis() + startupTimeout;
+        while (!checkSharedSnapshot() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(Math.min(snapshotCheckInterval, 100L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (cache.isEmpty()) {
+            logger.warn("{}ms内未读取到共享配置快照，以空配置启动: {}", startupTimeout, snapshotReader.getFile());
+        }
+        snapshotCheckTask = runtime.scheduleWithFixedDelay(this::checkSharedSnapshot,
+            snapshotCheckInterval, snapshotCheckInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 检查共享快照的发布代数，变化时整体替换缓存并通知监听器和热更新
+     *
+     * @return 是否已读取到快照
+     */
+    private boolean checkSharedSnapshot() {
+        synchronized (applyLock) {
+            return applySharedSnapshot();
+        }
+    }
+
+    private boolean applySharedSnapshot() {
+        try {
+            MappedConfigSnapshot snapshot = snapshotReader.current();
+            if (snapshot == null) {
+                return false;
+            }
+            if (snapshot.getGeneration() == attachedGeneration) {
+                return true;
+            }
+            long receivedAt = System.nanoTime();
+            List<PlaceholderResolver.KeyChange> changes = swapCache(snapshot, snapshot.getEncryptedKeys(),
+                snapshot.getRevision());
+            attachedGeneration = snapshot.getGeneration();
+            notifyConfigRefresh(cache.getResolvedSnapshot(), changes);
+            onRevisionApplied(snapshot.getRevision(), snapshot.getPublishedAt(), receivedAt,
+                ConfigHealthCheck.Source.PULL);
+            logger.debug("已应用共享配置快照: generation={}, revision={}, size={}",
+                snapshot.getGeneration(), snapshot.getRevision(), snapshot.size());
+            return true;
+        } catch (Exception e) {
+            healthCheck.recordFailure(ConfigHealthCheck.Source.PULL, e);
+            logger.warn("读取共享配置快照失败: {}", snapshotReader.getFile(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 创建拉取和上报共用的HTTP客户端，所有请求都有连接、读取和获取连接的超时，避免阻塞调用线程
+     */
+    private static CloseableHttpClient createHttpClient(ConfigClientBuilder builder) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        int maxConnections = Math.max(1, builder.maxConnectionsPerRoute);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setMaxTotal(maxConnections);
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(builder.connectTimeout)
+                .setSocketTimeout(builder.readTimeout)
+                .setConnectionRequestTimeout(builder.connectionRequestTimeout)
+                .build())
+            .build();
+    }
+
+    /**
+     * 离线优先启动：本地缓存可用时立即使用，过期则在后台刷新；
+     * 没有本地缓存时最多等待 startupTimeout，超时或失败后以空配置继续启动，刷新和重试在后台继续
+     */
+    private void bootstrapOfflineFirst() {
+        boolean hasCache = !cache.isEmpty();
+        if (hasCache && !cache.isExpired()) {
+            return;
+        }
+        if (hasCache) {
+            metrics.recordStaleStartup();
+            logger.info("本地缓存已过期{}ms，先使用本地缓存启动，后台刷新配置", metrics.getStalenessMillis());
+        }
+
+        CompletableFuture<Void> refresh = CompletableFuture.runAsync(this::refreshConfig, runtime::executeBlocking);
+        refresh.whenComplete((result, error) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                logger.warn("启动时后台刷新配置失败，继续使用本地配置: {}", cause.getMessage());
+            }
+        });
+        if (hasCache) {
+            return;
+        }
+
+        try {
+            refresh.get(startupTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            metrics.recordStartupDeadlineExceeded();
+            logger.warn("{}ms内未能从服务器获取配置，以空配置启动，后台继续刷新", startupTimeout);
+        } catch (ExecutionException e) {
+            metrics.recordStartupDeadlineExceeded();
+            logger.warn("启动时获取配置失败，以空配置启动: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 获取单个配置项
+     */
+    public String getConfig(String key) {
+        return getConfig(key, null);
+    }
+
+    /**
+     * 获取单个配置项，支持默认值
+     */
+    public String getConfig(String key, String defaultValue) {
+        try {
+            // 1. 尝试从缓存获取
+            if (enableCache) {
+                String value = cache.get(key);
+                if (value != null) {
+                    metrics.recordCacheHit();
+                    return value;
+                }
+                metrics.recordCacheMiss();
+            }
+
+            // 2. 尝试从服务器拉取：子集同步时只按需拉取未订阅的这一项，已订阅而不存在的不再请求
+            if (subscription != null && enableCache) {
+                if (subscription.addKey(key)) {
+                    fetchOnDemand(Collections.singletonList(key), Collections.<String>emptyList());
+                    String value = cache.get(key);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return defaultValue != null ? defaultValue : fallback.getDefaultValue(key);
+            }
+            refreshConfig();
+            if (enableCache) {
+                String value = cache.get(key);
+                if (value != null) {
+                    return value;
+                }
+            }
+
+            // 3. 使用默认值
+            return defaultValue != null ? defaultValue : fallback.getDefaultValue(key);
+
+        } catch (Exception e) {
+            logger.error("获取配置失败: {}", key, e);
+            return defaultValue != null ? defaultValue : fallback.getDefaultValue(key);
+        }
+    }
+
+    /**
+     * 获取配置项并转换为指定类型，配置不存在或不能转换时返回 null
+     */
+    public <T> T getConfigValue(String key, Class<T> type) {
+        return getConfigValue(key, type, null);
+    }
+
+    /**
+     * 获取配置项并转换为指定类型，配置不存在或不能转换时返回默认值
+     */
+    public <T> T getConfigValue(String key, Class<T> type, T defaultValue) {
+        String value = getConfig(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        ConfigConverter.TypedConverter<T> typed = converter.forType(type);
+        T converted = typed.convertOrDefault(value, null);
+        if (converted == null) {
+            logger.warn("配置值无法转换为{}: {} = {}", type.getSimpleName(), key, value);
+            return defaultValue;
+        }
+        return converted;
+    }
+
+    /**
+     * 获取所有配置
+     */
+    public Map<String, String> getAllConfigs() {
+        try {
+            if (enableCache) {
+                Map<String, String> cachedConfigs = cache.getAllConfigs();
+                if (!cachedConfigs.isEmpty()) {
+                    return cachedConfigs;
+                }
+            }
+
+            refreshConfig();
+            return enableCache ? cache.getAllConfigs() : new HashMap<>();
+
+        } catch (Exception e) {
+            logger.error("获取所有配置失败", e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * 回滚到本地版本历史中的某个修订，不访问服务端，也不传输配置
+     * 回滚后服务端推送或拉取到不高于回滚前修订号的配置不会覆盖回滚结果，
+     * 服务端发布新的修订后自动结束回滚；回滚到回滚前的修订号即撤销回滚
+     *
+     * @return 是否已处于该修订；历史中没有该修订时返回false
+     */
+    public boolean rollbackTo(long revision) {
+        synchronized (applyLock) {
+            long start = System.nanoTime();
+            long previous = cache.getContentRevision();
+            List<PlaceholderResolver.KeyChange> changes = cache.rollbackTo(revision);
+            if (changes == null) {
+                logger.warn("本地版本历史中没有修订{}，无法回滚，可回滚的修订: {}", revision, cache.getHistoryRevisions());
+                return false;
+            }
+            if (revision == previous) {
+                return true;
+            }
+            metrics.recordCacheSwapLatency(System.nanoTime() - start);
+            logger.warn("配置已在本地回滚: 修订{} -> {}，变化{}项", previous, revision, changes.size());
+            if (enableCache) {
+                cache.saveToFile();
+            }
+            notifyConfigRefresh(cache.getResolvedSnapshot(), changes);
+            return true;
+        }
+    }
+
+    /**
+     * 本地版本历史中可回滚的修订号，最近被替换的在前
+     */
+    public List<Long> getHistoryRevisions() {
+        return cache.getHistoryRevisions();
+    }
+
+    /**
+     * 刷新配置
+     * 在调用方线程只请求一次；暂时性失败时在后台按退避和重试预算重试，调用方不等待。
+     * 熔断器打开期间直接抛出 CircuitOpenException，调用方继续使用本地缓存
+     */
+    public void refreshConfig() {
+        if (snapshotReader != null) {
+            checkSharedSnapshot();
+            return;
+        }
+        try {
+            retry.execute(refreshTask);
+        } catch (RuntimeException e) {
+            if (retry.shouldRetry(e)) {
+                scheduleRefreshRetry(e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 后台重试刷新，同一时间只保留一条重试链
+     */
+    private void scheduleRefreshRetry(Exception cause) {
+        if (!refreshRetryPending.compareAndSet(false, true)) {
+            return;
+        }
+        retry.retryAsync(refreshTask, cause).whenComplete((result, error) -> {
+            refreshRetryPending.set(false);
+            if (error != null) {
+                logger.warn("后台重试刷新配置失败: {}", error.getMessage());
+            } else {
+                logger.info("后台重试刷新配置成功");
+            }
+        });
+    }
+
+    /**
+     * 拉取并应用一次配置
+     */
+    private Void doRefresh() throws Exception {
+        Object event = ConfigEvents.beginRefresh();
+        try {
+            metrics.recordPull();
+            
+            // 从服务器拉取配置
+            long start = System.nanoTime();
+            FetchResult result = fetchConfigsFromServer();
+            metrics.recordPullLatency(java.util.concurrent.TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            Map<String, String> newConfigs = result.configs;
+            
+            synchronized (applyLock) {
+                long currentRevision = cache.getRevision();
+                if (result.revision > 0 && result.revision < currentRevision) {
+                    // 拉取期间已经通过推送应用了更新的修订，丢弃较旧的拉取结果
+                    logger.debug("拉取到的修订{}低于本地修订{}，忽略", result.revision, currentRevision);
+                    metrics.recordPullSuccess();
+                    healthCheck.recordSuccess(ConfigHealthCheck.Source.PULL);
+                    ConfigEvents.commitRefresh(event, currentRevision, newConfigs.size(), result.bytes, true);
+                    return null;
+                }
+
+                // 服务端返回了更新的发布修订号时一并记录
+                boolean revisionAdvanced = result.revision > currentRevision;
+                
+                if (!revisionAdvanced && cache.getRolledBackRevision() != 0L) {
+                    // 本地已回滚，服务端仍是回滚前的修订时保留回滚结果
+                    logger.debug("本地已回滚到修订{}，忽略服务端修订{}的配置", cache.getRolledBackRevision(), result.revision);
+                    metrics.recordPullSuccess();
+                    healthCheck.recordSuccess(ConfigHealthCheck.Source.PULL);
+                    ConfigEvents.commitRefresh(event, currentRevision, newConfigs.size(), result.bytes, true);
+                    return null;
+                }
+                
+                // 更新缓存，加密项以服务端元数据为准，与配置在同一次替换中生效
+                List<PlaceholderResolver.KeyChange> changes;
+                if (enableCache) {
+                    changes = updateCache(newConfigs, result.encryptedKeys);
+                } else {
+                    if (result.encryptedKeys != null) {
+                        cache.setEncryptedKeys(result.encryptedKeys);
+                    }
+                    changes = Collections.<PlaceholderResolver.KeyChange>emptyList();
+                }
+                if (revisionAdvanced) {
+                    cache.setRevision(result.revision);
+                }
+                if (enableCache) {
+                    cache.saveToFile();
+                }
+
+                // 通知监听器
+                notifyConfigRefresh(enableCache ? cache.getResolvedSnapshot() : newConfigs, changes);
+                
+                if (revisionAdvanced) {
+                    onRevisionApplied(result.revision, result.publishedAt, start, ConfigHealthCheck.Source.PULL);
+                }
+            }
+            
+            metrics.recordPullSuccess();
+            healthCheck.recordSuccess(ConfigHealthCheck.Source.PULL);
+            metrics.recordConfigTimestamp(System.currentTimeMillis());
+            logger.debug("配置刷新成功，共{}个配置项", newConfigs.size());
+            ConfigEvents.commitRefresh(event, cache.getRevision(), newConfigs.size(), result.bytes, true);
+            
+            return null;
+        } catch (Exception e) {
+            metrics.recordPullError();
+            if (retry.shouldRetry(e)) {
+                healthCheck.recordFailure(ConfigHealthCheck.Source.PULL, e);
+            } else {
+                // 服务端给出了明确的非暂时性响应，说明服务端可达
+                healthCheck.recordSuccess(ConfigHealthCheck.Source.PULL);
+            }
+            ConfigEvents.commitRefresh(event, cache.getRevision(), 0, 0L, false);
+            throw e;
+        }
+    }
+
+    /**
+     * 从服务器拉取配置
+     */
+    private FetchResult fetchConfigsFromServer() throws Exception {
+        String url = String.format("%s/api/client/configs/%s/%s", serverUrl, appCode, envCode);
+        
+        // 创建HTTP请求，子集同步时只请求订阅的配置并登记子集
+        org.apache.http.client.methods.HttpRequestBase request = subscription != null
+            ? subsetRequest(subscription.getKeys(), subscription.getPrefixes(), false)
+            : new org.apache.http.client.methods.HttpGet(url);
+        
+        // 添加认证头
+        security.addAuthHeaders(request);
+        
+        // 执行请求
+        try (org.apache.http.client.methods.CloseableHttpResponse response = 
+                httpClient.execute(request)) {
+            applyPollIntervalHint(response);
+            
+            if (response.getStatusLine().getStatusCode() == 200) {
+                org.apache.http.HttpEntity entity = response.getEntity();
+                byte[] body = org.apache.http.util.EntityUtils.toByteArray(entity);
+                org.apache.http.entity.ContentType contentType = org.apache.http.entity.ContentType.get(entity);
+                java.nio.charset.Charset charset = contentType != null && contentType.getCharset() != null
+                    ? contentType.getCharset() : java.nio.charset.StandardCharsets.UTF_8;
+                ConfigResponse parsed = parseResponse(new String(body, charset), response);
+                return new FetchResult(parsed.configs,
+                    parseLongHeader(response, "X-Config-Revision"),
+                    parseLongHeader(response, "X-Config-Published-At"),
+                    body.length,
+                    parsed.encryptedKeys);
+            } else {
+                throw new ConfigServerException(response.getStatusLine().getStatusCode());
+            }
+        }
+    }
+
+    /**
+     * 构建拉取配置子集的请求
+     *
+     * @param additive 为true时服务端把请求的配置并入已登记的子集，否则以请求的子集替换
+     */
+    private org.apache.http.client.methods.HttpPost subsetRequest(Collection<String> keys, Collection<String> prefixes,
+                                                                  boolean additive) throws Exception {
+        String url = String.format("%s/api/client/configs/%s/%s/subset", serverUrl, appCode, envCode);
+        Map<String, Object> body = new HashMap<>();
+        body.put("instanceId", clientInstanceId);
+        body.put("keys", keys);
+        body.put("prefixes", prefixes);
+        body.put("additive", additive);
+        org.apache.http.client.methods.HttpPost request = new org.apache.http.client.methods.HttpPost(url);
+        request.setEntity(new org.apache.http.entity.StringEntity(objectMapper.writeValueAsString(body),
+            org.apache.http.entity.ContentType.APPLICATION_JSON));
+        return request;
+    }
+
+    /**
+     * 按需拉取尚未同步的配置并并入缓存，不改变修订号，也不通知监听器。
+     * 经过熔断器执行，失败时只记录日志，调用方使用默认值
+     */
+    private void fetchOnDemand(Collection<String> keys, Collection<String> prefixes) {
+        try {
+            retry.execute(() -> {
+                org.apache.http.client.methods.HttpPost request = subsetRequest(keys, prefixes, true);
+                security.addAuthHeaders(request);
+                try (org.apache.http.client.methods.CloseableHttpResponse response = httpClient.execute(request)) {
+                    int status = response.getStatusLine().getStatusCode();
+                    if (status != 200) {
+                        throw new ConfigServerException(status);
+                    }
+                    String body = org.apache.http.util.EntityUtils.toString(response.getEntity(),
+                        java.nio.charset.StandardCharsets.UTF_8);
+                    ConfigResponse parsed = parseResponse(body, response);
+                    Map<String, String> configs = parsed.configs;
+                    cache.merge(configs, parsed.encryptedKeys);
+                    logger.debug("按需拉取配置: keys={}, prefixes={}, 返回{}个配置项", keys, prefixes, configs.size());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("按需拉取配置失败: keys={}, prefixes={}, {}", keys, prefixes, e.getMessage());
+        }
+    }
+
+    /**
+     * 查询服务端最新发布的修订号，只请求响应头，不拉取配置
+     * 经过熔断器执行，熔断器打开时抛出 CircuitOpenException
+     */
+    public long fetchServerRevision() {
+        return retry.execute(() -> {
+            String url = String.format("%s/api/client/revision/%s/%s", serverUrl, appCode, envCode);
+            org.apache.http.client.methods.HttpHead request = new org.apache.http.client.methods.HttpHead(url);
+            security.addAuthHeaders(request);
+            try (org.apache.http.client.methods.CloseableHttpResponse response = httpClient.execute(request)) {
+                applyPollIntervalHint(response);
+                int status = response.getStatusLine().getStatusCode();
+                if (status != 200) {
+                    throw new ConfigServerException(status);
+                }
+                healthCheck.recordSuccess(ConfigHealthCheck.Source.PULL);
+                return parseLongHeader(response, "X-Config-Revision");
+            } catch (Exception e) {
+                if (retry.shouldRetry(e)) {
+                    healthCheck.recordFailure(ConfigHealthCheck.Source.PULL, e);
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * 读取服务端的拉取间隔提示：X-Config-Poll-Interval（毫秒），
+     * 429/503 响应的 Retry-After（秒）作为下限
+     */
+    private void applyPollIntervalHint(org.apache.http.HttpResponse response) {
+        long hint = parseLongHeader(response, "X-Config-Poll-Interval");
+        int status = response.getStatusLine().getStatusCode();
+        if (status == 429 || status == 503) {
+            hint = Math.max(hint, parseLongHeader(response, "Retry-After") * 1000L);
+        }
+        poller.setServerIntervalHint(hint);
+    }
+
+    /**
+     * 读取旧版服务端在响应头中标记为加密的配置键（X-Config-Encrypted-Keys，逗号分隔、URL编码），没有该响应头时返回null
+     */
+    private Set<String> parseEncryptedKeysHeader(org.apache.http.HttpResponse response) throws Exception {
+        org.apache.http.Header header = response.getFirstHeader("X-Config-Encrypted-Keys");
+        if (header == null) {
+            return null;
+        }
+        Set<String> keys = new HashSet<>();
+        for (String key : header.getValue().split(",")) {
+            if (!key.trim().isEmpty()) {
+                keys.add(java.net.URLDecoder.decode(key.trim(), "UTF-8"));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 读取数值响应头，不存在或格式错误时返回0
+     */
+    private long parseLongHeader(org.apache.http.HttpResponse response, String name) {
+        org.apache.http.Header header = response.getFirstHeader(name);
+        if (header == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(header.getValue().trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * 解析服务器响应
+     */
+    @SuppressWarnings("unchecked")
+    private ConfigResponse parseResponse(String responseBody, org.apache.http.HttpResponse httpResponse) throws Exception {
+        // 解析JSON响应
+        long start = System.nanoTime();
+        Map<String, Object> response = objectMapper.readValue(responseBody, Map.class);
+        metrics.recordParseLatency(System.nanoTime() - start);
+        
+        if (response.containsKey("data")) {
+            Map<String, String> configs = (Map<String, String>) response.get("data");
+            // 加密项列表在响应体中，旧版服务端放在响应头中
+            Object encryptedKeys = response.get("encryptedKeys");
+            Set<String> keys = encryptedKeys instanceof Collection
+                ? new HashSet<>((Collection<String>) encryptedKeys) : parseEncryptedKeysHeader(httpResponse);
+            return new ConfigResponse(configs, keys);
+        } else {
+            throw new RuntimeException("响应格式错误");
+        }
+    }
+
+    /**
+     * 添加配置变更监听器
+     */
+    public void addConfigChangeListener(ConfigChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除配置变更监听器
+     */
+    public void removeConfigChangeListener(ConfigChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 通知配置变更
+     */
+    void notifyConfigChange(String key, String oldValue, String newValue) {
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.onConfigChange(key, oldValue, newValue);
+            } catch (Exception e) {
+                logger.error("配置变更监听器执行失败", e);
+            }
+        }
+    }
+
+    /**
+     * 通知配置刷新：先按键通知有效值的变化，再通知整体刷新，最后触发热更新
+     *
+     * @param newConfigs 解析占位符后的新配置，加密项为密文
+     * @param changes 有效值发生变化的配置，包括因引用的配置变化而变化的配置
+     */
+    void notifyConfigRefresh(Map<String, String> newConfigs, List<PlaceholderResolver.KeyChange> changes) {
+        Object event = ConfigEvents.beginListenerDispatch();
+        long start = System.nanoTime();
+        if (!listeners.isEmpty()) {
+            for (PlaceholderResolver.KeyChange change : changes) {
+                notifyConfigChange(change.getKey(),
+                    cache.decryptValue(change.getKey(), change.getOldValue()),
+                    cache.decryptValue(change.getKey(), change.getNewValue()));
+            }
+        }
+        // 加密项在监听器读取时才解密
+        Map<String, String> view = cache.decryptingView(newConfigs);
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.onConfigRefresh(view);
+            } catch (Exception e) {
+                logger.error("配置刷新监听器执行失败", e);
+            }
+        }
+        metrics.recordListenerDispatchLatency(System.nanoTime() - start);
+        ConfigEvents.commitListenerDispatch(event, listeners.size(), newConfigs.size());
+        
+        // 触发热更新处理
+        triggerHotUpdate(changes);
+    }
+    
+    /**
+     * 触发热更新处理
+     */
+    private void triggerHotUpdate(List<PlaceholderResolver.KeyChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> changedKeys = new HashSet<>();
+            for (PlaceholderResolver.KeyChange change : changes) {
+                changedKeys.add(change.getKey());
+            }
+            logger.debug("配置刷新，触发热更新处理，共{}个配置项变化", changedKeys.size());
+            if (!boundConfigs.isEmpty()) {
+                Map<String, String> configs = cache.getAllConfigs();
+                for (BoundConfig<?> bound : boundConfigs) {
+                    bound.onConfigsChanged(changedKeys, configs);
+                }
+            }
+            hotUpdateManager.applyChanges(changedKeys);
+        } catch (Exception e) {
+            logger.error("热更新处理失败", e);
+        }
+    }
+
+    /**
+     * 启动客户端
+     */
+    public void start() {
+        if (stopped.get()) {
+            throw new IllegalStateException("配置客户端已停止，不能再次启动");
+        }
+        if (!initialized.get()) {
+            initialize();
+        }
+        // running 只由 start 设置，初始化时已启动的拉取不影响监听、探测和上报的启动
+        if (running.compareAndSet(false, true)) {
+            // 启动WebSocket客户端
+            if (enableWebSocket && pushChannel != null) {
+                pushChannel.connect();
+                logger.info("WebSocket客户端已连接");
+            }
+            
+            // 启动SSE监听
+            if (enableWatch && watcher != null) {
+                watcher.start(cache.getRevision());
+            }
+            
+            // 启动轮询器
+            if (enablePolling) {
+                poller.startPolling();
+            }
+            
+            // 启动健康探测
+            if (healthProbeInterval > 0) {
+                healthCheck.startProbe(healthProbeInterval);
+            }
+            
+            // 启动配置读取上报
+            if (accessReporter != null) {
+                accessReporter.start(keyAccessReportInterval);
+            }
+            
+            logger.info("配置客户端启动成功");
+        }
+    }
+
+    /**
+     * 停止客户端
+     * 依次停止推送连接、拉取、健康探测、重试、热更新和生效上报，关闭HTTP客户端，最后释放共享运行时。
+     * 只初始化未启动的客户端同样需要调用；停止后不能再次启动
+     */
+    public void stop() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        running.set(false);
+        
+        // 停止WebSocket客户端
+        if (pushChannel != null) {
+            pushChannel.disconnect();
+            logger.info("WebSocket客户端已断开");
+        }
+        
+        // 停止SSE监听
+        if (watcher != null) {
+            watcher.stop();
+        }
+        
+        // 停止轮询器和定时任务
+        poller.stopPolling();
+        if (snapshotCheckTask != null) {
+            snapshotCheckTask.cancel(false);
+        }
+        if (snapshotReader != null) {
+            try {
+                snapshotReader.close();
+            } catch (Exception e) {
+                logger.warn("关闭共享配置快照失败", e);
+            }
+        }
+        healthCheck.stopProbe();
+        retry.shutdown();
+        hotUpdateManager.shutdown();
+        if (appliedReporter != null) {
+            appliedReporter.shutdown();
+        }
+        if (accessReporter != null) {
+            accessReporter.shutdown();
+        }
+        
+        try {
+            httpClient.close();
+        } catch (Exception e) {
+            logger.error("关闭HTTP客户端失败", e);
+        }
+        
+        runtime.release();
+        logger.info("配置客户端已停止");
+    }
+
+    /**
+     * 检查客户端是否健康
+     */
+    public boolean isHealthy() {
+        return healthCheck.isHealthy();
+    }
+    
+    // ==================== 热更新相关方法 ====================
+    
+    /**
+     * 启用对象的配置热更新
+     * 使用@ConfigValue注解标记的字段将自动更新
+     * 
+     * @param target 目标对象
+     */
+    public void enableHotUpdate(Object target) {
+        if (hotUpdateProcessor != null) {
+            hotUpdateProcessor.processObject(target);
+            logger.info("已启用对象热更新: {}", target.getClass().getSimpleName());
+        }
+    }
+    
+    /**
+     * 手动绑定配置字段到对象属性
+     * 
+     * @param configKey 配置键
+     * @param target 目标对象
+     * @param fieldName 字段名
+     */
+    public void bindConfigField(String configKey, Object target, String fieldName) {
+        if (hotUpdateManager != null) {
+            hotUpdateManager.bindConfigField(configKey, target, fieldName);
+        }
+    }
+    
+    /**
+     * 手动绑定配置到方法调用
+     * 
+     * @param configKey 配置键
+     * @param target 目标对象
+     * @param methodName 方法名
+     * @param parameterTypes 参数类型
+     */
+    public void bindConfigMethod(String configKey, Object target, String methodName, Class<?>... parameterTypes) {
+        if (hotUpdateManager != null) {
+            hotUpdateManager.bindConfigMethod(configKey, target, methodName, parameterTypes);
+        }
+    }
+    
+    /**
+     * 把配置前缀下的子树绑定为一个对象
+     * 前缀下的配置变化时构建新对象并整体替换，返回的 Supplier 每次 get 得到一份一致的配置；
+     * 对象视为只读，不应修改
+     *
+     * @param prefix 配置前缀，如 "db" 绑定 db.host、db.port 等
+     * @param type 有无参构造函数的类，属性通过 setter 或字段写入
+     */
+    public <T> Supplier<T> bind(String prefix, Class<T> type) {
+        // 子集同步时把整个前缀加入订阅
+        if (subscription != null && subscription.addPrefix(prefix + ".")) {
+            fetchOnDemand(Collections.<String>emptyList(), Collections.singletonList(prefix + "."));
+        }
+        Map<String, String> snapshot = cache.getResolvedSnapshot();
+        BoundConfig<T> bound = new BoundConfig<>(binder, prefix, type, cache.getAllConfigs());
+        boundConfigs.add(bound);
+        // 构建期间配置发生了替换时补一次绑定，避免错过这次变化
+        if (cache.getResolvedSnapshot() != snapshot) {
+            bound.rebind(cache.getAllConfigs());
+        }
+        return bound;
+    }
+
+    /**
+     * 获取热更新管理器
+     */
+    public ConfigHotUpdateManager getHotUpdateManager() {
+        return hotUpdateManager;
+    }
+    
+    /**
+     * 获取类型转换器，可注册自定义类型；热更新和类型化读取共用
+     */
+    public ConfigConverter getConverter() {
+        return converter;
+    }
+    
+    /**
+     * 获取热更新处理器
+     */
+    public ConfigHotUpdateProcessor getHotUpdateProcessor() {
+        return hotUpdateProcessor;
+    }
+    
+    /**
+     * 获取WebSocket推送通道，未启用或没有 config-client-websocket 模块时为null
+     */
+    public ConfigPushChannel getPushChannel() {
+        return pushChannel;
+    }
+    
+    /**
+     * 获取SSE配置监听器
+     */
+    public SseConfigWatcher getWatcher() {
+        return watcher;
+    }
+
+
+
+    // Getter方法
+    public String getServerUrl() { return serverUrl; }
+    public String getAppCode() { return appCode; }
+    public String getEnvCode() { return envCode; }
+    public ConfigCache getCache() { return cache; }
+    public ConfigPoller getPoller() { return poller; }
+    public boolean isPollingEnabled() { return enablePolling; }
+    public ConfigRetry getRetry() { return retry; }
+    public ConfigClientRuntime getRuntime() { return runtime; }
+    public ConfigMetrics getMetrics() { return metrics; }
+    public KeySubscription getSubscription() { return subscription; }
+    
+    /**
+     * 获取监控指标
+     */
+    public Map<String, Object> getMetricsData() {
+        return metrics.getMetrics();
+    }
+
+    /**
+     * 获取OpenMetrics导出器，样本带 app、env、instance 标签，
+     * 可由应用挂到自己的HTTP端点供Prometheus抓取
+     */
+    public OpenMetricsExporter getMetricsExporter() {
+        return metricsExporter;
+    }
+
+    /**
+     * 暂存的配置
+     */
+    private static class StagedConfig {
+        final long revision;
+        final long publishTimestamp;
+        final Map<String, String> configs;
+        final long stagedAt;
+
+        StagedConfig(long revision, long publishTimestamp, Map<String, String> configs) {
+            this.revision = revision;
+            this.publishTimestamp = publishTimestamp;
+            this.configs = configs;
+            this.stagedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 解析后的拉取响应
+     */
+    private static class ConfigResponse {
+        final Map<String, String> configs;
+        // 服务端标记为加密的配置键，服务端未返回时为空
+        final Set<String> encryptedKeys;
+
+        ConfigResponse(Map<String, String> configs, Set<String> encryptedKeys) {
+            this.configs = configs;
+            this.encryptedKeys = encryptedKeys;
+        }
+    }
+
+    /**
+     * 拉取结果
+     */
+    private static class FetchResult {
+        final Map<String, String> configs;
+        final long revision;
+        final long publishedAt;
+        final long bytes;
+        // 服务端标记为加密的配置键，服务端未返回时为空
+        final Set<String> encryptedKeys;
+
+        FetchResult(Map<String, String> configs, long revision, long publishedAt, long bytes,
+                    Set<String> encryptedKeys) {
+            this.configs = configs;
+            this.revision = revision;
+            this.publishedAt = publishedAt;
+            this.bytes = bytes;
+            this.encryptedKeys = encryptedKeys;
+        }
+    }
+
+    /**
+     * 配置客户端构建器
+     */
+    public static class ConfigClientBuilder {
+        private String serverUrl;
+        private String appCode;
+        private String envCode;
+        private String token;
+        private long pollInterval = 30000; // 30秒
+        private String cacheFile;
+        private boolean enablePolling = true;
+        private boolean enableCache = true;
+        private long cacheExpireTime = 300000; // 5分钟
+        private boolean enableWebSocket = false;
+        private Long appId;
+        private String instanceId;
+        private String instanceIp;
+        private String clientVersion = "1.0.0";
+        private boolean enableWatch = false;
+        private int watchReadTimeout = 90000; // 90秒，需大于服务端保活间隔
+        private boolean reportApplied = true;
+        private int circuitFailureThreshold = 5;
+        private long circuitOpenDuration = 30000; // 30秒
+        private long healthProbeInterval = 0; // 默认不探测
+        private long healthProbeTimeout = 2000; // 2秒
+        private boolean offlineFirst = false;
+        private double pollJitter = 0.1;
+        private long adaptiveMinInterval = 0;
+        private long adaptiveMaxInterval = 0;
+        private long startupTimeout = 3000; // 3秒
+        private int connectTimeout = 5000; // 5秒
+        private int readTimeout = 10000; // 10秒
+        private int connectionRequestTimeout = 3000; // 3秒
+        private int maxConnectionsPerRoute = 8;
+        private boolean resolvePlaceholders = false;
+        private boolean compactStorage = false;
+        private int historySize = 0;
+        private String sharedSnapshot;
+        private long sharedSnapshotCheckInterval = 200; // 200毫秒
+        private boolean subsetSync = false;
+        private Set<String> subscribedKeys = new HashSet<>();
+        private Set<String> subscribedPrefixes = new java.util.LinkedHashSet<>();
+        private int maxSubscribedKeys = 10000;
+        private boolean trackKeyAccess = false;
+        private int keyAccessSampleRate = 16;
+        private long keyAccessReportInterval = 300000; // 5分钟
+
+        public ConfigClientBuilder serverUrl(String serverUrl) {
+            this.serverUrl = serverUrl;
+            return this;
+        }
+
+        public ConfigClientBuilder appCode(String appCode) {
+            this.appCode = appCode;
+            return this;
+        }
+
+        public ConfigClientBuilder envCode(String envCode) {
+            this.envCode = envCode;
+            return this;
+        }
+
+        public ConfigClientBuilder token(String token) {
+            this.token = token;
+            return this;
+        }
+
+        public ConfigClientBuilder pollInterval(long pollInterval) {
+            this.pollInterval = pollInterval;
+            return this;
+        }
+
+        public ConfigClientBuilder cacheFile(String cacheFile) {
+            this.cacheFile = cacheFile;
+            return this;
+        }
+
+        public ConfigClientBuilder enablePolling(boolean enablePolling) {
+            this.enablePolling = enablePolling;
+            return this;
+        }
+
+        public ConfigClientBuilder enableCache(boolean enableCache) {
+            this.enableCache = enableCache;
+            return this;
+        }
+
+        public ConfigClientBuilder cacheExpireTime(long cacheExpireTime) {
+            this.cacheExpireTime = cacheExpireTime;
+            return this;
+        }
+        
+        /**
+         * 是否接收WebSocket推送，默认关闭；需要引入 config-client-websocket 模块
+         */
+        public ConfigClientBuilder enableWebSocket(boolean enableWebSocket) {
+            this.enableWebSocket = enableWebSocket;
+            return this;
+        }
+        
+        public ConfigClientBuilder appId(Long appId) {
+            this.appId = appId;
+            return this;
+        }
+        
+        public ConfigClientBuilder instanceId(String instanceId) {
+            this.instanceId = instanceId;
+            return this;
+        }
+        
+        public ConfigClientBuilder instanceIp(String instanceIp) {
+            this.instanceIp = instanceIp;
+            return this;
+        }
+        
+        public ConfigClientBuilder clientVersion(String clientVersion) {
+            this.clientVersion = clientVersion;
+            return this;
+        }
+
+        /**
+         * 启用SSE监听模式，通过 /api/client/watch 接收配置修订和增量
+         */
+        public ConfigClientBuilder enableWatch(boolean enableWatch) {
+            this.enableWatch = enableWatch;
+            return this;
+        }
+        
+        public ConfigClientBuilder watchReadTimeout(int watchReadTimeout) {
+            this.watchReadTimeout = watchReadTimeout;
+            return this;
+        }
+
+        /**
+         * 是否向服务端上报配置生效结果和传播延迟
+         */
+        public ConfigClientBuilder reportApplied(boolean reportApplied) {
+            this.reportApplied = reportApplied;
+            return this;
+        }
+
+        /**
+         * 熔断器打开的连续失败次数
+         */
+        public ConfigClientBuilder circuitFailureThreshold(int circuitFailureThreshold) {
+            this.circuitFailureThreshold = circuitFailureThreshold;
+            return this;
+        }
+
+        /**
+         * 熔断器打开后到允许探测的时间（毫秒）
+         */
+        public ConfigClientBuilder circuitOpenDuration(long circuitOpenDuration) {
+            this.circuitOpenDuration = circuitOpenDuration;
+            return this;
+        }
+
+        /**
+         * 健康探测间隔（毫秒），0表示不探测，只由拉取和推送结果更新健康状态
+         */
+        public ConfigClientBuilder healthProbeInterval(long healthProbeInterval) {
+            this.healthProbeInterval = healthProbeInterval;
+            return this;
+        }
+
+        /**
+         * 健康探测请求的超时时间（毫秒）
+         */
+        public ConfigClientBuilder healthProbeTimeout(long healthProbeTimeout) {
+            this.healthProbeTimeout = healthProbeTimeout;
+            return this;
+        }
+
+        /**
+         * 拉取间隔的随机抖动比例，默认0.1即 ±10%
+         */
+        public ConfigClientBuilder pollJitter(double pollJitter) {
+            this.pollJitter = pollJitter;
+            return this;
+        }
+
+        /**
+         * 自适应拉取：检测到变更后按最小间隔拉取，无变化时逐次翻倍直到最大间隔（毫秒）
+         */
+        public ConfigClientBuilder adaptivePolling(long minInterval, long maxInterval) {
+            this.adaptiveMinInterval = minInterval;
+            this.adaptiveMaxInterval = maxInterval;
+            return this;
+        }
+
+        /**
+         * 离线优先启动：有本地缓存时直接使用并在后台刷新，启动不依赖配置服务器
+         */
+        public ConfigClientBuilder offlineFirst(boolean offlineFirst) {
+            this.offlineFirst = offlineFirst;
+            return this;
+        }
+
+        /**
+         * 离线优先启动且没有本地缓存时，等待服务器返回配置的最长时间（毫秒）
+         */
+        public ConfigClientBuilder startupTimeout(long startupTimeout) {
+            this.startupTimeout = startupTimeout;
+            return this;
+        }
+
+        /**
+         * 与服务器建立连接的超时时间（毫秒）
+         */
+        public ConfigClientBuilder connectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * 拉取、上报等请求等待响应数据的超时时间（毫秒），不影响SSE长连接
+         */
+        public ConfigClientBuilder readTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * 从连接池获取连接的超时时间（毫秒）
+         */
+        public ConfigClientBuilder connectionRequestTimeout(int connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+            return this;
+        }
+
+        /**
+         * 到配置服务器的最大连接数，拉取、按需拉取和各类上报共用
+         */
+        public ConfigClientBuilder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * 是否解析配置值中的 ${key:默认值} 占位符，默认关闭
+         * 开启后每次更新都要维护键之间的依赖图并重新解析受影响的键
+         */
+        public ConfigClientBuilder resolvePlaceholders(boolean resolvePlaceholders) {
+            this.resolvePlaceholders = resolvePlaceholders;
+            return this;
+        }
+
+        /**
+         * 是否以紧凑形式缓存配置，默认关闭
+         * 适合配置项很多且值大量重复的应用：值以 UTF-8 字节保存并按内容去重，读取时解码；
+         * 开启后 getAllConfigs() 返回只读视图
+         */
+        public ConfigClientBuilder compactStorage(boolean compactStorage) {
+            this.compactStorage = compactStorage;
+            return this;
+        }
+
+        /**
+         * 本地保留的配置版本历史份数，默认0即不保留；需要本地回滚时开启，建议不超过几份
+         * 历史用于 rollbackTo() 及服务端的 ROLLBACK_TO 推送，只保存快照引用，
+         * 缓存文件旁的 .history 文件中按增量保存
+         */
+        public ConfigClientBuilder historySize(int historySize) {
+            this.historySize = historySize;
+            return this;
+        }
+
+        /**
+         * 只读连接主机级配置代理发布的共享快照文件（见 ConfigAgent），不再自行拉取、推送和持久化配置
+         */
+        public ConfigClientBuilder sharedSnapshot(String sharedSnapshot) {
+            this.sharedSnapshot = sharedSnapshot;
+            return this;
+        }
+
+        /**
+         * 检查共享快照发布代数的间隔（毫秒），只读取文件头
+         */
+        public ConfigClientBuilder sharedSnapshotCheckInterval(long sharedSnapshotCheckInterval) {
+            this.sharedSnapshotCheckInterval = sharedSnapshotCheckInterval;
+            return this;
+        }
+
+        /**
+         * 子集同步：只拉取和接收订阅的配置，默认关闭。
+         * 未订阅的配置在第一次通过 getConfig 读取时按需拉取并加入订阅，bind 的前缀自动加入订阅；
+         * 按需加入的配置键随JSON缓存文件保存。其他方式（如Spring环境、getAllConfigs）只能读到已订阅的配置
+         */
+        public ConfigClientBuilder subsetSync(boolean subsetSync) {
+            this.subsetSync = subsetSync;
+            return this;
+        }
+
+        /**
+         * 声明订阅的配置键，并开启子集同步
+         */
+        public ConfigClientBuilder subscribeKeys(String... keys) {
+            this.subscribedKeys.addAll(java.util.Arrays.asList(keys));
+            this.subsetSync = true;
+            return this;
+        }
+
+        /**
+         * 声明订阅的键前缀（按字符串前缀匹配，如 "db."），并开启子集同步
+         */
+        public ConfigClientBuilder subscribePrefixes(String... prefixes) {
+            this.subscribedPrefixes.addAll(java.util.Arrays.asList(prefixes));
+            this.subsetSync = true;
+            return this;
+        }
+
+        /**
+         * 子集同步时按需加入订阅的配置键上限，超过后未订阅的配置直接使用默认值
+         */
+        public ConfigClientBuilder maxSubscribedKeys(int maxSubscribedKeys) {
+            this.maxSubscribedKeys = maxSubscribedKeys;
+            return this;
+        }
+
+        /**
+         * 统计每个配置键的读取并定时上报服务端，默认关闭；服务端据此报告长期无人读取的配置
+         */
+        public ConfigClientBuilder trackKeyAccess(boolean trackKeyAccess) {
+            this.trackKeyAccess = trackKeyAccess;
+            return this;
+        }
+
+        /**
+         * 读取统计的抽样间隔，每个上报周期内的第一次读取之外每 N 次读取抽样计数一次
+         */
+        public ConfigClientBuilder keyAccessSampleRate(int keyAccessSampleRate) {
+            this.keyAccessSampleRate = keyAccessSampleRate;
+            return this;
+        }
+
+        /**
+         * 读取统计的上报间隔（毫秒）
+         */
+        public ConfigClientBuilder keyAccessReportInterval(long keyAccessReportInterval) {
+            this.keyAccessReportInterval = keyAccessReportInterval;
+            return this;
+        }
+
+        public ConfigClient build() {
+            if (serverUrl == null || appCode == null || envCode == null) {
+                throw new IllegalArgumentException("serverUrl, appCode, envCode 不能为空");
+            }
+            
+            if (enableWebSocket && (appId == null || instanceId == null)) {
+                throw new IllegalArgumentException("启用WebSocket时，appId和instanceId不能为空");
+            }
+            
+            return new ConfigClient(this);
+        }
+    }
+} 
\ No newline at end of file
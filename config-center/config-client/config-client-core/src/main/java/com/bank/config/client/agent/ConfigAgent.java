@@ -0,0 +1,152 @@
+package com.bank.config.client.agent;
+
+import com.bank.config.client.ConfigClient;
+import com.bank.config.client.cache.ConfigCache;
+import com.bank.config.client.poller.ConfigChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 主机级配置代理
+ * 每台主机只运行一个代理进程，由它与服务器同步配置（拉取、推送、本地缓存文件均沿用 ConfigClient），
+ * 每次配置变化后把原始配置发布为共享快照文件。同一主机上的应用以
+ * ConfigClientBuilder.sharedSnapshot(...) 只读连接该文件，不再各自拉取和持久化配置。
+ * 加密项以密文发布，由各应用用自己的凭证解密；占位符也由各应用自行解析
+ *
+ * @author bank
+ */
+public class ConfigAgent implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigAgent.class);
+
+    private final ConfigClient client;
+    private final SharedSnapshotWriter writer;
+
+    // 上一次发布的内容，内容未变化的刷新不重复发布
+    private Map<String, String> lastConfigs;
+    private Set<String> lastEncryptedKeys;
+    private long lastRevision = -1L;
+
+    public ConfigAgent(ConfigClient client, File snapshotFile) {
+        this.client = client;
+        this.writer = new SharedSnapshotWriter(snapshotFile);
+    }
+
+    /**
+     * 命名空间对应的共享快照文件，代理和应用按同一规则定位
+     */
+    public static File snapshotFile(File directory, String appCode, String envCode) {
+        return new File(directory, appCode + "-" + envCode + ".snapshot");
+    }
+
+    /**
+     * 启动客户端并发布当前配置，之后每次刷新后发布
+     */
+    public void start() {
+        client.addConfigChangeListener(new ConfigChangeListener() {
+            @Override
+            public void onConfigChange(String key, String oldValue, String newValue) {
+            }
+
+            @Override
+            public void onConfigRefresh(Map<String, String> newConfigs) {
+                publish();
+            }
+        });
+        client.start();
+        publish();
+        logger.info("配置代理已启动: appCode={}, envCode={}, snapshot={}",
+            client.getAppCode(), client.getEnvCode(), writer.getFile());
+    }
+
+    /**
+     * 发布客户端当前的原始配置
+     */
+    public synchronized void publish() {
+        ConfigCache cache = client.getCache();
+        Map<String, String> configs = cache.getRawSnapshot();
+        Set<String> encryptedKeys = cache.getEncryptedKeys();
+        long revision = cache.getRevision();
+        if (lastConfigs != null && revision == lastRevision && encryptedKeys.equals(lastEncryptedKeys)
+                && configs.equals(lastConfigs)) {
+            return;
+        }
+        try {
+            long generation = writer.publish(configs, encryptedKeys, revision);
+            lastConfigs = configs;
+            lastEncryptedKeys = encryptedKeys;
+            lastRevision = revision;
+            logger.debug("已发布共享配置快照: generation={}, revision={}, size={}",
+                generation, revision, configs.size());
+        } catch (IOException | RuntimeException e) {
+            logger.error("发布共享配置快照失败: {}", writer.getFile(), e);
+        }
+    }
+
+    public ConfigClient getClient() {
+        return client;
+    }
+
+    @Override
+    public void close() {
+        client.stop();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("关闭共享快照文件失败: {}", writer.getFile(), e);
+        }
+    }
+
+    /**
+     * 以独立进程运行代理：
+     * ConfigAgent &lt;serverUrl&gt; &lt;snapshotDir&gt; &lt;appCode:envCode&gt;...
+     * 访问令牌取自系统属性 config.token 或环境变量 CONFIG_TOKEN
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.err.println("用法: ConfigAgent <serverUrl> <snapshotDir> <appCode:envCode>...");
+            System.exit(1);
+        }
+        String serverUrl = args[0];
+        File directory = new File(args[1]);
+        String token = System.getProperty("config.token", System.getenv("CONFIG_TOKEN"));
+
+        List<ConfigAgent> agents = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            String[] namespace = args[i].split(":", 2);
+            if (namespace.length != 2) {
+                System.err.println("命名空间格式应为 appCode:envCode: " + args[i]);
+                System.exit(1);
+            }
+            ConfigClient client = new ConfigClient.ConfigClientBuilder()
+                .serverUrl(serverUrl)
+                .appCode(namespace[0])
+                .envCode(namespace[1])
+                .token(token)
+                .cacheFile(new File(directory, namespace[0] + "-" + namespace[1] + ".cache.json").getPath())
+                .enablePolling(true)
+                .enableCache(true)
+                .resolvePlaceholders(false)
+                .build();
+            ConfigAgent agent = new ConfigAgent(client, snapshotFile(directory, namespace[0], namespace[1]));
+            agent.start();
+            agents.add(agent);
+        }
+
+        CountDownLatch shutdown = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (ConfigAgent agent : agents) {
+                agent.close();
+            }
+            shutdown.countDown();
+        }, "config-agent-shutdown"));
+        shutdown.await();
+    }
+}
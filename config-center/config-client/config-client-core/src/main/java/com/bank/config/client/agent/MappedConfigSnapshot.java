@@ -0,0 +1,236 @@
+package com.bank.config.client.agent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 映射到内存的一份共享配置快照，只读
+ * 查找直接在映射内存中的哈希表上进行，只解码被读取的值，配置本身不复制到堆上。
+ * 快照写入后不再修改，文件被新文件替换后映射仍然有效，因此可以长期持有
+ *
+ * @author bank
+ */
+public final class MappedConfigSnapshot extends AbstractMap<String, String> {
+
+    private final ByteBuffer region;
+    private final long generation;
+    private final long revision;
+    private final long publishedAt;
+    private final int size;
+    private final int tableCapacity;
+    private final Set<String> encryptedKeys;
+
+    MappedConfigSnapshot(ByteBuffer region, long generation, long revision, long publishedAt) {
+        this.region = region;
+        this.generation = generation;
+        this.revision = revision;
+        this.publishedAt = publishedAt;
+        this.size = region.getInt(SnapshotLayout.REGION_ENTRY_COUNT);
+        this.tableCapacity = region.getInt(SnapshotLayout.REGION_TABLE_CAPACITY);
+        this.encryptedKeys = collectEncryptedKeys();
+    }
+
+    /**
+     * 发布代数，每次发布加一
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * 服务端发布修订号，0表示未知
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * 发布时间（毫秒）
+     */
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    /**
+     * 服务端标记为加密的配置键，其值为密文
+     */
+    public Set<String> getEncryptedKeys() {
+        return encryptedKeys;
+    }
+
+    @Override
+    public String get(Object key) {
+        int entry = find(key);
+        return entry > 0 ? readValue(entry) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) > 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int find(Object key) {
+        if (!(key instanceof String)) {
+            return 0;
+        }
+        String name = (String) key;
+        int hash = name.hashCode();
+        int mask = tableCapacity - 1;
+        int slot = SnapshotLayout.spread(hash) & mask;
+        byte[] encoded = null;
+        int entry;
+        while ((entry = region.getInt(SnapshotLayout.REGION_HEADER_SIZE + 4 * slot)) != 0) {
+            if (region.getInt(entry) == hash) {
+                if (encoded == null) {
+                    encoded = name.getBytes(StandardCharsets.UTF_8);
+                }
+                if (keyEquals(entry, encoded)) {
+                    return entry;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    private boolean keyEquals(int entry, byte[] key) {
+        if (region.getInt(entry + 4) != key.length) {
+            return false;
+        }
+        int start = entry + 8;
+        for (int i = 0; i < key.length; i++) {
+            if (region.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readKey(int entry) {
+        return readString(entry + 8, region.getInt(entry + 4));
+    }
+
+    private String readValue(int entry) {
+        int valueStart = entry + 8 + region.getInt(entry + 4) + 1;
+        int length = region.getInt(valueStart);
+        return length < 0 ? null : readString(valueStart + 4, length);
+    }
+
+    private String readString(int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = region.duplicate();
+        view.position(position);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 下一个条目的偏移
+     */
+    private int nextEntry(int entry) {
+        int valueStart = entry + 8 + region.getInt(entry + 4) + 1;
+        int length = region.getInt(valueStart);
+        return valueStart + 4 + Math.max(length, 0);
+    }
+
+    private int firstEntry() {
+        return SnapshotLayout.REGION_HEADER_SIZE + 4 * tableCapacity;
+    }
+
+    private Set<String> collectEncryptedKeys() {
+        Set<String> keys = new HashSet<>();
+        int entry = firstEntry();
+        for (int i = 0; i < size; i++) {
+            if ((region.get(entry + 8 + region.getInt(entry + 4)) & SnapshotLayout.ENTRY_ENCRYPTED) != 0) {
+                keys.add(readKey(entry));
+            }
+            entry = nextEntry(entry);
+        }
+        return keys.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new EntryIterator<String>() {
+                    @Override
+                    String element(int entry) {
+                        return readKey(entry);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator<Entry<String, String>>() {
+                    @Override
+                    Entry<String, String> element(int entry) {
+                        return new SimpleImmutableEntry<>(readKey(entry), readValue(entry));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * 按写入顺序遍历条目
+     */
+    private abstract class EntryIterator<E> implements Iterator<E> {
+        private int remaining = size;
+        private int entry = firstEntry();
+
+        abstract E element(int entry);
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public E next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            int current = entry;
+            remaining--;
+            if (remaining > 0) {
+                entry = nextEntry(current);
+            }
+            return element(current);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.bank.config.client.agent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 共享快照文件的只读方，进程内的 ConfigClient 以此连接主机级配置代理
+ * 检查变化只读取映射的文件头；代数变化时才映射新快照，并以快照自身的代数和校验和确认其完整。
+ * 文件不存在时返回 null，之后每次检查都会重试打开
+ *
+ * @author bank
+ */
+public class SharedSnapshotReader implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(SharedSnapshotReader.class);
+
+    // 文件头正在被写入时的最大重试次数
+    private static final int MAX_HEADER_RETRIES = 100;
+
+    private final File file;
+    private RandomAccessFile handle;
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedConfigSnapshot current;
+
+    public SharedSnapshotReader(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 读取最新的快照，代数未变化时返回上一次的结果
+     *
+     * @return 最新快照，文件不存在或尚未发布时为 null
+     */
+    public synchronized MappedConfigSnapshot current() throws IOException {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (header == null && !open()) {
+                return current;
+            }
+            Header state = readHeader();
+            if (state == null) {
+                return current;
+            }
+            if ((state.flags & SnapshotLayout.FLAG_ROTATED) != 0) {
+                // 代理已用新文件替换，重新打开后再读一次
+                closeFile();
+                continue;
+            }
+            if (current != null && current.getGeneration() == state.generation) {
+                return current;
+            }
+            MappedConfigSnapshot snapshot = map(state);
+            if (snapshot != null) {
+                current = snapshot;
+            }
+            return current;
+        }
+        return current;
+    }
+
+    private boolean open() throws IOException {
+        if (!file.isFile() || file.length() < SnapshotLayout.HEADER_SIZE) {
+            return false;
+        }
+        RandomAccessFile newHandle = new RandomAccessFile(file, "r");
+        MappedByteBuffer newHeader = newHandle.getChannel()
+            .map(FileChannel.MapMode.READ_ONLY, 0, SnapshotLayout.HEADER_SIZE);
+        if (newHeader.getInt(0) != SnapshotLayout.MAGIC || newHeader.getInt(4) != SnapshotLayout.VERSION) {
+            newHandle.close();
+            logger.warn("不是可识别的共享配置快照文件: {}", file);
+            return false;
+        }
+        handle = newHandle;
+        channel = newHandle.getChannel();
+        header = newHeader;
+        return true;
+    }
+
+    /**
+     * 按 seqlock 读取文件头：序号为奇数或前后不一致时说明正在写入，重读
+     */
+    private Header readHeader() {
+        for (int i = 0; i < MAX_HEADER_RETRIES; i++) {
+            long seq = header.getLong(SnapshotLayout.SEQ);
+            if ((seq & 1) == 0) {
+                Header state = new Header(header.getLong(SnapshotLayout.GENERATION),
+                    header.getLong(SnapshotLayout.OFFSET),
+                    header.getLong(SnapshotLayout.LENGTH), header.getLong(SnapshotLayout.PUBLISHED_AT),
+                    header.getInt(SnapshotLayout.FLAGS));
+                if (header.getLong(SnapshotLayout.SEQ) == seq) {
+                    return state;
+                }
+            }
+            Thread.yield();
+        }
+        return null;
+    }
+
+    /**
+     * 映射文件头指向的快照；快照不完整（如读到了写入中的文件头）时返回 null，下次检查再读
+     */
+    private MappedConfigSnapshot map(Header state) throws IOException {
+        if (state.generation <= 0 || state.length < SnapshotLayout.REGION_HEADER_SIZE
+                || state.length > Integer.MAX_VALUE || state.offset + state.length > channel.size()) {
+            return null;
+        }
+        ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, state.offset, state.length);
+        int length = (int) state.length;
+        if (region.getInt(0) != SnapshotLayout.REGION_MAGIC
+                || region.getLong(SnapshotLayout.REGION_GENERATION) != state.generation
+                || region.getInt(SnapshotLayout.REGION_CRC) != SnapshotLayout.crc(region, length)) {
+            logger.debug("共享配置快照尚未完整写入，稍后重试: generation={}", state.generation);
+            return null;
+        }
+        return new MappedConfigSnapshot(region, state.generation,
+            region.getLong(SnapshotLayout.REGION_REVISION), state.publishedAt);
+    }
+
+    private void closeFile() throws IOException {
+        if (handle != null) {
+            handle.close();
+        }
+        handle = null;
+        channel = null;
+        header = null;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 关闭文件，已返回的快照仍可读取
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closeFile();
+    }
+
+    private static final class Header {
+        final long generation;
+        final long offset;
+        final long length;
+        final long publishedAt;
+        final int flags;
+
+        Header(long generation, long offset, long length, long publishedAt, int flags) {
+            this.generation = generation;
+            this.offset = offset;
+            this.length = length;
+            this.publishedAt = publishedAt;
+            this.flags = flags;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.bank.config.client.agent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 共享快照文件的写入方，由主机级配置代理独占使用
+ * 每次发布把新快照追加到文件末尾，再以 seqlock 更新文件头指向它；已发布的快照不会被覆盖，
+ * 读取方持有的映射始终有效。文件超过上限时在临时文件中写入当前快照，原子替换原文件，
+ * 再在旧文件头上标记 FLAG_ROTATED，读取方据此重新打开
+ *
+ * @author bank
+ */
+public class SharedSnapshotWriter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(SharedSnapshotWriter.class);
+
+    // 文件至少保留的大小上限，超过后替换为只含当前快照的新文件
+    private static final long MIN_ROTATE_SIZE = 64L * 1024 * 1024;
+
+    private final File file;
+    private RandomAccessFile handle;
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private long generation;
+    private long end;
+
+    public SharedSnapshotWriter(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 发布一份配置快照
+     *
+     * @param configs 原始配置，加密项为密文
+     * @param encryptedKeys 加密的配置键
+     * @param revision 服务端发布修订号
+     * @return 本次发布的代数
+     */
+    public synchronized long publish(Map<String, String> configs, Set<String> encryptedKeys, long revision)
+            throws IOException {
+        if (channel == null) {
+            adoptExisting();
+        }
+        long nextGeneration = generation + 1;
+        ByteBuffer region = SnapshotLayout.encode(configs, encryptedKeys, nextGeneration, revision);
+        int length = region.remaining();
+        if (channel == null || end + length > Math.max(MIN_ROTATE_SIZE, 4L * length)) {
+            rotate(region, nextGeneration, revision);
+        } else {
+            long offset = end;
+            while (region.hasRemaining()) {
+                channel.write(region, offset + region.position());
+            }
+            end = offset + length;
+            writeHeader(header, nextGeneration, revision, offset, length);
+        }
+        generation = nextGeneration;
+        return nextGeneration;
+    }
+
+    /**
+     * 代理重启时接管上一个代理留下的文件：代数接着递增，替换后标记旧文件，让已连接的读取方重新打开
+     */
+    private void adoptExisting() throws IOException {
+        if (!file.isFile() || file.length() < SnapshotLayout.HEADER_SIZE) {
+            return;
+        }
+        RandomAccessFile existing = new RandomAccessFile(file, "rw");
+        MappedByteBuffer existingHeader = existing.getChannel()
+            .map(FileChannel.MapMode.READ_WRITE, 0, SnapshotLayout.HEADER_SIZE);
+        if (existingHeader.getInt(0) != SnapshotLayout.MAGIC) {
+            existing.close();
+            return;
+        }
+        generation = Math.max(generation, existingHeader.getLong(SnapshotLayout.GENERATION));
+        handle = existing;
+        header = existingHeader;
+    }
+
+    /**
+     * 以只含当前快照的新文件替换原文件
+     */
+    private void rotate(ByteBuffer region, long nextGeneration, long revision) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("无法创建目录: " + parent);
+        }
+        File temp = new File(parent, file.getName() + ".tmp");
+        RandomAccessFile newHandle = new RandomAccessFile(temp, "rw");
+        FileChannel newChannel = newHandle.getChannel();
+        MappedByteBuffer newHeader;
+        int length = region.remaining();
+        try {
+            newHandle.setLength(0);
+            newChannel.write(ByteBuffer.allocate(SnapshotLayout.HEADER_SIZE), 0);
+            while (region.hasRemaining()) {
+                newChannel.write(region, SnapshotLayout.HEADER_SIZE + region.position());
+            }
+            newHeader = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, SnapshotLayout.HEADER_SIZE);
+            newHeader.putInt(0, SnapshotLayout.MAGIC);
+            newHeader.putInt(4, SnapshotLayout.VERSION);
+            writeHeader(newHeader, nextGeneration, revision, SnapshotLayout.HEADER_SIZE, length);
+            newChannel.force(true);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            newHandle.close();
+            throw e;
+        }
+
+        // 让仍打开旧文件的读取方重新打开
+        MappedByteBuffer oldHeader = header;
+        if (oldHeader != null) {
+            long seq = oldHeader.getLong(SnapshotLayout.SEQ);
+            oldHeader.putLong(SnapshotLayout.SEQ, seq + 1);
+            oldHeader.putInt(SnapshotLayout.FLAGS, SnapshotLayout.FLAG_ROTATED);
+            oldHeader.putLong(SnapshotLayout.SEQ, seq + 2);
+            handle.close();
+        }
+        handle = newHandle;
+        channel = newChannel;
+        header = newHeader;
+        end = SnapshotLayout.HEADER_SIZE + length;
+        logger.debug("共享快照文件已替换: {}", file);
+    }
+
+    private static void writeHeader(MappedByteBuffer header, long generation, long revision, long offset, int length) {
+        long seq = header.getLong(SnapshotLayout.SEQ);
+        header.putLong(SnapshotLayout.SEQ, seq + 1);
+        header.putLong(SnapshotLayout.GENERATION, generation);
+        header.putLong(SnapshotLayout.REVISION, revision);
+        header.putLong(SnapshotLayout.OFFSET, offset);
+        header.putLong(SnapshotLayout.LENGTH, length);
+        header.putLong(SnapshotLayout.PUBLISHED_AT, System.currentTimeMillis());
+        header.putLong(SnapshotLayout.SEQ, seq + 2);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (handle != null) {
+            handle.close();
+            handle = null;
+            channel = null;
+            header = null;
+        }
+    }
+}
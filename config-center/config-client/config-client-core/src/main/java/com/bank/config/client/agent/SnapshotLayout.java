@@ -0,0 +1,149 @@
+package com.bank.config.client.agent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 共享快照文件布局
+ *
+ * <pre>
+ * 文件头（HEADER_SIZE 字节，seqlock 保护）:
+ *   0  int  MAGIC
+ *   4  int  VERSION
+ *   8  long seq          写入文件头期间为奇数
+ *   16 long generation   每次发布加一，用于变更检测
+ *   24 long revision     服务端发布修订号
+ *   32 long offset       当前快照在文件中的位置
+ *   40 long length       当前快照长度
+ *   48 long publishedAt  发布时间（毫秒）
+ *   56 int  flags        FLAG_ROTATED 表示文件已被新文件替换，读取方需要重新打开
+ *
+ * 快照（追加写入，写入后不再修改）:
+ *   0  int  REGION_MAGIC
+ *   4  int  crc32        REGION_HEADER_SIZE 之后全部内容的校验和
+ *   8  long generation
+ *   16 long revision
+ *   24 int  entryCount
+ *   28 int  tableCapacity
+ *   32 int[tableCapacity] 开放寻址表，保存条目在快照内的偏移，0 表示空槽
+ *   条目: int keyHash, int keyLength, key(UTF-8), byte flags, int valueLength(-1 表示 null), value(UTF-8)
+ * </pre>
+ *
+ * 读取方按 seqlock 读取文件头后，再以快照自身的代数和校验和确认读到的是完整发布的快照
+ *
+ * @author bank
+ */
+final class SnapshotLayout {
+
+    static final int MAGIC = 0x43435348;          // "CCSH"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    static final int SEQ = 8;
+    static final int GENERATION = 16;
+    static final int REVISION = 24;
+    static final int OFFSET = 32;
+    static final int LENGTH = 40;
+    static final int PUBLISHED_AT = 48;
+    static final int FLAGS = 56;
+
+    static final int FLAG_ROTATED = 1;
+
+    static final int REGION_MAGIC = 0x43435352;   // "CCSR"
+    static final int REGION_CRC = 4;
+    static final int REGION_GENERATION = 8;
+    static final int REGION_REVISION = 16;
+    static final int REGION_ENTRY_COUNT = 24;
+    static final int REGION_TABLE_CAPACITY = 28;
+    static final int REGION_HEADER_SIZE = 32;
+
+    static final byte ENTRY_ENCRYPTED = 1;
+
+    private SnapshotLayout() {
+    }
+
+    /**
+     * 将一份配置编码为快照
+     */
+    static ByteBuffer encode(Map<String, String> configs, Set<String> encryptedKeys, long generation, long revision) {
+        int count = configs.size();
+        int capacity = tableCapacity(count);
+        byte[][] keys = new byte[count][];
+        byte[][] values = new byte[count][];
+        int[] hashes = new int[count];
+        byte[] flags = new byte[count];
+        long length = REGION_HEADER_SIZE + 4L * capacity;
+        int index = 0;
+        for (Map.Entry<String, String> entry : configs.entrySet()) {
+            String key = entry.getKey();
+            keys[index] = key.getBytes(StandardCharsets.UTF_8);
+            values[index] = entry.getValue() != null ? entry.getValue().getBytes(StandardCharsets.UTF_8) : null;
+            hashes[index] = key.hashCode();
+            flags[index] = encryptedKeys.contains(key) ? ENTRY_ENCRYPTED : 0;
+            length += 13L + keys[index].length + (values[index] != null ? values[index].length : 0);
+            index++;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("配置快照过大: " + length + " 字节");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        buffer.putInt(0, REGION_MAGIC);
+        buffer.putLong(REGION_GENERATION, generation);
+        buffer.putLong(REGION_REVISION, revision);
+        buffer.putInt(REGION_ENTRY_COUNT, count);
+        buffer.putInt(REGION_TABLE_CAPACITY, capacity);
+        int mask = capacity - 1;
+        buffer.position(REGION_HEADER_SIZE + 4 * capacity);
+        for (int i = 0; i < count; i++) {
+            int slot = spread(hashes[i]) & mask;
+            while (buffer.getInt(REGION_HEADER_SIZE + 4 * slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            buffer.putInt(REGION_HEADER_SIZE + 4 * slot, buffer.position());
+            buffer.putInt(hashes[i]);
+            buffer.putInt(keys[i].length);
+            buffer.put(keys[i]);
+            buffer.put(flags[i]);
+            if (values[i] != null) {
+                buffer.putInt(values[i].length);
+                buffer.put(values[i]);
+            } else {
+                buffer.putInt(-1);
+            }
+        }
+        buffer.putInt(REGION_CRC, crc(buffer, (int) length));
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 计算快照 REGION_HEADER_SIZE 之后内容的校验和
+     */
+    static int crc(ByteBuffer region, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer body = region.duplicate();
+        body.limit(length);
+        body.position(REGION_HEADER_SIZE);
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 负载因子不超过 0.5 的 2 的幂容量，映射内存中探测次数少比表小更重要
+     */
+    static int tableCapacity(int count) {
+        int capacity = 2;
+        while (capacity < count * 2L + 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,273 @@
+package com.bank.config.client.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 紧凑的只读配置快照，用于配置项很多（十万级以上）的应用
+ * 键和值放在开放寻址的两个平行数组中，不为每个配置项创建节点对象；
+ * 值以 UTF-8 字节数组保存，读取时才解码，并用一个小的直接映射缓存保留最近解码的值；
+ * 内容相同的值只保存一份字节数组。基于上一份快照构建时，沿用其中相同的键对象和值字节数组，
+ * 因此整体替换配置不会让未变化的键和值在堆上再复制一份。
+ * 创建后不可修改，修改类方法抛出 UnsupportedOperationException
+ *
+ * @author bank
+ */
+public final class CompactConfigMap extends AbstractMap<String, String> {
+
+    private static final int MAX_DECODED_CACHE = 512;
+
+    // 开放寻址表，keys[i] 为空表示空槽；values[i] 为空表示该键的值为 null
+    private final String[] keys;
+    private final byte[][] values;
+    private final int mask;
+    private final int size;
+    // 最近解码的值，按槽位直接映射；条目不可变，并发读写只会多解码一次
+    private final Decoded[] decoded;
+
+    private CompactConfigMap(String[] keys, byte[][] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+        this.decoded = new Decoded[Math.min(keys.length, MAX_DECODED_CACHE)];
+    }
+
+    /**
+     * 以 source 的内容构建紧凑快照
+     *
+     * @param source 配置内容
+     * @param previous 上一份快照，可为 null；其中相同的键和值会被沿用
+     */
+    public static CompactConfigMap copyOf(Map<String, String> source, CompactConfigMap previous) {
+        int size = source.size();
+        String[] keys = new String[tableSize(size)];
+        byte[][] values = new byte[keys.length][];
+        ValuePool pool = new ValuePool(size);
+        int mask = keys.length - 1;
+        for (Map.Entry<String, String> entry : source.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+            if (previous != null) {
+                int previousSlot = previous.find(key);
+                if (previousSlot >= 0) {
+                    key = previous.keys[previousSlot];
+                    byte[] previousBytes = previous.values[previousSlot];
+                    if (bytes != null && Arrays.equals(bytes, previousBytes)) {
+                        bytes = previousBytes;
+                    }
+                }
+            }
+            int slot = spread(key.hashCode()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = bytes != null ? pool.intern(bytes) : null;
+        }
+        return new CompactConfigMap(keys, values, size);
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = find(key);
+        return slot >= 0 ? decode(slot) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 该键的值是否与另一份快照中同一键的值相同，比较字节内容，不解码
+     */
+    boolean sameValue(String key, CompactConfigMap other) {
+        int slot = find(key);
+        int otherSlot = other.find(key);
+        if (slot < 0 || otherSlot < 0) {
+            return slot < 0 && otherSlot < 0;
+        }
+        byte[] value = values[slot];
+        byte[] otherValue = other.values[otherSlot];
+        return value == otherValue || Arrays.equals(value, otherValue);
+    }
+
+    private int find(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int slot = spread(key.hashCode()) & mask;
+        String candidate;
+        while ((candidate = keys[slot]) != null) {
+            if (candidate == key || candidate.equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private String decode(int slot) {
+        byte[] bytes = values[slot];
+        if (bytes == null) {
+            return null;
+        }
+        int index = slot & (decoded.length - 1);
+        Decoded cached = decoded[index];
+        if (cached != null && cached.slot == slot) {
+            return cached.value;
+        }
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        decoded[index] = new Decoded(slot, value);
+        return value;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new SlotIterator<String>() {
+                    @Override
+                    String element(int slot) {
+                        return keys[slot];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new SlotIterator<Entry<String, String>>() {
+                    @Override
+                    Entry<String, String> element(int slot) {
+                        // 遍历时直接解码，不占用解码缓存
+                        byte[] bytes = values[slot];
+                        return new SimpleImmutableEntry<>(keys[slot],
+                            bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * 按槽位顺序遍历非空槽
+     */
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private int next = advance(0);
+
+        private int advance(int from) {
+            int slot = from;
+            while (slot < keys.length && keys[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+
+        abstract E element(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public E next() {
+            if (next >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            int slot = next;
+            next = advance(slot + 1);
+            return element(slot);
+        }
+    }
+
+    private static final class Decoded {
+        final int slot;
+        final String value;
+
+        Decoded(int slot, String value) {
+            this.slot = slot;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 构建快照时按内容哈希去重值字节数组的临时表
+     */
+    private static final class ValuePool {
+        private final byte[][] table;
+        private final int[] hashes;
+        private final int mask;
+
+        ValuePool(int expected) {
+            int capacity = tableSize(expected);
+            this.table = new byte[capacity][];
+            this.hashes = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        byte[] intern(byte[] bytes) {
+            int hash = Arrays.hashCode(bytes);
+            int slot = spread(hash) & mask;
+            byte[] candidate;
+            while ((candidate = table[slot]) != null) {
+                if (hashes[slot] == hash && Arrays.equals(candidate, bytes)) {
+                    return candidate;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = bytes;
+            hashes[slot] = hash;
+            return bytes;
+        }
+    }
+
+    /**
+     * 负载因子不超过 0.75 的 2 的幂容量
+     */
+    private static int tableSize(int size) {
+        int capacity = 2;
+        while (capacity * 3L < size * 4L + 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,1164 @@
+package com.bank.config.client.cache;
+
+import com.bank.config.client.jfr.ConfigEvents;
+import com.bank.config.client.metrics.KeyAccessTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * 配置缓存类
+ * 提供本地缓存功能，支持文件持久化。
+ * 服务端标记为加密的配置项在缓存和缓存文件中始终保存密文，第一次读取时才解密，
+ * 同一密文只解密一次；从未读取的加密项不会被解密。
+ * 读取到的是解析 ${key:默认值} 占位符后的有效值，原始值用于持久化和增量合并。
+ * 每份配置都是不再修改的快照，更新时整体替换；开启紧凑存储后快照以 CompactConfigMap 保存。
+ * 被替换下来的最近若干份快照保留在版本历史中，可在本地回滚
+ * 
+ * @author bank
+ */
+public class ConfigCache {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigCache.class);
+
+    private final String cacheFile;
+    private final long expireTime;
+    private final ObjectMapper objectMapper;
+
+    private volatile Map<String, String> configMap;
+    private Map<String, ConfigItem> configDetails;
+    private volatile LocalDateTime lastUpdateTime;
+    private String version;
+    // 服务端发布修订号，0表示未知
+    private volatile long revision;
+    // 服务端标记为加密的配置键及其延迟解密的值
+    private volatile Set<String> encryptedKeys = Collections.emptySet();
+    private volatile Map<String, EncryptedValue> secrets = Collections.emptyMap();
+    private volatile UnaryOperator<String> decryptor;
+    // 占位符解析结果及依赖图，加密项不参与解析
+    private final PlaceholderResolver placeholders = new PlaceholderResolver();
+    // 是否以紧凑形式保存配置快照
+    private volatile boolean compactStorage;
+    // 配置读取统计，为空表示不统计
+    private volatile KeyAccessTracker accessTracker;
+    // 按需订阅的配置键，随JSON缓存文件保存，为空表示同步全部配置
+    private volatile Set<String> subscribedKeys;
+    // 最近被替换下来的配置快照
+    private final ConfigHistory history = new ConfigHistory();
+    // 本地回滚后生效配置的修订号，0表示未回滚
+    private volatile long rolledBackTo;
+
+    public ConfigCache(String cacheFile, long expireTime) {
+        this.cacheFile = cacheFile;
+        this.expireTime = expireTime;
+        this.objectMapper = new ObjectMapper();
+        // 注册Java 8日期时间模块
+        this.objectMapper.registerModule(new JavaTimeModule());
+        // 禁用将日期写为时间戳
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.configMap = new HashMap<>();
+        this.configDetails = new HashMap<>();
+    }
+
+    /**
+     * 获取配置值
+     */
+    public String get(String key) {
+        String value = resolve(key, placeholders.getResolved().get(key), secrets);
+        KeyAccessTracker tracker = accessTracker;
+        if (tracker != null && value != null) {
+            tracker.record(key);
+        }
+        return value;
+    }
+
+    /**
+     * 获取配置的原始值，加密项返回密文
+     */
+    public String getRaw(String key) {
+        return configMap.get(key);
+    }
+
+    /**
+     * 当前原始配置的只读快照，加密项为密文
+     */
+    public Map<String, String> getRawSnapshot() {
+        return Collections.unmodifiableMap(configMap);
+    }
+
+    /**
+     * 设置配置值
+     */
+    public synchronized void put(String key, String value) {
+        // 复制后替换，不修改仍可能被读取的当前快照
+        Map<String, String> updated = new HashMap<>(configMap);
+        updated.put(key, value);
+        configMap = store(updated);
+        if (encryptedKeys.contains(key)) {
+            rebuildSecrets();
+        }
+        placeholders.update(configMap, Collections.singleton(key), this::isOpaque);
+    }
+
+    /**
+     * 并入一批配置（如按需拉取的配置），不改变修订号；其中的加密项加入加密项集合
+     */
+    public synchronized void merge(Map<String, String> configs, Set<String> newEncryptedKeys) {
+        if (configs.isEmpty()) {
+            return;
+        }
+        Map<String, String> updated = new HashMap<>(configMap);
+        updated.putAll(configs);
+        configMap = store(updated);
+        if (newEncryptedKeys != null && !newEncryptedKeys.isEmpty()) {
+            Set<String> keys = new HashSet<>(encryptedKeys);
+            keys.addAll(newEncryptedKeys);
+            encryptedKeys = Collections.unmodifiableSet(keys);
+        }
+        rebuildSecrets();
+        placeholders.update(configMap, configs.keySet(), this::isOpaque);
+    }
+
+    /**
+     * 获取所有配置
+     * 存在加密项时返回的Map在读取加密项的值时才解密。
+     * 开启紧凑存储时返回当前快照的只读视图，不复制配置
+     */
+    public Map<String, String> getAllConfigs() {
+        Map<String, EncryptedValue> currentSecrets = secrets;
+        Map<String, String> resolved = placeholders.getResolved();
+        if (compactStorage) {
+            return currentSecrets.isEmpty() ? resolved : new DecryptingConfigMap(resolved, currentSecrets);
+        }
+        if (currentSecrets.isEmpty()) {
+            return new HashMap<>(resolved);
+        }
+        return new DecryptingConfigMap(new HashMap<>(resolved), currentSecrets);
+    }
+
+    /**
+     * 开启或关闭紧凑存储，默认关闭；立即按新设置转换当前配置。
+     * 紧凑存储以 UTF-8 字节保存值并在键之间共享相同的值，读取时解码，
+     * 适合配置项很多且值大量重复的应用；此时 getAllConfigs() 返回只读视图
+     */
+    public synchronized void setCompactStorage(boolean compactStorage) {
+        if (this.compactStorage == compactStorage) {
+            return;
+        }
+        this.compactStorage = compactStorage;
+        Map<String, String> converted = compactStorage ? store(configMap) : new HashMap<>(configMap);
+        this.configMap = converted;
+        placeholders.update(converted, Collections.<String>emptySet(), this::isOpaque);
+    }
+
+    public boolean isCompactStorage() {
+        return compactStorage;
+    }
+
+    /**
+     * 按当前存储模式保存一份新配置，紧凑存储时沿用当前快照中未变化的键和值
+     */
+    private Map<String, String> store(Map<String, String> configs) {
+        if (!compactStorage) {
+            return configs;
+        }
+        Map<String, String> current = configMap;
+        return CompactConfigMap.copyOf(configs,
+            current instanceof CompactConfigMap ? (CompactConfigMap) current : null);
+    }
+
+    /**
+     * 按当前的加密设置解密某个配置键的值（如变更通知中的旧值、新值），非加密项原样返回
+     */
+    public String decryptValue(String key, String value) {
+        return resolve(key, value, secrets);
+    }
+
+    /**
+     * 当前配置解析占位符后的只读快照，加密项仍为密文，可交给 decryptingView 包装
+     */
+    public Map<String, String> getResolvedSnapshot() {
+        return placeholders.getResolved();
+    }
+
+    /**
+     * 开启或关闭占位符解析，默认开启；立即按新设置重新解析当前配置
+     */
+    public void setPlaceholderResolution(boolean enabled) {
+        placeholders.setEnabled(enabled);
+        placeholders.update(configMap, Collections.<String>emptySet(), this::isOpaque);
+    }
+
+    /**
+     * 当前配置中直接或间接引用了 key 的配置键
+     */
+    public Set<String> getDependents(String key) {
+        return placeholders.getDependents(key);
+    }
+
+    /**
+     * 以当前的加密项包装一份原始配置（如刚应用的新配置），读取加密项时才解密
+     */
+    public Map<String, String> decryptingView(Map<String, String> rawConfigs) {
+        Map<String, EncryptedValue> currentSecrets = secrets;
+        if (currentSecrets.isEmpty() && encryptedKeys.isEmpty()) {
+            return rawConfigs;
+        }
+        return new DecryptingConfigMap(rawConfigs, currentSecrets);
+    }
+
+    /**
+     * 设置解密函数，为空时加密项按原值返回；解密函数返回null表示解密失败，此时读取结果为null
+     */
+    public void setDecryptor(UnaryOperator<String> decryptor) {
+        this.decryptor = decryptor;
+        rebuildSecrets();
+    }
+
+    /**
+     * 设置服务端标记为加密的配置键，对当前及之后的配置生效
+     */
+    public synchronized void setEncryptedKeys(Set<String> keys) {
+        this.encryptedKeys = copyKeys(keys);
+        rebuildSecrets();
+        placeholders.update(configMap, Collections.<String>emptySet(), this::isOpaque);
+    }
+
+    private static Set<String> copyKeys(Set<String> keys) {
+        return keys == null || keys.isEmpty()
+            ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<>(keys));
+    }
+
+    /**
+     * 设置配置读取统计，之后每次读取到值时计入
+     */
+    public void setAccessTracker(KeyAccessTracker accessTracker) {
+        this.accessTracker = accessTracker;
+    }
+
+    /**
+     * 设置按需订阅的配置键集合，保存JSON缓存文件时一并写入，加载时并入该集合
+     */
+    public void setSubscribedKeys(Set<String> subscribedKeys) {
+        this.subscribedKeys = subscribedKeys;
+    }
+
+    /**
+     * 加密项不解析占位符，也不能被其他配置引用，避免明文出现在其他配置的值里
+     */
+    private boolean isOpaque(String key) {
+        return encryptedKeys.contains(key);
+    }
+
+    /**
+     * 获取服务端标记为加密的配置键
+     */
+    public Set<String> getEncryptedKeys() {
+        return encryptedKeys;
+    }
+
+    /**
+     * 为当前配置中的加密项建立延迟解密的值，密文未变的项沿用已解密的结果
+     */
+    private void rebuildSecrets() {
+        Set<String> keys = encryptedKeys;
+        UnaryOperator<String> currentDecryptor = decryptor;
+        if (keys.isEmpty() || currentDecryptor == null) {
+            secrets = Collections.emptyMap();
+            return;
+        }
+        Map<String, String> current = configMap;
+        Map<String, EncryptedValue> previous = secrets;
+        Map<String, EncryptedValue> rebuilt = new HashMap<>();
+        for (String key : keys) {
+            String cipherText = current.get(key);
+            if (cipherText == null) {
+                continue;
+            }
+            EncryptedValue existing = previous.get(key);
+            rebuilt.put(key, existing != null && existing.matches(cipherText) && existing.decryptor == currentDecryptor
+                ? existing : new EncryptedValue(cipherText, currentDecryptor));
+        }
+        secrets = rebuilt;
+    }
+
+    /**
+     * 解析读取到的值：配置与加密项的密文一致时返回解密结果。
+     * 配置刚被替换、加密项尚未重建时密文不一致，此时直接解密，不会返回旧的明文
+     */
+    private String resolve(Object key, String raw, Map<String, EncryptedValue> currentSecrets) {
+        if (raw == null || currentSecrets.isEmpty()) {
+            return raw;
+        }
+        EncryptedValue secret = currentSecrets.get(key);
+        if (secret != null && secret.matches(raw)) {
+            return secret.get();
+        }
+        UnaryOperator<String> currentDecryptor = decryptor;
+        if (currentDecryptor != null && encryptedKeys.contains(key)) {
+            return currentDecryptor.apply(raw);
+        }
+        return raw;
+    }
+
+    /**
+     * 更新配置集合
+     *
+     * @return 有效值发生变化的配置，包括因引用的配置变化而变化的配置
+     */
+    public List<PlaceholderResolver.KeyChange> updateConfigs(Map<String, String> newConfigs) {
+        return updateConfigs(newConfigs, null);
+    }
+
+    /**
+     * 更新配置集合及加密项，两者在同一次替换中生效，历史中记录被替换的配置及其原有的加密项
+     *
+     * @param newEncryptedKeys 新配置中的加密项，为空时沿用当前加密项
+     * @return 有效值发生变化的配置，包括因引用的配置变化而变化的配置
+     */
+    public synchronized List<PlaceholderResolver.KeyChange> updateConfigs(Map<String, String> newConfigs,
+                                                                          Set<String> newEncryptedKeys) {
+        Object event = ConfigEvents.beginCacheSwap();
+        // 记录变更的配置
+        for (Map.Entry<String, String> entry : newConfigs.entrySet()) {
+            String key = entry.getKey();
+            String newValue = entry.getValue();
+            String oldValue = configMap.get(key);
+            
+            if (!newValue.equals(oldValue)) {
+                logger.debug("配置变更: {} = {} -> {}", key, oldValue, newValue);
+            }
+        }
+        
+        Map<String, String> copy = compactStorage ? store(newConfigs) : new HashMap<>(newConfigs);
+        history.record(getContentRevision(), configMap, encryptedKeys);
+        this.configMap = copy;
+        if (newEncryptedKeys != null) {
+            this.encryptedKeys = copyKeys(newEncryptedKeys);
+        }
+        this.rolledBackTo = 0L;
+        rebuildSecrets();
+        List<PlaceholderResolver.KeyChange> changes = placeholders.update(copy, null, this::isOpaque);
+        this.lastUpdateTime = LocalDateTime.now();
+        ConfigEvents.commitCacheSwap(event, revision, newConfigs.size());
+        return changes;
+    }
+
+    /**
+     * 以预先构建好的配置整体替换当前配置
+     * 只有一次引用赋值，读取方要么看到旧配置，要么看到新配置
+     *
+     * @param newConfigs 新配置，调用后不应再修改
+     * @param newRevision 新配置对应的修订号
+     * @return 有效值发生变化的配置，包括因引用的配置变化而变化的配置
+     */
+    public List<PlaceholderResolver.KeyChange> swap(Map<String, String> newConfigs, long newRevision) {
+        return swap(newConfigs, null, newRevision);
+    }
+
+    /**
+     * 以预先构建好的配置及其加密项整体替换当前配置，两者在同一次替换中生效
+     *
+     * @param newConfigs 新配置，调用后不应再修改
+     * @param newEncryptedKeys 新配置中的加密项，为空时沿用当前加密项
+     * @param newRevision 新配置对应的修订号
+     * @return 有效值发生变化的配置，包括因引用的配置变化而变化的配置
+     */
+    public synchronized List<PlaceholderResolver.KeyChange> swap(Map<String, String> newConfigs,
+                                                                 Set<String> newEncryptedKeys, long newRevision) {
+        Object event = ConfigEvents.beginCacheSwap();
+        Map<String, String> stored = store(newConfigs);
+        history.record(getContentRevision(), configMap, encryptedKeys);
+        this.configMap = stored;
+        if (newEncryptedKeys != null) {
+            this.encryptedKeys = copyKeys(newEncryptedKeys);
+        }
+        this.rolledBackTo = 0L;
+        rebuildSecrets();
+        List<PlaceholderResolver.KeyChange> changes = placeholders.update(stored, null, this::isOpaque);
+        this.revision = newRevision;
+        this.lastUpdateTime = LocalDateTime.now();
+        ConfigEvents.commitCacheSwap(event, newRevision, newConfigs.size());
+        return changes;
+    }
+
+    /**
+     * 回滚到版本历史中的某个修订，只替换本地配置，不访问服务端。
+     * 修订号保持回滚前的值，之后推送或拉取到不高于该修订号的配置时不应覆盖回滚结果，
+     * 应用更新的修订后回滚结束；被替换下来的配置同样进入历史，回滚到当前修订号即撤销回滚
+     *
+     * @return 有效值发生变化的配置，历史中没有该修订时返回null
+     */
+    public synchronized List<PlaceholderResolver.KeyChange> rollbackTo(long targetRevision) {
+        if (targetRevision == getContentRevision()) {
+            return Collections.emptyList();
+        }
+        ConfigHistory.Entry target = history.take(targetRevision);
+        if (target == null) {
+            return null;
+        }
+        Object event = ConfigEvents.beginCacheSwap();
+        history.record(getContentRevision(), configMap, encryptedKeys);
+        // 历史快照与当前存储模式一致时直接换回引用
+        Map<String, String> restored = (target.configs instanceof CompactConfigMap) == compactStorage
+            ? target.configs : compactStorage ? store(target.configs) : new HashMap<>(target.configs);
+        this.configMap = restored;
+        this.encryptedKeys = target.encryptedKeys;
+        this.rolledBackTo = targetRevision == revision ? 0L : targetRevision;
+        rebuildSecrets();
+        List<PlaceholderResolver.KeyChange> changes = placeholders.update(restored, null, this::isOpaque);
+        ConfigEvents.commitCacheSwap(event, targetRevision, restored.size());
+        return changes;
+    }
+
+    /**
+     * 设置版本历史保留的快照数量，0表示不保留
+     */
+    public void setHistorySize(int historySize) {
+        history.setCapacity(historySize);
+    }
+
+    /**
+     * 版本历史中可回滚的修订号，最近被替换的在前
+     */
+    public List<Long> getHistoryRevisions() {
+        return history.revisions();
+    }
+
+    /**
+     * 本地回滚后生效配置的修订号，未回滚时为0
+     */
+    public long getRolledBackRevision() {
+        return rolledBackTo;
+    }
+
+    /**
+     * 当前生效配置的修订号：回滚后为回滚到的修订号，否则与 getRevision() 相同
+     */
+    public long getContentRevision() {
+        long target = rolledBackTo;
+        return target != 0L ? target : revision;
+    }
+
+    /**
+     * 基于当前配置和增量构建新的配置，不修改当前配置
+     *
+     * @param changed 新增或修改的配置
+     * @param removed 删除的配置键
+     */
+    public Map<String, String> withDelta(Map<String, String> changed, Collection<String> removed) {
+        Map<String, String> newConfigs = new HashMap<>(configMap);
+        if (changed != null) {
+            newConfigs.putAll(changed);
+        }
+        if (removed != null) {
+            for (String key : removed) {
+                newConfigs.remove(key);
+            }
+        }
+        return newConfigs;
+    }
+
+    /**
+     * 检查缓存是否过期
+     */
+    public boolean isExpired() {
+        if (lastUpdateTime == null) {
+            return true;
+        }
+        
+        long elapsed = System.currentTimeMillis() - getLastUpdateMillis();
+        return elapsed > expireTime;
+    }
+
+    /**
+     * 获取最近一次更新的时间戳（毫秒），从未更新时为0
+     * lastUpdateTime 由 LocalDateTime.now() 写入，按系统时区换算
+     */
+    public long getLastUpdateMillis() {
+        LocalDateTime time = lastUpdateTime;
+        return time != null ? time.atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    /**
+     * 检查缓存是否为空
+     */
+    public boolean isEmpty() {
+        return configMap.isEmpty();
+    }
+
+    /**
+     * 从文件加载缓存
+     */
+    public void loadFromFile() {
+        if (cacheFile == null || cacheFile.trim().isEmpty()) {
+            logger.debug("缓存文件路径为空，跳过加载");
+            return;
+        }
+
+        File file = new File(cacheFile);
+        if (!file.exists()) {
+            logger.debug("缓存文件不存在: {}", cacheFile);
+            return;
+        }
+
+        try {
+            if (cacheFile.endsWith(".json")) {
+                loadFromJsonFile(file);
+            } else if (cacheFile.endsWith(".yaml") || cacheFile.endsWith(".yml")) {
+                loadFromYamlFile(file);
+            } else {
+                loadFromPropertiesFile(file);
+            }
+            this.configMap = store(configMap);
+            rebuildSecrets();
+            placeholders.reset();
+            placeholders.update(configMap, null, this::isOpaque);
+            loadHistory();
+            logger.debug("从文件加载缓存成功: {}", cacheFile);
+        } catch (Exception e) {
+            logger.warn("从文件加载缓存失败: {}", cacheFile, e);
+        }
+    }
+
+    /**
+     * 保存缓存到文件，与替换互斥，文件中的配置和修订号始终对应
+     */
+    public synchronized void saveToFile() {
+        if (cacheFile == null || cacheFile.trim().isEmpty()) {
+            logger.debug("缓存文件路径为空，跳过保存");
+            return;
+        }
+
+        try {
+            File file = new File(cacheFile);
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists()) {
+                parentDir.mkdirs();
+            }
+
+            if (cacheFile.endsWith(".json")) {
+                saveToJsonFile(file);
+            } else if (cacheFile.endsWith(".yaml") || cacheFile.endsWith(".yml")) {
+                saveToYamlFile(file);
+            } else {
+                saveToPropertiesFile(file);
+            }
+            saveHistory();
+            logger.debug("保存缓存到文件成功: {}", cacheFile);
+        } catch (Exception e) {
+            logger.warn("保存缓存到文件失败: {}", cacheFile, e);
+        }
+    }
+
+    /**
+     * 版本历史文件，与缓存文件放在一起
+     */
+    private File historyFile() {
+        return new File(cacheFile + ".history");
+    }
+
+    /**
+     * 加载版本历史，历史文件与缓存文件的修订号不一致时不恢复
+     */
+    private void loadHistory() {
+        File file = historyFile();
+        if (history.getCapacity() <= 0 || !file.exists()) {
+            return;
+        }
+        try {
+            this.rolledBackTo = history.load(file, objectMapper, configMap, encryptedKeys, revision);
+            if (rolledBackTo != 0L) {
+                logger.info("本地配置处于回滚状态: revision={}, 生效修订={}", revision, rolledBackTo);
+            }
+        } catch (Exception e) {
+            history.clear();
+            logger.warn("加载配置版本历史失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 保存版本历史，没有历史时删除历史文件
+     */
+    private void saveHistory() {
+        File file = historyFile();
+        try {
+            if (history.isEmpty() && rolledBackTo == 0L) {
+                if (file.exists() && !file.delete()) {
+                    logger.debug("删除配置版本历史文件失败: {}", file);
+                }
+                return;
+            }
+            history.save(file, objectMapper, configMap, encryptedKeys, revision, rolledBackTo);
+        } catch (Exception e) {
+            logger.warn("保存配置版本历史失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 从JSON文件加载缓存
+     */
+    private void loadFromJsonFile(File file) throws IOException {
+        CacheData cacheData = objectMapper.readValue(file, CacheData.class);
+        this.configMap = cacheData.getConfigs() != null ? cacheData.getConfigs() : new HashMap<>();
+        this.lastUpdateTime = cacheData.getLastUpdateTime();
+        this.version = cacheData.getVersion();
+        this.revision = cacheData.getRevision() != null ? cacheData.getRevision() : 0L;
+        if (cacheData.getEncryptedKeys() != null) {
+            this.encryptedKeys = Collections.unmodifiableSet(new HashSet<>(cacheData.getEncryptedKeys()));
+        }
+        Set<String> subscribed = subscribedKeys;
+        if (subscribed != null && cacheData.getSubscribedKeys() != null) {
+            subscribed.addAll(cacheData.getSubscribedKeys());
+        }
+    }
+
+    /**
+     * 保存缓存到JSON文件
+     */
+    private void saveToJsonFile(File file) throws IOException {
+        CacheData cacheData = new CacheData();
+        cacheData.setConfigs(configMap);
+        cacheData.setLastUpdateTime(lastUpdateTime);
+        cacheData.setVersion(version);
+        cacheData.setRevision(revision);
+        if (!encryptedKeys.isEmpty()) {
+            cacheData.setEncryptedKeys(new ArrayList<>(encryptedKeys));
+        }
+        Set<String> subscribed = subscribedKeys;
+        if (subscribed != null && !subscribed.isEmpty()) {
+            cacheData.setSubscribedKeys(new ArrayList<>(subscribed));
+        }
+        
+        objectMapper.writeValue(file, cacheData);
+    }
+
+    /**
+     * 从Properties文件加载缓存
+     */
+    private void loadFromPropertiesFile(File file) throws IOException {
+        Properties props = new Properties();
+        try (java.io.FileInputStream fis = new java.io.FileInputStream(file)) {
+            props.load(fis);
+        }
+
+        Map<String, String> loaded = new HashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            loaded.put(key, props.getProperty(key));
+        }
+        this.configMap = loaded;
+
+        // 尝试读取元数据
+        String lastUpdateStr = props.getProperty("cache.lastUpdateTime");
+        if (lastUpdateStr != null) {
+            try {
+                this.lastUpdateTime = LocalDateTime.parse(lastUpdateStr);
+            } catch (Exception e) {
+                logger.warn("解析缓存更新时间失败", e);
+            }
+        }
+
+        this.version = props.getProperty("cache.version");
+
+        String revisionStr = props.getProperty("cache.revision");
+        if (revisionStr != null) {
+            try {
+                this.revision = Long.parseLong(revisionStr);
+            } catch (NumberFormatException e) {
+                logger.warn("解析缓存修订号失败: {}", revisionStr);
+            }
+        }
+
+        String encryptedKeysStr = props.getProperty("cache.encryptedKeys");
+        if (encryptedKeysStr != null && !encryptedKeysStr.isEmpty()) {
+            Set<String> keys = new HashSet<>();
+            Collections.addAll(keys, encryptedKeysStr.split(","));
+            this.encryptedKeys = Collections.unmodifiableSet(keys);
+        }
+    }
+
+    /**
+     * 保存缓存到Properties文件
+     */
+    private void saveToPropertiesFile(File file) throws IOException {
+        Properties props = new Properties();
+        
+        // 保存配置
+        for (Map.Entry<String, String> entry : configMap.entrySet()) {
+            props.setProperty(entry.getKey(), entry.getValue());
+        }
+        
+        // 保存元数据
+        if (lastUpdateTime != null) {
+            props.setProperty("cache.lastUpdateTime", lastUpdateTime.toString());
+        }
+        if (version != null) {
+            props.setProperty("cache.version", version);
+        }
+        if (revision > 0) {
+            props.setProperty("cache.revision", String.valueOf(revision));
+        }
+        if (!encryptedKeys.isEmpty()) {
+            props.setProperty("cache.encryptedKeys", String.join(",", encryptedKeys));
+        }
+
+        try (java.io.FileOutputStream fos = new java.io.FileOutputStream(file)) {
+            props.store(fos, "Config Cache");
+        }
+    }
+
+    /**
+     * 保存缓存到YAML文件
+     */
+    private void saveToYamlFile(File file) throws IOException {
+        com.fasterxml.jackson.dataformat.yaml.YAMLFactory yamlFactory = new com.fasterxml.jackson.dataformat.yaml.YAMLFactory();
+        ObjectMapper yamlMapper = new ObjectMapper(yamlFactory);
+        
+        // 创建YAML结构
+        Map<String, Object> yamlData = new HashMap<>();
+        
+        // 添加配置数据
+        Map<String, Object> configs = new HashMap<>();
+        for (Map.Entry<String, String> entry : configMap.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            
+            // 处理嵌套键（如 database.pool.timeout）
+            String[] keyParts = key.split("\\.");
+            Map<String, Object> current = configs;
+            
+            for (int i = 0; i < keyParts.length - 1; i++) {
+                String part = keyParts[i];
+                if (!current.containsKey(part)) {
+                    current.put(part, new HashMap<String, Object>());
+                }
+                current = (Map<String, Object>) current.get(part);
+            }
+            
+            current.put(keyParts[keyParts.length - 1], value);
+        }
+        
+        yamlData.put("configs", configs);
+        
+        // 添加元数据
+        if (lastUpdateTime != null) {
+            yamlData.put("lastUpdateTime", lastUpdateTime.toString());
+        }
+        if (version != null) {
+            yamlData.put("version", version);
+        }
+        if (revision > 0) {
+            yamlData.put("revision", revision);
+        }
+        if (!encryptedKeys.isEmpty()) {
+            yamlData.put("encryptedKeys", new ArrayList<>(encryptedKeys));
+        }
+        
+        yamlMapper.writeValue(file, yamlData);
+    }
+
+    /**
+     * 从YAML文件加载缓存
+     */
+    private void loadFromYamlFile(File file) throws IOException {
+        com.fasterxml.jackson.dataformat.yaml.YAMLFactory yamlFactory = new com.fasterxml.jackson.dataformat.yaml.YAMLFactory();
+        ObjectMapper yamlMapper = new ObjectMapper(yamlFactory);
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> yamlData = yamlMapper.readValue(file, Map.class);
+        
+        // 解析配置数据，替换当前配置
+        Map<String, String> loaded = new HashMap<>();
+        if (yamlData.containsKey("configs")) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> configs = (Map<String, Object>) yamlData.get("configs");
+            flattenYamlMap(configs, "", loaded);
+        }
+        this.configMap = loaded;
+        
+        // 解析元数据
+        if (yamlData.containsKey("lastUpdateTime")) {
+            try {
+                this.lastUpdateTime = LocalDateTime.parse(yamlData.get("lastUpdateTime").toString());
+            } catch (Exception e) {
+                logger.warn("解析YAML缓存更新时间失败", e);
+            }
+        }
+        
+        if (yamlData.containsKey("version")) {
+            this.version = yamlData.get("version").toString();
+        }
+
+        if (yamlData.get("revision") instanceof Number) {
+            this.revision = ((Number) yamlData.get("revision")).longValue();
+        }
+
+        if (yamlData.get("encryptedKeys") instanceof Collection) {
+            Set<String> keys = new HashSet<>();
+            for (Object key : (Collection<?>) yamlData.get("encryptedKeys")) {
+                keys.add(String.valueOf(key));
+            }
+            this.encryptedKeys = Collections.unmodifiableSet(keys);
+        }
+    }
+
+    /**
+     * 将YAML嵌套结构扁平化为key-value格式
+     */
+    private void flattenYamlMap(Map<String, Object> map, String prefix, Map<String, String> result) {
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            String fullKey = prefix.isEmpty() ? key : prefix + "." + key;
+            
+            if (value instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> nestedMap = (Map<String, Object>) value;
+                flattenYamlMap(nestedMap, fullKey, result);
+            } else {
+                result.put(fullKey, value.toString());
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        configMap = new HashMap<>();
+        configDetails.clear();
+        secrets = Collections.emptyMap();
+        placeholders.reset();
+        lastUpdateTime = null;
+        version = null;
+        revision = 0L;
+        history.clear();
+        rolledBackTo = 0L;
+    }
+
+    /**
+     * 获取缓存大小
+     */
+    public int size() {
+        return configMap.size();
+    }
+
+    /**
+     * 获取最后更新时间
+     */
+    public LocalDateTime getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    /**
+     * 设置版本
+     */
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    /**
+     * 获取版本
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * 设置服务端发布修订号
+     */
+    public synchronized void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    /**
+     * 获取服务端发布修订号，0表示未知
+     */
+    public long getRevision() {
+        return revision;
+    }
+    
+    /**
+     * 获取缓存文件路径
+     */
+    public String getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * 缓存数据类
+     */
+    public static class CacheData {
+        private Map<String, String> configs;
+        private LocalDateTime lastUpdateTime;
+        private String version;
+        private Long revision;
+        private List<String> encryptedKeys;
+        private List<String> subscribedKeys;
+
+        public Map<String, String> getConfigs() {
+            return configs;
+        }
+
+        public void setConfigs(Map<String, String> configs) {
+            this.configs = configs;
+        }
+
+        public LocalDateTime getLastUpdateTime() {
+            return lastUpdateTime;
+        }
+
+        public void setLastUpdateTime(LocalDateTime lastUpdateTime) {
+            this.lastUpdateTime = lastUpdateTime;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public void setVersion(String version) {
+            this.version = version;
+        }
+
+        public Long getRevision() {
+            return revision;
+        }
+
+        public void setRevision(Long revision) {
+            this.revision = revision;
+        }
+
+        public List<String> getEncryptedKeys() {
+            return encryptedKeys;
+        }
+
+        public void setEncryptedKeys(List<String> encryptedKeys) {
+            this.encryptedKeys = encryptedKeys;
+        }
+
+        public List<String> getSubscribedKeys() {
+            return subscribedKeys;
+        }
+
+        public void setSubscribedKeys(List<String> subscribedKeys) {
+            this.subscribedKeys = subscribedKeys;
+        }
+    }
+
+    /**
+     * 延迟解密的配置值，第一次读取时解密并缓存明文；解密失败（返回null）时不缓存，下次读取重新解密
+     */
+    private static final class EncryptedValue {
+        final String cipherText;
+        final UnaryOperator<String> decryptor;
+        private volatile String plainText;
+
+        EncryptedValue(String cipherText, UnaryOperator<String> decryptor) {
+            this.cipherText = cipherText;
+            this.decryptor = decryptor;
+        }
+
+        boolean matches(String raw) {
+            return cipherText.equals(raw);
+        }
+
+        String get() {
+            String value = plainText;
+            if (value == null) {
+                synchronized (this) {
+                    value = plainText;
+                    if (value == null) {
+                        value = decryptor.apply(cipherText);
+                        if (value != null) {
+                            plainText = value;
+                        }
+                    }
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 包含加密项的配置副本，读取加密项的值时才解密
+     */
+    private final class DecryptingConfigMap extends AbstractMap<String, String> {
+        private final Map<String, String> raw;
+        private final Map<String, EncryptedValue> snapshotSecrets;
+
+        DecryptingConfigMap(Map<String, String> raw, Map<String, EncryptedValue> snapshotSecrets) {
+            this.raw = raw;
+            this.snapshotSecrets = snapshotSecrets;
+        }
+
+        @Override
+        public String get(Object key) {
+            return resolve(key, raw.get(key), snapshotSecrets);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return raw.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return raw.size();
+        }
+
+        @Override
+        public String put(String key, String value) {
+            String previous = get(key);
+            raw.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public String remove(Object key) {
+            String previous = get(key);
+            raw.remove(key);
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, String>> iterator = raw.entrySet().iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            Entry<String, String> entry = iterator.next();
+                            return new Entry<String, String>() {
+                                @Override
+                                public String getKey() {
+                                    return entry.getKey();
+                                }
+
+                                @Override
+                                public String getValue() {
+                                    return resolve(entry.getKey(), entry.getValue(), snapshotSecrets);
+                                }
+
+                                @Override
+                                public String setValue(String value) {
+                                    String previous = getValue();
+                                    entry.setValue(value);
+                                    return previous;
+                                }
+
+                                @Override
+                                public boolean equals(Object o) {
+                                    if (!(o instanceof Entry)) {
+                                        return false;
+                                    }
+                                    Entry<?, ?> other = (Entry<?, ?>) o;
+                                    return getKey().equals(other.getKey())
+                                        && java.util.Objects.equals(getValue(), other.getValue());
+                                }
+
+                                @Override
+                                public int hashCode() {
+                                    String value = getValue();
+                                    return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return raw.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * 配置项详情类
+     */
+    public static class ConfigItem {
+        private String key;
+        private String value;
+        private String type;
+        private boolean encrypted;
+        private String description;
+
+        public ConfigItem() {}
+
+        public ConfigItem(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public boolean isEncrypted() {
+            return encrypted;
+        }
+
+        public void setEncrypted(boolean encrypted) {
+            this.encrypted = encrypted;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+    }
+} 
\ No newline at end of file
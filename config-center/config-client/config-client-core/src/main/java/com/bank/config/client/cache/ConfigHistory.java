@@ -0,0 +1,286 @@
+package com.bank.config.client.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 配置版本历史
+ * 保存最近被替换下来的若干份配置快照（修订号、原始配置、加密项），供客户端本地回滚。
+ * 快照不再修改，历史中只保存引用，不复制配置；紧凑存储时相邻快照共享未变化的键和值。
+ * 持久化时以当前配置为基准，每份快照只记录与比它新的一份相比变化和删除的配置
+ *
+ * @author bank
+ */
+class ConfigHistory {
+
+    // 头部为最近被替换的快照，同一修订号只保留一份
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private int capacity;
+
+    /**
+     * 设置保留的快照数量，0表示不保留
+     */
+    synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        while (entries.size() > this.capacity) {
+            entries.removeLast();
+        }
+    }
+
+    synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 记录一份被替换下来的配置，修订号未知或配置为空时不记录
+     */
+    synchronized void record(long revision, Map<String, String> configs, Set<String> encryptedKeys) {
+        if (capacity <= 0 || revision <= 0 || configs.isEmpty()) {
+            return;
+        }
+        remove(revision);
+        entries.addFirst(new Entry(revision, configs, encryptedKeys));
+        while (entries.size() > capacity) {
+            entries.removeLast();
+        }
+    }
+
+    /**
+     * 取出指定修订的快照，历史中不再保留
+     *
+     * @return 快照，没有该修订时返回null
+     */
+    synchronized Entry take(long revision) {
+        return remove(revision);
+    }
+
+    private Entry remove(long revision) {
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.revision == revision) {
+                iterator.remove();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 历史中的修订号，最近被替换的在前
+     */
+    synchronized List<Long> revisions() {
+        List<Long> revisions = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            revisions.add(entry.revision);
+        }
+        return revisions;
+    }
+
+    synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 以当前配置为基准保存历史
+     *
+     * @param revision 缓存的修订号，加载时与缓存文件中的修订号不一致则丢弃历史
+     * @param rolledBackTo 回滚后生效的修订号，0表示未回滚
+     */
+    synchronized void save(File file, ObjectMapper objectMapper, Map<String, String> current,
+                           Set<String> currentEncryptedKeys, long revision, long rolledBackTo) throws IOException {
+        HistoryData data = new HistoryData();
+        data.setRevision(revision);
+        data.setRolledBackTo(rolledBackTo);
+        List<SnapshotDelta> snapshots = new ArrayList<>(entries.size());
+        Map<String, String> newer = current;
+        Set<String> newerEncryptedKeys = currentEncryptedKeys;
+        for (Entry entry : entries) {
+            SnapshotDelta delta = new SnapshotDelta();
+            delta.setRevision(entry.revision);
+            delta.setReplacedAt(entry.replacedAt);
+            Map<String, String> changed = new HashMap<>();
+            for (Map.Entry<String, String> config : entry.configs.entrySet()) {
+                if (!config.getValue().equals(newer.get(config.getKey()))) {
+                    changed.put(config.getKey(), config.getValue());
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            for (String key : newer.keySet()) {
+                if (!entry.configs.containsKey(key)) {
+                    removed.add(key);
+                }
+            }
+            delta.setChanged(changed);
+            delta.setRemoved(removed);
+            if (!entry.encryptedKeys.equals(newerEncryptedKeys)) {
+                delta.setEncryptedKeys(new ArrayList<>(entry.encryptedKeys));
+            }
+            snapshots.add(delta);
+            newer = entry.configs;
+            newerEncryptedKeys = entry.encryptedKeys;
+        }
+        data.setSnapshots(snapshots);
+        objectMapper.writeValue(file, data);
+    }
+
+    /**
+     * 以刚加载的配置为基准恢复历史，替换当前保存的快照
+     *
+     * @param revision 缓存文件中的修订号
+     * @return 回滚后生效的修订号，未回滚或历史与缓存文件不一致时为0
+     */
+    synchronized long load(File file, ObjectMapper objectMapper, Map<String, String> current,
+                           Set<String> currentEncryptedKeys, long revision) throws IOException {
+        entries.clear();
+        HistoryData data = objectMapper.readValue(file, HistoryData.class);
+        if (data.getRevision() == null || data.getRevision() != revision || data.getSnapshots() == null) {
+            return 0L;
+        }
+        Map<String, String> newer = current;
+        Set<String> newerEncryptedKeys = currentEncryptedKeys;
+        for (SnapshotDelta delta : data.getSnapshots()) {
+            if (entries.size() >= capacity) {
+                break;
+            }
+            Map<String, String> configs = new HashMap<>(newer);
+            if (delta.getRemoved() != null) {
+                for (String key : delta.getRemoved()) {
+                    configs.remove(key);
+                }
+            }
+            if (delta.getChanged() != null) {
+                configs.putAll(delta.getChanged());
+            }
+            Set<String> encryptedKeys = delta.getEncryptedKeys() != null
+                ? Collections.unmodifiableSet(new HashSet<>(delta.getEncryptedKeys())) : newerEncryptedKeys;
+            Entry entry = new Entry(delta.getRevision(), configs, encryptedKeys, delta.getReplacedAt());
+            entries.addLast(entry);
+            newer = configs;
+            newerEncryptedKeys = encryptedKeys;
+        }
+        return data.getRolledBackTo() != null ? data.getRolledBackTo() : 0L;
+    }
+
+    /**
+     * 历史中的一份配置快照
+     */
+    static final class Entry {
+        final long revision;
+        final Map<String, String> configs;
+        final Set<String> encryptedKeys;
+        final long replacedAt;
+
+        Entry(long revision, Map<String, String> configs, Set<String> encryptedKeys) {
+            this(revision, configs, encryptedKeys, System.currentTimeMillis());
+        }
+
+        Entry(long revision, Map<String, String> configs, Set<String> encryptedKeys, long replacedAt) {
+            this.revision = revision;
+            this.configs = configs;
+            this.encryptedKeys = encryptedKeys;
+            this.replacedAt = replacedAt;
+        }
+    }
+
+    /**
+     * 历史文件数据类
+     */
+    public static class HistoryData {
+        private Long revision;
+        private Long rolledBackTo;
+        private List<SnapshotDelta> snapshots;
+
+        public Long getRevision() {
+            return revision;
+        }
+
+        public void setRevision(Long revision) {
+            this.revision = revision;
+        }
+
+        public Long getRolledBackTo() {
+            return rolledBackTo;
+        }
+
+        public void setRolledBackTo(Long rolledBackTo) {
+            this.rolledBackTo = rolledBackTo;
+        }
+
+        public List<SnapshotDelta> getSnapshots() {
+            return snapshots;
+        }
+
+        public void setSnapshots(List<SnapshotDelta> snapshots) {
+            this.snapshots = snapshots;
+        }
+    }
+
+    /**
+     * 一份快照相对于比它新的一份的增量
+     */
+    public static class SnapshotDelta {
+        private long revision;
+        private long replacedAt;
+        private Map<String, String> changed;
+        private List<String> removed;
+        // 与较新的一份相同时为空
+        private List<String> encryptedKeys;
+
+        public long getRevision() {
+            return revision;
+        }
+
+        public void setRevision(long revision) {
+            this.revision = revision;
+        }
+
+        public long getReplacedAt() {
+            return replacedAt;
+        }
+
+        public void setReplacedAt(long replacedAt) {
+            this.replacedAt = replacedAt;
+        }
+
+        public Map<String, String> getChanged() {
+            return changed;
+        }
+
+        public void setChanged(Map<String, String> changed) {
+            this.changed = changed;
+        }
+
+        public List<String> getRemoved() {
+            return removed;
+        }
+
+        public void setRemoved(List<String> removed) {
+            this.removed = removed;
+        }
+
+        public List<String> getEncryptedKeys() {
+            return encryptedKeys;
+        }
+
+        public void setEncryptedKeys(List<String> encryptedKeys) {
+            this.encryptedKeys = encryptedKeys;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.bank.config.client.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 客户端订阅的配置子集
+ * 由声明的配置键、键前缀（按字符串前缀匹配，如 "db." 匹配 db.url）以及运行中按需拉取而加入的键组成，
+ * 只同步子集内的配置。按需加入的键数量有上限，超过后不再加入
+ *
+ * @author bank
+ */
+public class KeySubscription {
+
+    private final Set<String> keys;
+    private final CopyOnWriteArrayList<String> prefixes;
+    private final Set<String> learnedKeys = ConcurrentHashMap.newKeySet();
+    private final int maxLearnedKeys;
+
+    public KeySubscription(Collection<String> keys, Collection<String> prefixes, int maxLearnedKeys) {
+        this.keys = Collections.unmodifiableSet(new HashSet<>(keys));
+        this.prefixes = new CopyOnWriteArrayList<>(new LinkedHashSet<>(prefixes));
+        this.maxLearnedKeys = maxLearnedKeys;
+    }
+
+    /**
+     * 配置键是否在子集内
+     */
+    public boolean matches(String key) {
+        if (keys.contains(key) || learnedKeys.contains(key)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把配置键加入子集
+     *
+     * @return 是否新加入；已在子集内或已达上限时返回false
+     */
+    public boolean addKey(String key) {
+        if (matches(key) || learnedKeys.size() >= maxLearnedKeys) {
+            return false;
+        }
+        return learnedKeys.add(key);
+    }
+
+    /**
+     * 把键前缀加入子集
+     *
+     * @return 是否新加入
+     */
+    public boolean addPrefix(String prefix) {
+        for (String existing : prefixes) {
+            if (prefix.startsWith(existing)) {
+                return false;
+            }
+        }
+        return prefixes.addIfAbsent(prefix);
+    }
+
+    /**
+     * 只保留子集内的配置
+     */
+    public Map<String, String> filter(Map<String, String> configs) {
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<String, String> entry : configs.entrySet()) {
+            if (matches(entry.getKey())) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 声明的和按需加入的全部配置键
+     */
+    public Set<String> getKeys() {
+        Set<String> all = new HashSet<>(keys);
+        all.addAll(learnedKeys);
+        return all;
+    }
+
+    public List<String> getPrefixes() {
+        return Collections.unmodifiableList(prefixes);
+    }
+
+    /**
+     * 按需加入的配置键，随本地缓存文件保存，重启后不必再逐个按需拉取
+     */
+    public Set<String> getLearnedKeys() {
+        return learnedKeys;
+    }
+}
@@ -0,0 +1,542 @@
+package com.bank.config.client.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 配置占位符解析器
+ * 解析配置值中的 ${other.key} 和 ${other.key:默认值} 引用，\${ 表示字面量 ${。
+ * 每份配置快照建立一次"键 -> 引用的键"依赖图并缓存解析结果，只为含占位符的键另存解析后的值，
+ * 其他键直接读原始配置；
+ * 配置更新时只重新解析变更键及其传递依赖方，返回按键的有效值变化（包括因依赖变化而变化的键）。
+ * 循环引用的键保留原值并告警；引用不存在且没有默认值时保留占位符原文；
+ * 不透明的键（如加密项）既不解析其中的占位符，也不能被其他配置引用
+ *
+ * @author bank
+ */
+public class PlaceholderResolver {
+    private static final Logger logger = LoggerFactory.getLogger(PlaceholderResolver.class);
+
+    private static final String PREFIX = "${";
+    private static final char SUFFIX = '}';
+    private static final char SEPARATOR = ':';
+    private static final char ESCAPE = '\\';
+
+    private static final Snapshot EMPTY = new Snapshot(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), Collections.<String, String>emptyMap(),
+        Collections.<String, Set<String>>emptyMap(),
+        Collections.<String, Set<String>>emptyMap(), Collections.<String>emptySet(),
+        Collections.<String>emptySet(), false);
+
+    private volatile boolean enabled = true;
+    private volatile Snapshot current = EMPTY;
+
+    /**
+     * 配置项有效值的变化
+     */
+    public static final class KeyChange {
+        private final String key;
+        private final String oldValue;
+        private final String newValue;
+
+        KeyChange(String key, String oldValue, String newValue) {
+            this.key = key;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * 变更前的有效值，新增时为 null
+         */
+        public String getOldValue() {
+            return oldValue;
+        }
+
+        /**
+         * 变更后的有效值，删除时为 null
+         */
+        public String getNewValue() {
+            return newValue;
+        }
+    }
+
+    /**
+     * 一份配置快照的解析结果，创建后不再修改
+     */
+    private static final class Snapshot {
+        final Map<String, String> raw;
+        // 含占位符的键解析后的值
+        final Map<String, String> overrides;
+        // raw 叠加 overrides 的只读视图
+        final Map<String, String> resolved;
+        // 含占位符的键 -> 引用的键
+        final Map<String, Set<String>> dependencies;
+        // 键 -> 直接引用它的键
+        final Map<String, Set<String>> dependents;
+        final Set<String> opaque;
+        // 处于循环引用中的键
+        final Set<String> cyclic;
+        final boolean resolving;
+
+        Snapshot(Map<String, String> raw, Map<String, String> overrides, Map<String, String> resolved,
+                 Map<String, Set<String>> dependencies, Map<String, Set<String>> dependents,
+                 Set<String> opaque, Set<String> cyclic, boolean resolving) {
+            this.raw = raw;
+            this.overrides = overrides;
+            this.resolved = resolved;
+            this.dependencies = dependencies;
+            this.dependents = dependents;
+            this.opaque = opaque;
+            this.cyclic = cyclic;
+            this.resolving = resolving;
+        }
+    }
+
+    /**
+     * 开启或关闭占位符解析，关闭时有效值即原始值；对下一次更新生效
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 当前快照的有效值，只读
+     */
+    public Map<String, String> getResolved() {
+        return current.resolved;
+    }
+
+    /**
+     * 当前快照中引用了 key 的所有键（传递闭包，不含 key 本身）
+     */
+    public Set<String> getDependents(String key) {
+        Set<String> result = collectDependents(Collections.singleton(key), current, EMPTY);
+        result.remove(key);
+        return result;
+    }
+
+    /**
+     * 以新的原始配置更新快照，只重新解析变化的键及其依赖方
+     *
+     * @param raw 新的原始配置，调用后不应再修改；上一份快照的原始配置用于比较旧值，同样不能被原地修改
+     * @param changedKeys 已知变化的键；为 null 时与上一份快照逐键比较
+     * @param opaque 不参与解析的键
+     * @return 有效值发生变化的键
+     */
+    public synchronized List<KeyChange> update(Map<String, String> raw, Collection<String> changedKeys,
+                                               Predicate<String> opaque) {
+        Snapshot previous = current;
+        boolean resolving = enabled;
+        Set<String> opaqueKeys = new HashSet<>();
+        for (String key : raw.keySet()) {
+            if (opaque.test(key)) {
+                opaqueKeys.add(key);
+            }
+        }
+
+        // 1. 原始值或不透明状态变化的键
+        Set<String> changed = new LinkedHashSet<>();
+        if (changedKeys != null) {
+            changed.addAll(changedKeys);
+        } else if (raw instanceof CompactConfigMap && previous.raw instanceof CompactConfigMap) {
+            // 紧凑快照按字节比较，不解码值
+            CompactConfigMap next = (CompactConfigMap) raw;
+            CompactConfigMap last = (CompactConfigMap) previous.raw;
+            for (String key : next.keySet()) {
+                if (!next.sameValue(key, last)) {
+                    changed.add(key);
+                }
+            }
+            for (String key : last.keySet()) {
+                if (!next.containsKey(key)) {
+                    changed.add(key);
+                }
+            }
+        } else {
+            for (Map.Entry<String, String> entry : raw.entrySet()) {
+                if (!Objects.equals(entry.getValue(), previous.raw.get(entry.getKey()))) {
+                    changed.add(entry.getKey());
+                }
+            }
+            for (String key : previous.raw.keySet()) {
+                if (!raw.containsKey(key)) {
+                    changed.add(key);
+                }
+            }
+        }
+        if (!opaqueKeys.equals(previous.opaque)) {
+            for (String key : opaqueKeys) {
+                if (!previous.opaque.contains(key)) {
+                    changed.add(key);
+                }
+            }
+            for (String key : previous.opaque) {
+                if (!opaqueKeys.contains(key)) {
+                    changed.add(key);
+                }
+            }
+        }
+        // 首次更新或开关变化时全量解析
+        boolean rebuild = previous == EMPTY || previous.resolving != resolving;
+        if (changed.isEmpty() && !rebuild) {
+            current = new Snapshot(raw, previous.overrides, view(raw, previous.overrides),
+                previous.dependencies, previous.dependents, opaqueKeys, previous.cyclic, resolving);
+            return Collections.emptyList();
+        }
+
+        // 2. 依赖图：原始值未变的键沿用上一份快照的引用关系
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        if (resolving) {
+            for (String key : raw.keySet()) {
+                if (opaqueKeys.contains(key)) {
+                    continue;
+                }
+                Set<String> references = rebuild || changed.contains(key)
+                    ? parseReferences(raw.get(key)) : previous.dependencies.get(key);
+                // 只含转义占位符的值引用集合为空，仍需解析以去掉转义符
+                if (references != null) {
+                    dependencies.put(key, references);
+                }
+            }
+        }
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            for (String reference : entry.getValue()) {
+                dependents.computeIfAbsent(reference, k -> new HashSet<>()).add(entry.getKey());
+            }
+        }
+
+        // 3. 需要重新解析的键：变化的键及其在新旧依赖图中的传递依赖方
+        Snapshot graph = new Snapshot(raw, null, null, dependencies, dependents, opaqueKeys, null, resolving);
+        Set<String> affected;
+        if (rebuild) {
+            affected = new LinkedHashSet<>(raw.keySet());
+            affected.addAll(previous.raw.keySet());
+        } else {
+            affected = collectDependents(changed, graph, previous);
+        }
+
+        // 4. 只重新解析受影响的键，其他键沿用上一份结果；与原始值相同的结果不另存
+        Map<String, String> overrides = rebuild ? new HashMap<>() : new HashMap<>(previous.overrides);
+        Resolution resolution = rebuild
+            ? new Resolution(raw, dependencies, opaqueKeys, null, Collections.<String>emptySet(), affected)
+            : new Resolution(raw, dependencies, opaqueKeys, previous.resolved, previous.cyclic, affected);
+        for (String key : affected) {
+            if (!dependencies.containsKey(key)) {
+                overrides.remove(key);
+                continue;
+            }
+            String value = resolution.resolve(key);
+            if (value.equals(raw.get(key))) {
+                overrides.remove(key);
+            } else {
+                overrides.put(key, value);
+            }
+        }
+        Map<String, String> resolved = view(raw, overrides);
+        if (!resolution.cyclic.isEmpty()) {
+            logger.warn("配置存在循环引用，以下配置保留原值: {}", resolution.cyclic);
+        }
+        Set<String> cyclic = new HashSet<>(resolution.cyclic);
+        if (!rebuild) {
+            for (String key : previous.cyclic) {
+                if (!affected.contains(key)) {
+                    cyclic.add(key);
+                }
+            }
+        }
+
+        List<KeyChange> changes = new ArrayList<>();
+        for (String key : affected) {
+            String oldValue = previous.resolved.get(key);
+            String newValue = resolved.get(key);
+            if (!Objects.equals(oldValue, newValue)) {
+                changes.add(new KeyChange(key, oldValue, newValue));
+            }
+        }
+        current = new Snapshot(raw, overrides, resolved, dependencies, dependents, opaqueKeys, cyclic, resolving);
+        return changes;
+    }
+
+    private static Map<String, String> view(Map<String, String> raw, Map<String, String> overrides) {
+        return overrides.isEmpty() ? Collections.unmodifiableMap(raw) : new ResolvedView(raw, overrides);
+    }
+
+    /**
+     * 丢弃快照，之后的第一次更新全量解析
+     */
+    public synchronized void reset() {
+        current = EMPTY;
+    }
+
+    /**
+     * 在两份依赖图中收集 keys 及其传递依赖方
+     */
+    private static Set<String> collectDependents(Collection<String> keys, Snapshot graph, Snapshot previous) {
+        Set<String> result = new LinkedHashSet<>(keys);
+        Deque<String> pending = new ArrayDeque<>(keys);
+        while (!pending.isEmpty()) {
+            String key = pending.poll();
+            addDependents(graph.dependents.get(key), result, pending);
+            addDependents(previous.dependents.get(key), result, pending);
+        }
+        return result;
+    }
+
+    private static void addDependents(Set<String> dependents, Set<String> result, Deque<String> pending) {
+        if (dependents == null) {
+            return;
+        }
+        for (String dependent : dependents) {
+            if (result.add(dependent)) {
+                pending.add(dependent);
+            }
+        }
+    }
+
+    /**
+     * 提取值中引用的键，包括默认值中的嵌套引用
+     */
+    static Set<String> parseReferences(String value) {
+        if (value == null || !value.contains(PREFIX)) {
+            return null;
+        }
+        Set<String> references = new HashSet<>();
+        collectReferences(value, references);
+        return references;
+    }
+
+    private static void collectReferences(String text, Set<String> references) {
+        int index = 0;
+        while ((index = text.indexOf(PREFIX, index)) >= 0) {
+            if (index > 0 && text.charAt(index - 1) == ESCAPE) {
+                index += PREFIX.length();
+                continue;
+            }
+            int end = findPlaceholderEnd(text, index);
+            if (end < 0) {
+                return;
+            }
+            String body = text.substring(index + PREFIX.length(), end);
+            int separator = body.indexOf(SEPARATOR);
+            references.add(separator >= 0 ? body.substring(0, separator) : body);
+            if (separator >= 0) {
+                collectReferences(body.substring(separator + 1), references);
+            }
+            index = end + 1;
+        }
+    }
+
+    /**
+     * 找到与 start 处 ${ 配对的 }，支持默认值中嵌套占位符；没有配对时返回 -1
+     */
+    private static int findPlaceholderEnd(String text, int start) {
+        int depth = 0;
+        for (int i = start + PREFIX.length(); i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == SUFFIX) {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            } else if (c == '$' && i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 一次更新中的解析过程，记录本次已解析的结果和检测到的循环
+     */
+    private static final class Resolution {
+        final Map<String, String> raw;
+        final Map<String, Set<String>> dependencies;
+        final Set<String> opaque;
+        // 不受本次变更影响的键直接取上一份结果，全量解析时为 null
+        final Map<String, String> previous;
+        final Set<String> previousCyclic;
+        final Set<String> affected;
+        final Map<String, String> memo = new HashMap<>();
+        final List<String> stack = new ArrayList<>();
+        final Set<String> cyclic = new LinkedHashSet<>();
+
+        Resolution(Map<String, String> raw, Map<String, Set<String>> dependencies, Set<String> opaque,
+                   Map<String, String> previous, Set<String> previousCyclic, Set<String> affected) {
+            this.raw = raw;
+            this.dependencies = dependencies;
+            this.opaque = opaque;
+            this.previous = previous;
+            this.previousCyclic = previousCyclic;
+            this.affected = affected;
+        }
+
+        /**
+         * 是否处于循环引用中，本次未重新解析的键沿用上一份快照的结论
+         */
+        boolean isCyclic(String key) {
+            return cyclic.contains(key)
+                || previous != null && !affected.contains(key) && previousCyclic.contains(key);
+        }
+
+        String resolve(String key) {
+            String value = raw.get(key);
+            if (!dependencies.containsKey(key)) {
+                return value;
+            }
+            if (previous != null && !affected.contains(key)) {
+                return previous.get(key);
+            }
+            String cached = memo.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            int position = stack.indexOf(key);
+            if (position >= 0) {
+                // 栈上从 key 开始的键构成循环
+                cyclic.addAll(stack.subList(position, stack.size()));
+                return value;
+            }
+            stack.add(key);
+            String result = resolveText(value);
+            stack.remove(stack.size() - 1);
+            if (cyclic.contains(key)) {
+                result = value;
+            }
+            memo.put(key, result);
+            return result;
+        }
+
+        String resolveText(String text) {
+            if (text.indexOf(PREFIX) < 0) {
+                return text;
+            }
+            StringBuilder result = new StringBuilder(text.length() + 16);
+            int index = 0;
+            while (index < text.length()) {
+                int start = text.indexOf(PREFIX, index);
+                if (start < 0) {
+                    result.append(text, index, text.length());
+                    break;
+                }
+                if (start > 0 && text.charAt(start - 1) == ESCAPE) {
+                    result.append(text, index, start - 1).append(PREFIX);
+                    index = start + PREFIX.length();
+                    continue;
+                }
+                int end = findPlaceholderEnd(text, start);
+                if (end < 0) {
+                    result.append(text, index, text.length());
+                    break;
+                }
+                result.append(text, index, start);
+                String body = text.substring(start + PREFIX.length(), end);
+                int separator = body.indexOf(SEPARATOR);
+                String name = separator >= 0 ? body.substring(0, separator) : body;
+                String resolvedReference = raw.containsKey(name) && !opaque.contains(name) ? resolve(name) : null;
+                if (resolvedReference != null && !isCyclic(name)) {
+                    result.append(resolvedReference);
+                } else if (resolvedReference != null) {
+                    // 引用了循环中的键，保留占位符原文
+                    result.append(text, start, end + 1);
+                } else if (separator >= 0) {
+                    result.append(resolveText(body.substring(separator + 1)));
+                } else {
+                    // 无法解析时保留原文
+                    result.append(text, start, end + 1);
+                }
+                index = end + 1;
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * 原始配置叠加占位符解析结果的只读视图
+     */
+    private static final class ResolvedView extends AbstractMap<String, String> {
+        private final Map<String, String> raw;
+        private final Map<String, String> overrides;
+
+        ResolvedView(Map<String, String> raw, Map<String, String> overrides) {
+            this.raw = raw;
+            this.overrides = overrides;
+        }
+
+        @Override
+        public String get(Object key) {
+            String value = overrides.get(key);
+            return value != null ? value : raw.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return raw.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return raw.size();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(raw.keySet());
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, String>> iterator = raw.entrySet().iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            Entry<String, String> entry = iterator.next();
+                            String value = overrides.get(entry.getKey());
+                            return new SimpleImmutableEntry<>(entry.getKey(),
+                                value != null ? value : entry.getValue());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return raw.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.bank.config.client.health;
+
+import com.bank.config.client.ConfigClient;
+import com.bank.config.client.retry.CircuitBreaker;
+import com.bank.config.client.security.ConfigSecurity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 配置健康检查类
+ * 服务端连通性由真实的拉取、推送结果驱动的状态机缓存：成功即 HEALTHY，
+ * 连续失败先进入 DEGRADED（继续使用本地缓存），达到阈值后进入 UNHEALTHY。
+ * isHealthy() 只读取缓存状态，不做任何IO。
+ * 可选开启轻量探测：一段时间内没有真实请求结果时，用独立超时的 HEAD 请求查询最新修订号
+ * 
+ * @author bank
+ */
+public class ConfigHealthCheck {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigHealthCheck.class);
+
+    /**
+     * 服务端连通状态
+     */
+    public enum Status {
+        UNKNOWN, HEALTHY, DEGRADED, UNHEALTHY
+    }
+
+    /**
+     * 状态来源
+     */
+    public enum Source {
+        PULL, PUSH, PROBE
+    }
+
+    private static final int UNHEALTHY_THRESHOLD = 3;
+
+    private final ConfigClient configClient;
+    private final long healthCheckTimeout;
+    private final ConfigSecurity security;
+
+    private final AtomicReference<HealthState> state = new AtomicReference<>(HealthState.INITIAL);
+
+    // 可选的探测任务
+    private ScheduledFuture<?> probeTask;
+    private CloseableHttpClient probeClient;
+    private volatile long probeInterval;
+
+    public ConfigHealthCheck(ConfigClient configClient) {
+        this(configClient, 5000); // 默认5秒超时
+    }
+
+    public ConfigHealthCheck(ConfigClient configClient, long healthCheckTimeout) {
+        this(configClient, healthCheckTimeout, null);
+    }
+
+    /**
+     * @param healthCheckTimeout 探测请求的连接和读取超时（毫秒）
+     * @param security 用于给探测请求添加认证头，可为空
+     */
+    public ConfigHealthCheck(ConfigClient configClient, long healthCheckTimeout, ConfigSecurity security) {
+        this.configClient = configClient;
+        this.healthCheckTimeout = healthCheckTimeout;
+        this.security = security;
+    }
+
+    /**
+     * 记录一次与服务端交互成功
+     */
+    public void recordSuccess(Source source) {
+        long now = System.currentTimeMillis();
+        state.updateAndGet(current -> new HealthState(Status.HEALTHY, 0, now, current.lastFailureTime,
+            source, current.lastError));
+    }
+
+    /**
+     * 记录一次与服务端交互失败
+     */
+    public void recordFailure(Source source, Throwable error) {
+        long now = System.currentTimeMillis();
+        String message = error != null ? error.getMessage() : null;
+        state.updateAndGet(current -> {
+            int failures = current.consecutiveFailures + 1;
+            Status status = failures >= UNHEALTHY_THRESHOLD ? Status.UNHEALTHY : Status.DEGRADED;
+            return new HealthState(status, failures, current.lastSuccessTime, now, source, message);
+        });
+    }
+
+    /**
+     * 获取缓存的服务端连通状态
+     */
+    public Status getStatus() {
+        return state.get().status;
+    }
+
+    /**
+     * 检查客户端是否健康，只读取缓存状态
+     */
+    public boolean isHealthy() {
+        try {
+            return checkServerConnection() && 
+                   checkCacheHealth() && 
+                   checkPollerHealth();
+        } catch (Exception e) {
+            logger.error("健康检查失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 获取详细的健康状态
+     */
+    public Map<String, Object> getHealthStatus() {
+        Map<String, Object> health = new HashMap<>();
+        
+        try {
+            // 检查各个组件
+            boolean serverConnection = checkServerConnection();
+            boolean cacheHealth = checkCacheHealth();
+            boolean pollerHealth = checkPollerHealth();
+            
+            health.put("overall", serverConnection && cacheHealth && pollerHealth);
+            health.put("serverConnection", serverConnection);
+            health.put("cacheHealth", cacheHealth);
+            health.put("pollerHealth", pollerHealth);
+            
+            // 状态机信息
+            HealthState current = state.get();
+            health.put("status", current.status.name());
+            health.put("consecutiveFailures", current.consecutiveFailures);
+            health.put("lastSuccessTime", current.lastSuccessTime);
+            health.put("lastFailureTime", current.lastFailureTime);
+            health.put("lastSource", current.lastSource != null ? current.lastSource.name() : null);
+            health.put("lastError", current.lastError);
+            health.put("circuitState", configClient.getRetry().getCircuitBreaker().getState().name());
+            
+            // 添加指标信息
+            Map<String, Object> metrics = configClient.getMetrics().getHealthStatus();
+            health.put("metrics", metrics);
+            
+            // 添加配置信息
+            health.put("appCode", configClient.getAppCode());
+            health.put("envCode", configClient.getEnvCode());
+            health.put("serverUrl", configClient.getServerUrl());
+            health.put("cacheSize", configClient.getCache().size());
+            health.put("pollerRunning", configClient.getPoller().isRunning());
+            
+        } catch (Exception e) {
+            logger.error("获取健康状态失败", e);
+            health.put("overall", false);
+            health.put("error", e.getMessage());
+        }
+        
+        return health;
+    }
+
+    /**
+     * 检查服务器连接：读取缓存状态，连续失败未达到阈值时仍视为可用
+     */
+    private boolean checkServerConnection() {
+        return state.get().status != Status.UNHEALTHY
+            && configClient.getRetry().getCircuitBreaker().getState() != CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * 检查缓存健康状态
+     */
+    private boolean checkCacheHealth() {
+        try {
+            // 检查缓存是否可用
+            configClient.getCache().get("test");
+            return true;
+        } catch (Exception e) {
+            logger.warn("缓存健康检查失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 检查拉取器健康状态，未启用轮询时不检查
+     */
+    private boolean checkPollerHealth() {
+        try {
+            return !configClient.isPollingEnabled() || configClient.getPoller().isRunning();
+        } catch (Exception e) {
+            logger.warn("拉取器健康检查失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 启动定时探测
+     * 每个周期内只要已有真实的拉取或推送结果就跳过探测
+     *
+     * @param interval 探测间隔（毫秒）
+     */
+    public synchronized void startProbe(long interval) {
+        if (probeTask != null || interval <= 0) {
+            return;
+        }
+        this.probeInterval = interval;
+        int timeout = (int) healthCheckTimeout;
+        this.probeClient = HttpClients.custom()
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setConnectionRequestTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .build())
+            .build();
+        this.probeTask = configClient.getRuntime().scheduleBlockingWithFixedDelay(() -> {
+            HealthState current = state.get();
+            long lastOutcome = Math.max(current.lastSuccessTime, current.lastFailureTime);
+            if (System.currentTimeMillis() - lastOutcome >= probeInterval) {
+                probeOnce();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("健康探测已启动，间隔{}ms，超时{}ms", interval, timeout);
+    }
+
+    /**
+     * 停止定时探测
+     */
+    public synchronized void stopProbe() {
+        if (probeTask != null) {
+            probeTask.cancel(false);
+            probeTask = null;
+        }
+        if (probeClient != null) {
+            try {
+                probeClient.close();
+            } catch (Exception e) {
+                logger.warn("关闭探测HTTP客户端失败", e);
+            }
+            probeClient = null;
+        }
+    }
+
+    /**
+     * 执行一次探测：HEAD 请求最新修订号，不拉取配置
+     * 服务端返回非5xx即视为可达
+     *
+     * @return 服务端是否可达
+     */
+    public boolean probeOnce() {
+        String url = String.format("%s/api/client/revision/%s/%s",
+            configClient.getServerUrl(), configClient.getAppCode(), configClient.getEnvCode());
+        HttpHead request = new HttpHead(url);
+        if (security != null) {
+            security.addAuthHeaders(request);
+        }
+        CloseableHttpClient client;
+        synchronized (this) {
+            client = probeClient;
+        }
+        boolean ownClient = client == null;
+        if (ownClient) {
+            int timeout = (int) healthCheckTimeout;
+            client = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                    .setConnectTimeout(timeout)
+                    .setSocketTimeout(timeout)
+                    .build())
+                .build();
+        }
+        try (CloseableHttpResponse response = client.execute(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status >= 500) {
+                recordFailure(Source.PROBE, new IllegalStateException("服务器响应错误: " + status));
+                return false;
+            }
+            recordSuccess(Source.PROBE);
+            return true;
+        } catch (Exception e) {
+            logger.debug("健康探测失败: {}", e.getMessage());
+            recordFailure(Source.PROBE, e);
+            return false;
+        } finally {
+            if (ownClient) {
+                try {
+                    client.close();
+                } catch (Exception e) {
+                    logger.debug("关闭探测HTTP客户端失败", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 执行完整的健康检查，会实际探测一次服务端
+     */
+    public HealthCheckResult performHealthCheck() {
+        HealthCheckResult result = new HealthCheckResult();
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            // 探测服务器
+            probeOnce();
+            boolean serverOk = checkServerConnection();
+            result.setServerConnection(serverOk);
+            
+            // 检查缓存
+            boolean cacheOk = checkCacheHealth();
+            result.setCacheHealth(cacheOk);
+            
+            // 检查拉取器
+            boolean pollerOk = checkPollerHealth();
+            result.setPollerHealth(pollerOk);
+            
+            // 检查指标
+            Map<String, Object> metrics = configClient.getMetrics().getHealthStatus();
+            result.setMetrics(metrics);
+            
+            // 设置总体状态
+            result.setHealthy(serverOk && cacheOk && pollerOk);
+            
+        } catch (Exception e) {
+            logger.error("健康检查执行失败", e);
+            result.setHealthy(false);
+            result.setError(e.getMessage());
+        }
+        
+        result.setCheckTime(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * 不可变的健康状态快照
+     */
+    private static final class HealthState {
+        static final HealthState INITIAL = new HealthState(Status.UNKNOWN, 0, 0L, 0L, null, null);
+
+        final Status status;
+        final int consecutiveFailures;
+        final long lastSuccessTime;
+        final long lastFailureTime;
+        final Source lastSource;
+        final String lastError;
+
+        HealthState(Status status, int consecutiveFailures, long lastSuccessTime, long lastFailureTime,
+                    Source lastSource, String lastError) {
+            this.status = status;
+            this.consecutiveFailures = consecutiveFailures;
+            this.lastSuccessTime = lastSuccessTime;
+            this.lastFailureTime = lastFailureTime;
+            this.lastSource = lastSource;
+            this.lastError = lastError;
+        }
+    }
+
+    /**
+     * 健康检查结果类
+     */
+    public static class HealthCheckResult {
+        private boolean healthy;
+        private boolean serverConnection;
+        private boolean cacheHealth;
+        private boolean pollerHealth;
+        private Map<String, Object> metrics;
+        private String error;
+        private long checkTime;
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public void setHealthy(boolean healthy) {
+            this.healthy = healthy;
+        }
+
+        public boolean isServerConnection() {
+            return serverConnection;
+        }
+
+        public void setServerConnection(boolean serverConnection) {
+            this.serverConnection = serverConnection;
+        }
+
+        public boolean isCacheHealth() {
+            return cacheHealth;
+        }
+
+        public void setCacheHealth(boolean cacheHealth) {
+            this.cacheHealth = cacheHealth;
+        }
+
+        public boolean isPollerHealth() {
+            return pollerHealth;
+        }
+
+        public void setPollerHealth(boolean pollerHealth) {
+            this.pollerHealth = pollerHealth;
+        }
+
+        public Map<String, Object> getMetrics() {
+            return metrics;
+        }
+
+        public void setMetrics(Map<String, Object> metrics) {
+            this.metrics = metrics;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+
+        public long getCheckTime() {
+            return checkTime;
+        }
+
+        public void setCheckTime(long checkTime) {
+            this.checkTime = checkTime;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("HealthCheckResult{healthy=%s, serverConnection=%s, cacheHealth=%s, pollerHealth=%s, checkTime=%dms}",
+                    healthy, serverConnection, cacheHealth, pollerHealth, checkTime);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.bank.config.client.hotupdate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 绑定到配置前缀的对象
+ * 前缀下的配置变化时构建一个新对象并整体替换，读取方每次 get 只有一次 volatile 读，
+ * 拿到的对象中各属性来自同一份配置，不会出现新主机配旧端口的情况。
+ * 返回的对象视为只读，不应修改；新配置无法转换时保留上一个对象
+ *
+ * @author bank
+ */
+public class BoundConfig<T> implements Supplier<T> {
+    private static final Logger logger = LoggerFactory.getLogger(BoundConfig.class);
+
+    private final ConfigBinder binder;
+    private final String prefix;
+    private final Class<T> type;
+    private volatile T current;
+
+    public BoundConfig(ConfigBinder binder, String prefix, Class<T> type, Map<String, String> configs) {
+        this.binder = binder;
+        this.prefix = prefix;
+        this.type = type;
+        try {
+            this.current = binder.bind(configs, prefix, type);
+        } catch (IllegalArgumentException e) {
+            // 初始配置有误时以默认值启动，等待配置修正
+            logger.error("绑定配置前缀失败，使用默认值: {} -> {}", prefix, type.getSimpleName(), e);
+            this.current = binder.bind(java.util.Collections.<String, String>emptyMap(), prefix, type);
+        }
+    }
+
+    @Override
+    public T get() {
+        return current;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 变化的配置键中有位于前缀下的键时重新绑定
+     *
+     * @return 是否替换了对象
+     */
+    public boolean onConfigsChanged(Collection<String> changedKeys, Map<String, String> configs) {
+        for (String key : changedKeys) {
+            if (ConfigBinder.isUnderPrefix(key, prefix)) {
+                return rebind(configs);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 用给定配置重新构建对象并替换
+     */
+    public synchronized boolean rebind(Map<String, String> configs) {
+        try {
+            current = binder.bind(configs, prefix, type);
+            logger.debug("配置前缀已重新绑定: {} -> {}", prefix, type.getSimpleName());
+            return true;
+        } catch (IllegalArgumentException e) {
+            logger.warn("重新绑定配置前缀失败，保留原对象: {} -> {}: {}", prefix, type.getSimpleName(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.bank.config.client.hotupdate;
+
+import com.bank.config.client.parser.ConfigConverter;
+import com.bank.config.client.parser.DataSize;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 配置前缀到POJO的批量绑定
+ * 每个类第一次绑定时解析出可写属性（setter 优先，其次非 static、非 final 字段），
+ * 生成 MethodHandle 和类型转换器并缓存；之后每次绑定只按属性名分组配置键并调用预先生成的 setter。
+ * 属性名宽松匹配：maxConnections、max-connections、max_connections 等价。
+ * 嵌套POJO、Map 按子键绑定，List/数组支持 name[i] 子键或逗号分隔的值
+ *
+ * @author bank
+ */
+public class ConfigBinder {
+
+    private final ConfigConverter converter;
+    private final Map<Class<?>, BeanModel> models = new ConcurrentHashMap<>();
+
+    public ConfigBinder(ConfigConverter converter) {
+        this.converter = converter;
+    }
+
+    /**
+     * 用前缀下的配置构建一个新对象
+     *
+     * @param configs 全部配置
+     * @param prefix 配置前缀，为空时绑定全部配置
+     * @throws IllegalArgumentException 有配置值不能转换为对应属性的类型时
+     */
+    public <T> T bind(Map<String, String> configs, String prefix, Class<T> type) {
+        Map<String, String> subtree = new HashMap<>();
+        if (prefix == null || prefix.isEmpty()) {
+            subtree.putAll(configs);
+        } else {
+            for (Map.Entry<String, String> entry : configs.entrySet()) {
+                String key = entry.getKey();
+                if (key.length() > prefix.length() + 1 && key.startsWith(prefix)
+                        && key.charAt(prefix.length()) == '.') {
+                    subtree.put(key.substring(prefix.length() + 1), entry.getValue());
+                }
+            }
+        }
+        return type.cast(bindBean(model(type), subtree, prefix == null ? "" : prefix));
+    }
+
+    /**
+     * 配置键是否位于前缀下
+     */
+    public static boolean isUnderPrefix(String key, String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return true;
+        }
+        return key.startsWith(prefix) && (key.length() == prefix.length()
+            || key.charAt(prefix.length()) == '.' || key.charAt(prefix.length()) == '[');
+    }
+
+    private BeanModel model(Class<?> type) {
+        return models.computeIfAbsent(type, BeanModel::new);
+    }
+
+    private Object bindBean(BeanModel model, Map<String, String> subtree, String path) {
+        Object bean = model.newInstance();
+        // 按第一段属性名分组：name -> {剩余部分 -> 值}，剩余部分为空表示值本身
+        Map<String, Map<String, String>> groups = new HashMap<>();
+        for (Map.Entry<String, String> entry : subtree.entrySet()) {
+            String key = entry.getKey();
+            int end = segmentEnd(key);
+            String name = canonical(key.substring(0, end));
+            String rest = end < key.length() && key.charAt(end) == '.' ? key.substring(end + 1) : key.substring(end);
+            groups.computeIfAbsent(name, k -> new HashMap<>()).put(rest, entry.getValue());
+        }
+        for (Map.Entry<String, Map<String, String>> group : groups.entrySet()) {
+            Property property = model.properties.get(group.getKey());
+            if (property == null) {
+                continue;
+            }
+            Object value = bindValue(property.type, group.getValue(), path + "." + property.name);
+            if (value != null) {
+                property.set(bean, value);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 按目标类型绑定一组子键；键 "" 为值本身，".x" 形式已去掉点号，"[i]..." 为下标
+     */
+    private Object bindValue(Type type, Map<String, String> values, String path) {
+        String own = values.get("");
+        Class<?> raw = rawClass(type);
+        if (own != null && (values.size() == 1 || !isBean(raw))) {
+            ConfigConverter.TypedConverter<?> typed = converter.forType(type);
+            Object converted = typed.convertOrDefault(own, null);
+            if (converted == null) {
+                throw new IllegalArgumentException("配置值无法转换: " + path + " = " + own
+                    + " (" + type.getTypeName() + ")");
+            }
+            return converted;
+        }
+        if (raw.isArray() || Collection.class.isAssignableFrom(raw)) {
+            return bindIndexed(type, raw, values, path);
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            return bindMap(type, values, path);
+        }
+        if (isBean(raw)) {
+            Map<String, String> nested = new HashMap<>(values);
+            nested.remove("");
+            return bindBean(model(raw), nested, path);
+        }
+        return null;
+    }
+
+    private Object bindIndexed(Type type, Class<?> raw, Map<String, String> values, String path) {
+        Type elementType = raw.isArray() ? raw.getComponentType() : typeArgument(type, 0);
+        // 下标 -> 该元素的子键
+        TreeMap<Integer, Map<String, String>> elements = new TreeMap<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String key = entry.getKey();
+            int close = key.indexOf(']');
+            if (!key.startsWith("[") || close < 0) {
+                continue;
+            }
+            Integer index = parseIndex(key.substring(1, close));
+            if (index == null) {
+                continue;
+            }
+            String rest = key.substring(close + 1);
+            if (rest.startsWith(".")) {
+                rest = rest.substring(1);
+            }
+            elements.computeIfAbsent(index, k -> new HashMap<>()).put(rest, entry.getValue());
+        }
+        List<Object> items = new ArrayList<>(elements.size());
+        for (Map.Entry<Integer, Map<String, String>> element : elements.entrySet()) {
+            items.add(bindValue(elementType, element.getValue(), path + "[" + element.getKey() + "]"));
+        }
+        if (raw.isArray()) {
+            Object array = Array.newInstance(raw.getComponentType(), items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Array.set(array, i, items.get(i));
+            }
+            return array;
+        }
+        return Set.class.isAssignableFrom(raw) ? new LinkedHashSet<>(items) : items;
+    }
+
+    private Object bindMap(Type type, Map<String, String> values, String path) {
+        Type keyType = typeArgument(type, 0);
+        Type valueType = typeArgument(type, 1);
+        // Map 的键按第一段分组，其余部分交给值类型绑定
+        Map<String, Map<String, String>> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String key = entry.getKey();
+            if (key.isEmpty()) {
+                continue;
+            }
+            int end = isBean(rawClass(valueType)) ? segmentEnd(key) : key.length();
+            String rest = end < key.length() && key.charAt(end) == '.' ? key.substring(end + 1) : key.substring(end);
+            entries.computeIfAbsent(key.substring(0, end), k -> new HashMap<>()).put(rest, entry.getValue());
+        }
+        Map<Object, Object> result = new LinkedHashMap<>();
+        ConfigConverter.TypedConverter<?> keyConverter = converter.forType(keyType);
+        for (Map.Entry<String, Map<String, String>> entry : entries.entrySet()) {
+            Object key = keyConverter.convertOrDefault(entry.getKey(), null);
+            if (key == null) {
+                throw new IllegalArgumentException("配置键无法转换: " + path + "." + entry.getKey());
+            }
+            result.put(key, bindValue(valueType, entry.getValue(), path + "." + entry.getKey()));
+        }
+        return result;
+    }
+
+    private static Integer parseIndex(String text) {
+        if (text.isEmpty() || text.length() > 9) {
+            return null;
+        }
+        int index = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    /**
+     * 第一段属性名的结束位置（'.' 或 '['）
+     */
+    private static int segmentEnd(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '.' || c == '[') {
+                return i;
+            }
+        }
+        return key.length();
+    }
+
+    /**
+     * 宽松匹配用的属性名：去掉 '-' 和 '_'，转小写
+     */
+    static String canonical(String name) {
+        StringBuilder result = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '-' && c != '_') {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString();
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < arguments.length) {
+                return arguments[index];
+            }
+        }
+        return String.class;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return Object.class;
+    }
+
+    /**
+     * 是否按子键绑定的POJO类型：非JDK类型、非枚举、有无参构造函数
+     */
+    private static boolean isBean(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isEnum() || type.isInterface()
+                || Modifier.isAbstract(type.getModifiers()) || type == DataSize.class) {
+            return false;
+        }
+        String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.")) {
+            return false;
+        }
+        try {
+            type.getDeclaredConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 一个类的可写属性及构造方法，解析一次后复用
+     */
+    private static final class BeanModel {
+        final MethodHandle constructor;
+        // 宽松属性名 -> 属性
+        final Map<String, Property> properties = new HashMap<>();
+
+        BeanModel(Class<?> type) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                Constructor<?> noArg = type.getDeclaredConstructor();
+                noArg.setAccessible(true);
+                this.constructor = lookup.unreflectConstructor(noArg).asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException("绑定类型需要无参构造函数: " + type.getName(), e);
+            }
+            // setter 优先
+            for (Method method : type.getMethods()) {
+                if (method.getParameterCount() == 1 && method.getName().length() > 3
+                        && method.getName().startsWith("set") && !Modifier.isStatic(method.getModifiers())) {
+                    String name = Character.toLowerCase(method.getName().charAt(3)) + method.getName().substring(4);
+                    try {
+                        MethodHandle setter = lookup.unreflect(method)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                        properties.putIfAbsent(canonical(name), new Property(name,
+                            method.getGenericParameterTypes()[0], method.getParameterTypes()[0].isPrimitive(), setter));
+                    } catch (IllegalAccessException e) {
+                        // 不可访问的 setter 跳过，改用字段
+                    }
+                }
+            }
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic()
+                            || properties.containsKey(canonical(field.getName()))) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        MethodHandle setter = lookup.unreflectSetter(field)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                        properties.put(canonical(field.getName()), new Property(field.getName(),
+                            field.getGenericType(), field.getType().isPrimitive(), setter));
+                    } catch (IllegalAccessException | RuntimeException e) {
+                        // 模块限制等原因不可访问的字段跳过
+                    }
+                }
+            }
+        }
+
+        Object newInstance() {
+            try {
+                return constructor.invokeExact();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("创建绑定对象失败", e);
+            }
+        }
+    }
+
+    /**
+     * 一个可写属性及其预先生成的 setter
+     */
+    private static final class Property {
+        final String name;
+        final Type type;
+        final boolean primitive;
+        final MethodHandle setter;
+
+        Property(String name, Type type, boolean primitive, MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            this.primitive = primitive;
+            this.setter = setter;
+        }
+
+        void set(Object bean, Object value) {
+            if (value == null && primitive) {
+                return;
+            }
+            try {
+                setter.invokeExact(bean, value);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("设置属性失败: " + name, e);
+            }
+        }
+    }
+}
@@ -1,20 +1,24 @@
 package com.bank.config.client.hotupdate;
 
 import com.bank.config.client.cache.ConfigCache;
+import com.bank.config.client.jfr.ConfigEvents;
+import com.bank.config.client.metrics.ConfigMetrics;
+import com.bank.config.client.parser.ConfigConverter;
 import com.bank.config.client.poller.ConfigChangeListener;
+import com.bank.config.client.runtime.ConfigClientRuntime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 配置热更新管理器
- * 负责检测配置变更并自动更新相关的对象属性
+ * 负责检测配置变更并自动更新相关的对象属性。
+ * 第一次绑定时才开始定时检测，检测任务运行在共享运行时上
  * 
  * @author bank
  */
@@ -23,20 +27,49 @@ public class ConfigHotUpdateManager {
     private static final Logger logger = LoggerFactory.getLogger(ConfigHotUpdateManager.class);
     
     private final ConfigCache configCache;
+    private final ConfigConverter converter;
     private final Map<String, List<ConfigFieldBinding>> fieldBindings = new ConcurrentHashMap<>();
     private final Map<String, List<ConfigMethodBinding>> methodBindings = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler;
+    private volatile ConfigMetrics metrics;
+    
+    // 未指定运行时时在开始检测时获取共享运行时的引用，shutdown 时释放
+    private ConfigClientRuntime runtime;
+    private boolean ownsRuntime;
+    private ScheduledFuture<?> detectionTask;
+    private boolean shutdown;
     
     public ConfigHotUpdateManager(ConfigCache configCache) {
+        this(configCache, null);
+    }
+    
+    /**
+     * @param runtime 检测任务使用的运行时，由调用方管理其生命周期；为空时自行获取共享运行时
+     */
+    public ConfigHotUpdateManager(ConfigCache configCache, ConfigClientRuntime runtime) {
+        this(configCache, runtime, new ConfigConverter());
+    }
+    
+    /**
+     * @param converter 绑定字段、方法参数时使用的类型转换器
+     */
+    public ConfigHotUpdateManager(ConfigCache configCache, ConfigClientRuntime runtime, ConfigConverter converter) {
         this.configCache = configCache;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread thread = new Thread(r, "config-hot-update");
-            thread.setDaemon(true);
-            return thread;
-        });
-        
-        // 启动配置变更检测
-        startConfigChangeDetection();
+        this.runtime = runtime;
+        this.converter = converter;
+    }
+    
+    /**
+     * 获取类型转换器，热更新处理器与管理器共用
+     */
+    public ConfigConverter getConverter() {
+        return converter;
+    }
+    
+    /**
+     * 设置监控指标，用于记录热更新应用耗时
+     */
+    public void setMetrics(ConfigMetrics metrics) {
+        this.metrics = metrics;
     }
     
     /**
@@ -52,8 +85,10 @@ public class ConfigHotUpdateManager {
             if (field != null) {
                 field.setAccessible(true);
                 
-                ConfigFieldBinding binding = new ConfigFieldBinding(target, field, configKey);
+                ConfigFieldBinding binding = new ConfigFieldBinding(target, field, configKey,
+                    converter.forType(field.getGenericType()));
                 fieldBindings.computeIfAbsent(configKey, k -> new ArrayList<>()).add(binding);
+                startConfigChangeDetection();
                 
                 // 立即设置初始值
                 updateFieldValue(binding);
@@ -79,8 +114,10 @@ public class ConfigHotUpdateManager {
         try {
             java.lang.reflect.Method method = target.getClass().getMethod(methodName, parameterTypes);
             
-            ConfigMethodBinding binding = new ConfigMethodBinding(target, method, configKey);
+            ConfigMethodBinding binding = new ConfigMethodBinding(target, method, configKey,
+                resolveConverters(method));
             methodBindings.computeIfAbsent(configKey, k -> new ArrayList<>()).add(binding);
+            startConfigChangeDetection();
             
             // 立即调用方法设置初始值
             updateMethodValue(binding);
@@ -97,7 +134,11 @@ public class ConfigHotUpdateManager {
      * @param configKey 配置键
      * @param beanName Bean名称
      * @param fieldName 字段名
+     * @deprecated 只记录日志，不会更新 Bean；Spring 应用请注册
+     *             {@link com.bank.config.client.spring.ConfigRefreshPostProcessor}，
+     *             @Value 和 @ConfigurationProperties 会在配置变化时自动重新绑定
      */
+    @Deprecated
     public void bindSpringBean(String configKey, String beanName, String fieldName) {
         // 这里可以通过Spring上下文获取Bean
         // 暂时记录绑定信息，等待Spring上下文可用时再处理
@@ -105,10 +146,17 @@ public class ConfigHotUpdateManager {
     }
     
     /**
-     * 启动配置变更检测
+     * 启动配置变更检测，只启动一次
      */
-    private void startConfigChangeDetection() {
-        scheduler.scheduleAtFixedRate(() -> {
+    private synchronized void startConfigChangeDetection() {
+        if (detectionTask != null || shutdown) {
+            return;
+        }
+        if (runtime == null) {
+            runtime = ConfigClientRuntime.acquire();
+            ownsRuntime = true;
+        }
+        detectionTask = runtime.scheduleWithFixedDelay(() -> {
             try {
                 detectConfigChanges();
             } catch (Exception e) {
@@ -119,24 +167,46 @@ public class ConfigHotUpdateManager {
         logger.info("配置热更新管理器已启动");
     }
     
+    /**
+     * 立即应用指定配置键的变化，由配置刷新时按键的变更结果触发（含因占位符引用而变化的键），
+     * 不必等待下一轮定时检测
+     */
+    public void applyChanges(Collection<String> changedKeys) {
+        applyBindings(changedKeys);
+    }
+    
     /**
      * 检测配置变更
      */
     private void detectConfigChanges() {
-        // 获取当前缓存中的所有配置
-        Map<String, String> currentConfigs = configCache.getAllConfigs();
+        applyBindings(null);
+    }
+    
+    /**
+     * 检查绑定并应用变化的值
+     *
+     * @param keys 只检查这些配置键，为 null 时检查全部绑定
+     */
+    private synchronized void applyBindings(Collection<String> keys) {
+        Object event = ConfigEvents.beginHotUpdate();
+        long start = System.nanoTime();
+        int appliedBindings = 0;
         
         // 检查每个绑定的配置项
         for (Map.Entry<String, List<ConfigFieldBinding>> entry : fieldBindings.entrySet()) {
             String configKey = entry.getKey();
+            if (keys != null && !keys.contains(configKey)) {
+                continue;
+            }
             List<ConfigFieldBinding> bindings = entry.getValue();
             
-            String newValue = currentConfigs.get(configKey);
+            String newValue = configCache.get(configKey);
             if (newValue != null) {
                 // 检查是否需要更新
                 for (ConfigFieldBinding binding : bindings) {
                     if (shouldUpdateField(binding, newValue)) {
                         updateFieldValue(binding);
+                        appliedBindings++;
                     }
                 }
             }
@@ -145,38 +215,46 @@ public class ConfigHotUpdateManager {
         // 检查方法绑定
         for (Map.Entry<String, List<ConfigMethodBinding>> entry : methodBindings.entrySet()) {
             String configKey = entry.getKey();
+            if (keys != null && !keys.contains(configKey)) {
+                continue;
+            }
             List<ConfigMethodBinding> bindings = entry.getValue();
             
-            String newValue = currentConfigs.get(configKey);
+            String newValue = configCache.get(configKey);
             if (newValue != null) {
                 for (ConfigMethodBinding binding : bindings) {
                     if (shouldUpdateMethod(binding, newValue)) {
                         updateMethodValue(binding);
+                        appliedBindings++;
                     }
                 }
             }
         }
+        
+        // 只记录实际应用了变更的检测轮次
+        if (appliedBindings == 0) {
+            return;
+        }
+        ConfigMetrics currentMetrics = metrics;
+        if (currentMetrics != null) {
+            currentMetrics.recordHotUpdateLatency(System.nanoTime() - start);
+        }
+        ConfigEvents.commitHotUpdate(event, appliedBindings, configCache.size());
     }
     
     /**
      * 检查字段是否需要更新
+     * 与上次应用的原始配置值比较，避免 Duration、集合等类型因 toString 格式不同而每轮都重新赋值
      */
     private boolean shouldUpdateField(ConfigFieldBinding binding, String newValue) {
-        try {
-            Object currentValue = binding.field.get(binding.target);
-            return !Objects.equals(String.valueOf(currentValue), newValue);
-        } catch (Exception e) {
-            logger.error("检查字段值失败", e);
-            return false;
-        }
+        return !Objects.equals(binding.appliedValue, newValue);
     }
     
     /**
-     * 检查方法是否需要更新
+     * 检查方法是否需要更新，只在配置值变化时调用
      */
     private boolean shouldUpdateMethod(ConfigMethodBinding binding, String newValue) {
-        // 这里可以实现更复杂的逻辑来判断是否需要调用方法
-        return true;
+        return !Objects.equals(binding.appliedValue, newValue);
     }
     
     /**
@@ -186,7 +264,14 @@ public class ConfigHotUpdateManager {
         try {
             String configValue = configCache.get(binding.configKey);
             if (configValue != null) {
-                Object convertedValue = convertValue(configValue, binding.field.getType());
+                Object convertedValue = binding.converter.convertOrDefault(configValue, null);
+                // 转换失败时保留当前值，同一个值不重复告警
+                binding.appliedValue = configValue;
+                if (convertedValue == null) {
+                    logger.warn("配置值无法转换为字段类型，保留原值: {} = {} ({})",
+                        binding.configKey, configValue, binding.field.getGenericType().getTypeName());
+                    return;
+                }
                 binding.field.set(binding.target, convertedValue);
                 
                 logger.debug("热更新字段: {}.{} = {}", 
@@ -209,11 +294,13 @@ public class ConfigHotUpdateManager {
             String configValue = configCache.get(binding.configKey);
             if (configValue != null) {
                 // 根据方法参数类型转换值
-                Class<?>[] paramTypes = binding.method.getParameterTypes();
-                Object[] args = new Object[paramTypes.length];
-                
-                for (int i = 0; i < paramTypes.length; i++) {
-                    args[i] = convertValue(configValue, paramTypes[i]);
+                binding.appliedValue = configValue;
+                Object[] args = convertArguments(binding.converters, configValue);
+                if (args == null) {
+                    logger.warn("配置值无法转换为方法参数类型，跳过调用: {} = {} ({}.{}())",
+                        binding.configKey, configValue,
+                        binding.target.getClass().getSimpleName(), binding.method.getName());
+                    return;
                 }
                 
                 binding.method.invoke(binding.target, args);
@@ -230,25 +317,29 @@ public class ConfigHotUpdateManager {
     }
     
     /**
-     * 转换配置值类型
+     * 为方法的每个参数解析转换器
+     */
+    ConfigConverter.TypedConverter<?>[] resolveConverters(java.lang.reflect.Method method) {
+        java.lang.reflect.Type[] paramTypes = method.getGenericParameterTypes();
+        ConfigConverter.TypedConverter<?>[] converters = new ConfigConverter.TypedConverter<?>[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) {
+            converters[i] = converter.forType(paramTypes[i]);
+        }
+        return converters;
+    }
+    
+    /**
+     * 用同一个配置值转换出每个参数，任一参数转换失败时返回 null
      */
-    private Object convertValue(String value, Class<?> targetType) {
-        if (targetType == String.class) {
-            return value;
-        } else if (targetType == Integer.class || targetType == int.class) {
-            return Integer.parseInt(value);
-        } else if (targetType == Long.class || targetType == long.class) {
-            return Long.parseLong(value);
-        } else if (targetType == Double.class || targetType == double.class) {
-            return Double.parseDouble(value);
-        } else if (targetType == Float.class || targetType == float.class) {
-            return Float.parseFloat(value);
-        } else if (targetType == Boolean.class || targetType == boolean.class) {
-            return Boolean.parseBoolean(value);
-        } else {
-            // 对于其他类型，尝试使用默认构造函数或返回字符串
-            return value;
+    static Object[] convertArguments(ConfigConverter.TypedConverter<?>[] converters, String configValue) {
+        Object[] args = new Object[converters.length];
+        for (int i = 0; i < converters.length; i++) {
+            args[i] = converters[i].convertOrDefault(configValue, null);
+            if (args[i] == null) {
+                return null;
+            }
         }
+        return args;
     }
     
     /**
@@ -270,16 +361,24 @@ public class ConfigHotUpdateManager {
      * 停止热更新管理器
      */
     public void shutdown() {
-        if (scheduler != null) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
+        ConfigClientRuntime owned = null;
+        synchronized (this) {
+            if (shutdown) {
+                return;
             }
+            shutdown = true;
+            if (detectionTask != null) {
+                detectionTask.cancel(false);
+                detectionTask = null;
+            }
+            if (ownsRuntime) {
+                owned = runtime;
+                runtime = null;
+                ownsRuntime = false;
+            }
+        }
+        if (owned != null) {
+            owned.release();
         }
         logger.info("配置热更新管理器已停止");
     }
@@ -291,11 +390,15 @@ public class ConfigHotUpdateManager {
         final Object target;
         final Field field;
         final String configKey;
+        final ConfigConverter.TypedConverter<?> converter;
+        // 上次应用的原始配置值
+        volatile String appliedValue;
         
-        ConfigFieldBinding(Object target, Field field, String configKey) {
+        ConfigFieldBinding(Object target, Field field, String configKey, ConfigConverter.TypedConverter<?> converter) {
             this.target = target;
             this.field = field;
             this.configKey = configKey;
+            this.converter = converter;
         }
     }
     
@@ -306,11 +409,16 @@ public class ConfigHotUpdateManager {
         final Object target;
         final java.lang.reflect.Method method;
         final String configKey;
+        final ConfigConverter.TypedConverter<?>[] converters;
+        // 上次应用的原始配置值
+        volatile String appliedValue;
         
-        ConfigMethodBinding(Object target, java.lang.reflect.Method method, String configKey) {
+        ConfigMethodBinding(Object target, java.lang.reflect.Method method, String configKey,
+                            ConfigConverter.TypedConverter<?>[] converters) {
             this.target = target;
             this.method = method;
             this.configKey = configKey;
+            this.converters = converters;
         }
     }
 }
@@ -94,7 +94,8 @@ public class ConfigHotUpdateProcessor {
             
             // 设置字段值
             if (configValueStr != null) {
-                Object convertedValue = convertValue(configValueStr, field.getType());
+                Object convertedValue = hotUpdateManager.getConverter()
+                    .convert(configValueStr, field.getGenericType());
                 field.set(target, convertedValue);
                 
                 logger.debug("设置配置字段: {}.{} = {} (配置键: {})", 
@@ -142,11 +143,10 @@ public class ConfigHotUpdateProcessor {
             
             // 调用方法设置值
             if (configValueStr != null) {
-                Class<?>[] paramTypes = method.getParameterTypes();
-                Object[] args = new Object[paramTypes.length];
-                
-                for (int i = 0; i < paramTypes.length; i++) {
-                    args[i] = convertValue(configValueStr, paramTypes[i]);
+                Object[] args = ConfigHotUpdateManager.convertArguments(
+                    hotUpdateManager.resolveConverters(method), configValueStr);
+                if (args == null) {
+                    throw new IllegalArgumentException("配置值无法转换为方法参数类型: " + configKey + " = " + configValueStr);
                 }
                 
                 method.invoke(target, args);
@@ -234,28 +234,6 @@ public class ConfigHotUpdateProcessor {
         return null;
     }
     
-    /**
-     * 转换配置值类型
-     */
-    private Object convertValue(String value, Class<?> targetType) {
-        if (targetType == String.class) {
-            return value;
-        } else if (targetType == Integer.class || targetType == int.class) {
-            return Integer.parseInt(value);
-        } else if (targetType == Long.class || targetType == long.class) {
-            return Long.parseLong(value);
-        } else if (targetType == Double.class || targetType == double.class) {
-            return Double.parseDouble(value);
-        } else if (targetType == Float.class || targetType == float.class) {
-            return Float.parseFloat(value);
-        } else if (targetType == Boolean.class || targetType == boolean.class) {
-            return Boolean.parseBoolean(value);
-        } else {
-            // 对于其他类型，尝试使用默认构造函数或返回字符串
-            return value;
-        }
-    }
-    
     /**
      * 移除已处理的对象
      */
@@ -0,0 +1,26 @@
+package com.bank.config.client.jfr;
+
+/**
+ * 配置事件记录器
+ * begin 方法在事件未启用时返回 null，调用方把返回值原样传给对应的 commit 方法
+ *
+ * @author bank
+ */
+public interface ConfigEventRecorder {
+
+    Object beginRefresh();
+
+    void commitRefresh(Object event, long revision, int keyCount, long bytes, boolean success);
+
+    Object beginCacheSwap();
+
+    void commitCacheSwap(Object event, long revision, int keyCount);
+
+    Object beginListenerDispatch();
+
+    void commitListenerDispatch(Object event, int listenerCount, int keyCount);
+
+    Object beginHotUpdate();
+
+    void commitHotUpdate(Object event, int appliedBindings, int keyCount);
+}
@@ -0,0 +1,97 @@
+package com.bank.config.client.jfr;
+
+/**
+ * 配置事件入口
+ * 运行时存在 jdk.jfr 时通过反射加载 JFR 实现（仅在 JDK 11 及以上构建时打包），
+ * 否则所有方法直接返回，客户端在不支持JFR的 Java 8 上照常运行。
+ * JFR未录制或事件未启用时 begin 返回 null，不创建事件对象。
+ * 可通过 -Dconfig.client.jfr.enabled=false 关闭
+ *
+ * @author bank
+ */
+public final class ConfigEvents {
+
+    private static final String JFR_RECORDER_CLASS = "com.bank.config.client.jfr.JfrConfigEventRecorder";
+
+    private static final ConfigEventRecorder RECORDER = loadRecorder();
+
+    private ConfigEvents() {
+    }
+
+    /**
+     * 是否已加载JFR实现
+     */
+    public static boolean isAvailable() {
+        return RECORDER != null;
+    }
+
+    public static Object beginRefresh() {
+        return RECORDER != null ? RECORDER.beginRefresh() : null;
+    }
+
+    /**
+     * 提交配置刷新事件
+     *
+     * @param event beginRefresh 的返回值
+     * @param revision 刷新后的修订号
+     * @param keyCount 配置项数
+     * @param bytes 响应字节数
+     * @param success 是否成功
+     */
+    public static void commitRefresh(Object event, long revision, int keyCount, long bytes, boolean success) {
+        if (event != null) {
+            RECORDER.commitRefresh(event, revision, keyCount, bytes, success);
+        }
+    }
+
+    public static Object beginCacheSwap() {
+        return RECORDER != null ? RECORDER.beginCacheSwap() : null;
+    }
+
+    public static void commitCacheSwap(Object event, long revision, int keyCount) {
+        if (event != null) {
+            RECORDER.commitCacheSwap(event, revision, keyCount);
+        }
+    }
+
+    public static Object beginListenerDispatch() {
+        return RECORDER != null ? RECORDER.beginListenerDispatch() : null;
+    }
+
+    public static void commitListenerDispatch(Object event, int listenerCount, int keyCount) {
+        if (event != null) {
+            RECORDER.commitListenerDispatch(event, listenerCount, keyCount);
+        }
+    }
+
+    public static Object beginHotUpdate() {
+        return RECORDER != null ? RECORDER.beginHotUpdate() : null;
+    }
+
+    /**
+     * 提交热更新事件
+     *
+     * @param appliedBindings 本轮实际更新的字段和方法绑定数
+     * @param keyCount 检测时的配置项数
+     */
+    public static void commitHotUpdate(Object event, int appliedBindings, int keyCount) {
+        if (event != null) {
+            RECORDER.commitHotUpdate(event, appliedBindings, keyCount);
+        }
+    }
+
+    private static ConfigEventRecorder loadRecorder() {
+        if (!Boolean.parseBoolean(System.getProperty("config.client.jfr.enabled", "true"))) {
+            return null;
+        }
+        try {
+            ClassLoader classLoader = ConfigEvents.class.getClassLoader();
+            Class.forName("jdk.jfr.Event", false, classLoader);
+            Class<?> recorderClass = Class.forName(JFR_RECORDER_CLASS, true, classLoader);
+            return (ConfigEventRecorder) recorderClass.getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            // 运行时没有JFR，或构建时未包含JFR实现
+            return null;
+        }
+    }
+}
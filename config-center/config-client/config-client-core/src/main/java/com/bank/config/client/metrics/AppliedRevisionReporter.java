@@ -0,0 +1,115 @@
+package com.bank.config.client.metrics;
+
+import com.bank.config.client.runtime.ConfigClientRuntime;
+import com.bank.config.client.security.ConfigSecurity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 配置生效上报器
+ * 在共享运行时上把生效的修订号、结果和发布到生效的延迟上报给服务端，
+ * 不阻塞配置应用；未完成的上报超过上限时丢弃，只影响统计不影响配置
+ *
+ * @author bank
+ */
+public class AppliedRevisionReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppliedRevisionReporter.class);
+
+    private static final int MAX_PENDING = 16;
+
+    private final String reportUrl;
+    private final String instanceId;
+    private final ConfigSecurity security;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConfigClientRuntime runtime;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    public AppliedRevisionReporter(String serverUrl, String appCode, String envCode, String instanceId,
+                                   ConfigSecurity security, CloseableHttpClient httpClient,
+                                   ConfigClientRuntime runtime) {
+        this.reportUrl = String.format("%s/api/client/applied/%s/%s", serverUrl, appCode, envCode);
+        this.instanceId = instanceId;
+        this.security = security;
+        this.httpClient = httpClient;
+        this.runtime = runtime;
+    }
+
+    /**
+     * 上报修订生效结果
+     *
+     * @param revision 修订号
+     * @param success 是否生效成功
+     * @param publishToAppliedMs 发布到生效的耗时（毫秒），未知时为负数
+     * @param errorMessage 失败原因
+     */
+    public void report(long revision, boolean success, long publishToAppliedMs, String errorMessage) {
+        if (revision <= 0 || shutdown) {
+            return;
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("instanceId", instanceId);
+        body.put("revision", revision);
+        body.put("success", success);
+        if (publishToAppliedMs >= 0) {
+            body.put("publishToAppliedMs", publishToAppliedMs);
+        }
+        if (errorMessage != null) {
+            body.put("errorMessage", errorMessage);
+        }
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            pending.decrementAndGet();
+            return;
+        }
+        try {
+            runtime.executeBlocking(() -> {
+                try {
+                    if (!shutdown) {
+                        send(body);
+                    }
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+        }
+    }
+
+    private void send(Map<String, Object> body) {
+        try {
+            HttpPost request = new HttpPost(reportUrl);
+            security.addAuthHeaders(request);
+            request.setEntity(new StringEntity(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    logger.debug("上报配置生效结果失败，服务器响应: {}", response.getStatusLine().getStatusCode());
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("上报配置生效结果失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 停止上报
+     */
+    public void shutdown() {
+        shutdown = true;
+    }
+}
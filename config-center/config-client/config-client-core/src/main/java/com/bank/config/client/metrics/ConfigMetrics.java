@@ -0,0 +1,564 @@
+package com.bank.config.client.metrics;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 配置监控指标类
+ * 收集和统计配置客户端的各种指标。
+ * 高频计数使用 LongAdder 分段累加，避免多线程争用同一缓存行；
+ * 关键路径耗时记录在 LatencyHistogram 中，按区间输出 p50/p99/p999 和最大值
+ * 
+ * @author bank
+ */
+public class ConfigMetrics {
+    
+    // 拉取相关指标
+    private final LongAdder pullCount = new LongAdder();
+    private final LongAdder pullSuccessCount = new LongAdder();
+    private final LongAdder pullErrorCount = new LongAdder();
+    private final LongAdder pullLatencyTotal = new LongAdder();
+    
+    // 缓存相关指标
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder cacheMissCount = new LongAdder();
+    private final AtomicLong cacheSize = new AtomicLong(0);
+    
+    // 重试相关指标
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder retrySuccessCount = new LongAdder();
+    private final LongAdder retryBudgetExhaustedCount = new LongAdder();
+    
+    // 熔断器指标
+    private volatile String circuitState = "CLOSED";
+    private final LongAdder circuitOpenCount = new LongAdder();
+    private final LongAdder circuitHalfOpenCount = new LongAdder();
+    private final LongAdder circuitCloseCount = new LongAdder();
+    private final LongAdder circuitRejectedCount = new LongAdder();
+    private final AtomicLong lastCircuitTransitionTime = new AtomicLong(0);
+    
+    // 错误相关指标
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder networkErrorCount = new LongAdder();
+    
+    // 延迟直方图（纳秒）
+    private final LatencyHistogram pullLatency = new LatencyHistogram();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram cacheSwapLatency = new LatencyHistogram();
+    private final LatencyHistogram listenerDispatchLatency = new LatencyHistogram();
+    private final LatencyHistogram hotUpdateLatency = new LatencyHistogram();
+    
+    // 传播延迟：收到推送/拉取到配置到生效，服务端发布到本地生效
+    private final LatencyHistogram receiveToAppliedLatency = new LatencyHistogram();
+    private final LatencyHistogram publishToAppliedLatency = new LatencyHistogram();
+    
+    // 时间相关指标
+    private final AtomicLong lastPullTime = new AtomicLong(0);
+    private final AtomicLong lastSuccessTime = new AtomicLong(0);
+    private final AtomicLong lastErrorTime = new AtomicLong(0);
+    
+    // 两阶段发布指标：提交消息发出到本地切换完成的耗时，各实例之间的差异即切换偏差
+    private final AtomicLong commitCount = new AtomicLong(0);
+    private final AtomicLong lastCommitApplyDelay = new AtomicLong(0);
+    private final AtomicLong maxCommitApplyDelay = new AtomicLong(0);
+    private final AtomicLong lastCommitStagedTime = new AtomicLong(0);
+    private final AtomicLong missedCommitCount = new AtomicLong(0);
+    
+    // 配置新鲜度：当前生效配置最近一次从服务端获得的时间，离线优先启动时可能来自磁盘缓存
+    private final AtomicLong configTimestamp = new AtomicLong(0);
+    private final LongAdder staleStartupCount = new LongAdder();
+    private final LongAdder startupDeadlineExceededCount = new LongAdder();
+    private final AtomicLong lastStartupDuration = new AtomicLong(0);
+    
+    /**
+     * 记录拉取操作
+     */
+    public void recordPull() {
+        pullCount.increment();
+        lastPullTime.set(System.currentTimeMillis());
+    }
+    
+    /**
+     * 记录拉取成功
+     */
+    public void recordPullSuccess() {
+        pullSuccessCount.increment();
+        lastSuccessTime.set(System.currentTimeMillis());
+    }
+    
+    /**
+     * 记录拉取错误
+     */
+    public void recordPullError() {
+        pullErrorCount.increment();
+        lastErrorTime.set(System.currentTimeMillis());
+    }
+    
+    /**
+     * 记录拉取延迟
+     *
+     * @param latency 从发出请求到得到配置的耗时（毫秒）
+     */
+    public void recordPullLatency(long latency) {
+        pullLatencyTotal.add(latency);
+        pullLatency.record(TimeUnit.MILLISECONDS.toNanos(latency));
+    }
+    
+    /**
+     * 记录配置解析延迟（纳秒，下同）
+     */
+    public void recordParseLatency(long nanos) {
+        parseLatency.record(nanos);
+    }
+    
+    /**
+     * 记录缓存替换延迟
+     */
+    public void recordCacheSwapLatency(long nanos) {
+        cacheSwapLatency.record(nanos);
+    }
+    
+    /**
+     * 记录监听器分发延迟
+     */
+    public void recordListenerDispatchLatency(long nanos) {
+        listenerDispatchLatency.record(nanos);
+    }
+    
+    /**
+     * 记录热更新应用延迟
+     */
+    public void recordHotUpdateLatency(long nanos) {
+        hotUpdateLatency.record(nanos);
+    }
+    
+    /**
+     * 记录从收到配置到生效的耗时
+     */
+    public void recordReceiveToApplied(long nanos) {
+        receiveToAppliedLatency.record(nanos);
+    }
+    
+    /**
+     * 记录从服务端发布到本地生效的耗时
+     *
+     * @param millis 耗时（毫秒），依赖服务端与本地时钟同步
+     */
+    public void recordPublishToApplied(long millis) {
+        publishToAppliedLatency.record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+    
+    /**
+     * 记录两阶段发布的一次提交
+     *
+     * @param applyDelay 服务端发出提交消息到本地切换完成的耗时（毫秒，受时钟偏差影响）
+     * @param stagedTime 配置暂存到切换之间的时间（毫秒）
+     */
+    public void recordCommitApply(long applyDelay, long stagedTime) {
+        commitCount.incrementAndGet();
+        lastCommitApplyDelay.set(applyDelay);
+        maxCommitApplyDelay.accumulateAndGet(applyDelay, Math::max);
+        lastCommitStagedTime.set(stagedTime);
+    }
+    
+    /**
+     * 记录未找到对应暂存配置的提交
+     */
+    public void recordMissedCommit() {
+        missedCommitCount.incrementAndGet();
+    }
+    
+    /**
+     * 记录缓存命中
+     */
+    public void recordCacheHit() {
+        cacheHitCount.increment();
+    }
+    
+    /**
+     * 记录缓存未命中
+     */
+    public void recordCacheMiss() {
+        cacheMissCount.increment();
+    }
+    
+    /**
+     * 更新缓存大小
+     */
+    public void updateCacheSize(int size) {
+        cacheSize.set(size);
+    }
+    
+    /**
+     * 记录当前生效配置的获取时间（毫秒时间戳）
+     */
+    public void recordConfigTimestamp(long epochMillis) {
+        configTimestamp.set(epochMillis);
+    }
+    
+    /**
+     * 获取当前生效配置的陈旧时间（毫秒），从未获得配置时为-1
+     */
+    public long getStalenessMillis() {
+        long timestamp = configTimestamp.get();
+        return timestamp > 0 ? Math.max(0L, System.currentTimeMillis() - timestamp) : -1L;
+    }
+    
+    /**
+     * 记录一次以过期的本地缓存启动
+     */
+    public void recordStaleStartup() {
+        staleStartupCount.increment();
+    }
+    
+    /**
+     * 记录一次启动期限内未能从服务端获取配置
+     */
+    public void recordStartupDeadlineExceeded() {
+        startupDeadlineExceededCount.increment();
+    }
+    
+    /**
+     * 记录初始化耗时（毫秒）
+     */
+    public void recordStartupDuration(long millis) {
+        lastStartupDuration.set(millis);
+    }
+    
+    /**
+     * 记录重试操作
+     */
+    public void recordRetry() {
+        retryCount.increment();
+    }
+    
+    /**
+     * 记录重试成功
+     */
+    public void recordRetrySuccess() {
+        retrySuccessCount.increment();
+    }
+    
+    /**
+     * 记录因重试预算用尽而放弃的重试
+     */
+    public void recordRetryBudgetExhausted() {
+        retryBudgetExhaustedCount.increment();
+    }
+    
+    /**
+     * 记录熔断器状态变更
+     *
+     * @param from 原状态（CLOSED、OPEN、HALF_OPEN）
+     * @param to 新状态
+     */
+    public void recordCircuitStateChange(String from, String to) {
+        circuitState = to;
+        lastCircuitTransitionTime.set(System.currentTimeMillis());
+        if ("OPEN".equals(to)) {
+            circuitOpenCount.increment();
+        } else if ("HALF_OPEN".equals(to)) {
+            circuitHalfOpenCount.increment();
+        } else if ("CLOSED".equals(to)) {
+            circuitCloseCount.increment();
+        }
+    }
+    
+    /**
+     * 记录熔断器打开期间被拒绝的请求
+     */
+    public void recordCircuitRejected() {
+        circuitRejectedCount.increment();
+    }
+    
+    /**
+     * 获取熔断器当前状态
+     */
+    public String getCircuitState() {
+        return circuitState;
+    }
+    
+    /**
+     * 记录错误
+     */
+    public void recordError() {
+        errorCount.increment();
+    }
+    
+    /**
+     * 记录超时错误
+     */
+    public void recordTimeout() {
+        timeoutCount.increment();
+    }
+    
+    /**
+     * 记录网络错误
+     */
+    public void recordNetworkError() {
+        networkErrorCount.increment();
+    }
+    
+    /**
+     * 获取所有指标
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        
+        // 拉取指标
+        long totalPulls = pullCount.sum();
+        long successfulPulls = pullSuccessCount.sum();
+        long failedPulls = pullErrorCount.sum();
+        
+        metrics.put("pull.total", totalPulls);
+        metrics.put("pull.success", successfulPulls);
+        metrics.put("pull.error", failedPulls);
+        metrics.put("pull.successRate", totalPulls > 0 ? (double) successfulPulls / totalPulls : 0.0);
+        metrics.put("pull.errorRate", totalPulls > 0 ? (double) failedPulls / totalPulls : 0.0);
+        metrics.put("pull.averageLatency", totalPulls > 0 ? (double) pullLatencyTotal.sum() / totalPulls : 0.0);
+        
+        // 缓存指标
+        long cacheHits = cacheHitCount.sum();
+        long cacheMisses = cacheMissCount.sum();
+        long totalCacheAccess = cacheHits + cacheMisses;
+        
+        metrics.put("cache.hits", cacheHits);
+        metrics.put("cache.misses", cacheMisses);
+        metrics.put("cache.hitRate", totalCacheAccess > 0 ? (double) cacheHits / totalCacheAccess : 0.0);
+        metrics.put("cache.size", cacheSize.get());
+        metrics.put("cache.staleness", getStalenessMillis());
+        metrics.put("startup.stale", staleStartupCount.sum());
+        metrics.put("startup.deadlineExceeded", startupDeadlineExceededCount.sum());
+        metrics.put("startup.duration", lastStartupDuration.get());
+        
+        // 重试指标
+        long totalRetries = retryCount.sum();
+        long successfulRetries = retrySuccessCount.sum();
+        
+        metrics.put("retry.total", totalRetries);
+        metrics.put("retry.success", successfulRetries);
+        metrics.put("retry.successRate", totalRetries > 0 ? (double) successfulRetries / totalRetries : 0.0);
+        metrics.put("retry.budgetExhausted", retryBudgetExhaustedCount.sum());
+        
+        // 熔断器指标
+        metrics.put("circuit.state", circuitState);
+        metrics.put("circuit.opened", circuitOpenCount.sum());
+        metrics.put("circuit.halfOpened", circuitHalfOpenCount.sum());
+        metrics.put("circuit.closed", circuitCloseCount.sum());
+        metrics.put("circuit.rejected", circuitRejectedCount.sum());
+        metrics.put("circuit.lastTransition", lastCircuitTransitionTime.get());
+        
+        // 错误指标
+        metrics.put("error.total", errorCount.sum());
+        metrics.put("error.timeout", timeoutCount.sum());
+        metrics.put("error.network", networkErrorCount.sum());
+        
+        // 延迟指标（当前区间）
+        metrics.putAll(getLatencyMetrics(false));
+        
+        // 两阶段发布指标
+        metrics.put("commit.total", commitCount.get());
+        metrics.put("commit.missed", missedCommitCount.get());
+        metrics.put("commit.applySkew.last", lastCommitApplyDelay.get());
+        metrics.put("commit.applySkew.max", maxCommitApplyDelay.get());
+        metrics.put("commit.stagedTime.last", lastCommitStagedTime.get());
+        
+        // 时间指标
+        metrics.put("time.lastPull", lastPullTime.get());
+        metrics.put("time.lastSuccess", lastSuccessTime.get());
+        metrics.put("time.lastError", lastErrorTime.get());
+        
+        // 计算时间差
+        long now = System.currentTimeMillis();
+        metrics.put("time.sinceLastPull", now - lastPullTime.get());
+        metrics.put("time.sinceLastSuccess", now - lastSuccessTime.get());
+        metrics.put("time.sinceLastError", now - lastErrorTime.get());
+        
+        return metrics;
+    }
+    
+    /**
+     * 获取延迟分位数指标，单位毫秒
+     * 键形如 latency.pull.p99；每项包含 count、p50、p99、p999、max
+     *
+     * @param resetInterval 是否在读取后清零，开始新的统计区间（用于定期采集和告警）
+     */
+    public Map<String, Object> getLatencyMetrics(boolean resetInterval) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        putLatency(latency, "pull", pullLatency.snapshot(resetInterval));
+        putLatency(latency, "parse", parseLatency.snapshot(resetInterval));
+        putLatency(latency, "cacheSwap", cacheSwapLatency.snapshot(resetInterval));
+        putLatency(latency, "listenerDispatch", listenerDispatchLatency.snapshot(resetInterval));
+        putLatency(latency, "hotUpdate", hotUpdateLatency.snapshot(resetInterval));
+        putLatency(latency, "receiveToApplied", receiveToAppliedLatency.snapshot(resetInterval));
+        putLatency(latency, "publishToApplied", publishToAppliedLatency.snapshot(resetInterval));
+        return latency;
+    }
+    
+    private void putLatency(Map<String, Object> latency, String name, LatencyHistogram.Snapshot snapshot) {
+        String prefix = "latency." + name + ".";
+        latency.put(prefix + "count", snapshot.getCount());
+        latency.put(prefix + "p50", toMillis(snapshot.getValueAtQuantile(0.50)));
+        latency.put(prefix + "p99", toMillis(snapshot.getValueAtQuantile(0.99)));
+        latency.put(prefix + "p999", toMillis(snapshot.getValueAtQuantile(0.999)));
+        latency.put(prefix + "max", toMillis(snapshot.getMax()));
+    }
+    
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    /**
+     * 按OpenMetrics格式逐项写出当前指标，直方图不清零
+     */
+    void writeOpenMetrics(OpenMetricsExporter.Writer writer) throws IOException {
+        writer.counter("config_client_pulls", "配置拉取次数", pullCount.sum());
+        writer.counter("config_client_pull_successes", "配置拉取成功次数", pullSuccessCount.sum());
+        writer.counter("config_client_pull_errors", "配置拉取失败次数", pullErrorCount.sum());
+        writer.counter("config_client_cache_hits", "本地缓存命中次数", cacheHitCount.sum());
+        writer.counter("config_client_cache_misses", "本地缓存未命中次数", cacheMissCount.sum());
+        writer.gauge("config_client_cache_size", "本地缓存配置项数", cacheSize.get());
+        writer.timestamp("config_client_config_timestamp_seconds", "当前生效配置从服务端获得的时间",
+            configTimestamp.get());
+        writer.counter("config_client_stale_startups", "以过期本地缓存启动的次数", staleStartupCount.sum());
+        writer.counter("config_client_startup_deadline_exceeded", "启动期限内未能获取配置的次数",
+            startupDeadlineExceededCount.sum());
+        writer.counter("config_client_retries", "重试次数", retryCount.sum());
+        writer.counter("config_client_retry_successes", "重试成功次数", retrySuccessCount.sum());
+        writer.counter("config_client_retry_budget_exhausted", "因重试预算用尽放弃的重试次数",
+            retryBudgetExhaustedCount.sum());
+        writer.gauge("config_client_circuit_state", "熔断器状态：0关闭，1打开，2半开", circuitStateCode());
+        writer.counter("config_client_circuit_opens", "熔断器打开次数", circuitOpenCount.sum());
+        writer.counter("config_client_circuit_half_opens", "熔断器半开次数", circuitHalfOpenCount.sum());
+        writer.counter("config_client_circuit_closes", "熔断器关闭次数", circuitCloseCount.sum());
+        writer.counter("config_client_circuit_rejected", "熔断器打开期间拒绝的请求数", circuitRejectedCount.sum());
+        writer.counter("config_client_errors", "错误次数", errorCount.sum());
+        writer.counter("config_client_timeouts", "超时次数", timeoutCount.sum());
+        writer.counter("config_client_network_errors", "网络错误次数", networkErrorCount.sum());
+        writer.counter("config_client_commits", "两阶段发布提交次数", commitCount.get());
+        writer.counter("config_client_missed_commits", "未找到暂存配置的提交次数", missedCommitCount.get());
+
+        writer.summary("config_client_pull_latency_seconds", "配置拉取耗时", pullLatency.snapshot(false));
+        writer.summary("config_client_parse_latency_seconds", "配置解析耗时", parseLatency.snapshot(false));
+        writer.summary("config_client_cache_swap_latency_seconds", "缓存替换耗时", cacheSwapLatency.snapshot(false));
+        writer.summary("config_client_listener_dispatch_latency_seconds", "监听器分发耗时",
+            listenerDispatchLatency.snapshot(false));
+        writer.summary("config_client_hot_update_latency_seconds", "热更新应用耗时", hotUpdateLatency.snapshot(false));
+        writer.summary("config_client_receive_to_applied_seconds", "收到配置到生效的耗时",
+            receiveToAppliedLatency.snapshot(false));
+        writer.summary("config_client_publish_to_applied_seconds", "服务端发布到本地生效的耗时",
+            publishToAppliedLatency.snapshot(false));
+
+        writer.timestamp("config_client_last_pull_timestamp_seconds", "最近一次拉取时间", lastPullTime.get());
+        writer.timestamp("config_client_last_success_timestamp_seconds", "最近一次拉取成功时间", lastSuccessTime.get());
+        writer.timestamp("config_client_last_error_timestamp_seconds", "最近一次拉取失败时间", lastErrorTime.get());
+    }
+    
+    private int circuitStateCode() {
+        String state = circuitState;
+        if ("OPEN".equals(state)) {
+            return 1;
+        }
+        return "HALF_OPEN".equals(state) ? 2 : 0;
+    }
+    
+    /**
+     * 获取指标摘要
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = new HashMap<>();
+        
+        long totalPulls = pullCount.sum();
+        long successfulPulls = pullSuccessCount.sum();
+        long cacheHits = cacheHitCount.sum();
+        long cacheMisses = cacheMissCount.sum();
+        long totalCacheAccess = cacheHits + cacheMisses;
+        
+        summary.put("totalPulls", totalPulls);
+        summary.put("successRate", totalPulls > 0 ? String.format("%.2f%%", (double) successfulPulls / totalPulls * 100) : "0.00%");
+        summary.put("cacheHitRate", totalCacheAccess > 0 ? String.format("%.2f%%", (double) cacheHits / totalCacheAccess * 100) : "0.00%");
+        summary.put("cacheSize", cacheSize.get());
+        summary.put("errorCount", errorCount.sum());
+        
+        return summary;
+    }
+    
+    /**
+     * 重置所有指标
+     */
+    public void reset() {
+        pullCount.reset();
+        pullSuccessCount.reset();
+        pullErrorCount.reset();
+        pullLatencyTotal.reset();
+        cacheHitCount.reset();
+        cacheMissCount.reset();
+        cacheSize.set(0);
+        retryCount.reset();
+        retrySuccessCount.reset();
+        retryBudgetExhaustedCount.reset();
+        circuitOpenCount.reset();
+        circuitHalfOpenCount.reset();
+        circuitCloseCount.reset();
+        circuitRejectedCount.reset();
+        lastCircuitTransitionTime.set(0);
+        errorCount.reset();
+        timeoutCount.reset();
+        networkErrorCount.reset();
+        getLatencyMetrics(true);
+        lastPullTime.set(0);
+        lastSuccessTime.set(0);
+        lastErrorTime.set(0);
+        commitCount.set(0);
+        lastCommitApplyDelay.set(0);
+        maxCommitApplyDelay.set(0);
+        lastCommitStagedTime.set(0);
+        missedCommitCount.set(0);
+        staleStartupCount.reset();
+        startupDeadlineExceededCount.reset();
+        lastStartupDuration.set(0);
+    }
+    
+    /**
+     * 获取健康状态
+     */
+    public Map<String, Object> getHealthStatus() {
+        Map<String, Object> health = new HashMap<>();
+        
+        long totalPulls = pullCount.sum();
+        long successfulPulls = pullSuccessCount.sum();
+        long lastSuccess = lastSuccessTime.get();
+        long now = System.currentTimeMillis();
+        
+        // 计算成功率
+        double successRate = totalPulls > 0 ? (double) successfulPulls / totalPulls : 0.0;
+        
+        // 判断健康状态
+        String status = "UNKNOWN";
+        if (totalPulls == 0) {
+            status = "UNKNOWN";
+        } else if (successRate >= 0.95 && (now - lastSuccess) < 300000) { // 95%成功率且5分钟内成功过
+            status = "HEALTHY";
+        } else if (successRate >= 0.8 && (now - lastSuccess) < 600000) { // 80%成功率且10分钟内成功过
+            status = "WARNING";
+        } else {
+            status = "UNHEALTHY";
+        }
+        
+        health.put("status", status);
+        health.put("successRate", successRate);
+        health.put("lastSuccessTime", lastSuccess);
+        health.put("timeSinceLastSuccess", now - lastSuccess);
+        health.put("totalPulls", totalPulls);
+        health.put("errorCount", errorCount.sum());
+        health.put("staleness", getStalenessMillis());
+        
+        return health;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.bank.config.client.metrics;
+
+import com.bank.config.client.runtime.ConfigClientRuntime;
+import com.bank.config.client.security.ConfigSecurity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置读取上报器
+ * 在共享运行时上定时把上报周期内读取过的配置键及估计读取次数上报给服务端，
+ * 服务端据此找出长期无人读取的配置；上报失败只影响统计，本周期的读取不再重报
+ *
+ * @author bank
+ */
+public class KeyAccessReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyAccessReporter.class);
+
+    private final KeyAccessTracker tracker;
+    private final String reportUrl;
+    private final String instanceId;
+    private final ConfigSecurity security;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConfigClientRuntime runtime;
+    private volatile ScheduledFuture<?> task;
+
+    public KeyAccessReporter(KeyAccessTracker tracker, String serverUrl, String appCode, String envCode,
+                             String instanceId, ConfigSecurity security, CloseableHttpClient httpClient,
+                             ConfigClientRuntime runtime) {
+        this.tracker = tracker;
+        this.reportUrl = String.format("%s/api/client/access/%s/%s", serverUrl, appCode, envCode);
+        this.instanceId = instanceId;
+        this.security = security;
+        this.httpClient = httpClient;
+        this.runtime = runtime;
+    }
+
+    /**
+     * 按间隔（毫秒）开始定时上报
+     */
+    public synchronized void start(long interval) {
+        if (task == null) {
+            task = runtime.scheduleBlockingWithFixedDelay(this::report, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 上报一次，没有读取时不发送请求
+     */
+    public void report() {
+        Map<String, Long> reads = tracker.drain();
+        if (reads.isEmpty()) {
+            return;
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("instanceId", instanceId);
+        body.put("reads", reads);
+        try {
+            HttpPost request = new HttpPost(reportUrl);
+            security.addAuthHeaders(request);
+            request.setEntity(new StringEntity(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    logger.debug("上报配置读取失败，服务器响应: {}", response.getStatusLine().getStatusCode());
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("上报配置读取失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 停止上报
+     */
+    public synchronized void shutdown() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.config.client.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 配置键读取统计
+ * 每个键一个计数器：每个上报周期内的第一次读取一定计入，之后按 1/sampleRate 抽样计数，
+ * 抽中时加 sampleRate，计数为估计值。读取路径只有一次哈希查找、一次volatile读和一次随机数，
+ * 只有抽中时才写共享计数器
+ *
+ * @author bank
+ */
+public class KeyAccessTracker {
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final int sampleMask;
+    private final int maxKeys;
+
+    /**
+     * @param sampleRate 抽样间隔，向上取整为2的幂
+     * @param maxKeys 最多统计的配置键数量，超过后不再加入新键
+     */
+    public KeyAccessTracker(int sampleRate, int maxKeys) {
+        int rate = Integer.highestOneBit(Math.max(1, sampleRate));
+        if (rate < sampleRate) {
+            rate <<= 1;
+        }
+        this.sampleMask = rate - 1;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 记录一次读取
+     */
+    public void record(String key) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < maxKeys) {
+                counters.putIfAbsent(key, new AtomicLong(1L));
+            }
+            return;
+        }
+        if (counter.get() == 0L) {
+            counter.compareAndSet(0L, 1L);
+        } else if ((ThreadLocalRandom.current().nextInt() & sampleMask) == 0) {
+            counter.addAndGet(sampleMask + 1);
+        }
+    }
+
+    /**
+     * 取出上次取出以来被读取过的键及估计读取次数，并清零计数
+     */
+    public Map<String, Long> drain() {
+        Map<String, Long> reads = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            long count = entry.getValue().getAndSet(0L);
+            if (count > 0) {
+                reads.put(entry.getKey(), count);
+            }
+        }
+        return reads;
+    }
+
+    /**
+     * 被读取过的配置键数量
+     */
+    public int size() {
+        return counters.size();
+    }
+}
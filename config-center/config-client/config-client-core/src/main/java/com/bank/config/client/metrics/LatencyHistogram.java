@@ -0,0 +1,130 @@
+package com.bank.config.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟直方图
+ * 采用对数-线性分桶（每个2的幂区间再均分16个子桶，相对误差约6%），
+ * 以纳秒记录，覆盖完整的 long 取值范围。记录只做一次数组原子自增，不加锁、不分配对象。
+ * 区间快照逐桶 getAndSet 清零，每个样本只会计入某一个区间，不会丢失
+ *
+ * @author bank
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒），负数按0记录
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        buckets.incrementAndGet(bucketIndex(value));
+        sum.add(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * 获取直方图快照
+     *
+     * @param reset 是否同时清零，开始新的统计区间
+     */
+    public Snapshot snapshot(boolean reset) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = reset ? buckets.getAndSet(i, 0L) : buckets.get(i);
+            total += counts[i];
+        }
+        long maxValue = reset ? max.getAndSet(0L) : max.get();
+        long sumValue = reset ? sum.sumThenReset() : sum.sum();
+        return new Snapshot(counts, total, maxValue, sumValue);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 桶内最大值，用作该桶样本的代表值（偏保守）
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lower = (long) (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * 直方图快照
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long max;
+        private final long sum;
+
+        Snapshot(long[] counts, long count, long max, long sum) {
+            this.counts = counts;
+            this.count = count;
+            this.max = max;
+            this.sum = sum;
+        }
+
+        /**
+         * 获取分位数（纳秒），不超过记录到的最大值
+         *
+         * @param quantile 0到1之间的分位
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * 样本总和（纳秒）
+         */
+        public long getSum() {
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.bank.config.client.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * OpenMetrics文本格式导出器
+ * 不依赖任何监控库，直接读取 ConfigMetrics 中的实时计数器和直方图写出，
+ * 不构建中间Map。计数器以 _total 结尾，延迟以秒为单位的 summary 输出
+ * （p50/p99/p999、_sum、_count），可直接被Prometheus抓取
+ *
+ * @author bank
+ */
+public class OpenMetricsExporter {
+
+    /**
+     * 响应的Content-Type
+     */
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"quantile=\"0.5\"", "quantile=\"0.99\"", "quantile=\"0.999\""};
+
+    private final ConfigMetrics metrics;
+    private final String labels;
+
+    public OpenMetricsExporter(ConfigMetrics metrics) {
+        this(metrics, Collections.emptyMap());
+    }
+
+    /**
+     * @param metrics 指标
+     * @param constantLabels 附加到每个样本上的固定标签，如 app、env、instance
+     */
+    public OpenMetricsExporter(ConfigMetrics metrics, Map<String, String> constantLabels) {
+        this.metrics = metrics;
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> entry : constantLabels.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(entry.getKey()).append("=\"").append(escapeLabelValue(entry.getValue())).append('"');
+        }
+        this.labels = builder.toString();
+    }
+
+    /**
+     * 写出全部指标，以 # EOF 结尾
+     */
+    public void write(Appendable out) throws IOException {
+        metrics.writeOpenMetrics(new Writer(out, labels));
+        out.append("# EOF\n");
+    }
+
+    /**
+     * 以字符串形式获取全部指标
+     */
+    public String scrape() {
+        StringBuilder builder = new StringBuilder(4096);
+        try {
+            write(builder);
+        } catch (IOException e) {
+            // StringBuilder 不会抛出IO异常
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * 指标写出器，由 ConfigMetrics 逐项调用
+     */
+    static final class Writer {
+        private final Appendable out;
+        private final String labels;
+
+        Writer(Appendable out, String labels) {
+            this.out = out;
+            this.labels = labels;
+        }
+
+        void counter(String name, String help, long value) throws IOException {
+            header(name, "counter", help, null);
+            sample(name + "_total", null, Long.toString(value));
+        }
+
+        void gauge(String name, String help, long value) throws IOException {
+            header(name, "gauge", help, null);
+            sample(name, null, Long.toString(value));
+        }
+
+        /**
+         * 以秒为单位的时间戳，0表示从未发生
+         */
+        void timestamp(String name, String help, long epochMillis) throws IOException {
+            header(name, "gauge", help, "seconds");
+            sample(name, null, Double.toString(epochMillis / 1000.0));
+        }
+
+        void summary(String name, String help, LatencyHistogram.Snapshot snapshot) throws IOException {
+            header(name, "summary", help, "seconds");
+            for (int i = 0; i < QUANTILES.length; i++) {
+                sample(name, QUANTILE_LABELS[i], seconds(snapshot.getValueAtQuantile(QUANTILES[i])));
+            }
+            sample(name + "_sum", null, seconds(snapshot.getSum()));
+            sample(name + "_count", null, Long.toString(snapshot.getCount()));
+        }
+
+        private void header(String name, String type, String help, String unit) throws IOException {
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            if (unit != null) {
+                out.append("# UNIT ").append(name).append(' ').append(unit).append('\n');
+            }
+            out.append("# HELP ").append(name).append(' ').append(escapeHelp(help)).append('\n');
+        }
+
+        private void sample(String name, String extraLabel, String value) throws IOException {
+            out.append(name);
+            if (!labels.isEmpty() || extraLabel != null) {
+                out.append('{').append(labels);
+                if (extraLabel != null) {
+                    if (!labels.isEmpty()) {
+                        out.append(',');
+                    }
+                    out.append(extraLabel);
+                }
+                out.append('}');
+            }
+            out.append(' ').append(value).append('\n');
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package com.bank.config.client.parser;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * 配置转换器
+ * 提供配置值的类型转换功能。
+ * 每个目标类型第一次使用时解析出对应的转换器并缓存，之后直接复用；
+ * 内置类型的格式校验不依赖异常，转换失败只返回失败标记。
+ * 支持基本类型及包装类、BigDecimal/BigInteger、枚举、Duration、DataSize、
+ * 数组、List/Set/Collection、Map，其他类型交给 Jackson 按JSON或字符串反序列化
+ *
+ * @author bank
+ */
+public class ConfigConverter {
+
+    /**
+     * 转换失败标记，内置转换器不抛出异常而是返回它
+     */
+    private static final Object INVALID = new Object();
+
+    private static final Pattern DECIMAL = Pattern.compile(
+        "[+-]?(?:NaN|Infinity|(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][+-]?\\d+)?)[fFdD]?");
+    private static final Pattern BIG_DECIMAL = Pattern.compile(
+        "[+-]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][+-]?\\d+)?");
+    private static final Pattern BIG_INTEGER = Pattern.compile("[+-]?\\d+");
+    private static final Pattern SIMPLE_DURATION = Pattern.compile("(\\d{1,18})\\s*(ns|us|ms|s|m|h|d)?",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern ISO_DURATION = Pattern.compile(
+        "[-+]?P(?:[-+]?\\d+D)?(?:T(?:[-+]?\\d+H)?(?:[-+]?\\d+M)?(?:[-+]?\\d+(?:[.,]\\d{0,9})?S)?)?",
+        Pattern.CASE_INSENSITIVE);
+
+    private final ObjectMapper objectMapper;
+    private final Map<Type, TypedConverter<?>> compiled = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Parser> custom = new ConcurrentHashMap<>();
+
+    public ConfigConverter() {
+        this(new ObjectMapper().findAndRegisterModules());
+    }
+
+    public ConfigConverter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 某个目标类型的转换器，由 {@link ConfigConverter#forType(Type)} 解析并缓存
+     */
+    public interface TypedConverter<T> {
+
+        /**
+         * 转换配置值，null 返回 null
+         *
+         * @throws IllegalArgumentException 值不能转换为目标类型时
+         */
+        T convert(String value);
+
+        /**
+         * 转换配置值，null 或不能转换时返回默认值，不抛出异常
+         */
+        T convertOrDefault(String value, T defaultValue);
+
+        /**
+         * 检查值能否转换为目标类型，null 视为可以转换
+         */
+        boolean canConvert(String value);
+
+        /**
+         * 目标类型
+         */
+        Type getType();
+    }
+
+    /**
+     * 内置转换逻辑，失败时返回 INVALID
+     */
+    @FunctionalInterface
+    private interface Parser {
+        Object parse(String value);
+    }
+
+    /**
+     * 注册自定义类型的转换函数，优先于内置转换器
+     * 转换函数抛出的异常视为转换失败
+     */
+    public <T> void register(Class<T> type, Function<String, ? extends T> converter) {
+        custom.put(type, value -> {
+            try {
+                Object result = converter.apply(value);
+                return result == null ? INVALID : result;
+            } catch (RuntimeException e) {
+                return INVALID;
+            }
+        });
+        // 已缓存的集合、数组转换器可能引用了旧的元素转换器
+        compiled.clear();
+    }
+
+    /**
+     * 获取目标类型的转换器，每个类型只解析一次
+     */
+    @SuppressWarnings("unchecked")
+    public <T> TypedConverter<T> forType(Class<T> targetType) {
+        return (TypedConverter<T>) forType((Type) targetType);
+    }
+
+    /**
+     * 获取目标类型的转换器，支持 List&lt;Integer&gt; 等泛型类型
+     */
+    public TypedConverter<?> forType(Type targetType) {
+        TypedConverter<?> converter = compiled.get(targetType);
+        if (converter != null) {
+            return converter;
+        }
+        // 解析泛型类型时会递归解析元素类型，不能在 computeIfAbsent 内进行
+        converter = new CompiledConverter<>(targetType, resolve(targetType));
+        TypedConverter<?> existing = compiled.putIfAbsent(targetType, converter);
+        return existing != null ? existing : converter;
+    }
+
+    /**
+     * 将字符串转换为指定类型
+     */
+    public <T> T convert(String value, Class<T> targetType) {
+        return forType(targetType).convert(value);
+    }
+
+    /**
+     * 将字符串转换为指定的泛型类型
+     */
+    public Object convert(String value, Type targetType) {
+        return forType(targetType).convert(value);
+    }
+
+    /**
+     * 将字符串转换为列表
+     */
+    public List<String> convertToList(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 支持逗号分隔的字符串
+        String[] parts = value.split(",");
+        return Arrays.asList(parts);
+    }
+
+    /**
+     * 将字符串转换为Map
+     */
+    public Map<String, String> convertToMap(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<String, String> result = new java.util.HashMap<>();
+
+        // 支持key=value格式的字符串，多个用逗号分隔
+        String[] pairs = value.split(",");
+        for (String pair : pairs) {
+            String[] keyValue = pair.split("=", 2);
+            if (keyValue.length == 2) {
+                result.put(keyValue[0].trim(), keyValue[1].trim());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 安全转换，失败时返回默认值
+     */
+    public <T> T convertSafely(String value, Class<T> targetType, T defaultValue) {
+        return forType(targetType).convertOrDefault(value, defaultValue);
+    }
+
+    /**
+     * 检查值是否可以转换为指定类型
+     */
+    public boolean canConvert(String value, Class<?> targetType) {
+        return forType(targetType).canConvert(value);
+    }
+
+    /**
+     * 为目标类型解析转换逻辑
+     */
+    private Parser resolve(Type type) {
+        if (type instanceof Class) {
+            return resolveClass((Class<?>) type);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type raw = parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (raw instanceof Class) {
+                Class<?> rawClass = (Class<?>) raw;
+                if (Collection.class.isAssignableFrom(rawClass) && arguments.length == 1) {
+                    return collectionParser(type, rawClass, elementParser(arguments[0]));
+                }
+                if (Map.class.isAssignableFrom(rawClass) && arguments.length == 2) {
+                    return mapParser(type, elementParser(arguments[0]), elementParser(arguments[1]));
+                }
+            }
+        }
+        if (type instanceof GenericArrayType) {
+            Type component = ((GenericArrayType) type).getGenericComponentType();
+            Class<?> rawComponent = objectMapper.constructType(component).getRawClass();
+            return arrayParser(rawComponent, elementParser(component));
+        }
+        return jacksonParser(type);
+    }
+
+    private Parser resolveClass(Class<?> type) {
+        Parser registered = custom.get(type);
+        if (registered != null) {
+            return registered;
+        }
+        if (type == String.class || type == Object.class || type == CharSequence.class) {
+            return value -> value;
+        }
+        if (type == Integer.class || type == int.class) {
+            return value -> {
+                Object parsed = parseLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                return parsed == INVALID ? INVALID : Integer.valueOf(((Long) parsed).intValue());
+            };
+        }
+        if (type == Long.class || type == long.class) {
+            return value -> parseLong(value, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        if (type == Short.class || type == short.class) {
+            return value -> {
+                Object parsed = parseLong(value, Short.MIN_VALUE, Short.MAX_VALUE);
+                return parsed == INVALID ? INVALID : Short.valueOf(((Long) parsed).shortValue());
+            };
+        }
+        if (type == Byte.class || type == byte.class) {
+            return value -> {
+                Object parsed = parseLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+                return parsed == INVALID ? INVALID : Byte.valueOf(((Long) parsed).byteValue());
+            };
+        }
+        if (type == Double.class || type == double.class) {
+            return value -> {
+                String text = value.trim();
+                return DECIMAL.matcher(text).matches() ? Double.valueOf(text) : INVALID;
+            };
+        }
+        if (type == Float.class || type == float.class) {
+            return value -> {
+                String text = value.trim();
+                return DECIMAL.matcher(text).matches() ? Float.valueOf(text) : INVALID;
+            };
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return ConfigConverter::parseBoolean;
+        }
+        if (type == Character.class || type == char.class) {
+            return value -> value.length() == 1 ? Character.valueOf(value.charAt(0)) : INVALID;
+        }
+        if (type == BigDecimal.class) {
+            return value -> {
+                String text = value.trim();
+                return BIG_DECIMAL.matcher(text).matches() ? new BigDecimal(text) : INVALID;
+            };
+        }
+        if (type == BigInteger.class) {
+            return value -> {
+                String text = value.trim();
+                return BIG_INTEGER.matcher(text).matches() ? new BigInteger(text) : INVALID;
+            };
+        }
+        if (type.isEnum()) {
+            return enumParser(type);
+        }
+        if (type == Duration.class) {
+            return ConfigConverter::parseDuration;
+        }
+        if (type == DataSize.class) {
+            return value -> {
+                DataSize size = DataSize.tryParse(value);
+                return size == null ? INVALID : size;
+            };
+        }
+        if (type.isArray()) {
+            return arrayParser(type.getComponentType(), elementParser(type.getComponentType()));
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return collectionParser(type, type, value -> value);
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return mapParser(type, value -> value, value -> value);
+        }
+        return jacksonParser(type);
+    }
+
+    /**
+     * 集合元素、Map键值的转换逻辑，复用已缓存的转换器
+     */
+    private Parser elementParser(Type type) {
+        if (type instanceof Class && ((Class<?>) type).isPrimitive()) {
+            return resolveClass((Class<?>) type);
+        }
+        CompiledConverter<?> converter = (CompiledConverter<?>) forType(type);
+        return converter.parser;
+    }
+
+    private Parser enumParser(Class<?> type) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Object constant : type.getEnumConstants()) {
+            constants.put(((Enum<?>) constant).name().toUpperCase(Locale.ROOT), constant);
+        }
+        // 大小写不敏感，短横线等同下划线
+        return value -> {
+            Object constant = constants.get(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            return constant == null ? INVALID : constant;
+        };
+    }
+
+    /**
+     * 逗号分隔的值，或以 [ 开头的JSON数组
+     */
+    private Parser collectionParser(Type type, Class<?> rawType, Parser element) {
+        Parser json = jacksonParser(type);
+        boolean set = Set.class.isAssignableFrom(rawType);
+        return value -> {
+            String text = value.trim();
+            if (text.startsWith("[")) {
+                return json.parse(text);
+            }
+            Collection<Object> result = set ? new LinkedHashSet<>() : new ArrayList<>();
+            if (text.isEmpty()) {
+                return result;
+            }
+            for (String part : split(text, ',')) {
+                Object item = element.parse(part.trim());
+                if (item == INVALID) {
+                    return INVALID;
+                }
+                result.add(item);
+            }
+            return result;
+        };
+    }
+
+    private Parser arrayParser(Class<?> componentType, Parser element) {
+        return value -> {
+            String text = value.trim();
+            if (text.isEmpty()) {
+                return Array.newInstance(componentType, 0);
+            }
+            List<String> parts = split(text, ',');
+            Object result = Array.newInstance(componentType, parts.size());
+            for (int i = 0; i < parts.size(); i++) {
+                Object item = element.parse(parts.get(i).trim());
+                if (item == INVALID) {
+                    return INVALID;
+                }
+                Array.set(result, i, item);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * key=value 逗号分隔的值，或以 { 开头的JSON对象
+     */
+    private Parser mapParser(Type type, Parser keyParser, Parser valueParser) {
+        Parser json = jacksonParser(type);
+        return value -> {
+            String text = value.trim();
+            if (text.startsWith("{")) {
+                return json.parse(text);
+            }
+            Map<Object, Object> result = new LinkedHashMap<>();
+            if (text.isEmpty()) {
+                return result;
+            }
+            for (String pair : split(text, ',')) {
+                int separator = pair.indexOf('=');
+                if (separator < 0) {
+                    return INVALID;
+                }
+                Object key = keyParser.parse(pair.substring(0, separator).trim());
+                Object item = valueParser.parse(pair.substring(separator + 1).trim());
+                if (key == INVALID || item == INVALID) {
+                    return INVALID;
+                }
+                result.put(key, item);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * 通过 Jackson 转换，以 { 或 [ 开头的值按JSON解析，其他值按JSON字符串解析（如UUID、URI、Locale）。
+     * 任意类型无法预先校验，这里是唯一依赖异常判断失败的路径
+     */
+    private Parser jacksonParser(Type type) {
+        JavaType javaType = objectMapper.constructType(type);
+        ObjectReader reader = objectMapper.readerFor(javaType);
+        return value -> {
+            String text = value.trim();
+            try {
+                Object result = text.startsWith("{") || text.startsWith("[")
+                    ? reader.readValue(text)
+                    : reader.readValue(JsonNodeFactory.instance.textNode(value));
+                return result == null ? INVALID : result;
+            } catch (Exception e) {
+                return INVALID;
+            }
+        };
+    }
+
+    /**
+     * 解析十进制整数，格式错误或超出 [min, max] 时返回 INVALID
+     */
+    private static Object parseLong(String value, long min, long max) {
+        String text = value.trim();
+        int length = text.length();
+        if (length == 0 || length > 20) {
+            return INVALID;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (length == 1) {
+                return INVALID;
+            }
+            i = 1;
+        }
+        // 按负数累加，避免 Long.MIN_VALUE 溢出
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return INVALID;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return INVALID;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static Object parseBoolean(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "on":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "no":
+            case "off":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                return INVALID;
+        }
+    }
+
+    /**
+     * 支持ISO-8601格式（PT30S）和简写格式（500ms、30s、5m、2h、1d），不带单位时按毫秒
+     */
+    private static Object parseDuration(String value) {
+        String text = value.trim();
+        java.util.regex.Matcher simple = SIMPLE_DURATION.matcher(text);
+        if (simple.matches()) {
+            long amount = Long.parseLong(simple.group(1));
+            String unit = simple.group(2) == null ? "ms" : simple.group(2).toLowerCase(Locale.ROOT);
+            switch (unit) {
+                case "ns":
+                    return Duration.ofNanos(amount);
+                case "us":
+                    return Duration.of(amount, ChronoUnit.MICROS);
+                case "ms":
+                    return Duration.ofMillis(amount);
+                case "s":
+                    return Duration.ofSeconds(amount);
+                case "m":
+                    return amount > Long.MAX_VALUE / 60 ? INVALID : Duration.ofMinutes(amount);
+                case "h":
+                    return amount > Long.MAX_VALUE / 3600 ? INVALID : Duration.ofHours(amount);
+                default:
+                    return amount > Long.MAX_VALUE / 86400 ? INVALID : Duration.ofDays(amount);
+            }
+        }
+        if (ISO_DURATION.matcher(text).matches()) {
+            try {
+                return Duration.parse(text);
+            } catch (RuntimeException e) {
+                // 格式已校验，只有数值溢出会走到这里
+                return INVALID;
+            }
+        }
+        return INVALID;
+    }
+
+    /**
+     * 按分隔符切分，保留空段
+     */
+    private static List<String> split(String text, char separator) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int index;
+        while ((index = text.indexOf(separator, start)) >= 0) {
+            parts.add(text.substring(start, index));
+            start = index + 1;
+        }
+        parts.add(text.substring(start));
+        return parts;
+    }
+
+    /**
+     * 已解析的转换器
+     */
+    private static final class CompiledConverter<T> implements TypedConverter<T> {
+        private final Type type;
+        private final Parser parser;
+
+        private CompiledConverter(Type type, Parser parser) {
+            this.type = type;
+            this.parser = parser;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T convert(String value) {
+            if (value == null) {
+                return null;
+            }
+            Object result = parser.parse(value);
+            if (result == INVALID) {
+                throw new IllegalArgumentException("无法将配置值 [" + value + "] 转换为 " + type.getTypeName());
+            }
+            return (T) result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T convertOrDefault(String value, T defaultValue) {
+            if (value == null) {
+                return defaultValue;
+            }
+            Object result = parser.parse(value);
+            return result == INVALID ? defaultValue : (T) result;
+        }
+
+        @Override
+        public boolean canConvert(String value) {
+            return value == null || parser.parse(value) != INVALID;
+        }
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+    }
+}
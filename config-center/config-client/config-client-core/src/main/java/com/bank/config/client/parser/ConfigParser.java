@@ -0,0 +1,389 @@
+package com.bank.config.client.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 配置解析器
+ * 支持多种格式的配置解析
+ * YAML/JSON/XML 按令牌流边读边扁平化，不构建中间的嵌套Map：
+ * 整个文档共用一个键缓冲区和一个结果Map，进入子节点时追加键段，离开时截断回原长度
+ * 
+ * @author bank
+ */
+public class ConfigParser {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigParser.class);
+
+    private final JsonFactory jsonFactory;
+    private final YAMLFactory yamlFactory;
+    private final XMLInputFactory xmlFactory;
+
+    public ConfigParser() {
+        this.jsonFactory = new JsonFactory();
+        this.yamlFactory = new YAMLFactory();
+        this.xmlFactory = XMLInputFactory.newInstance();
+        // 配置文档不需要DTD和外部实体，关闭以防XXE
+        this.xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.xmlFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * 解析Properties格式配置
+     */
+    public Map<String, String> parseProperties(String content) {
+        return parseProperties(new StringReader(content));
+    }
+
+    /**
+     * 从字符流解析Properties格式配置
+     */
+    public Map<String, String> parseProperties(Reader reader) {
+        try {
+            Properties props = new Properties();
+            props.load(reader);
+            
+            Map<String, String> result = new HashMap<>();
+            for (String key : props.stringPropertyNames()) {
+                result.put(key, props.getProperty(key));
+            }
+            
+            return result;
+        } catch (Exception e) {
+            logger.error("解析Properties配置失败", e);
+            throw new RuntimeException("解析Properties配置失败", e);
+        }
+    }
+
+    /**
+     * 解析YAML格式配置
+     */
+    public Map<String, String> parseYaml(String content) {
+        return parseYaml(new StringReader(content));
+    }
+
+    /**
+     * 从字符流解析YAML格式配置，只读取第一个文档
+     */
+    public Map<String, String> parseYaml(Reader reader) {
+        try (JsonParser parser = yamlFactory.createParser(reader)) {
+            return flatten(parser);
+        } catch (Exception e) {
+            logger.error("解析YAML配置失败", e);
+            throw new RuntimeException("解析YAML配置失败", e);
+        }
+    }
+
+    /**
+     * 解析JSON格式配置
+     */
+    public Map<String, String> parseJson(String content) {
+        return parseJson(new StringReader(content));
+    }
+
+    /**
+     * 从字符流解析JSON格式配置
+     */
+    public Map<String, String> parseJson(Reader reader) {
+        try (JsonParser parser = jsonFactory.createParser(reader)) {
+            return flatten(parser);
+        } catch (Exception e) {
+            logger.error("解析JSON配置失败", e);
+            throw new RuntimeException("解析JSON配置失败", e);
+        }
+    }
+
+    /**
+     * 解析XML格式配置
+     */
+    public Map<String, String> parseXml(String content) {
+        return parseXml(new StringReader(content));
+    }
+
+    /**
+     * 从字符流解析XML格式配置
+     * 根元素不计入键；子元素路径用点号连接，属性作为同名子键；
+     * 同级重复出现的元素按出现顺序编号为 name[0]、name[1]...
+     */
+    public Map<String, String> parseXml(Reader reader) {
+        XMLStreamReader xml = null;
+        try {
+            xml = xmlFactory.createXMLStreamReader(reader);
+            return flattenXml(xml);
+        } catch (Exception e) {
+            logger.error("解析XML配置失败", e);
+            throw new RuntimeException("解析XML配置失败", e);
+        } finally {
+            if (xml != null) {
+                try {
+                    xml.close();
+                } catch (XMLStreamException ignored) {
+                    // 关闭失败不影响已解析的结果
+                }
+            }
+        }
+    }
+
+    /**
+     * 扁平化JSON/YAML令牌流，文档根必须是对象；空文档返回空Map
+     */
+    private Map<String, String> flatten(JsonParser parser) throws IOException {
+        Map<String, String> result = new HashMap<>();
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return result;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("配置文档根节点必须是对象，实际为: " + token);
+        }
+        flattenObject(parser, new StringBuilder(64), result);
+        return result;
+    }
+
+    /**
+     * 当前令牌为 START_OBJECT，读到对应的 END_OBJECT 为止
+     */
+    private void flattenObject(JsonParser parser, StringBuilder key, Map<String, String> result) throws IOException {
+        int mark = key.length();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (mark > 0) {
+                key.append('.');
+            }
+            key.append(parser.getCurrentName());
+            flattenValue(parser, parser.nextToken(), key, result);
+            key.setLength(mark);
+        }
+    }
+
+    /**
+     * 当前令牌为 START_ARRAY，元素键为 key[i]
+     */
+    private void flattenArray(JsonParser parser, StringBuilder key, Map<String, String> result) throws IOException {
+        int mark = key.length();
+        int index = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("配置文档意外结束");
+            }
+            key.append('[').append(index++).append(']');
+            flattenValue(parser, token, key, result);
+            key.setLength(mark);
+        }
+    }
+
+    private void flattenValue(JsonParser parser, JsonToken token, StringBuilder key,
+                              Map<String, String> result) throws IOException {
+        if (token == null) {
+            throw new IOException("配置文档意外结束");
+        }
+        switch (token) {
+            case START_OBJECT:
+                flattenObject(parser, key, result);
+                break;
+            case START_ARRAY:
+                flattenArray(parser, key, result);
+                break;
+            case VALUE_NULL:
+                result.put(key.toString(), "null");
+                break;
+            default:
+                // 数字保留原文，避免 1.10 被转成 1.1 之类的精度变化
+                result.put(key.toString(), parser.getText());
+                break;
+        }
+    }
+
+    /**
+     * 扁平化XML事件流
+     * 按文档顺序记录写出的键；每层记录子元素名的出现次数和第一次出现时写出的键区间，
+     * 某个名字第二次出现时把该区间内的键改名到 name[0] 下
+     */
+    private Map<String, String> flattenXml(XMLStreamReader xml) throws XMLStreamException {
+        Map<String, String> result = new HashMap<>();
+        List<String> emitted = new ArrayList<>();
+        StringBuilder key = new StringBuilder(64);
+        List<XmlLevel> levels = new ArrayList<>();
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                XmlLevel parent = levels.isEmpty() ? null : levels.get(levels.size() - 1);
+                XmlLevel level = new XmlLevel(key.length(), emitted.size());
+                if (parent != null) {
+                    parent.hasChildren = true;
+                    String name = xml.getLocalName();
+                    if (key.length() > 0) {
+                        key.append('.');
+                    }
+                    key.append(name);
+                    int[] seen = parent.children == null ? null : parent.children.get(name);
+                    if (seen == null) {
+                        level.name = name;
+                    } else {
+                        if (seen[0] == 1) {
+                            renameRange(result, emitted, seen[1], seen[2], key.length(), "[0]");
+                        }
+                        key.append('[').append(seen[0]).append(']');
+                        seen[0]++;
+                    }
+                }
+                levels.add(level);
+                int attributes = xml.getAttributeCount();
+                int mark = key.length();
+                for (int i = 0; i < attributes; i++) {
+                    if (mark > 0) {
+                        key.append('.');
+                    }
+                    key.append(xml.getAttributeLocalName(i));
+                    emit(result, emitted, key.toString(), xml.getAttributeValue(i));
+                    key.setLength(mark);
+                }
+                if (attributes > 0) {
+                    level.hasChildren = true;
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if (!levels.isEmpty()) {
+                    XmlLevel level = levels.get(levels.size() - 1);
+                    if (level.text == null) {
+                        level.text = new StringBuilder();
+                    }
+                    level.text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                XmlLevel level = levels.remove(levels.size() - 1);
+                // 根元素不产生键；叶子元素写出文本，带子元素或属性的元素忽略其中的空白文本
+                if (!levels.isEmpty()) {
+                    String value = level.text == null ? "" : level.text.toString().trim();
+                    if (!level.hasChildren || !value.isEmpty()) {
+                        emit(result, emitted, key.toString(), value);
+                    }
+                    if (level.name != null) {
+                        XmlLevel parent = levels.get(levels.size() - 1);
+                        if (parent.children == null) {
+                            parent.children = new HashMap<>();
+                        }
+                        parent.children.put(level.name, new int[]{1, level.firstEmitted, emitted.size()});
+                    }
+                }
+                key.setLength(level.keyMark);
+            }
+        }
+        return result;
+    }
+
+    private void emit(Map<String, String> result, List<String> emitted, String key, String value) {
+        if (result.put(key, value) == null) {
+            emitted.add(key);
+        }
+    }
+
+    /**
+     * 在 [from, to) 区间内的每个键的前 prefixLength 个字符后插入 suffix
+     */
+    private void renameRange(Map<String, String> result, List<String> emitted, int from, int to,
+                             int prefixLength, String suffix) {
+        for (int i = from; i < to; i++) {
+            String oldKey = emitted.get(i);
+            String newKey = oldKey.substring(0, prefixLength) + suffix + oldKey.substring(prefixLength);
+            result.put(newKey, result.remove(oldKey));
+            emitted.set(i, newKey);
+        }
+    }
+
+    /**
+     * XML 扁平化时一层元素的状态
+     */
+    private static final class XmlLevel {
+        private final int keyMark;
+        private final int firstEmitted;
+        // 非空表示该元素是父元素下第一次出现的同名元素
+        private String name;
+        private boolean hasChildren;
+        private StringBuilder text;
+        // 子元素名 -> {出现次数, 第一次出现时写出键的起始下标, 结束下标}
+        private Map<String, int[]> children;
+
+        private XmlLevel(int keyMark, int firstEmitted) {
+            this.keyMark = keyMark;
+            this.firstEmitted = firstEmitted;
+        }
+    }
+
+    /**
+     * 根据文件扩展名自动选择解析器
+     */
+    public Map<String, String> parseByExtension(String content, String extension) {
+        return parseByExtension(new StringReader(content), extension);
+    }
+
+    /**
+     * 根据文件扩展名自动选择解析器，从字符流读取配置
+     */
+    public Map<String, String> parseByExtension(Reader content, String extension) {
+        if (extension == null) {
+            extension = "";
+        }
+
+        switch (extension.toLowerCase()) {
+            case "properties":
+                return parseProperties(content);
+            case "yaml":
+            case "yml":
+                return parseYaml(content);
+            case "json":
+                return parseJson(content);
+            case "xml":
+                return parseXml(content);
+            default:
+                // 默认按Properties格式解析
+                return parseProperties(content);
+        }
+    }
+
+    /**
+     * 检测配置格式
+     */
+    public String detectFormat(String content) {
+        if (content == null || content.trim().isEmpty()) {
+            return "properties";
+        }
+        
+        String trimmed = content.trim();
+        
+        // 检测JSON格式
+        if (trimmed.startsWith("{") && trimmed.endsWith("}")) {
+            return "json";
+        }
+        
+        // 检测YAML格式
+        if (trimmed.startsWith("---") || trimmed.contains(":")) {
+            return "yaml";
+        }
+        
+        // 检测XML格式
+        if (trimmed.startsWith("<") && trimmed.endsWith(">")) {
+            return "xml";
+        }
+        
+        // 默认Properties格式
+        return "properties";
+    }
+} 
\ No newline at end of file
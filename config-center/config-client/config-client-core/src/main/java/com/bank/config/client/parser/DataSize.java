@@ -0,0 +1,140 @@
+package com.bank.config.client.parser;
+
+import java.util.Locale;
+
+/**
+ * 数据大小配置值
+ * 支持 B、KB、MB、GB、TB 单位（按1024进制，大小写不敏感），不带单位时按字节
+ * 例如：512、64KB、10MB、1GB
+ *
+ * @author bank
+ */
+public final class DataSize implements Comparable<DataSize> {
+
+    private static final long KB = 1024L;
+    private static final long MB = KB * 1024;
+    private static final long GB = MB * 1024;
+    private static final long TB = GB * 1024;
+
+    private final long bytes;
+
+    private DataSize(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize ofKilobytes(long kilobytes) {
+        return new DataSize(Math.multiplyExact(kilobytes, KB));
+    }
+
+    public static DataSize ofMegabytes(long megabytes) {
+        return new DataSize(Math.multiplyExact(megabytes, MB));
+    }
+
+    public static DataSize ofGigabytes(long gigabytes) {
+        return new DataSize(Math.multiplyExact(gigabytes, GB));
+    }
+
+    /**
+     * 解析数据大小
+     *
+     * @throws IllegalArgumentException 格式不正确或溢出时
+     */
+    public static DataSize parse(String text) {
+        DataSize size = tryParse(text);
+        if (size == null) {
+            throw new IllegalArgumentException("无效的数据大小: " + text);
+        }
+        return size;
+    }
+
+    /**
+     * 解析数据大小，格式不正确或溢出时返回 null，不抛出异常
+     */
+    static DataSize tryParse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim();
+        int end = value.length();
+        int digitsEnd = 0;
+        while (digitsEnd < end && Character.isDigit(value.charAt(digitsEnd))) {
+            digitsEnd++;
+        }
+        if (digitsEnd == 0 || digitsEnd > 18) {
+            return null;
+        }
+        long amount = Long.parseLong(value.substring(0, digitsEnd));
+        long unit;
+        switch (value.substring(digitsEnd).trim().toUpperCase(Locale.ROOT)) {
+            case "":
+            case "B":
+                unit = 1;
+                break;
+            case "K":
+            case "KB":
+                unit = KB;
+                break;
+            case "M":
+            case "MB":
+                unit = MB;
+                break;
+            case "G":
+            case "GB":
+                unit = GB;
+                break;
+            case "T":
+            case "TB":
+                unit = TB;
+                break;
+            default:
+                return null;
+        }
+        if (amount > Long.MAX_VALUE / unit) {
+            return null;
+        }
+        return new DataSize(amount * unit);
+    }
+
+    public long toBytes() {
+        return bytes;
+    }
+
+    public long toKilobytes() {
+        return bytes / KB;
+    }
+
+    public long toMegabytes() {
+        return bytes / MB;
+    }
+
+    public long toGigabytes() {
+        return bytes / GB;
+    }
+
+    @Override
+    public int compareTo(DataSize other) {
+        return Long.compare(bytes, other.bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof DataSize && bytes == ((DataSize) o).bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return bytes + "B";
+    }
+}
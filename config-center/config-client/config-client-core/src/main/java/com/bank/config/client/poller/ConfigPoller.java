@@ -0,0 +1,196 @@
+package com.bank.config.client.poller;
+
+import com.bank.config.client.ConfigClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 配置拉取器
+ * 负责定时从配置中心拉取配置。
+ * 首次拉取在 [0, 拉取间隔] 内随机延迟，之后每次间隔再加上随机抖动，避免同时重启的实例同步拉取；
+ * 服务端在响应头中给出拉取间隔提示时以提示为准。
+ * 自适应模式下检测到变更后按最小间隔拉取，配置无变化时逐次翻倍直到最大间隔。
+ * 拉取任务运行在客户端的共享运行时上，不单独创建线程
+ * 
+ * @author bank
+ */
+public class ConfigPoller {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigPoller.class);
+
+    private final ConfigClient configClient;
+    private final long pollInterval;
+    private final double jitterRatio;
+    private final long minInterval;
+    private final long maxInterval;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile ScheduledFuture<?> nextPoll;
+
+    // 自适应模式下的当前间隔
+    private volatile long currentInterval;
+    // 服务端建议的拉取间隔，0表示没有提示
+    private volatile long serverIntervalHint;
+
+    public ConfigPoller(ConfigClient configClient, long pollInterval) {
+        this(configClient, pollInterval, 0.1, pollInterval, pollInterval);
+    }
+
+    /**
+     * @param pollInterval 拉取间隔（毫秒）
+     * @param jitterRatio 每次间隔的随机抖动比例，如0.1表示在 ±10% 内随机
+     * @param minInterval 自适应模式的最小间隔，与 maxInterval 相等时不启用自适应
+     * @param maxInterval 自适应模式的最大间隔
+     */
+    public ConfigPoller(ConfigClient configClient, long pollInterval, double jitterRatio,
+                        long minInterval, long maxInterval) {
+        this.configClient = configClient;
+        this.pollInterval = pollInterval;
+        this.jitterRatio = Math.max(0.0, Math.min(jitterRatio, 1.0));
+        this.minInterval = minInterval;
+        this.maxInterval = Math.max(minInterval, maxInterval);
+        this.currentInterval = isAdaptive() ? minInterval : pollInterval;
+    }
+
+    /**
+     * 启动定时拉取
+     */
+    public void startPolling() {
+        if (running.compareAndSet(false, true)) {
+            long initialDelay = ThreadLocalRandom.current().nextLong(currentInterval + 1);
+            nextPoll = configClient.getRuntime().scheduleBlocking(this::tick, initialDelay, TimeUnit.MILLISECONDS);
+
+            logger.info("配置拉取器启动，拉取间隔: {}ms，首次拉取延迟: {}ms", currentInterval, initialDelay);
+        }
+    }
+
+    /**
+     * 停止定时拉取
+     */
+    public void stopPolling() {
+        if (running.compareAndSet(true, false)) {
+            ScheduledFuture<?> pending = nextPoll;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            logger.info("配置拉取器已停止");
+        }
+    }
+
+    private void tick() {
+        if (!running.get()) {
+            return;
+        }
+        boolean changed = false;
+        try {
+            changed = checkForUpdate();
+        } catch (Exception e) {
+            logger.error("配置拉取失败", e);
+        }
+        if (running.get()) {
+            try {
+                nextPoll = configClient.getRuntime().scheduleBlocking(this::tick, nextDelay(changed), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                logger.debug("拉取器已停止，不再调度");
+            }
+        }
+    }
+
+    /**
+     * 执行一次拉取
+     */
+    public void pollOnce() {
+        checkForUpdate();
+    }
+
+    /**
+     * 查询服务端修订号，比本地新时拉取全量配置
+     *
+     * @return 是否检测到更新
+     */
+    private boolean checkForUpdate() {
+        try {
+            logger.debug("开始拉取配置");
+            
+            // 检查配置版本是否有更新
+            long serverRevision = configClient.fetchServerRevision();
+            long localRevision = configClient.getCache().getRevision();
+            
+            if (serverRevision > localRevision) {
+                logger.info("检测到配置版本更新: {} -> {}", localRevision, serverRevision);
+                configClient.refreshConfig();
+                return true;
+            }
+            logger.debug("配置版本无更新，跳过拉取");
+            return false;
+            
+        } catch (Exception e) {
+            logger.warn("配置拉取失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 计算下次拉取的延迟：服务端提示优先，否则使用固定或自适应间隔，再加上随机抖动
+     */
+    long nextDelay(boolean changed) {
+        if (isAdaptive()) {
+            currentInterval = changed ? minInterval : Math.min(maxInterval, currentInterval * 2);
+        }
+        long hint = serverIntervalHint;
+        long base = hint > 0 ? hint : currentInterval;
+        if (jitterRatio <= 0) {
+            return base;
+        }
+        double jitter = ThreadLocalRandom.current().nextDouble(-jitterRatio, jitterRatio);
+        return Math.max(1L, (long) (base * (1.0 + jitter)));
+    }
+
+    /**
+     * 设置服务端建议的拉取间隔，0表示清除提示
+     */
+    public void setServerIntervalHint(long serverIntervalHint) {
+        long previous = this.serverIntervalHint;
+        this.serverIntervalHint = Math.max(0L, serverIntervalHint);
+        if (previous != this.serverIntervalHint) {
+            logger.info("服务端建议拉取间隔: {}ms", this.serverIntervalHint);
+        }
+    }
+
+    public long getServerIntervalHint() {
+        return serverIntervalHint;
+    }
+
+    /**
+     * 检查是否正在运行
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 是否启用自适应间隔
+     */
+    public boolean isAdaptive() {
+        return minInterval < maxInterval;
+    }
+
+    /**
+     * 获取拉取间隔
+     */
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * 获取当前生效的拉取间隔（不含抖动）
+     */
+    public long getCurrentInterval() {
+        long hint = serverIntervalHint;
+        return hint > 0 ? hint : currentInterval;
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.config.client.push;
+
+import java.util.Map;
+
+/**
+ * 配置推送通道
+ * 核心模块只依赖该接口，具体实现由可选模块提供（如 config-client-websocket 的 WebSocketConfigClient），
+ * 通过 ConfigPushChannels 按类名加载
+ *
+ * @author bank
+ */
+public interface ConfigPushChannel {
+
+    /**
+     * 设置推送消息监听器，应在 connect() 之前设置
+     */
+    void setListener(Listener listener);
+
+    /**
+     * 连接服务端
+     */
+    void connect();
+
+    /**
+     * 断开连接
+     */
+    void disconnect();
+
+    /**
+     * 推送消息监听器
+     */
+    interface Listener {
+
+        /**
+         * 收到完整配置
+         *
+         * @param revision 修订号，未知时为0
+         * @param timestamp 服务端发布时间，未知时为0
+         */
+        void onConfigUpdate(Long appId, Long envId, Map<String, Object> configData, long revision, long timestamp);
+
+        /**
+         * 两阶段发布中待生效的配置，只暂存不应用
+         */
+        void onConfigPrepare(Long appId, Long envId, long revision, long timestamp, Map<String, Object> configData);
+
+        /**
+         * 两阶段发布的提交消息
+         */
+        void onConfigCommit(Long appId, Long envId, long revision, long timestamp);
+
+        /**
+         * 本地回滚指令，切换到本地版本历史中的修订
+         */
+        void onRollback(Long appId, Long envId, long revision, long timestamp);
+
+        /**
+         * 配置变更通知
+         */
+        void onNotification(Long appId, Long envId, String versionNumber, String changeType);
+
+        /**
+         * 连接建立
+         */
+        void onConnected();
+
+        /**
+         * 连接断开或连接失败
+         */
+        void onDisconnected(Throwable cause);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.config.client.push;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * 推送通道加载入口
+ * classpath 中有 config-client-websocket 模块时通过反射创建 WebSocket 推送通道，
+ * 否则返回 null，核心模块不引用 Spring 的任何类
+ *
+ * @author bank
+ */
+public final class ConfigPushChannels {
+
+    private static final String WEBSOCKET_CHANNEL_CLASS = "com.bank.config.client.websocket.WebSocketConfigClient";
+
+    private static final Constructor<?> WEBSOCKET_CONSTRUCTOR = loadWebSocketConstructor();
+
+    private ConfigPushChannels() {
+    }
+
+    /**
+     * 是否可以创建WebSocket推送通道
+     */
+    public static boolean isWebSocketAvailable() {
+        return WEBSOCKET_CONSTRUCTOR != null;
+    }
+
+    /**
+     * 创建WebSocket推送通道
+     *
+     * @return 推送通道，classpath 中没有 config-client-websocket 模块时返回null
+     */
+    public static ConfigPushChannel createWebSocket(String serverUrl, Long appId, String appCode, String envCode,
+                                                    String instanceId, String instanceIp, String clientVersion) {
+        if (WEBSOCKET_CONSTRUCTOR == null) {
+            return null;
+        }
+        try {
+            return (ConfigPushChannel) WEBSOCKET_CONSTRUCTOR.newInstance(serverUrl, appId, appCode, envCode,
+                    instanceId, instanceIp, clientVersion);
+        } catch (Exception e) {
+            throw new IllegalStateException("创建WebSocket推送通道失败", e);
+        }
+    }
+
+    private static Constructor<?> loadWebSocketConstructor() {
+        try {
+            Class<?> channelClass = Class.forName(WEBSOCKET_CHANNEL_CLASS, false, ConfigPushChannels.class.getClassLoader());
+            return channelClass.getConstructor(String.class, Long.class, String.class, String.class,
+                    String.class, String.class, String.class);
+        } catch (Throwable e) {
+            // 未引入 config-client-websocket 模块，或其依赖不完整
+            return null;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.bank.config.client.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * 熔断器
+ * 连续失败达到阈值后打开，打开期间直接拒绝请求（由调用方使用本地缓存）；
+ * 打开时间到期后只放行一个探测请求（半开），探测成功则关闭，失败则重新打开。
+ * 打开时长带 ±20% 随机抖动，避免大量实例在同一时刻探测服务端
+ *
+ * @author bank
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDuration;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openUntil;
+    private volatile BiConsumer<State, State> stateListener;
+
+    public CircuitBreaker() {
+        this(5, 30000);
+    }
+
+    /**
+     * @param failureThreshold 打开熔断器的连续失败次数
+     * @param openDuration 打开后到允许探测的时间（毫秒）
+     */
+    public CircuitBreaker(int failureThreshold, long openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * 是否允许发出请求；打开时间到期后第一个调用者获得探测机会
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            return transition(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    /**
+     * 记录一次成功（服务端可达）
+     */
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        State current = state.get();
+        if (current != State.CLOSED) {
+            transition(current, State.CLOSED);
+        }
+    }
+
+    /**
+     * 记录一次失败（服务端不可达或服务端错误）
+     */
+    public void onFailure() {
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        } else if (current == State.CLOSED && consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+
+    private void open(State from) {
+        long jitter = (long) (openDuration * (ThreadLocalRandom.current().nextDouble() * 0.4 - 0.2));
+        openUntil = System.currentTimeMillis() + openDuration + jitter;
+        transition(from, State.OPEN);
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        if (to == State.OPEN) {
+            logger.warn("熔断器打开: 连续失败{}次，{}ms后探测", consecutiveFailures.get(), getRemainingOpenTime());
+        } else {
+            logger.info("熔断器状态变更: {} -> {}", from, to);
+        }
+        BiConsumer<State, State> listener = stateListener;
+        if (listener != null) {
+            try {
+                listener.accept(from, to);
+            } catch (Exception e) {
+                logger.error("熔断器状态监听器执行失败", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 设置状态变更监听器，参数为 (原状态, 新状态)
+     */
+    public void setStateListener(BiConsumer<State, State> stateListener) {
+        this.stateListener = stateListener;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * 距离允许探测的剩余时间（毫秒），未打开时为0
+     */
+    public long getRemainingOpenTime() {
+        if (state.get() != State.OPEN) {
+            return 0L;
+        }
+        return Math.max(0L, openUntil - System.currentTimeMillis());
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getOpenDuration() {
+        return openDuration;
+    }
+}
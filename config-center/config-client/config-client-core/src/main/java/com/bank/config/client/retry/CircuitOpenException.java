@@ -0,0 +1,20 @@
+package com.bank.config.client.retry;
+
+/**
+ * 熔断器打开时拒绝请求抛出的异常，不会被重试
+ *
+ * @author bank
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final long remainingOpenTime;
+
+    public CircuitOpenException(long remainingOpenTime) {
+        super("熔断器已打开，" + remainingOpenTime + "ms后允许探测");
+        this.remainingOpenTime = remainingOpenTime;
+    }
+
+    public long getRemainingOpenTime() {
+        return remainingOpenTime;
+    }
+}
@@ -0,0 +1,372 @@
+package com.bank.config.client.retry;
+
+import com.bank.config.client.metrics.ConfigMetrics;
+import com.bank.config.client.runtime.ConfigClientRuntime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 配置重试类
+ * 每次请求先经过熔断器，熔断器打开时直接拒绝；重试受重试预算限制，
+ * 退避时间采用全抖动（0到指数退避上限之间随机），避免大量实例同步重试。
+ * 重试在共享运行时的调度线程上执行，不在调用方线程上休眠
+ *
+ * @author bank
+ */
+public class ConfigRetry {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigRetry.class);
+
+    private final int maxRetries;
+    private final long retryDelay;
+    private final double retryMultiplier;
+    private final long maxRetryDelay;
+
+    private final CircuitBreaker circuitBreaker;
+    private final RetryBudget retryBudget;
+
+    private volatile ConfigMetrics metrics;
+
+    // 未指定运行时时首次重试才获取共享运行时的引用，shutdown 时释放
+    private ConfigClientRuntime runtime;
+    private boolean ownsRuntime;
+    private volatile boolean shutdown;
+    private final Map<ScheduledFuture<?>, CompletableFuture<?>> pendingRetries = new ConcurrentHashMap<>();
+
+    public ConfigRetry() {
+        this(3, 1000, 2.0, 10000);
+    }
+
+    public ConfigRetry(int maxRetries, long retryDelay, double retryMultiplier, long maxRetryDelay) {
+        this(maxRetries, retryDelay, retryMultiplier, maxRetryDelay, new CircuitBreaker(), new RetryBudget());
+    }
+
+    public ConfigRetry(int maxRetries, long retryDelay, double retryMultiplier, long maxRetryDelay,
+                       CircuitBreaker circuitBreaker, RetryBudget retryBudget) {
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+        this.retryMultiplier = retryMultiplier;
+        this.maxRetryDelay = maxRetryDelay;
+        this.circuitBreaker = circuitBreaker;
+        this.retryBudget = retryBudget;
+        this.circuitBreaker.setStateListener((from, to) -> {
+            ConfigMetrics currentMetrics = metrics;
+            if (currentMetrics != null) {
+                currentMetrics.recordCircuitStateChange(from.name(), to.name());
+            }
+        });
+    }
+
+    /**
+     * 设置监控指标，记录重试、预算耗尽和熔断器状态变更
+     */
+    public void setMetrics(ConfigMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 指定重试调度使用的运行时，由调用方管理其生命周期
+     */
+    public synchronized void setRuntime(ConfigClientRuntime runtime) {
+        this.runtime = runtime;
+        this.ownsRuntime = false;
+    }
+
+    /**
+     * 执行一次操作，不重试
+     * 熔断器打开时抛出 CircuitOpenException；受检异常包装为 RuntimeException
+     */
+    public <T> T execute(Callable<T> callable) {
+        try {
+            return attempt(callable);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 由运行时计时、在I/O线程上异步重试，首次请求已由调用方执行过
+     * 只重试 shouldRetry 认可的暂时性错误
+     *
+     * @return 重试成功时完成；重试次数或预算用尽、熔断器打开时以异常完成
+     */
+    public <T> CompletableFuture<T> retryAsync(Callable<T> callable, Exception firstFailure) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        scheduleRetry(callable, 0, future, firstFailure, false);
+        return future;
+    }
+
+    /**
+     * 执行带重试的操作
+     */
+    public <T> T executeWithRetry(Supplier<T> supplier) {
+        return executeWithRetry((Callable<T>) () -> supplier.get());
+    }
+
+    /**
+     * 执行带重试的操作，任何异常都会重试
+     * 首次请求在调用方线程执行，重试在运行时的I/O线程执行，调用方等待最终结果
+     */
+    public <T> T executeWithRetry(Callable<T> callable) {
+        return executeAndWait(callable, true);
+    }
+
+    /**
+     * 执行带重试的操作（无返回值）
+     */
+    public void executeWithRetry(Runnable runnable) {
+        executeWithRetry((Callable<Void>) () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * 带条件重试的执行，只重试暂时性错误
+     */
+    public <T> T executeWithConditionalRetry(Callable<T> callable) {
+        return executeAndWait(callable, false);
+    }
+
+    private <T> T executeAndWait(Callable<T> callable, boolean retryAll) {
+        Exception firstFailure;
+        try {
+            return attempt(callable);
+        } catch (CircuitOpenException e) {
+            throw e;
+        } catch (Exception e) {
+            firstFailure = e;
+        }
+        if (maxRetries <= 0 || (!retryAll && !shouldRetry(firstFailure))) {
+            logger.error("操作失败且不需要重试", firstFailure);
+            throw new RuntimeException("重试失败", firstFailure);
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        scheduleRetry(callable, 0, future, firstFailure, retryAll);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("重试被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CircuitOpenException) {
+                throw (CircuitOpenException) cause;
+            }
+            logger.error("重试后仍然失败", cause);
+            throw new RuntimeException("重试失败", cause);
+        }
+    }
+
+    /**
+     * 经过熔断器执行一次，并把结果计入熔断器和重试预算
+     */
+    private <T> T attempt(Callable<T> callable) throws Exception {
+        if (!circuitBreaker.allowRequest()) {
+            ConfigMetrics currentMetrics = metrics;
+            if (currentMetrics != null) {
+                currentMetrics.recordCircuitRejected();
+            }
+            throw new CircuitOpenException(circuitBreaker.getRemainingOpenTime());
+        }
+        try {
+            T result = callable.call();
+            circuitBreaker.onSuccess();
+            retryBudget.onSuccess();
+            return result;
+        } catch (Exception e) {
+            if (shouldRetry(e)) {
+                circuitBreaker.onFailure();
+                retryBudget.onFailure();
+            } else {
+                // 服务端给出了明确的非暂时性响应，说明服务端可达
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 调度第 retry 次重试（从0开始）
+     */
+    private <T> void scheduleRetry(Callable<T> callable, int retry, CompletableFuture<T> future,
+                                   Exception lastFailure, boolean retryAll) {
+        if (future.isDone()) {
+            return;
+        }
+        if (retry >= maxRetries) {
+            logger.error("重试{}次后仍然失败", maxRetries, lastFailure);
+            future.completeExceptionally(lastFailure);
+            return;
+        }
+        ConfigMetrics currentMetrics = metrics;
+        if (!retryBudget.canRetry()) {
+            logger.warn("重试预算已用尽，放弃重试: {}", lastFailure.getMessage());
+            if (currentMetrics != null) {
+                currentMetrics.recordRetryBudgetExhausted();
+            }
+            future.completeExceptionally(lastFailure);
+            return;
+        }
+
+        long delay = calculateDelay(retry);
+        logger.warn("操作失败，{}ms后进行第{}次重试: {}", delay, retry + 1, lastFailure.getMessage());
+        if (currentMetrics != null) {
+            currentMetrics.recordRetry();
+        }
+        if (shutdown) {
+            future.completeExceptionally(new CancellationException("重试已停止"));
+            return;
+        }
+        ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+        Runnable task = () -> {
+            synchronized (self) {
+                pendingRetries.remove(self[0]);
+            }
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                T result = attempt(callable);
+                ConfigMetrics m = metrics;
+                if (m != null) {
+                    m.recordRetrySuccess();
+                }
+                future.complete(result);
+            } catch (CircuitOpenException e) {
+                future.completeExceptionally(e);
+            } catch (Exception e) {
+                if (!retryAll && !shouldRetry(e)) {
+                    future.completeExceptionally(e);
+                } else {
+                    scheduleRetry(callable, retry + 1, future, e, retryAll);
+                }
+            }
+        };
+        try {
+            synchronized (self) {
+                self[0] = getRuntime().scheduleBlocking(task, delay, TimeUnit.MILLISECONDS);
+                pendingRetries.put(self[0], future);
+            }
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new CancellationException("重试已停止"));
+        }
+    }
+
+    /**
+     * 计算重试延迟时间：全抖动，在 [0, min(最大延迟, 初始延迟 * 倍数^重试次数)] 内随机
+     */
+    private long calculateDelay(int attempt) {
+        long cap = Math.min((long) (retryDelay * Math.pow(retryMultiplier, attempt)), maxRetryDelay);
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private synchronized ConfigClientRuntime getRuntime() {
+        if (shutdown) {
+            throw new RejectedExecutionException("重试已停止");
+        }
+        if (runtime == null) {
+            runtime = ConfigClientRuntime.acquire();
+            ownsRuntime = true;
+        }
+        return runtime;
+    }
+
+    /**
+     * 停止重试调度，未执行的重试被丢弃
+     */
+    public void shutdown() {
+        ConfigClientRuntime owned = null;
+        synchronized (this) {
+            shutdown = true;
+            if (ownsRuntime) {
+                owned = runtime;
+                runtime = null;
+                ownsRuntime = false;
+            }
+        }
+        for (Map.Entry<ScheduledFuture<?>, CompletableFuture<?>> pending : pendingRetries.entrySet()) {
+            pending.getKey().cancel(false);
+            pending.getValue().completeExceptionally(new CancellationException("重试已停止"));
+        }
+        pendingRetries.clear();
+        if (owned != null) {
+            owned.release();
+        }
+    }
+
+    /**
+     * 检查是否应该重试
+     * 网络异常、5xx/408/429 响应可以重试；熔断拒绝和其他 4xx 响应不重试
+     */
+    public boolean shouldRetry(Exception exception) {
+        Throwable current = exception;
+        while (current != null) {
+            if (current instanceof CircuitOpenException) {
+                return false;
+            }
+            if (current instanceof ConfigServerException) {
+                return ((ConfigServerException) current).isRetryable();
+            }
+            if (current instanceof IOException) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+            current = current.getCause();
+        }
+        if (exception instanceof RuntimeException) {
+            String message = exception.getMessage();
+            if (message != null) {
+                // 网络相关异常通常可以重试
+                return message.contains("Connection") ||
+                       message.contains("Timeout") ||
+                       message.contains("Network") ||
+                       message.contains("Socket");
+            }
+        }
+        return true;
+    }
+
+    // Getter方法
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    public double getRetryMultiplier() {
+        return retryMultiplier;
+    }
+
+    public long getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+}
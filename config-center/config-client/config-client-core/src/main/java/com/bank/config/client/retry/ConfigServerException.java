@@ -0,0 +1,25 @@
+package com.bank.config.client.retry;
+
+/**
+ * 配置服务器返回非成功状态码
+ * 5xx、408 和 429 视为暂时性错误可以重试，其他 4xx 属于请求本身的问题，不重试
+ *
+ * @author bank
+ */
+public class ConfigServerException extends RuntimeException {
+
+    private final int statusCode;
+
+    public ConfigServerException(int statusCode) {
+        super("服务器响应错误: " + statusCode);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isRetryable() {
+        return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+    }
+}
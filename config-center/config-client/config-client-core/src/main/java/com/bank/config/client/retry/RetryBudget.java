@@ -0,0 +1,56 @@
+package com.bank.config.client.retry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 重试预算
+ * 令牌桶式限流：每次失败扣1个令牌，每次成功返还 tokenRatio 个令牌，
+ * 令牌数高于上限的一半时才允许重试。服务端持续故障时各实例很快停止重试，
+ * 只保留正常的首次请求；恢复后随成功请求逐步重新获得重试能力
+ *
+ * @author bank
+ */
+public class RetryBudget {
+
+    // 令牌以千分之一为单位保存，避免浮点并发累加
+    private static final int SCALE = 1000;
+
+    private final int maxTokens;
+    private final int tokenRatio;
+    private final int threshold;
+    private final AtomicInteger tokens;
+
+    public RetryBudget() {
+        this(10, 0.1);
+    }
+
+    /**
+     * @param maxTokens 令牌上限
+     * @param tokenRatio 每次成功返还的令牌数
+     */
+    public RetryBudget(int maxTokens, double tokenRatio) {
+        this.maxTokens = maxTokens * SCALE;
+        this.tokenRatio = (int) (tokenRatio * SCALE);
+        this.threshold = this.maxTokens / 2;
+        this.tokens = new AtomicInteger(this.maxTokens);
+    }
+
+    public void onSuccess() {
+        tokens.accumulateAndGet(tokenRatio, (current, delta) -> Math.min(maxTokens, current + delta));
+    }
+
+    public void onFailure() {
+        tokens.accumulateAndGet(SCALE, (current, delta) -> Math.max(0, current - delta));
+    }
+
+    /**
+     * 当前是否允许重试
+     */
+    public boolean canRetry() {
+        return tokens.get() > threshold;
+    }
+
+    public double getTokens() {
+        return (double) tokens.get() / SCALE;
+    }
+}
@@ -0,0 +1,231 @@
+package com.bank.config.client.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 配置客户端共享运行时
+ * 同一JVM内的所有 ConfigClient 及其组件（拉取、重试、热更新、健康探测、生效上报）共用一个定时线程池，
+ * 线程数不随客户端数量增长。按引用计数管理生命周期：acquire() 获得引用，release() 释放，
+ * 最后一个引用释放时关闭线程池，之后再次 acquire() 会创建新的运行时。
+ * 线程池在第一次提交任务时才创建，线程数可通过系统属性 config.client.threads 指定（默认2）。
+ * 定时线程池上的任务应尽量短小；网络请求等阻塞任务通过 executeBlocking / scheduleBlocking 提交，
+ * 由定时线程池计时、在独立的I/O线程池中执行（线程数由 config.client.io-threads 指定，默认4），
+ * 一个慢请求不会推迟其他客户端的定时任务。长时间阻塞的读取（如SSE长连接）仍使用独立线程
+ *
+ * @author bank
+ */
+public final class ConfigClientRuntime {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigClientRuntime.class);
+
+    private static final int THREADS = Math.max(1, Integer.getInteger("config.client.threads", 2));
+    private static final int IO_THREADS = Math.max(1, Integer.getInteger("config.client.io-threads", 4));
+    private static final ThreadLocal<Boolean> RUNTIME_THREAD = new ThreadLocal<>();
+
+    private static final Object LOCK = new Object();
+    private static ConfigClientRuntime shared;
+
+    private final AtomicInteger threadIndex = new AtomicInteger();
+    private final AtomicInteger ioThreadIndex = new AtomicInteger();
+    private int references;
+    private ScheduledThreadPoolExecutor executor;
+    private ThreadPoolExecutor ioExecutor;
+    private boolean terminated;
+
+    private ConfigClientRuntime() {
+    }
+
+    /**
+     * 获取共享运行时的一个引用，使用完毕后必须调用 release()
+     */
+    public static ConfigClientRuntime acquire() {
+        synchronized (LOCK) {
+            if (shared == null) {
+                shared = new ConfigClientRuntime();
+            }
+            shared.references++;
+            return shared;
+        }
+    }
+
+    /**
+     * 释放一个引用，最后一个引用释放时关闭线程池并等待正在执行的任务结束
+     */
+    public void release() {
+        ScheduledThreadPoolExecutor toShutdown = null;
+        ThreadPoolExecutor ioToShutdown = null;
+        synchronized (LOCK) {
+            if (terminated || references <= 0) {
+                return;
+            }
+            if (--references == 0) {
+                terminated = true;
+                toShutdown = executor;
+                ioToShutdown = ioExecutor;
+                executor = null;
+                ioExecutor = null;
+                if (shared == this) {
+                    shared = null;
+                }
+            }
+        }
+        if (toShutdown != null || ioToShutdown != null) {
+            // 先停止计时，不再向I/O线程池提交新任务
+            shutdown(toShutdown);
+            shutdown(ioToShutdown);
+            logger.info("配置客户端运行时已关闭");
+        }
+    }
+
+    private static void shutdown(ExecutorService toShutdown) {
+        if (toShutdown == null) {
+            return;
+        }
+        toShutdown.shutdown();
+        // 在运行时线程内释放（如在监听器中停止客户端）时不能等待自身结束
+        if (!Boolean.TRUE.equals(RUNTIME_THREAD.get())) {
+            try {
+                if (!toShutdown.awaitTermination(5, TimeUnit.SECONDS)) {
+                    toShutdown.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                toShutdown.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 延迟执行一次
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return executor().schedule(task, delay, unit);
+    }
+
+    /**
+     * 按固定间隔重复执行，上一次执行结束后才计算下一次的延迟
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        return executor().scheduleWithFixedDelay(task, initialDelay, delay, unit);
+    }
+
+    /**
+     * 立即异步执行
+     */
+    public void execute(Runnable task) {
+        executor().execute(task);
+    }
+
+    /**
+     * 在I/O线程池中立即执行阻塞任务（如网络请求）
+     */
+    public void executeBlocking(Runnable task) {
+        ioExecutor().execute(task);
+    }
+
+    /**
+     * 延迟后在I/O线程池中执行一次阻塞任务；到期前取消返回的 future 即不再执行
+     */
+    public ScheduledFuture<?> scheduleBlocking(Runnable task, long delay, TimeUnit unit) {
+        return executor().schedule(() -> executeBlocking(task), delay, unit);
+    }
+
+    /**
+     * 按固定间隔在I/O线程池中执行阻塞任务，上一次执行尚未结束时跳过本次
+     */
+    public ScheduledFuture<?> scheduleBlockingWithFixedDelay(Runnable task, long initialDelay, long delay,
+                                                            TimeUnit unit) {
+        AtomicBoolean running = new AtomicBoolean();
+        return executor().scheduleWithFixedDelay(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executeBlocking(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        running.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+            }
+        }, initialDelay, delay, unit);
+    }
+
+    /**
+     * 是否已关闭
+     */
+    public boolean isTerminated() {
+        synchronized (LOCK) {
+            return terminated;
+        }
+    }
+
+    /**
+     * 当前持有的引用数
+     */
+    public int getReferenceCount() {
+        synchronized (LOCK) {
+            return references;
+        }
+    }
+
+    private ThreadPoolExecutor ioExecutor() {
+        synchronized (LOCK) {
+            if (terminated) {
+                throw new RejectedExecutionException("配置客户端运行时已关闭");
+            }
+            if (ioExecutor == null) {
+                ThreadPoolExecutor created = new ThreadPoolExecutor(IO_THREADS, IO_THREADS, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), r -> {
+                        Thread thread = new Thread(() -> {
+                            RUNTIME_THREAD.set(Boolean.TRUE);
+                            r.run();
+                        }, "config-client-io-" + ioThreadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                // 空闲时不保留线程
+                created.allowCoreThreadTimeOut(true);
+                ioExecutor = created;
+            }
+            return ioExecutor;
+        }
+    }
+
+    private ScheduledThreadPoolExecutor executor() {
+        synchronized (LOCK) {
+            if (terminated) {
+                throw new RejectedExecutionException("配置客户端运行时已关闭");
+            }
+            if (executor == null) {
+                ScheduledThreadPoolExecutor created = new ScheduledThreadPoolExecutor(THREADS, r -> {
+                    Thread thread = new Thread(() -> {
+                        RUNTIME_THREAD.set(Boolean.TRUE);
+                        r.run();
+                    }, "config-client-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                // 取消的任务立即移出队列，避免频繁重新调度时堆积
+                created.setRemoveOnCancelPolicy(true);
+                created.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+                created.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+                executor = created;
+            }
+            return executor;
+        }
+    }
+}
@@ -6,14 +6,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.util.Base64;
 
 /**
  * 配置安全类
- * 提供认证和加密功能
+ * 提供认证和加密功能。
+ * 加密使用 AES-GCM，密文格式为 "gcm:" + Base64(12字节IV + 密文 + 认证标签)，篡改的密文无法解密；
+ * 不带前缀的密文按旧的 AES/ECB 格式解密以兼容已有数据。
+ * 密钥在构造时生成一次，Cipher 按线程缓存复用
  * 
  * @author bank
  */
@@ -23,13 +30,35 @@ public class ConfigSecurity {
     private final String token;
     private final String appCode;
     private final String envCode;
+    /**
+     * AES-GCM 密文前缀
+     */
+    public static final String GCM_PREFIX = "gcm:";
+
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<Cipher> GCM_CIPHER = ThreadLocal.withInitial(() -> newCipher("AES/GCM/NoPadding"));
+    private static final ThreadLocal<Cipher> LEGACY_CIPHER = ThreadLocal.withInitial(() -> newCipher("AES/ECB/PKCS5Padding"));
+
     private final String encryptionKey;
+    private final SecretKeySpec secretKey;
 
     public ConfigSecurity(String token, String appCode, String envCode) {
         this.token = token;
         this.appCode = appCode;
         this.envCode = envCode;
         this.encryptionKey = generateEncryptionKey();
+        this.secretKey = new SecretKeySpec(encryptionKey.getBytes(StandardCharsets.UTF_8), "AES");
+    }
+
+    private static Cipher newCipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("不支持的加密算法: " + transformation, e);
+        }
     }
 
     /**
@@ -55,7 +84,7 @@ public class ConfigSecurity {
     }
 
     /**
-     * 加密配置值
+     * 加密配置值（AES-GCM）
      */
     public String encrypt(String value) {
         if (value == null || value.trim().isEmpty()) {
@@ -63,12 +92,15 @@ public class ConfigSecurity {
         }
 
         try {
-            SecretKeySpec secretKey = new SecretKeySpec(encryptionKey.getBytes(StandardCharsets.UTF_8), "AES");
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-            
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            RANDOM.nextBytes(iv);
+            Cipher cipher = GCM_CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
             byte[] encryptedBytes = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encryptedBytes);
+            
+            ByteBuffer buffer = ByteBuffer.allocate(iv.length + encryptedBytes.length);
+            buffer.put(iv).put(encryptedBytes);
+            return GCM_PREFIX + Base64.getEncoder().encodeToString(buffer.array());
         } catch (Exception e) {
             logger.error("加密失败", e);
             return value;
@@ -76,7 +108,7 @@ public class ConfigSecurity {
     }
 
     /**
-     * 解密配置值
+     * 解密配置值，失败时返回null，不会把密文当作明文返回
      */
     public String decrypt(String encryptedValue) {
         if (encryptedValue == null || encryptedValue.trim().isEmpty()) {
@@ -84,30 +116,50 @@ public class ConfigSecurity {
         }
 
         try {
-            SecretKeySpec secretKey = new SecretKeySpec(encryptionKey.getBytes(StandardCharsets.UTF_8), "AES");
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
-            
-            byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedValue));
-            return new String(decryptedBytes, StandardCharsets.UTF_8);
+            return decryptOrThrow(encryptedValue);
         } catch (Exception e) {
             logger.error("解密失败", e);
-            return encryptedValue;
+            return null;
         }
     }
 
     /**
-     * 检查值是否已加密
+     * 解密配置值，密文格式错误、密钥不符或被篡改时抛出异常
+     */
+    public String decryptOrThrow(String encryptedValue) throws GeneralSecurityException {
+        byte[] decryptedBytes;
+        if (encryptedValue.startsWith(GCM_PREFIX)) {
+            byte[] data = Base64.getDecoder().decode(encryptedValue.substring(GCM_PREFIX.length()));
+            if (data.length <= GCM_IV_LENGTH) {
+                throw new GeneralSecurityException("密文长度错误");
+            }
+            Cipher cipher = GCM_CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_BITS, data, 0, GCM_IV_LENGTH));
+            decryptedBytes = cipher.doFinal(data, GCM_IV_LENGTH, data.length - GCM_IV_LENGTH);
+        } else {
+            Cipher cipher = LEGACY_CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, secretKey);
+            decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedValue));
+        }
+        return new String(decryptedBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 检查值是否为本类生成的密文格式
+     * 配置项是否加密应以服务端返回的元数据为准，这里只做格式判断
      */
     public boolean isEncrypted(String value) {
         if (value == null || value.trim().isEmpty()) {
             return false;
         }
+        if (value.startsWith(GCM_PREFIX)) {
+            return true;
+        }
         
         try {
-            // 尝试Base64解码
-            Base64.getDecoder().decode(value);
-            return true;
+            // 旧格式：Base64编码且长度为AES分组的整数倍
+            byte[] decoded = Base64.getDecoder().decode(value);
+            return decoded.length >= 16 && decoded.length % 16 == 0;
         } catch (IllegalArgumentException e) {
             return false;
         }
@@ -0,0 +1,306 @@
+package com.bank.config.client.watch;
+
+import com.bank.config.client.security.ConfigSecurity;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Server-Sent Events配置监听器
+ * 通过一个普通HTTP长连接接收服务端推送的修订通知和增量，不依赖STOMP/SockJS。
+ * 断线后按指数退避重连，并通过 Last-Event-ID 请求头从最后收到的修订续传
+ *
+ * @author bank
+ */
+public class SseConfigWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseConfigWatcher.class);
+
+    private static final long MIN_RECONNECT_DELAY = 1000;
+    private static final long MAX_RECONNECT_DELAY = 30000;
+
+    private final String watchUrl;
+    private final ConfigSecurity security;
+    private final WatchEventListener listener;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    private volatile boolean running;
+    private volatile String lastEventId;
+    private volatile HttpGet currentRequest;
+    private Thread watchThread;
+
+    /**
+     * @param serverUrl 服务器地址
+     * @param appCode 应用编码
+     * @param envCode 环境编码
+     * @param security 用于添加认证头
+     * @param readTimeout 读超时（毫秒），应大于服务端保活间隔
+     * @param listener 事件监听器
+     */
+    public SseConfigWatcher(String serverUrl, String appCode, String envCode, ConfigSecurity security,
+                            int readTimeout, WatchEventListener listener) {
+        this(serverUrl, appCode, envCode, null, security, readTimeout, listener);
+    }
+
+    /**
+     * @param instanceId 客户端实例ID，服务端按该实例登记的订阅子集过滤推送，为空时接收全部配置
+     */
+    public SseConfigWatcher(String serverUrl, String appCode, String envCode, String instanceId,
+                            ConfigSecurity security, int readTimeout, WatchEventListener listener) {
+        String url = String.format("%s/api/client/watch/%s/%s", serverUrl, appCode, envCode);
+        if (instanceId != null) {
+            try {
+                url += "?instanceId=" + java.net.URLEncoder.encode(instanceId, "UTF-8");
+            } catch (java.io.UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        this.watchUrl = url;
+        this.security = security;
+        this.listener = listener;
+        this.objectMapper = new ObjectMapper();
+        this.httpClient = HttpClients.custom()
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(10000)
+                .setSocketTimeout(readTimeout)
+                .build())
+            .build();
+    }
+
+    /**
+     * 启动监听线程
+     *
+     * @param lastRevision 本地已知的修订号，大于0时作为首次连接的 Last-Event-ID
+     */
+    public synchronized void start(long lastRevision) {
+        if (running) {
+            return;
+        }
+        if (lastRevision > 0) {
+            lastEventId = String.valueOf(lastRevision);
+        }
+        running = true;
+        watchThread = new Thread(this::watchLoop, "config-sse-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("SSE配置监听已启动: {}", watchUrl);
+    }
+
+    /**
+     * 停止监听并关闭连接
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        HttpGet request = currentRequest;
+        if (request != null) {
+            request.abort();
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        try {
+            httpClient.close();
+        } catch (Exception e) {
+            logger.error("关闭SSE HTTP客户端失败", e);
+        }
+        if (watchThread != null && watchThread != Thread.currentThread()) {
+            try {
+                watchThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("SSE配置监听已停止");
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    private void watchLoop() {
+        long reconnectDelay = MIN_RECONNECT_DELAY;
+        while (running) {
+            try {
+                if (connect()) {
+                    reconnectDelay = MIN_RECONNECT_DELAY;
+                }
+            } catch (Exception e) {
+                if (running) {
+                    logger.warn("SSE连接断开: {}", e.getMessage());
+                    listener.onConnectionLost(e);
+                }
+            }
+            if (!running) {
+                break;
+            }
+            try {
+                Thread.sleep(reconnectDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+        }
+    }
+
+    /**
+     * 建立连接并持续读取事件，直到连接关闭
+     *
+     * @return 是否成功建立过连接
+     */
+    private boolean connect() throws Exception {
+        HttpGet request = new HttpGet(watchUrl);
+        request.setHeader("Accept", "text/event-stream");
+        request.setHeader("Cache-Control", "no-cache");
+        security.addAuthHeaders(request);
+        String resumeFrom = lastEventId;
+        if (resumeFrom != null) {
+            request.setHeader("Last-Event-ID", resumeFrom);
+        }
+        currentRequest = request;
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status != 200) {
+                logger.warn("SSE连接失败，服务器响应: {}", status);
+                listener.onConnectionLost(new IllegalStateException("SSE连接失败，服务器响应: " + status));
+                return false;
+            }
+            logger.debug("SSE连接成功, Last-Event-ID={}", resumeFrom);
+            listener.onConnected();
+
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8))) {
+                readEvents(reader);
+            }
+            return true;
+        } finally {
+            currentRequest = null;
+        }
+    }
+
+    /**
+     * 按SSE协议逐行解析事件：空行分隔事件，冒号开头为注释
+     */
+    private void readEvents(BufferedReader reader) throws Exception {
+        String eventName = null;
+        String eventId = null;
+        StringBuilder data = new StringBuilder();
+
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    dispatch(eventName, eventId, data.toString());
+                }
+                eventName = null;
+                eventId = null;
+                data.setLength(0);
+                continue;
+            }
+            if (line.startsWith(":")) {
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            String field = colon >= 0 ? line.substring(0, colon) : line;
+            String value = colon >= 0 ? line.substring(colon + 1) : "";
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+
+            if ("data".equals(field)) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(value);
+            } else if ("event".equals(field)) {
+                eventName = value;
+            } else if ("id".equals(field)) {
+                eventId = value;
+            }
+        }
+    }
+
+    private void dispatch(String eventName, String eventId, String data) {
+        try {
+            Map<String, Object> event = objectMapper.readValue(data, new TypeReference<Map<String, Object>>() {});
+            if ("notification".equals(eventName)) {
+                listener.onNotification(event);
+            } else if ("commit".equals(eventName)) {
+                listener.onCommit(event);
+            } else if ("rollback".equals(eventName)) {
+                listener.onRollback(event);
+            } else {
+                listener.onConfigEvent(event);
+            }
+            // 处理成功后才推进续传位置，失败的事件在重连后会以完整配置补发
+            if (eventId != null && !eventId.isEmpty()) {
+                lastEventId = eventId;
+            }
+        } catch (Exception e) {
+            logger.error("处理SSE事件失败: event={}, id={}", eventName, eventId, e);
+        }
+    }
+
+    /**
+     * SSE事件监听器
+     */
+    public interface WatchEventListener {
+
+        /**
+         * 配置事件，包含完整配置（configData）或相对 previousRevision 的增量（changed/removed）。
+         * type 为 CONFIG_PREPARE 时只暂存，等待提交事件
+         */
+        void onConfigEvent(Map<String, Object> event);
+
+        /**
+         * 两阶段发布的提交事件
+         */
+        default void onCommit(Map<String, Object> event) {
+        }
+
+        /**
+         * 本地回滚指令，只包含要回滚到的修订号
+         */
+        default void onRollback(Map<String, Object> event) {
+        }
+
+        /**
+         * 配置变更通知
+         */
+        default void onNotification(Map<String, Object> event) {
+        }
+
+        /**
+         * 连接建立
+         */
+        default void onConnected() {
+        }
+
+        /**
+         * 连接失败或断开，之后会自动重连
+         */
+        default void onConnectionLost(Exception cause) {
+        }
+    }
+}
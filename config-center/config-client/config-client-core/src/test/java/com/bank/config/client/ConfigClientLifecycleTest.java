@@ -0,0 +1,98 @@
+package com.bank.config.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 客户端启动流程测试
+ * 默认开启定时拉取时，初始化已启动拉取，start 仍需启动监听、健康探测和读取上报
+ *
+ * @author bank
+ */
+public class ConfigClientLifecycleTest {
+
+    @TempDir
+    File tempDir;
+
+    private FakeConfigServer server;
+    private ConfigClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeConfigServer();
+        server.setConfigs(Collections.singletonMap("a", "1"), 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.stop();
+        }
+        server.close();
+    }
+
+    @Test
+    void testStartRunsWatcherWithPollingEnabled() throws Exception {
+        client = builder()
+            .enableWatch(true)
+            .build();
+        client.start();
+
+        assertTrue(client.getWatcher().isRunning());
+        assertTrue(server.awaitRequest(request -> request.startsWith("GET /api/client/watch/"), 5000));
+    }
+
+    @Test
+    void testStartAfterInitializeRunsWatcher() throws Exception {
+        client = builder()
+            .enableWatch(true)
+            .build();
+        client.initialize();
+        assertFalse(client.getWatcher().isRunning());
+
+        client.start();
+
+        assertTrue(client.getWatcher().isRunning());
+    }
+
+    @Test
+    void testStartRunsHealthProbeWithPollingEnabled() throws Exception {
+        client = builder()
+            .healthProbeInterval(200)
+            .build();
+        client.start();
+
+        assertTrue(server.awaitRequest(request -> request.equals("HEAD /api/client/revision/app/dev"), 5000),
+            "健康探测应在启动后按间隔发送");
+    }
+
+    @Test
+    void testStartRunsAccessReporterWithPollingEnabled() throws Exception {
+        client = builder()
+            .trackKeyAccess(true)
+            .keyAccessSampleRate(1)
+            .keyAccessReportInterval(200)
+            .build();
+        client.start();
+        assertEquals("1", client.getConfig("a"));
+
+        assertTrue(server.awaitRequest(request -> request.equals("POST /api/client/access/app/dev"), 5000),
+            "读取统计应在启动后按间隔上报");
+    }
+
+    private ConfigClient.ConfigClientBuilder builder() {
+        return new ConfigClient.ConfigClientBuilder()
+            .serverUrl(server.getUrl())
+            .appCode("app")
+            .envCode("dev")
+            .token("token")
+            .cacheFile(new File(tempDir, "cache.json").getPath());
+    }
+}
@@ -9,6 +9,7 @@ import com.bank.config.client.retry.ConfigRetry;
 import com.bank.config.client.security.ConfigSecurity;
 import org.junit.Test;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
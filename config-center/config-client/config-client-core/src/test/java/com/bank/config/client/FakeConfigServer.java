@@ -0,0 +1,163 @@
+package com.bank.config.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 测试用的配置服务端
+ * 提供拉取、SSE监听和其他客户端接口，记录收到的请求；SSE事件由测试通过 {@link #sendEvent} 推送
+ *
+ * @author bank
+ */
+public class FakeConfigServer implements AutoCloseable {
+
+    private static final String CLOSE = "";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private volatile Map<String, String> configs = new HashMap<>();
+    private volatile long revision;
+
+    public FakeConfigServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/client/configs/", this::handleConfigs);
+        server.createContext("/api/client/watch/", this::handleWatch);
+        server.createContext("/", this::handleOther);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 设置拉取接口返回的配置和修订号
+     */
+    public void setConfigs(Map<String, String> configs, long revision) {
+        this.configs = new HashMap<>(configs);
+        this.revision = revision;
+    }
+
+    /**
+     * 向已连接的SSE监听推送一个事件
+     */
+    public void sendEvent(String name, Long id, Map<String, Object> data) throws IOException {
+        StringBuilder event = new StringBuilder();
+        if (name != null) {
+            event.append("event: ").append(name).append('\n');
+        }
+        if (id != null) {
+            event.append("id: ").append(id).append('\n');
+        }
+        event.append("data: ").append(objectMapper.writeValueAsString(data)).append("\n\n");
+        events.add(event.toString());
+    }
+
+    /**
+     * 收到的请求，格式为 "方法 路径"
+     */
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    /**
+     * 等待出现满足条件的请求
+     */
+    public boolean awaitRequest(Predicate<String> condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            for (String request : requests) {
+                if (condition.test(request)) {
+                    return true;
+                }
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private void record(HttpExchange exchange) {
+        requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+    }
+
+    private void handleConfigs(HttpExchange exchange) throws IOException {
+        record(exchange);
+        Map<String, Object> body = new HashMap<>();
+        body.put("code", 200);
+        body.put("message", "操作成功");
+        body.put("data", configs);
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        if (revision > 0) {
+            exchange.getResponseHeaders().set("X-Config-Revision", String.valueOf(revision));
+        }
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void handleWatch(HttpExchange exchange) throws IOException {
+        record(exchange);
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream;charset=UTF-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(":connected\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            while (true) {
+                String event = events.poll(100, TimeUnit.MILLISECONDS);
+                if (CLOSE.equals(event)) {
+                    break;
+                }
+                if (event != null) {
+                    out.write(event.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // 客户端断开
+        }
+    }
+
+    private void handleOther(HttpExchange exchange) throws IOException {
+        record(exchange);
+        byte[] bytes = "{\"code\":200,\"message\":\"操作成功\"}".getBytes(StandardCharsets.UTF_8);
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, head ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (!head) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        events.add(CLOSE);
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,120 @@
+package com.bank.config.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 两阶段发布客户端测试
+ * 通过SSE推送暂存和提交事件，验证暂存的配置在提交前不生效、提交后一次切换，以及漏收暂存时重新拉取
+ *
+ * @author bank
+ */
+public class TwoPhaseCommitTest {
+
+    @TempDir
+    File tempDir;
+
+    private FakeConfigServer server;
+    private ConfigClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeConfigServer();
+        server.setConfigs(Collections.singletonMap("a", "1"), 1L);
+        client = new ConfigClient.ConfigClientBuilder()
+            .serverUrl(server.getUrl())
+            .appCode("app")
+            .envCode("dev")
+            .token("token")
+            .cacheFile(new File(tempDir, "cache.json").getPath())
+            .enablePolling(false)
+            .enableWatch(true)
+            .build();
+        client.start();
+        assertEquals("1", client.getConfig("a"));
+        assertTrue(server.awaitRequest(request -> request.startsWith("GET /api/client/watch/"), 5000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.stop();
+        server.close();
+    }
+
+    @Test
+    void testStagedConfigAppliesOnlyOnCommit() throws Exception {
+        server.sendEvent(null, null, prepare(2L, Collections.singletonMap("a", "2")));
+        // 暂存事件不带事件ID，只有提交后才推进续传位置
+        Thread.sleep(300);
+        assertEquals("1", client.getConfig("a"));
+        assertEquals(1L, client.getCache().getRevision());
+
+        server.sendEvent("commit", 2L, commit(2L));
+
+        assertTrue(await(() -> "2".equals(client.getConfig("a"))), "提交后应切换到暂存的配置");
+        assertEquals(2L, client.getCache().getRevision());
+    }
+
+    @Test
+    void testCommitWithoutStagedConfigRefetches() throws Exception {
+        server.setConfigs(Collections.singletonMap("a", "3"), 3L);
+
+        server.sendEvent("commit", 3L, commit(3L));
+
+        assertTrue(await(() -> "3".equals(client.getConfig("a"))), "未收到暂存时应重新拉取");
+        assertEquals(3L, client.getCache().getRevision());
+    }
+
+    @Test
+    void testCommitOfSupersededRevisionRefetches() throws Exception {
+        server.sendEvent(null, null, prepare(2L, Collections.singletonMap("a", "2")));
+        server.sendEvent(null, null, prepare(3L, Collections.singletonMap("a", "3")));
+        server.setConfigs(Collections.singletonMap("a", "2"), 2L);
+
+        // 只保留修订号最大的暂存，提交较早的修订时按服务端当前配置刷新
+        server.sendEvent("commit", 2L, commit(2L));
+        assertTrue(await(() -> client.getCache().getRevision() == 2L));
+        assertEquals("2", client.getConfig("a"));
+
+        server.sendEvent("commit", 3L, commit(3L));
+        assertTrue(await(() -> "3".equals(client.getConfig("a"))), "修订3的暂存应在提交时生效");
+    }
+
+    private static Map<String, Object> prepare(long revision, Map<String, String> configs) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "CONFIG_PREPARE");
+        event.put("revision", revision);
+        event.put("timestamp", System.currentTimeMillis());
+        event.put("configData", configs);
+        return event;
+    }
+
+    private static Map<String, Object> commit(long revision) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "CONFIG_COMMIT");
+        event.put("revision", revision);
+        event.put("timestamp", System.currentTimeMillis());
+        return event;
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,138 @@
+package com.bank.config.client.agent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 共享快照编码、解码及文件读写测试
+ *
+ * @author bank
+ */
+public class SnapshotLayoutTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        Map<String, String> configs = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            configs.put("key." + i, "value-" + i);
+        }
+        configs.put("unicode", "中文配置✓");
+        configs.put("empty", "");
+        configs.put("nullable", null);
+        // hashCode 相同的键
+        configs.put("Aa", "1");
+        configs.put("BB", "2");
+        configs.put("db.password", "ENC(abc)");
+
+        ByteBuffer region = SnapshotLayout.encode(configs, Collections.singleton("db.password"), 7, 42);
+        MappedConfigSnapshot snapshot = new MappedConfigSnapshot(region, 7, region.getLong(SnapshotLayout.REGION_REVISION), 1000L);
+
+        assertEquals(configs.size(), snapshot.size());
+        assertEquals(configs, snapshot);
+        assertEquals(configs.keySet(), snapshot.keySet());
+        assertEquals("中文配置✓", snapshot.get("unicode"));
+        assertEquals("1", snapshot.get("Aa"));
+        assertEquals("2", snapshot.get("BB"));
+        assertTrue(snapshot.containsKey("nullable"));
+        assertNull(snapshot.get("nullable"));
+        assertFalse(snapshot.containsKey("missing"));
+        assertFalse(snapshot.containsKey(1));
+        assertEquals(Collections.singleton("db.password"), snapshot.getEncryptedKeys());
+        assertEquals(42, snapshot.getRevision());
+        assertEquals(7, snapshot.getGeneration());
+    }
+
+    @Test
+    void testRegionHeaderAndChecksum() {
+        ByteBuffer region = SnapshotLayout.encode(Collections.singletonMap("a", "1"), Collections.<String>emptySet(), 3, 9);
+        int length = region.remaining();
+
+        assertEquals(0, region.position());
+        assertEquals(SnapshotLayout.REGION_MAGIC, region.getInt(0));
+        assertEquals(3, region.getLong(SnapshotLayout.REGION_GENERATION));
+        assertEquals(9, region.getLong(SnapshotLayout.REGION_REVISION));
+        assertEquals(1, region.getInt(SnapshotLayout.REGION_ENTRY_COUNT));
+        assertEquals(region.getInt(SnapshotLayout.REGION_CRC), SnapshotLayout.crc(region, length));
+
+        // 修改任一内容字节后校验和不再匹配
+        region.put(length - 1, (byte) 'x');
+        assertNotEquals(region.getInt(SnapshotLayout.REGION_CRC), SnapshotLayout.crc(region, length));
+    }
+
+    @Test
+    void testEmptySnapshot() {
+        ByteBuffer region = SnapshotLayout.encode(Collections.<String, String>emptyMap(), Collections.<String>emptySet(), 1, 0);
+        MappedConfigSnapshot snapshot = new MappedConfigSnapshot(region, 1, 0, 0);
+
+        assertTrue(snapshot.isEmpty());
+        assertNull(snapshot.get("a"));
+        assertFalse(snapshot.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    void testTableCapacityKeepsLoadFactorAtMostHalf() {
+        for (int count = 0; count < 5000; count += 97) {
+            int capacity = SnapshotLayout.tableCapacity(count);
+            assertEquals(0, capacity & (capacity - 1), "容量应为 2 的幂: " + capacity);
+            assertTrue(capacity >= count * 2 + 2);
+        }
+    }
+
+    @Test
+    void testWriterAndReaderThroughFile() throws Exception {
+        File file = new File(tempDir, "configs.snapshot");
+        SharedSnapshotReader reader = new SharedSnapshotReader(file);
+        assertNull(reader.current());
+
+        SharedSnapshotWriter writer = new SharedSnapshotWriter(file);
+        assertEquals(1, writer.publish(Collections.singletonMap("a", "1"), Collections.<String>emptySet(), 10));
+        MappedConfigSnapshot first = reader.current();
+        assertEquals("1", first.get("a"));
+        assertEquals(10, first.getRevision());
+        // 代数未变时返回同一个快照
+        assertSame(first, reader.current());
+
+        // 追加写入的新快照
+        Map<String, String> next = new HashMap<>();
+        next.put("a", "2");
+        next.put("secret", "ENC(x)");
+        assertEquals(2, writer.publish(next, Collections.singleton("secret"), 11));
+        MappedConfigSnapshot second = reader.current();
+        assertEquals(next, second);
+        assertEquals(Collections.singleton("secret"), second.getEncryptedKeys());
+        // 旧快照的映射仍然有效
+        assertEquals("1", first.get("a"));
+        writer.close();
+
+        // 新的写入方接管文件后替换文件，读取方重新打开
+        SharedSnapshotWriter restarted = new SharedSnapshotWriter(file);
+        assertEquals(3, restarted.publish(Collections.singletonMap("b", "3"), Collections.<String>emptySet(), 12));
+        MappedConfigSnapshot third = reader.current();
+        assertEquals(3, third.getGeneration());
+        assertEquals(Collections.singletonMap("b", "3"), third);
+        restarted.close();
+        reader.close();
+    }
+
+    @Test
+    void testReaderIgnoresUnknownFile() throws Exception {
+        File file = new File(tempDir, "garbage.snapshot");
+        Files.write(file.toPath(), new byte[SnapshotLayout.HEADER_SIZE]);
+
+        SharedSnapshotReader reader = new SharedSnapshotReader(file);
+        assertNull(reader.current());
+        reader.close();
+    }
+}
@@ -0,0 +1,140 @@
+package com.bank.config.client.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 紧凑配置快照测试
+ *
+ * @author bank
+ */
+public class CompactConfigMapTest {
+
+    @Test
+    void testEqualsSourceMap() {
+        Map<String, String> source = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            source.put("app.key." + i, "value-" + (i % 37));
+        }
+        source.put("unicode", "中文配置✓");
+        source.put("empty", "");
+        source.put("nullable", null);
+
+        CompactConfigMap map = CompactConfigMap.copyOf(source, null);
+
+        assertEquals(source.size(), map.size());
+        assertEquals(source, map);
+        assertEquals(map, source);
+        assertEquals(source.hashCode(), map.hashCode());
+        assertEquals(source.keySet(), map.keySet());
+        assertEquals("中文配置✓", map.get("unicode"));
+        assertEquals("", map.get("empty"));
+        assertTrue(map.containsKey("nullable"));
+        assertNull(map.get("nullable"));
+        assertFalse(map.containsKey("missing"));
+        assertNull(map.get(null));
+    }
+
+    @Test
+    void testRepeatedReadsAcrossDecodeCache() {
+        Map<String, String> source = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            source.put("k" + i, "v" + i);
+        }
+        CompactConfigMap map = CompactConfigMap.copyOf(source, null);
+
+        // 解码缓存按槽位直接映射，槽位冲突时仍返回正确的值
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 2000; i++) {
+                assertEquals("v" + i, map.get("k" + i));
+            }
+        }
+    }
+
+    @Test
+    void testHashCollisions() {
+        Map<String, String> source = new HashMap<>();
+        // "Aa" 和 "BB" 的 hashCode 相同
+        source.put("Aa", "1");
+        source.put("BB", "2");
+        source.put("AaAa", "3");
+        source.put("BBBB", "4");
+        source.put("AaBB", "5");
+
+        CompactConfigMap map = CompactConfigMap.copyOf(source, null);
+
+        assertEquals(source, map);
+        assertFalse(map.containsKey("BBAa_"));
+    }
+
+    @Test
+    void testEmptyMap() {
+        CompactConfigMap map = CompactConfigMap.copyOf(Collections.<String, String>emptyMap(), null);
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+        assertNull(map.get("a"));
+    }
+
+    @Test
+    void testIsReadOnly() {
+        CompactConfigMap map = CompactConfigMap.copyOf(Collections.singletonMap("a", "1"), null);
+
+        assertThrows(UnsupportedOperationException.class, () -> map.put("b", "2"));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+        assertThrows(UnsupportedOperationException.class, map::clear);
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue("x"));
+    }
+
+    @Test
+    void testRebuildReusesKeysFromPreviousSnapshot() {
+        Map<String, String> first = new HashMap<>();
+        first.put("same", "1");
+        first.put("changed", "old");
+        CompactConfigMap previous = CompactConfigMap.copyOf(first, null);
+        Map<String, String> previousKeys = new IdentityHashMap<>();
+        for (String key : previous.keySet()) {
+            previousKeys.put(key, key);
+        }
+
+        // 新配置中的键是内容相同的新字符串对象
+        Map<String, String> second = new HashMap<>();
+        second.put(new String("same"), "1");
+        second.put(new String("changed"), "new");
+        second.put("added", "x");
+        CompactConfigMap next = CompactConfigMap.copyOf(second, previous);
+
+        for (String key : next.keySet()) {
+            if (!"added".equals(key)) {
+                assertTrue(previousKeys.containsKey(key), "应沿用上一份快照的键对象: " + key);
+            }
+        }
+        assertEquals(second, next);
+
+        assertTrue(next.sameValue("same", previous));
+        assertFalse(next.sameValue("changed", previous));
+        assertFalse(next.sameValue("added", previous));
+        assertTrue(next.sameValue("absent", previous));
+    }
+
+    @Test
+    void testSameValueComparesContentAcrossSnapshots() {
+        Map<String, String> source = new HashMap<>();
+        source.put("a", "shared");
+        source.put("b", "shared");
+        source.put("c", "other");
+        CompactConfigMap map = CompactConfigMap.copyOf(source, null);
+        CompactConfigMap other = CompactConfigMap.copyOf(Collections.singletonMap("a", "shared"), null);
+
+        assertEquals("shared", map.get("a"));
+        assertEquals("shared", map.get("b"));
+        assertTrue(map.sameValue("a", other));
+        assertFalse(map.sameValue("c", other));
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.config.client.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 配置与加密项一同替换的测试
+ * 加密项随配置在同一次替换中生效，版本历史记录被替换配置原有的加密项
+ *
+ * @author bank
+ */
+public class ConfigCacheEncryptedKeysTest {
+
+    @TempDir
+    File tempDir;
+
+    private ConfigCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConfigCache(new File(tempDir, "cache.json").getPath(), 60000);
+        cache.setDecryptor(value -> "plain:" + value);
+        cache.setHistorySize(3);
+    }
+
+    @Test
+    void testSwapAppliesEncryptedKeysWithConfigs() {
+        cache.swap(Collections.singletonMap("secret", "visible"), Collections.<String>emptySet(), 1);
+        assertEquals("visible", cache.get("secret"));
+
+        cache.swap(Collections.singletonMap("secret", "cipher"), Collections.singleton("secret"), 2);
+
+        assertEquals("plain:cipher", cache.get("secret"));
+        assertEquals("cipher", cache.getRaw("secret"));
+        assertEquals(Collections.singleton("secret"), cache.getEncryptedKeys());
+        assertEquals(2, cache.getRevision());
+    }
+
+    @Test
+    void testHistoryKeepsEncryptedKeysOfReplacedConfigs() {
+        cache.swap(Collections.singletonMap("secret", "visible"), Collections.<String>emptySet(), 1);
+        cache.swap(Collections.singletonMap("secret", "cipher"), Collections.singleton("secret"), 2);
+
+        cache.rollbackTo(1);
+
+        assertEquals("visible", cache.get("secret"));
+        assertTrue(cache.getEncryptedKeys().isEmpty());
+    }
+
+    @Test
+    void testUpdateConfigsWithNullKeysKeepsCurrentKeys() {
+        Map<String, String> configs = new HashMap<>();
+        configs.put("secret", "cipher");
+        configs.put("url", "jdbc:db");
+        cache.updateConfigs(configs, Collections.singleton("secret"));
+
+        configs.put("secret", "cipher2");
+        cache.updateConfigs(configs, null);
+
+        assertEquals("plain:cipher2", cache.get("secret"));
+        assertEquals("jdbc:db", cache.get("url"));
+        assertEquals(Collections.singleton("secret"), cache.getEncryptedKeys());
+    }
+}
@@ -0,0 +1,161 @@
+package com.bank.config.client.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 配置版本历史测试
+ * 覆盖容量限制以及按增量持久化后的往返恢复
+ *
+ * @author bank
+ */
+public class ConfigHistoryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    File tempDir;
+
+    private ConfigHistory history;
+
+    @BeforeEach
+    void setUp() {
+        history = new ConfigHistory();
+        history.setCapacity(3);
+    }
+
+    @Test
+    void testRecordKeepsMostRecentWithinCapacity() {
+        for (long revision = 1; revision <= 5; revision++) {
+            history.record(revision, map("k", "v" + revision), Collections.<String>emptySet());
+        }
+        assertEquals(Arrays.asList(5L, 4L, 3L), history.revisions());
+
+        // 同一修订号只保留一份，并移到最前
+        history.record(3, map("k", "again"), Collections.<String>emptySet());
+        assertEquals(Arrays.asList(3L, 5L, 4L), history.revisions());
+
+        history.setCapacity(1);
+        assertEquals(Collections.singletonList(3L), history.revisions());
+    }
+
+    @Test
+    void testRecordIgnoresUnknownRevisionAndEmptyConfigs() {
+        history.record(0, map("k", "v"), Collections.<String>emptySet());
+        history.record(1, Collections.<String, String>emptyMap(), Collections.<String>emptySet());
+        assertTrue(history.isEmpty());
+
+        history.setCapacity(0);
+        history.record(2, map("k", "v"), Collections.<String>emptySet());
+        assertTrue(history.isEmpty());
+    }
+
+    @Test
+    void testTakeRemovesEntry() {
+        Map<String, String> configs = map("k", "v");
+        history.record(7, configs, Collections.<String>emptySet());
+
+        ConfigHistory.Entry entry = history.take(7);
+        assertSame(configs, entry.configs);
+        assertNull(history.take(7));
+        assertTrue(history.isEmpty());
+    }
+
+    @Test
+    void testSaveLoadRoundTrip() throws Exception {
+        Map<String, String> oldest = map("a", "1", "b", "2", "secret", "ENC(old)");
+        Map<String, String> middle = map("a", "1", "b", "3", "secret", "ENC(old)", "c", "4");
+        Map<String, String> current = map("a", "1", "c", "4", "secret", "ENC(new)", "d", "5");
+        Set<String> encrypted = Collections.singleton("secret");
+        history.record(1, oldest, Collections.<String>emptySet());
+        history.record(2, middle, encrypted);
+
+        File file = new File(tempDir, "history.json");
+        history.save(file, objectMapper, current, encrypted, 3, 2);
+        long oldestReplacedAt = objectMapper.readValue(file, ConfigHistory.HistoryData.class)
+            .getSnapshots().get(1).getReplacedAt();
+
+        ConfigHistory restored = new ConfigHistory();
+        restored.setCapacity(3);
+        long rolledBackTo = restored.load(file, objectMapper, current, encrypted, 3);
+
+        assertEquals(2, rolledBackTo);
+        assertEquals(Arrays.asList(2L, 1L), restored.revisions());
+        ConfigHistory.Entry restoredMiddle = restored.take(2);
+        assertEquals(middle, restoredMiddle.configs);
+        assertEquals(encrypted, restoredMiddle.encryptedKeys);
+        ConfigHistory.Entry restoredOldest = restored.take(1);
+        assertEquals(oldest, restoredOldest.configs);
+        assertEquals(Collections.<String>emptySet(), restoredOldest.encryptedKeys);
+        assertEquals(oldestReplacedAt, restoredOldest.replacedAt);
+    }
+
+    @Test
+    void testSavedSnapshotsAreDeltas() throws Exception {
+        Map<String, String> current = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            current.put("k" + i, "v" + i);
+        }
+        Map<String, String> previous = new HashMap<>(current);
+        previous.put("k0", "old");
+        previous.remove("k1");
+        history.record(1, previous, Collections.<String>emptySet());
+
+        File file = new File(tempDir, "history.json");
+        history.save(file, objectMapper, current, Collections.<String>emptySet(), 2, 0);
+
+        ConfigHistory.HistoryData data = objectMapper.readValue(file, ConfigHistory.HistoryData.class);
+        ConfigHistory.SnapshotDelta delta = data.getSnapshots().get(0);
+        assertEquals(map("k0", "old"), delta.getChanged());
+        assertEquals(Collections.singletonList("k1"), delta.getRemoved());
+        // 加密项与较新的一份相同时不记录
+        assertNull(delta.getEncryptedKeys());
+    }
+
+    @Test
+    void testLoadDiscardsHistoryOfDifferentRevision() throws Exception {
+        history.record(1, map("a", "1"), Collections.<String>emptySet());
+        File file = new File(tempDir, "history.json");
+        history.save(file, objectMapper, map("a", "2"), Collections.<String>emptySet(), 2, 0);
+
+        ConfigHistory restored = new ConfigHistory();
+        restored.setCapacity(3);
+        assertEquals(0, restored.load(file, objectMapper, map("a", "3"), Collections.<String>emptySet(), 3));
+        assertTrue(restored.isEmpty());
+    }
+
+    @Test
+    void testLoadRespectsCapacity() throws Exception {
+        history.record(1, map("a", "1"), Collections.<String>emptySet());
+        history.record(2, map("a", "2"), Collections.<String>emptySet());
+        history.record(3, map("a", "3"), Collections.<String>emptySet());
+        File file = new File(tempDir, "history.json");
+        history.save(file, objectMapper, map("a", "4"), Collections.<String>emptySet(), 4, 0);
+
+        ConfigHistory restored = new ConfigHistory();
+        restored.setCapacity(2);
+        restored.load(file, objectMapper, map("a", "4"), Collections.<String>emptySet(), 4);
+
+        assertEquals(Arrays.asList(3L, 2L), restored.revisions());
+        assertEquals(map("a", "2"), restored.take(2).configs);
+    }
+
+    private static Map<String, String> map(String... keyValues) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
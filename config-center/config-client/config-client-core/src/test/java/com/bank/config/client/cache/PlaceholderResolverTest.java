@@ -0,0 +1,213 @@
+package com.bank.config.client.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 配置占位符解析器测试
+ * 覆盖全量解析、增量更新时的依赖传播以及循环引用处理
+ *
+ * @author bank
+ */
+public class PlaceholderResolverTest {
+
+    private static final Predicate<String> NONE = key -> false;
+
+    private PlaceholderResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new PlaceholderResolver();
+    }
+
+    @Test
+    void testResolvesReferencesAndDefaults() {
+        Map<String, String> raw = map(
+            "host", "db.local",
+            "port", "3306",
+            "url", "jdbc:mysql://${host}:${port}/app",
+            "timeout", "${db.timeout:30}",
+            "nested", "${missing:${host}}",
+            "escaped", "\\${host}",
+            "unknown", "${missing}");
+        resolver.update(raw, null, NONE);
+
+        Map<String, String> resolved = resolver.getResolved();
+        assertEquals("jdbc:mysql://db.local:3306/app", resolved.get("url"));
+        assertEquals("30", resolved.get("timeout"));
+        assertEquals("db.local", resolved.get("nested"));
+        assertEquals("${host}", resolved.get("escaped"));
+        // 引用不存在且没有默认值时保留原文
+        assertEquals("${missing}", resolved.get("unknown"));
+        assertEquals("3306", resolved.get("port"));
+        assertEquals(raw.size(), resolved.size());
+    }
+
+    @Test
+    void testIncrementalUpdatePropagatesToTransitiveDependents() {
+        resolver.update(map("a", "${b}", "b", "${c}!", "c", "1", "other", "${unrelated:x}"), null, NONE);
+        assertEquals("1!", resolver.getResolved().get("a"));
+
+        List<PlaceholderResolver.KeyChange> changes =
+            resolver.update(map("a", "${b}", "b", "${c}!", "c", "2", "other", "${unrelated:x}"), null, NONE);
+
+        Map<String, PlaceholderResolver.KeyChange> byKey = index(changes);
+        assertEquals(3, byKey.size());
+        assertEquals("1", byKey.get("c").getOldValue());
+        assertEquals("2", byKey.get("c").getNewValue());
+        assertEquals("1!", byKey.get("b").getOldValue());
+        assertEquals("2!", byKey.get("b").getNewValue());
+        assertEquals("2!", byKey.get("a").getNewValue());
+        assertEquals("2!", resolver.getResolved().get("a"));
+        assertEquals("x", resolver.getResolved().get("other"));
+    }
+
+    @Test
+    void testExplicitChangedKeysLimitComparison() {
+        resolver.update(map("a", "${b}", "b", "1", "c", "3"), null, NONE);
+
+        List<PlaceholderResolver.KeyChange> changes = resolver.update(map("a", "${b}", "b", "2", "c", "3"),
+            Collections.singleton("b"), NONE);
+
+        assertEquals(index(changes).keySet(), set("a", "b"));
+        assertEquals("2", resolver.getResolved().get("a"));
+    }
+
+    @Test
+    void testReferenceChangeRewiresDependencies() {
+        resolver.update(map("a", "${b}", "b", "1", "c", "2"), null, NONE);
+        resolver.update(map("a", "${c}", "b", "1", "c", "2"), null, NONE);
+        assertEquals("2", resolver.getResolved().get("a"));
+
+        // a 不再引用 b，b 变化不影响 a
+        List<PlaceholderResolver.KeyChange> changes = resolver.update(map("a", "${c}", "b", "9", "c", "2"), null, NONE);
+        assertEquals(set("b"), index(changes).keySet());
+        assertEquals(set("a"), resolver.getDependents("c"));
+        assertTrue(resolver.getDependents("b").isEmpty());
+    }
+
+    @Test
+    void testRemovedReferenceFallsBackToDefault() {
+        resolver.update(map("a", "${b:fallback}", "b", "1"), null, NONE);
+
+        Map<String, PlaceholderResolver.KeyChange> changes = index(resolver.update(map("a", "${b:fallback}"), null, NONE));
+
+        assertNull(changes.get("b").getNewValue());
+        assertEquals("1", changes.get("a").getOldValue());
+        assertEquals("fallback", changes.get("a").getNewValue());
+    }
+
+    @Test
+    void testCycleKeepsRawValues() {
+        resolver.update(map("a", "${b}", "b", "${a}", "c", "${a}-x", "d", "plain"), null, NONE);
+
+        Map<String, String> resolved = resolver.getResolved();
+        assertEquals("${b}", resolved.get("a"));
+        assertEquals("${a}", resolved.get("b"));
+        // 引用循环中的键时保留占位符原文
+        assertEquals("${a}-x", resolved.get("c"));
+        assertEquals("plain", resolved.get("d"));
+    }
+
+    @Test
+    void testCycleIsRememberedAcrossIncrementalUpdates() {
+        resolver.update(map("a", "${b}", "b", "${a}", "d", "plain"), null, NONE);
+
+        // 未受影响的循环键沿用上一份快照的结论，新增的引用方不会读到半解析的值
+        resolver.update(map("a", "${b}", "b", "${a}", "d", "changed", "e", "${a}"), null, NONE);
+        assertEquals("${a}", resolver.getResolved().get("e"));
+        assertEquals("changed", resolver.getResolved().get("d"));
+    }
+
+    @Test
+    void testBreakingCycleResolvesKeys() {
+        resolver.update(map("a", "${b}", "b", "${a}", "c", "${a}-x"), null, NONE);
+
+        Map<String, PlaceholderResolver.KeyChange> changes =
+            index(resolver.update(map("a", "${b}", "b", "1", "c", "${a}-x"), null, NONE));
+
+        assertEquals("1", changes.get("a").getNewValue());
+        assertEquals("1-x", changes.get("c").getNewValue());
+        assertEquals("1-x", resolver.getResolved().get("c"));
+    }
+
+    @Test
+    void testSelfReferenceIsCyclic() {
+        resolver.update(map("a", "x${a}"), null, NONE);
+        assertEquals("x${a}", resolver.getResolved().get("a"));
+    }
+
+    @Test
+    void testOpaqueKeysAreNeitherResolvedNorReferenced() {
+        Predicate<String> opaque = "secret"::equals;
+        resolver.update(map("secret", "ENC(${host})", "host", "h", "ref", "${secret:hidden}"), null, opaque);
+
+        assertEquals("ENC(${host})", resolver.getResolved().get("secret"));
+        assertEquals("hidden", resolver.getResolved().get("ref"));
+
+        // 取消不透明后按普通键解析
+        Map<String, PlaceholderResolver.KeyChange> changes =
+            index(resolver.update(map("secret", "ENC(${host})", "host", "h", "ref", "${secret:hidden}"), null, NONE));
+        assertEquals("ENC(h)", changes.get("secret").getNewValue());
+        assertEquals("ENC(h)", changes.get("ref").getNewValue());
+    }
+
+    @Test
+    void testDisablingResolutionRestoresRawValues() {
+        resolver.update(map("a", "${b}", "b", "1"), null, NONE);
+        resolver.setEnabled(false);
+
+        Map<String, PlaceholderResolver.KeyChange> changes = index(resolver.update(map("a", "${b}", "b", "1"), null, NONE));
+
+        assertEquals(set("a"), changes.keySet());
+        assertEquals("${b}", changes.get("a").getNewValue());
+        assertEquals("${b}", resolver.getResolved().get("a"));
+    }
+
+    @Test
+    void testUnchangedUpdateReportsNothing() {
+        resolver.update(map("a", "${b}", "b", "1"), null, NONE);
+        assertTrue(resolver.update(map("a", "${b}", "b", "1"), null, NONE).isEmpty());
+        assertEquals("1", resolver.getResolved().get("a"));
+    }
+
+    @Test
+    void testGetDependentsIsTransitive() {
+        resolver.update(map("a", "${b}", "b", "${c}", "c", "1", "d", "${c}"), null, NONE);
+
+        assertEquals(set("a", "b", "d"), resolver.getDependents("c"));
+        assertEquals(set("a"), resolver.getDependents("b"));
+    }
+
+    private static Map<String, String> map(String... keyValues) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+
+    private static Set<String> set(String... values) {
+        Set<String> set = new HashSet<>();
+        Collections.addAll(set, values);
+        return set;
+    }
+
+    private static Map<String, PlaceholderResolver.KeyChange> index(List<PlaceholderResolver.KeyChange> changes) {
+        Map<String, PlaceholderResolver.KeyChange> result = new HashMap<>();
+        for (PlaceholderResolver.KeyChange change : changes) {
+            assertNull(result.put(change.getKey(), change), "重复的变化: " + change.getKey());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,183 @@
+package com.bank.config.client.hotupdate;
+
+import com.bank.config.client.parser.ConfigConverter;
+import com.bank.config.client.parser.DataSize;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 配置前缀绑定测试
+ *
+ * @author bank
+ */
+public class ConfigBinderTest {
+
+    private final ConfigBinder binder = new ConfigBinder(new ConfigConverter());
+
+    public static class PoolConfig {
+        private int maxConnections = 8;
+        private Duration idleTimeout;
+        private boolean setterCalled;
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            this.setterCalled = true;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+    }
+
+    public static class Endpoint {
+        String host;
+        int port;
+    }
+
+    public static class DataSourceConfig {
+        String url;
+        DataSize bufferSize;
+        PoolConfig pool;
+        List<Endpoint> replicas;
+        List<Integer> ports;
+        String[] tags;
+        Set<String> roles;
+        Map<String, Integer> weights;
+        Map<String, Endpoint> named;
+        static String ignoredStatic;
+        final String ignoredFinal = "fixed";
+    }
+
+    @Test
+    void testBindsScalarsAndNestedBeans() {
+        Map<String, String> configs = new HashMap<>();
+        configs.put("ds.url", "jdbc:mysql://db");
+        configs.put("ds.buffer-size", "64KB");
+        configs.put("ds.pool.max-connections", "20");
+        configs.put("ds.pool.idle_timeout", "30s");
+        configs.put("dsx.url", "other");
+        configs.put("ds", "not-a-child");
+
+        DataSourceConfig config = binder.bind(configs, "ds", DataSourceConfig.class);
+
+        assertEquals("jdbc:mysql://db", config.url);
+        assertEquals(DataSize.ofKilobytes(64), config.bufferSize);
+        assertEquals(20, config.pool.getMaxConnections());
+        // setter 优先于字段
+        assertTrue(config.pool.setterCalled);
+        assertEquals(Duration.ofSeconds(30), config.pool.idleTimeout);
+        assertNull(config.replicas);
+    }
+
+    @Test
+    void testMissingPropertiesKeepDefaults() {
+        PoolConfig pool = binder.bind(Collections.singletonMap("pool.unknown", "1"), "pool", PoolConfig.class);
+
+        assertEquals(8, pool.getMaxConnections());
+        assertFalse(pool.setterCalled);
+    }
+
+    @Test
+    void testBindsIndexedAndCommaSeparatedCollections() {
+        Map<String, String> configs = new HashMap<>();
+        configs.put("ds.replicas[1].host", "b");
+        configs.put("ds.replicas[1].port", "2");
+        configs.put("ds.replicas[0].host", "a");
+        configs.put("ds.replicas[0].port", "1");
+        configs.put("ds.ports", "80, 443");
+        configs.put("ds.tags[0]", "x");
+        configs.put("ds.tags[1]", "y");
+        configs.put("ds.roles", "r,w,r");
+
+        DataSourceConfig config = binder.bind(configs, "ds", DataSourceConfig.class);
+
+        assertEquals(2, config.replicas.size());
+        assertEquals("a", config.replicas.get(0).host);
+        assertEquals(1, config.replicas.get(0).port);
+        assertEquals("b", config.replicas.get(1).host);
+        assertEquals(Arrays.asList(80, 443), config.ports);
+        assertArrayEquals(new String[]{"x", "y"}, config.tags);
+        assertEquals(2, config.roles.size());
+    }
+
+    @Test
+    void testBindsMaps() {
+        Map<String, String> configs = new HashMap<>();
+        configs.put("ds.weights.primary", "3");
+        configs.put("ds.weights.backup.zone", "1");
+        configs.put("ds.named.main.host", "h");
+        configs.put("ds.named.main.port", "9");
+
+        DataSourceConfig config = binder.bind(configs, "ds", DataSourceConfig.class);
+
+        assertEquals(3, config.weights.get("primary"));
+        // 值为简单类型时剩余部分整体作为键
+        assertEquals(1, config.weights.get("backup.zone"));
+        assertEquals("h", config.named.get("main").host);
+        assertEquals(9, config.named.get("main").port);
+    }
+
+    @Test
+    void testStaticAndFinalFieldsAreNotBound() {
+        Map<String, String> configs = new HashMap<>();
+        configs.put("ds.ignored-static", "x");
+        configs.put("ds.ignored-final", "x");
+
+        DataSourceConfig config = binder.bind(configs, "ds", DataSourceConfig.class);
+
+        assertNull(DataSourceConfig.ignoredStatic);
+        assertEquals("fixed", config.ignoredFinal);
+    }
+
+    @Test
+    void testInvalidValueThrowsWithPath() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> binder.bind(Collections.singletonMap("ds.pool.max-connections", "many"), "ds", DataSourceConfig.class));
+        assertTrue(e.getMessage().contains("ds.pool.maxConnections"), e.getMessage());
+    }
+
+    @Test
+    void testEmptyPrefixBindsAllConfigs() {
+        Endpoint endpoint = binder.bind(Collections.singletonMap("host", "h"), "", Endpoint.class);
+        assertEquals("h", endpoint.host);
+    }
+
+    @Test
+    void testIsUnderPrefix() {
+        assertTrue(ConfigBinder.isUnderPrefix("ds.url", "ds"));
+        assertTrue(ConfigBinder.isUnderPrefix("ds", "ds"));
+        assertTrue(ConfigBinder.isUnderPrefix("ds[0]", "ds"));
+        assertTrue(ConfigBinder.isUnderPrefix("anything", null));
+        assertFalse(ConfigBinder.isUnderPrefix("dsx.url", "ds"));
+    }
+
+    @Test
+    void testBoundConfigKeepsPreviousObjectOnInvalidUpdate() {
+        Map<String, String> configs = new HashMap<>();
+        configs.put("ep.host", "a");
+        BoundConfig<Endpoint> bound = new BoundConfig<>(binder, "ep", Endpoint.class, configs);
+        Endpoint first = bound.get();
+        assertEquals("a", first.host);
+
+        assertFalse(bound.onConfigsChanged(Collections.singleton("other.key"), configs));
+        assertSame(first, bound.get());
+
+        configs.put("ep.port", "oops");
+        assertFalse(bound.onConfigsChanged(Collections.singleton("ep.port"), configs));
+        assertSame(first, bound.get());
+
+        configs.put("ep.port", "80");
+        assertTrue(bound.onConfigsChanged(Collections.singleton("ep.port"), configs));
+        assertNotSame(first, bound.get());
+        assertEquals(80, bound.get().port);
+    }
+}
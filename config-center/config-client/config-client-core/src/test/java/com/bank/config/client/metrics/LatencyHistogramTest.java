@@ -0,0 +1,108 @@
+package com.bank.config.client.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 延迟直方图测试
+ *
+ * @author bank
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    void testSmallValuesHaveExactBuckets() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucketIndex(value));
+            assertEquals(value, LatencyHistogram.bucketUpperBound(value));
+        }
+    }
+
+    @Test
+    void testBucketBoundsContainValue() {
+        long[] values = {16, 17, 31, 32, 33, 1000, 1023, 1024, 123456789L, 1L << 40, (1L << 40) + 12345,
+            Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper >= value, "上界应不小于样本: " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value, "上一桶上界应小于样本: " + value);
+            }
+            // 对数-线性分桶的相对误差不超过 1/16
+            assertTrue(upper - value <= value / 16, "桶宽超出相对误差: " + value);
+        }
+    }
+
+    @Test
+    void testBucketIndexIsMonotonic() {
+        int previous = -1;
+        for (long value = 0; value < 100000; value += 7) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= previous);
+            previous = index;
+        }
+        assertEquals(LatencyHistogram.bucketIndex(Long.MAX_VALUE), LatencyHistogram.bucketIndex(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+        assertEquals(100, snapshot.getCount());
+        assertEquals(100000, snapshot.getMax());
+        assertEquals(5050000, snapshot.getSum());
+        assertWithinBucket(50000, snapshot.getValueAtQuantile(0.5));
+        assertWithinBucket(99000, snapshot.getValueAtQuantile(0.99));
+        assertWithinBucket(1000, snapshot.getValueAtQuantile(0.0));
+        // 分位数不超过记录到的最大值
+        assertEquals(100000, snapshot.getValueAtQuantile(1.0));
+    }
+
+    @Test
+    void testNegativeValueRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtQuantile(0.5));
+    }
+
+    @Test
+    void testEmptySnapshot() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot(false);
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtQuantile(0.99));
+    }
+
+    @Test
+    void testResetStartsNewInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500);
+        histogram.record(700);
+
+        LatencyHistogram.Snapshot first = histogram.snapshot(true);
+        assertEquals(2, first.getCount());
+        assertEquals(700, first.getMax());
+
+        histogram.record(100);
+        LatencyHistogram.Snapshot second = histogram.snapshot(true);
+        assertEquals(1, second.getCount());
+        assertEquals(100, second.getMax());
+        assertEquals(100, second.getSum());
+
+        assertEquals(0, histogram.snapshot(false).getCount());
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 16,
+            "分位数 " + actual + " 不在 " + expected + " 所在的桶内");
+    }
+}
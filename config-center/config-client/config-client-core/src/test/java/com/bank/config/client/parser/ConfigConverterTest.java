@@ -0,0 +1,163 @@
+package com.bank.config.client.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 配置转换器测试
+ *
+ * @author bank
+ */
+public class ConfigConverterTest {
+
+    private final ConfigConverter converter = new ConfigConverter();
+
+    enum Mode {
+        READ_ONLY, READ_WRITE
+    }
+
+    @SuppressWarnings("unused")
+    private List<Integer> intList;
+    @SuppressWarnings("unused")
+    private Set<TimeUnit> unitSet;
+    @SuppressWarnings("unused")
+    private Map<String, Long> longMap;
+
+    @Test
+    void testIntegerBounds() {
+        assertEquals(Integer.MAX_VALUE, converter.convert("2147483647", Integer.class));
+        assertEquals(Integer.MIN_VALUE, converter.convert("-2147483648", int.class));
+        assertEquals(42, converter.convert(" +42 ", Integer.class));
+        assertFalse(converter.canConvert("2147483648", Integer.class));
+        assertFalse(converter.canConvert("-2147483649", Integer.class));
+        assertEquals(Long.MIN_VALUE, converter.convert("-9223372036854775808", Long.class));
+        assertFalse(converter.canConvert("9223372036854775808", Long.class));
+        assertFalse(converter.canConvert("128", Byte.class));
+        assertFalse(converter.canConvert("1.5", Integer.class));
+        assertFalse(converter.canConvert("-", Integer.class));
+        assertFalse(converter.canConvert("", Integer.class));
+    }
+
+    @Test
+    void testDecimalAndBoolean() {
+        assertEquals(1.5e3, converter.convert("1.5e3", Double.class));
+        assertEquals(0.5f, converter.convert(".5", Float.class));
+        assertFalse(converter.canConvert("1.2.3", Double.class));
+        assertEquals(new BigDecimal("123.45"), converter.convert("123.45", BigDecimal.class));
+        assertFalse(converter.canConvert("NaN", BigDecimal.class));
+
+        assertTrue(converter.convert("YES", Boolean.class));
+        assertTrue(converter.convert("on", boolean.class));
+        assertFalse(converter.convert("0", Boolean.class));
+        assertFalse(converter.canConvert("maybe", Boolean.class));
+    }
+
+    @Test
+    void testConvertFailureThrowsAndSafeConvertReturnsDefault() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> converter.convert("abc", Integer.class));
+        assertTrue(e.getMessage().contains("abc"));
+        assertEquals(7, converter.convertSafely("abc", Integer.class, 7));
+        assertEquals(7, converter.convertSafely(null, Integer.class, 7));
+        assertNull(converter.convert(null, Integer.class));
+        assertTrue(converter.canConvert(null, Integer.class));
+    }
+
+    @Test
+    void testEnumIsCaseInsensitive() {
+        assertEquals(TimeUnit.MILLISECONDS, converter.convert("milliseconds", TimeUnit.class));
+        assertEquals(Mode.READ_WRITE, converter.convert("read-write", Mode.class));
+        assertEquals(Mode.READ_WRITE, converter.convert(" Read_Write ", Mode.class));
+        assertFalse(converter.canConvert("fortnight", TimeUnit.class));
+    }
+
+    @Test
+    void testDurationAndDataSize() {
+        assertEquals(Duration.ofMillis(500), converter.convert("500", Duration.class));
+        assertEquals(Duration.ofMillis(500), converter.convert("500ms", Duration.class));
+        assertEquals(Duration.ofSeconds(30), converter.convert("30 S", Duration.class));
+        assertEquals(Duration.ofMinutes(5), converter.convert("5m", Duration.class));
+        assertEquals(Duration.ofDays(1), converter.convert("1d", Duration.class));
+        assertEquals(Duration.ofSeconds(90), converter.convert("PT1M30S", Duration.class));
+        assertFalse(converter.canConvert("5 weeks", Duration.class));
+        assertFalse(converter.canConvert("999999999999999999d", Duration.class));
+
+        assertEquals(DataSize.ofMegabytes(10), converter.convert("10MB", DataSize.class));
+        assertEquals(DataSize.ofBytes(512), converter.convert("512", DataSize.class));
+        assertFalse(converter.canConvert("10XB", DataSize.class));
+    }
+
+    @Test
+    void testArraysAndRawCollections() {
+        assertArrayEquals(new int[]{1, 2, 3}, converter.convert("1, 2,3", int[].class));
+        assertArrayEquals(new int[0], converter.convert("", int[].class));
+        assertFalse(converter.canConvert("1,x", int[].class));
+
+        assertEquals(Arrays.asList("a", "b"), converter.convert("a, b", List.class));
+        assertEquals(Arrays.asList("a", "b"), converter.convert("[\"a\",\"b\"]", List.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGenericCollectionsConvertElements() throws Exception {
+        Type listType = ConfigConverterTest.class.getDeclaredField("intList").getGenericType();
+        assertEquals(Arrays.asList(1, 2, 3), converter.convert("1,2,3", listType));
+        assertEquals(Arrays.asList(4, 5), converter.convert("[4,5]", listType));
+        assertFalse(converter.forType(listType).canConvert("1,two"));
+
+        Type setType = ConfigConverterTest.class.getDeclaredField("unitSet").getGenericType();
+        Set<TimeUnit> units = (Set<TimeUnit>) converter.convert("seconds,SECONDS,minutes", setType);
+        assertEquals(new LinkedHashSet<>(Arrays.asList(TimeUnit.SECONDS, TimeUnit.MINUTES)), units);
+
+        Type mapType = ConfigConverterTest.class.getDeclaredField("longMap").getGenericType();
+        Map<String, Long> map = (Map<String, Long>) converter.convert("a=1, b = 2", mapType);
+        assertEquals(1L, map.get("a"));
+        assertEquals(2L, map.get("b"));
+        assertEquals(5L, ((Map<String, Long>) converter.convert("{\"c\":5}", mapType)).get("c"));
+        assertFalse(converter.forType(mapType).canConvert("a"));
+        assertFalse(converter.forType(mapType).canConvert("a=x"));
+    }
+
+    @Test
+    void testJacksonFallback() {
+        UUID id = UUID.randomUUID();
+        assertEquals(id, converter.convert(id.toString(), UUID.class));
+        assertFalse(converter.canConvert("not-a-uuid", UUID.class));
+    }
+
+    @Test
+    void testForTypeIsCached() {
+        assertSame(converter.forType(Integer.class), converter.forType(Integer.class));
+        assertEquals(Integer.class, converter.forType(Integer.class).getType());
+    }
+
+    @Test
+    void testCustomConverterOverridesBuiltInAndInvalidatesCache() {
+        ConfigConverter.TypedConverter<int[]> before = converter.forType(int[].class);
+        assertArrayEquals(new int[]{1, 2}, before.convert("1,2"));
+
+        converter.register(Integer.class, value -> Integer.parseInt(value, 16));
+        assertEquals(255, converter.convert("ff", Integer.class));
+        assertFalse(converter.canConvert("zz", Integer.class));
+
+        // 注册后清空已缓存的转换器，集合、数组转换器会重新解析
+        assertNotSame(before, converter.forType(int[].class));
+        assertEquals(16, converter.convertSafely("10", Integer.class, -1));
+    }
+
+    @Test
+    void testLegacyListAndMapHelpers() {
+        assertEquals(Arrays.asList("a", "b"), converter.convertToList("a,b"));
+        assertTrue(converter.convertToList(" ").isEmpty());
+        Map<String, String> map = converter.convertToMap("a=1, b=2, broken");
+        assertEquals(2, map.size());
+        assertEquals("2", map.get("b"));
+    }
+}
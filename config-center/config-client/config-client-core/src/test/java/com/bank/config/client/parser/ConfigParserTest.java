@@ -0,0 +1,117 @@
+package com.bank.config.client.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 配置解析器XML扁平化测试
+ *
+ * @author bank
+ */
+public class ConfigParserTest {
+
+    private final ConfigParser parser = new ConfigParser();
+
+    @Test
+    void testNestedElements() {
+        Map<String, String> result = parser.parseXml(
+            "<config><db><url>jdbc:mysql://db</url><pool><size> 10 </size></pool></db></config>");
+
+        assertEquals(2, result.size());
+        assertEquals("jdbc:mysql://db", result.get("db.url"));
+        assertEquals("10", result.get("db.pool.size"));
+    }
+
+    @Test
+    void testRepeatedElementsAreIndexed() {
+        Map<String, String> result = parser.parseXml("<config>"
+            + "<server><host>a</host><port>1</port></server>"
+            + "<server><host>b</host><port>2</port></server>"
+            + "<server><host>c</host><port>3</port></server>"
+            + "</config>");
+
+        assertEquals(6, result.size());
+        assertEquals("a", result.get("server[0].host"));
+        assertEquals("1", result.get("server[0].port"));
+        assertEquals("b", result.get("server[1].host"));
+        assertEquals("c", result.get("server[2].host"));
+        assertEquals("3", result.get("server[2].port"));
+        assertFalse(result.containsKey("server.host"));
+    }
+
+    @Test
+    void testRepeatedLeafElements() {
+        Map<String, String> result = parser.parseXml("<config><item>x</item><other>o</other><item>y</item></config>");
+
+        assertEquals(3, result.size());
+        assertEquals("x", result.get("item[0]"));
+        assertEquals("y", result.get("item[1]"));
+        assertEquals("o", result.get("other"));
+        assertFalse(result.containsKey("item"));
+    }
+
+    @Test
+    void testNestedRepetitionIsIndexedPerParent() {
+        Map<String, String> result = parser.parseXml("<config>"
+            + "<group><i>1</i><i>2</i></group>"
+            + "<group><i>3</i></group>"
+            + "<a><x>4</x></a><b><x>5</x></b>"
+            + "</config>");
+
+        assertEquals("1", result.get("group[0].i[0]"));
+        assertEquals("2", result.get("group[0].i[1]"));
+        assertEquals("3", result.get("group[1].i"));
+        assertEquals("4", result.get("a.x"));
+        assertEquals("5", result.get("b.x"));
+        assertEquals(5, result.size());
+    }
+
+    @Test
+    void testAttributesBecomeChildKeys() {
+        Map<String, String> result = parser.parseXml("<config>"
+            + "<db url=\"jdbc:h2:mem\" pool=\"5\"/>"
+            + "<s id=\"1\"/><s id=\"2\"><name>second</name></s>"
+            + "</config>");
+
+        assertEquals("jdbc:h2:mem", result.get("db.url"));
+        assertEquals("5", result.get("db.pool"));
+        // 只有属性的元素本身不产生键
+        assertFalse(result.containsKey("db"));
+        assertEquals("1", result.get("s[0].id"));
+        assertEquals("2", result.get("s[1].id"));
+        assertEquals("second", result.get("s[1].name"));
+        assertEquals(5, result.size());
+    }
+
+    @Test
+    void testEmptyElementAndCdata() {
+        Map<String, String> result = parser.parseXml(
+            "<config><empty/><script><![CDATA[a < b && c]]></script></config>");
+
+        assertEquals("", result.get("empty"));
+        assertEquals("a < b && c", result.get("script"));
+    }
+
+    @Test
+    void testExternalEntitiesAreNotResolved() {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE config [<!ENTITY secret SYSTEM \"file:///etc/hostname\">]>"
+            + "<config><value>&secret;</value></config>";
+        try {
+            Map<String, String> result = parser.parseXml(xml);
+            String value = result.get("value");
+            assertTrue(value == null || value.isEmpty() || value.contains("secret"),
+                "外部实体不应被解析: " + value);
+        } catch (RuntimeException e) {
+            // 拒绝解析同样符合预期
+            assertEquals("解析XML配置失败", e.getMessage());
+        }
+    }
+
+    @Test
+    void testMalformedXmlThrows() {
+        assertThrows(RuntimeException.class, () -> parser.parseXml("<config><a>1</config>"));
+    }
+}
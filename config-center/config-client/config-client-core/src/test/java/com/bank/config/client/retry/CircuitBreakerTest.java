@@ -0,0 +1,129 @@
+package com.bank.config.client.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 熔断器和重试预算测试
+ *
+ * @author bank
+ */
+public class CircuitBreakerTest {
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60000);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        // 打开时长带 ±20% 抖动
+        long remaining = breaker.getRemainingOpenTime();
+        assertTrue(remaining > 0 && remaining <= 72000, "剩余打开时间: " + remaining);
+    }
+
+    @Test
+    void testSuccessResetsConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60000);
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(2, breaker.getConsecutiveFailures());
+        assertEquals(0, breaker.getRemainingOpenTime());
+    }
+
+    @Test
+    void testHalfOpenAllowsSingleProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 50);
+        breaker.onFailure();
+        assertFalse(breaker.allowRequest());
+
+        Thread.sleep(100);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // 探测结果返回前不再放行其他请求
+        assertFalse(breaker.allowRequest());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void testFailedProbeReopens() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 50);
+        breaker.onFailure();
+        Thread.sleep(100);
+        assertTrue(breaker.allowRequest());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void testStateListenerReceivesTransitions() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 50);
+        List<String> transitions = new ArrayList<>();
+        breaker.setStateListener((from, to) -> transitions.add(from + "->" + to));
+
+        breaker.onFailure();
+        Thread.sleep(100);
+        breaker.allowRequest();
+        breaker.onSuccess();
+
+        assertEquals(3, transitions.size());
+        assertEquals("CLOSED->OPEN", transitions.get(0));
+        assertEquals("OPEN->HALF_OPEN", transitions.get(1));
+        assertEquals("HALF_OPEN->CLOSED", transitions.get(2));
+    }
+
+    @Test
+    void testRetryBudgetExhaustsAtHalf() {
+        RetryBudget budget = new RetryBudget(10, 0.1);
+        assertTrue(budget.canRetry());
+
+        for (int i = 0; i < 4; i++) {
+            budget.onFailure();
+        }
+        assertEquals(6.0, budget.getTokens(), 0.0001);
+        assertTrue(budget.canRetry());
+
+        budget.onFailure();
+        assertEquals(5.0, budget.getTokens(), 0.0001);
+        assertFalse(budget.canRetry());
+    }
+
+    @Test
+    void testRetryBudgetRefillsOnSuccessUpToMax() {
+        RetryBudget budget = new RetryBudget(10, 0.1);
+        for (int i = 0; i < 20; i++) {
+            budget.onFailure();
+        }
+        assertEquals(0.0, budget.getTokens(), 0.0001);
+
+        // 每10次成功返还1个令牌
+        for (int i = 0; i < 60; i++) {
+            budget.onSuccess();
+        }
+        assertEquals(6.0, budget.getTokens(), 0.0001);
+        assertTrue(budget.canRetry());
+
+        for (int i = 0; i < 100; i++) {
+            budget.onSuccess();
+        }
+        assertEquals(10.0, budget.getTokens(), 0.0001);
+    }
+}
@@ -0,0 +1,176 @@
+package com.bank.config.client.benchmark;
+
+import com.bank.config.client.ConfigClient;
+import com.bank.config.client.spring.ConfigRefreshPostProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConfigRefreshPostProcessor 重新绑定基准测试
+ * 上下文中有 1000 个 Bean（@Value 或 @ConfigurationProperties，按 kind 切换），每次替换缓存后按变化的键重新绑定：
+ * sharedKey 变化影响全部 1000 个 Bean，singleKey 只影响其中 1 个，unrelatedKey 不影响任何 Bean（只查索引）
+ *
+ * @author bank
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpringRebindBenchmark {
+
+    private static final int BEANS = 1000;
+
+    @Param({"value", "properties"})
+    private String kind;
+
+    private ConfigClient client;
+    private AnnotationConfigApplicationContext context;
+    private ConfigRefreshPostProcessor processor;
+    private Map<String, String> configs;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // 默认日志级别为 DEBUG，逐个 Bean 的解析日志会掩盖重新绑定本身的耗时
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+            .setLevel(ch.qos.logback.classic.Level.WARN);
+        client = new ConfigClient.ConfigClientBuilder()
+            .serverUrl("http://127.0.0.1:1")
+            .appCode("bench")
+            .envCode("dev")
+            .enablePolling(false)
+            .reportApplied(false)
+            .build();
+        configs = new HashMap<>();
+        configs.put("bench.shared.name", "initial");
+        configs.put("bench.shared.timeout", "1000");
+        configs.put("bench.single.name", "initial");
+        configs.put("bench.unrelated", "initial");
+        for (int i = 0; i < 1000; i++) {
+            configs.put("other.key" + i, "value" + i);
+        }
+        client.getCache().swap(new HashMap<>(configs), 1);
+
+        context = new AnnotationConfigApplicationContext();
+        processor = new ConfigRefreshPostProcessor(client);
+        context.registerBean(ConfigRefreshPostProcessor.class, () -> processor);
+        ConfigurationPropertiesBindingPostProcessor.register(context);
+        Class<?> sharedType = "value".equals(kind) ? SharedValueBean.class : SharedPropertiesBean.class;
+        for (int i = 0; i < BEANS - 1; i++) {
+            context.registerBeanDefinition("shared" + i, new RootBeanDefinition(sharedType));
+        }
+        context.registerBeanDefinition("single",
+            new RootBeanDefinition("value".equals(kind) ? SingleValueBean.class : SinglePropertiesBean.class));
+        context.refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        client.stop();
+    }
+
+    @Benchmark
+    public int sharedKey() {
+        return change("bench.shared.name");
+    }
+
+    @Benchmark
+    public int singleKey() {
+        return change("bench.single.name");
+    }
+
+    @Benchmark
+    public int unrelatedKey() {
+        return change("bench.unrelated");
+    }
+
+    private int change(String key) {
+        configs.put(key, "value-" + (counter++));
+        client.getCache().swap(new HashMap<>(configs), counter);
+        return processor.rebind(Collections.singleton(key));
+    }
+
+    public static class SharedValueBean {
+        @Value("${bench.shared.name}")
+        private String name;
+
+        @Value("${bench.shared.timeout:30}")
+        private int timeout;
+    }
+
+    public static class SingleValueBean {
+        @Value("${bench.single.name}")
+        private String name;
+    }
+
+    @ConfigurationProperties("bench.shared")
+    public static class SharedPropertiesBean {
+        private String name;
+        private int timeout;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(int timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    @ConfigurationProperties("bench.single")
+    public static class SinglePropertiesBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(SpringRebindBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
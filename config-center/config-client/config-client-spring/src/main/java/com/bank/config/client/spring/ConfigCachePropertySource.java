@@ -0,0 +1,55 @@
+package com.bank.config.client.spring;
+
+import com.bank.config.client.cache.ConfigCache;
+import org.springframework.core.env.EnumerablePropertySource;
+
+import java.util.Map;
+
+/**
+ * 以配置缓存为数据源的 Spring PropertySource
+ * 每次读取直接查询缓存当前的不可变快照（解析占位符、按需解密后的有效值），不复制配置；
+ * 配置更新后立即读到新值。属性名列表按快照缓存，快照不变时不重复生成
+ *
+ * @author bank
+ */
+public class ConfigCachePropertySource extends EnumerablePropertySource<ConfigCache> {
+
+    public static final String NAME = "configCenter";
+
+    private volatile Names names;
+
+    public ConfigCachePropertySource(ConfigCache cache) {
+        super(NAME, cache);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return source.get(name);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return source.getResolvedSnapshot().containsKey(name);
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        Map<String, String> snapshot = source.getResolvedSnapshot();
+        Names current = names;
+        if (current == null || current.snapshot != snapshot) {
+            current = new Names(snapshot, snapshot.keySet().toArray(new String[0]));
+            names = current;
+        }
+        return current.names;
+    }
+
+    private static final class Names {
+        final Map<String, String> snapshot;
+        final String[] names;
+
+        Names(Map<String, String> snapshot, String[] names) {
+            this.snapshot = snapshot;
+            this.names = names;
+        }
+    }
+}
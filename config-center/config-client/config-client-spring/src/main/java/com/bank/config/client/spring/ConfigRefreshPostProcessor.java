@@ -0,0 +1,411 @@
+package com.bank.config.client.spring;
+
+import com.bank.config.client.ConfigClient;
+import com.bank.config.client.poller.ConfigChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.TypeConverter;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanExpressionContext;
+import org.springframework.beans.factory.config.BeanExpressionResolver;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spring 集成：注册 ConfigCachePropertySource，并在配置变化时重新绑定受影响的 Bean
+ * 启动时为每个单例 Bean 建立索引：@Value 字段/方法按其中引用的配置键索引，
+ * @ConfigurationProperties Bean 按前缀索引。配置变化时只按变化的键查索引找到受影响的 Bean，
+ * 重新解析对应的 @Value 表达式或在原实例上重新绑定 @ConfigurationProperties，不刷新整个上下文。
+ * 构造器注入的值和构造器绑定的 @ConfigurationProperties 无法在原实例上更新，不参与重新绑定。
+ * 使用方式：
+ * <pre>
+ * &#64;Bean
+ * public static ConfigRefreshPostProcessor configRefreshPostProcessor(ConfigClient configClient) {
+ *     return new ConfigRefreshPostProcessor(configClient);
+ * }
+ * </pre>
+ *
+ * @author bank
+ */
+public class ConfigRefreshPostProcessor implements BeanPostProcessor, BeanFactoryAware, EnvironmentAware,
+        ApplicationContextAware, DisposableBean, Ordered {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigRefreshPostProcessor.class);
+
+    private final ConfigClient client;
+    private final ConfigCachePropertySource propertySource;
+    private final ConfigChangeListener listener;
+    private final Set<String> pendingKeys = new LinkedHashSet<>();
+
+    private ConfigurableListableBeanFactory beanFactory;
+    private ConfigurableEnvironment environment;
+    private ApplicationContext applicationContext;
+
+    // 类 -> 可重新注入的 @Value 成员，同一个类只解析一次
+    private final Map<Class<?>, List<ValueMember>> valueMembers = new ConcurrentHashMap<>();
+    // 配置键 -> 引用了该键的 @Value 注入点
+    private final Map<String, List<ValueInjection>> valueIndex = new HashMap<>();
+    // 规范化前缀 -> @ConfigurationProperties Bean
+    private final Map<String, List<PropertiesBinding>> propertiesIndex = new HashMap<>();
+
+    public ConfigRefreshPostProcessor(ConfigClient client) {
+        this.client = client;
+        this.propertySource = new ConfigCachePropertySource(client.getCache());
+        this.listener = new ConfigChangeListener() {
+            @Override
+            public void onConfigChange(String key, String oldValue, String newValue) {
+                synchronized (pendingKeys) {
+                    pendingKeys.add(key);
+                }
+            }
+
+            @Override
+            public void onConfigRefresh(Map<String, String> newConfigs) {
+                List<String> keys;
+                synchronized (pendingKeys) {
+                    if (pendingKeys.isEmpty()) {
+                        return;
+                    }
+                    keys = new ArrayList<>(pendingKeys);
+                    pendingKeys.clear();
+                }
+                rebind(keys);
+            }
+        };
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (!(beanFactory instanceof ConfigurableListableBeanFactory)) {
+            throw new IllegalArgumentException("ConfigRefreshPostProcessor 需要 ConfigurableListableBeanFactory");
+        }
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 在其他 Bean 创建之前加载配置并注册为优先级最高的 PropertySource
+     */
+    @Override
+    public void setEnvironment(Environment environment) {
+        if (!(environment instanceof ConfigurableEnvironment)) {
+            throw new IllegalArgumentException("ConfigRefreshPostProcessor 需要 ConfigurableEnvironment");
+        }
+        this.environment = (ConfigurableEnvironment) environment;
+        client.initialize();
+        if (!this.environment.getPropertySources().contains(ConfigCachePropertySource.NAME)) {
+            this.environment.getPropertySources().addFirst(propertySource);
+        }
+        client.addConfigChangeListener(listener);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    public ConfigCachePropertySource getPropertySource() {
+        return propertySource;
+    }
+
+    /**
+     * 在初始化回调之前建立索引，此时拿到的是目标对象本身而不是代理
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (!isSingleton(beanName)) {
+            return bean;
+        }
+        List<ValueMember> members = valueMembers.computeIfAbsent(ClassUtils.getUserClass(bean),
+            this::findValueMembers);
+        ConfigurationPropertiesBean properties = applicationContext != null
+            ? ConfigurationPropertiesBean.get(applicationContext, bean, beanName) : null;
+        if (members.isEmpty() && properties == null) {
+            return bean;
+        }
+        synchronized (this) {
+            for (ValueMember member : members) {
+                ValueInjection injection = new ValueInjection(bean, beanName, member);
+                for (String key : member.keys) {
+                    valueIndex.computeIfAbsent(key, k -> new ArrayList<>()).add(injection);
+                }
+            }
+            if (properties != null) {
+                if (properties.getBindMethod() == ConfigurationPropertiesBean.BindMethod.VALUE_OBJECT) {
+                    logger.debug("构造器绑定的 @ConfigurationProperties 不支持重新绑定: {}", beanName);
+                } else {
+                    ConfigurationProperties annotation = properties.getAnnotation();
+                    String prefix = annotation.prefix().isEmpty() ? annotation.value() : annotation.prefix();
+                    propertiesIndex.computeIfAbsent(canonical(prefix), k -> new ArrayList<>())
+                        .add(new PropertiesBinding(beanName, prefix, properties.asBindTarget()));
+                }
+            }
+        }
+        return bean;
+    }
+
+    private boolean isSingleton(String beanName) {
+        try {
+            return beanFactory != null && beanFactory.isSingleton(beanName);
+        } catch (NoSuchBeanDefinitionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 按变化的配置键重新绑定受影响的 Bean
+     *
+     * @return 重新绑定的注入点和 @ConfigurationProperties Bean 的数量
+     */
+    public synchronized int rebind(Collection<String> changedKeys) {
+        Set<ValueInjection> injections = new LinkedHashSet<>();
+        Set<PropertiesBinding> bindings = new LinkedHashSet<>();
+        for (String key : changedKeys) {
+            List<ValueInjection> byKey = valueIndex.get(key);
+            if (byKey != null) {
+                injections.addAll(byKey);
+            }
+            if (!propertiesIndex.isEmpty()) {
+                collectPropertiesBindings(canonical(key), bindings);
+            }
+        }
+        if (injections.isEmpty() && bindings.isEmpty()) {
+            return 0;
+        }
+
+        int rebound = 0;
+        for (ValueInjection injection : injections) {
+            try {
+                injection.member.inject(injection.bean, resolveValue(injection.member));
+                rebound++;
+            } catch (Exception e) {
+                logger.error("重新注入 @Value 失败: {}.{} = {}", injection.beanName,
+                    injection.member.name(), injection.member.expression, e);
+            }
+        }
+        if (!bindings.isEmpty()) {
+            Binder binder = Binder.get(environment);
+            for (PropertiesBinding binding : bindings) {
+                try {
+                    binder.bind(binding.prefix, binding.target);
+                    rebound++;
+                } catch (Exception e) {
+                    logger.error("重新绑定 @ConfigurationProperties 失败: {} (prefix={})",
+                        binding.beanName, binding.prefix, e);
+                }
+            }
+        }
+        logger.debug("配置变化重新绑定完成: {}个配置键, {}处", changedKeys.size(), rebound);
+        return rebound;
+    }
+
+    /**
+     * 沿配置键的各级父路径查找前缀索引，如 a.b[0].c 依次查 a.b[0].c、a.b[0]、a.b、a 和空前缀
+     */
+    private void collectPropertiesBindings(String key, Set<PropertiesBinding> result) {
+        String path = key;
+        while (true) {
+            List<PropertiesBinding> byPrefix = propertiesIndex.get(path);
+            if (byPrefix != null) {
+                result.addAll(byPrefix);
+            }
+            if (path.isEmpty()) {
+                return;
+            }
+            int end = Math.max(path.lastIndexOf('.'), path.lastIndexOf('['));
+            path = end > 0 ? path.substring(0, end) : "";
+        }
+    }
+
+    private Object resolveValue(ValueMember member) {
+        String resolved = beanFactory.resolveEmbeddedValue(member.expression);
+        Object value = resolved;
+        BeanExpressionResolver expressionResolver = beanFactory.getBeanExpressionResolver();
+        if (expressionResolver != null) {
+            value = expressionResolver.evaluate(resolved, new BeanExpressionContext(beanFactory, null));
+        }
+        TypeConverter converter = beanFactory.getTypeConverter();
+        return member.field != null
+            ? converter.convertIfNecessary(value, member.field.getType(), member.field)
+            : converter.convertIfNecessary(value, member.method.getParameterTypes()[0],
+                new MethodParameter(member.method, 0));
+    }
+
+    /**
+     * 查找类中引用了配置键的 @Value 字段和单参数方法，包括父类
+     */
+    private List<ValueMember> findValueMembers(Class<?> type) {
+        List<ValueMember> members = new ArrayList<>();
+        ReflectionUtils.doWithFields(type, field -> {
+            Value value = field.getAnnotation(Value.class);
+            if (value != null && !Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                Set<String> keys = parseKeys(value.value());
+                if (!keys.isEmpty()) {
+                    ReflectionUtils.makeAccessible(field);
+                    members.add(new ValueMember(field, null, value.value(), keys));
+                }
+            }
+        });
+        ReflectionUtils.doWithMethods(type, method -> {
+            Value value = method.getAnnotation(Value.class);
+            if (value != null && !Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 1) {
+                Set<String> keys = parseKeys(value.value());
+                if (!keys.isEmpty()) {
+                    ReflectionUtils.makeAccessible(method);
+                    members.add(new ValueMember(null, method, value.value(), keys));
+                }
+            }
+        });
+        return members.isEmpty() ? Collections.<ValueMember>emptyList() : members;
+    }
+
+    /**
+     * 提取 ${key:默认值} 表达式中引用的配置键，包括默认值中的嵌套引用
+     */
+    static Set<String> parseKeys(String expression) {
+        Set<String> keys = new LinkedHashSet<>();
+        collectKeys(expression, keys);
+        return keys;
+    }
+
+    private static void collectKeys(String text, Set<String> keys) {
+        int index = 0;
+        while ((index = text.indexOf("${", index)) >= 0) {
+            int depth = 0;
+            int end = -1;
+            for (int i = index + 2; i < text.length() && end < 0; i++) {
+                char c = text.charAt(i);
+                if (c == '}') {
+                    if (depth == 0) {
+                        end = i;
+                    } else {
+                        depth--;
+                    }
+                } else if (c == '$' && i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                    depth++;
+                    i++;
+                }
+            }
+            if (end < 0) {
+                return;
+            }
+            String body = text.substring(index + 2, end);
+            int separator = body.indexOf(':');
+            keys.add(separator >= 0 ? body.substring(0, separator) : body);
+            if (separator >= 0) {
+                collectKeys(body.substring(separator + 1), keys);
+            }
+            index = end + 1;
+        }
+    }
+
+    /**
+     * 宽松匹配用的配置键：去掉 '-' 和 '_'，转小写
+     */
+    private static String canonical(String name) {
+        StringBuilder result = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '-' && c != '_') {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void destroy() {
+        client.removeConfigChangeListener(listener);
+        if (environment != null) {
+            environment.getPropertySources().remove(ConfigCachePropertySource.NAME);
+        }
+        synchronized (this) {
+            valueIndex.clear();
+            propertiesIndex.clear();
+        }
+    }
+
+    private static final class ValueMember {
+        final Field field;
+        final Method method;
+        final String expression;
+        final Set<String> keys;
+
+        ValueMember(Field field, Method method, String expression, Set<String> keys) {
+            this.field = field;
+            this.method = method;
+            this.expression = expression;
+            this.keys = keys;
+        }
+
+        void inject(Object bean, Object value) throws Exception {
+            if (field != null) {
+                field.set(bean, value);
+            } else {
+                method.invoke(bean, value);
+            }
+        }
+
+        String name() {
+            return field != null ? field.getName() : method.getName();
+        }
+    }
+
+    private static final class ValueInjection {
+        final Object bean;
+        final String beanName;
+        final ValueMember member;
+
+        ValueInjection(Object bean, String beanName, ValueMember member) {
+            this.bean = bean;
+            this.beanName = beanName;
+            this.member = member;
+        }
+    }
+
+    private static final class PropertiesBinding {
+        final String beanName;
+        final String prefix;
+        final Bindable<?> target;
+
+        PropertiesBinding(String beanName, String prefix, Bindable<?> target) {
+            this.beanName = beanName;
+            this.prefix = prefix;
+            this.target = target;
+        }
+    }
+}
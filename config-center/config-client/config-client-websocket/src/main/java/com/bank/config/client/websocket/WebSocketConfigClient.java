@@ -1,5 +1,6 @@
 package com.bank.config.client.websocket;
 
+import com.bank.config.client.push.ConfigPushChannel;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -28,16 +29,18 @@ import static java.util.Map.*;
 
 /**
  * WebSocket配置客户端
- * 用于接收服务器推送的配置更新
+ * 用于接收服务器推送的配置更新；作为 ConfigPushChannel 由核心模块的 ConfigClient 按类名加载
  * 
  * @author bank
  */
-public class WebSocketConfigClient {
+public class WebSocketConfigClient implements ConfigPushChannel {
     
     private static final Logger logger = LoggerFactory.getLogger(WebSocketConfigClient.class);
     
     private final String serverUrl;
     private final Long appId;
+    private final String appCode;
+    private final String envCode;
     private final String instanceId;
     private final String instanceIp;
     private final String clientVersion;
@@ -48,10 +51,24 @@ public class WebSocketConfigClient {
     
     private ConfigUpdateListener configUpdateListener;
     private ConfigChangeNotificationListener notificationListener;
+    private TwoPhaseListener twoPhaseListener;
+    private RollbackListener rollbackListener;
+    private ConnectionListener connectionListener;
     
     public WebSocketConfigClient(String serverUrl, Long appId, String instanceId, String instanceIp, String clientVersion) {
+        this(serverUrl, appId, null, null, instanceId, instanceIp, clientVersion);
+    }
+
+    /**
+     * @param appCode 应用编码，注册时发送给服务端用于定位应用
+     * @param envCode 环境编码，服务端据此解析 envId，按环境索引连接
+     */
+    public WebSocketConfigClient(String serverUrl, Long appId, String appCode, String envCode,
+                                 String instanceId, String instanceIp, String clientVersion) {
         this.serverUrl = serverUrl;
         this.appId = appId;
+        this.appCode = appCode;
+        this.envCode = envCode;
         this.instanceId = instanceId;
         this.instanceIp = instanceIp;
         this.clientVersion = clientVersion;
@@ -65,6 +82,7 @@ public class WebSocketConfigClient {
     /**
      * 连接到WebSocket服务器
      */
+    @Override
     public void connect() {
         try {
             // 创建WebSocket客户端
@@ -86,6 +104,9 @@ public class WebSocketConfigClient {
                 @Override
                 public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
                     logger.info("WebSocket连接成功");
+                    if (connectionListener != null) {
+                        connectionListener.onConnected();
+                    }
                     
                     // 订阅配置更新频道
                     subscribeToConfigUpdates(session);
@@ -105,6 +126,9 @@ public class WebSocketConfigClient {
                 @Override
                 public void handleTransportError(StompSession session, Throwable exception) {
                     logger.error("WebSocket传输错误: {}", exception.getMessage(), exception);
+                    if (connectionListener != null) {
+                        connectionListener.onDisconnected(exception);
+                    }
                 }
                 
                 @Override
@@ -136,6 +160,9 @@ public class WebSocketConfigClient {
             
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
             logger.error("WebSocket连接失败: {}", e.getMessage(), e);
+            if (connectionListener != null) {
+                connectionListener.onDisconnected(e);
+            }
         }
     }
     
@@ -238,6 +265,8 @@ public class WebSocketConfigClient {
             Map<String, Object> registration = new HashMap<>();
             registration.put("type", "CLIENT_REGISTRATION");
             registration.put("appId", appId);
+            registration.put("appCode", appCode);
+            registration.put("envCode", envCode);
             registration.put("instanceId", instanceId);
             registration.put("instanceIp", instanceIp);
             registration.put("clientVersion", clientVersion);
@@ -269,8 +298,45 @@ public class WebSocketConfigClient {
                 
                 logger.info("收到配置更新: appId={}, envId={}", messageAppId, messageEnvId);
                 
+                long revision = message.get("revision") instanceof Number ? ((Number) message.get("revision")).longValue() : 0L;
+                long timestamp = message.get("timestamp") instanceof Number ? ((Number) message.get("timestamp")).longValue() : 0L;
+                
                 if (configUpdateListener != null) {
-                    configUpdateListener.onConfigUpdate(messageAppId, messageEnvId, configData);
+                    configUpdateListener.onConfigUpdate(messageAppId, messageEnvId, configData, revision, timestamp);
+                }
+            } else if ("CONFIG_PREPARE".equals(type)) {
+                Long messageAppId = ((Number) message.get("appId")).longValue();
+                Long messageEnvId = ((Number) message.get("envId")).longValue();
+                long revision = ((Number) message.get("revision")).longValue();
+                long timestamp = ((Number) message.get("timestamp")).longValue();
+                Map<String, Object> configData = (Map<String, Object>) message.get("configData");
+                
+                logger.info("收到配置暂存: appId={}, envId={}, revision={}", messageAppId, messageEnvId, revision);
+                
+                if (twoPhaseListener != null) {
+                    twoPhaseListener.onConfigPrepare(messageAppId, messageEnvId, revision, timestamp, configData);
+                }
+            } else if ("CONFIG_COMMIT".equals(type)) {
+                Long messageAppId = ((Number) message.get("appId")).longValue();
+                Long messageEnvId = ((Number) message.get("envId")).longValue();
+                long revision = ((Number) message.get("revision")).longValue();
+                long timestamp = ((Number) message.get("timestamp")).longValue();
+                
+                logger.info("收到配置提交: appId={}, envId={}, revision={}", messageAppId, messageEnvId, revision);
+                
+                if (twoPhaseListener != null) {
+                    twoPhaseListener.onConfigCommit(messageAppId, messageEnvId, revision, timestamp);
+                }
+            } else if ("ROLLBACK_TO".equals(type)) {
+                Long messageAppId = ((Number) message.get("appId")).longValue();
+                Long messageEnvId = ((Number) message.get("envId")).longValue();
+                long revision = ((Number) message.get("revision")).longValue();
+                long timestamp = ((Number) message.get("timestamp")).longValue();
+                
+                logger.info("收到本地回滚指令: appId={}, envId={}, revision={}", messageAppId, messageEnvId, revision);
+                
+                if (rollbackListener != null) {
+                    rollbackListener.onRollback(messageAppId, messageEnvId, revision, timestamp);
                 }
             }
             
@@ -317,6 +383,9 @@ public class WebSocketConfigClient {
             
             switch (type) {
                 case "CONFIG_UPDATE":
+                case "CONFIG_PREPARE":
+                case "CONFIG_COMMIT":
+                case "ROLLBACK_TO":
                     handleConfigUpdate(payload);
                     break;
                 case "CONFIG_CHANGE_NOTIFICATION":
@@ -334,6 +403,7 @@ public class WebSocketConfigClient {
     /**
      * 断开连接
      */
+    @Override
     public void disconnect() {
         if (session != null && session.isConnected()) {
             session.disconnect();
@@ -382,11 +452,127 @@ public class WebSocketConfigClient {
         this.notificationListener = listener;
     }
     
+    /**
+     * 以一个推送通道监听器接收全部消息，替换已设置的各类监听器
+     */
+    @Override
+    public void setListener(ConfigPushChannel.Listener listener) {
+        this.configUpdateListener = new ConfigUpdateListener() {
+            @Override
+            public void onConfigUpdate(Long appId, Long envId, Map<String, Object> configData) {
+                listener.onConfigUpdate(appId, envId, configData, 0L, 0L);
+            }
+
+            @Override
+            public void onConfigUpdate(Long appId, Long envId, Map<String, Object> configData, long revision, long timestamp) {
+                listener.onConfigUpdate(appId, envId, configData, revision, timestamp);
+            }
+        };
+        this.twoPhaseListener = new TwoPhaseListener() {
+            @Override
+            public void onConfigPrepare(Long appId, Long envId, long revision, long timestamp, Map<String, Object> configData) {
+                listener.onConfigPrepare(appId, envId, revision, timestamp, configData);
+            }
+
+            @Override
+            public void onConfigCommit(Long appId, Long envId, long revision, long timestamp) {
+                listener.onConfigCommit(appId, envId, revision, timestamp);
+            }
+        };
+        this.rollbackListener = listener::onRollback;
+        this.notificationListener = listener::onNotification;
+        this.connectionListener = new ConnectionListener() {
+            @Override
+            public void onConnected() {
+                listener.onConnected();
+            }
+
+            @Override
+            public void onDisconnected(Throwable cause) {
+                listener.onDisconnected(cause);
+            }
+        };
+    }
+    
+    /**
+     * 设置两阶段发布监听器
+     */
+    public void setTwoPhaseListener(TwoPhaseListener listener) {
+        this.twoPhaseListener = listener;
+    }
+    
+    /**
+     * 设置本地回滚监听器
+     */
+    public void setRollbackListener(RollbackListener listener) {
+        this.rollbackListener = listener;
+    }
+    
+    /**
+     * 设置连接状态监听器
+     */
+    public void setConnectionListener(ConnectionListener listener) {
+        this.connectionListener = listener;
+    }
+    
     /**
      * 配置更新监听器接口
      */
     public interface ConfigUpdateListener {
         void onConfigUpdate(Long appId, Long envId, Map<String, Object> configData);
+        
+        /**
+         * 带修订号和发布时间的配置更新，默认忽略修订信息
+         *
+         * @param revision 修订号，未知时为0
+         * @param timestamp 服务端发布时间，未知时为0
+         */
+        default void onConfigUpdate(Long appId, Long envId, Map<String, Object> configData, long revision, long timestamp) {
+            onConfigUpdate(appId, envId, configData);
+        }
+    }
+    
+    /**
+     * 两阶段发布监听器接口
+     */
+    public interface TwoPhaseListener {
+        /**
+         * 收到待生效的配置，只暂存不应用
+         *
+         * @param timestamp 服务端发布时间
+         */
+        void onConfigPrepare(Long appId, Long envId, long revision, long timestamp, Map<String, Object> configData);
+        
+        /**
+         * 收到提交消息，切换到已暂存的修订
+         *
+         * @param timestamp 服务端发出提交消息的时间
+         */
+        void onConfigCommit(Long appId, Long envId, long revision, long timestamp);
+    }
+    
+    /**
+     * 本地回滚监听器接口
+     */
+    public interface RollbackListener {
+        /**
+         * 收到回滚指令，切换到本地版本历史中的修订，消息不带配置
+         *
+         * @param timestamp 服务端发出回滚指令的时间
+         */
+        void onRollback(Long appId, Long envId, long revision, long timestamp);
+    }
+    
+    /**
+     * 连接状态监听器接口
+     */
+    public interface ConnectionListener {
+        void onConnected();
+        
+        /**
+         * 连接失败或传输中断
+         */
+        void onDisconnected(Throwable cause);
     }
     
     /**
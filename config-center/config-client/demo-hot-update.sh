@@ -9,7 +9,8 @@ echo "=========================================="
 
 echo ""
 echo "1. 编译项目..."
-mvn clean compile
+# 示例所在的 config-client-all 依赖其它子模块，先安装到本地仓库
+mvn clean install -DskipTests
 
 echo ""
 echo "2. 运行热更新示例..."
@@ -28,16 +29,16 @@ read -p "请输入选择 (1-3): " choice
 case $choice in
     1)
         echo "运行普通Java应用示例..."
-        mvn exec:java -Dexec.mainClass="com.bank.config.client.example.HotUpdateExample"
+        mvn exec:java -pl config-client-all -Dexec.mainClass="com.bank.config.client.example.HotUpdateExample"
         ;;
     2)
         echo "运行Spring Boot集成示例..."
         echo "注意：Spring Boot示例将使用端口8081，避免与配置中心服务端冲突"
-        mvn spring-boot:run -pl config-client -Dspring-boot.run.main-class="com.bank.config.client.example.SpringHotUpdateExample" -Dspring-boot.run.jvmArguments="-Dserver.port=8081"
+        mvn spring-boot:run -pl config-client-all -Dspring-boot.run.main-class="com.bank.config.client.example.SpringHotUpdateExample" -Dspring-boot.run.jvmArguments="-Dserver.port=8081"
         ;;
     3)
         echo "运行测试..."
-        mvn test -Dtest=ConfigHotUpdateTest
+        mvn test -pl config-client-core -Dtest=ConfigHotUpdateTest
         ;;
     *)
         echo "无效选择，退出"
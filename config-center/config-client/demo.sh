@@ -17,7 +17,8 @@ if ! command -v mvn &> /dev/null; then
 fi
 
 echo "1. 编译项目..."
-mvn clean compile
+# 示例所在的 config-client-all 依赖其它子模块，先安装到本地仓库
+mvn clean install -DskipTests
 
 if [ $? -ne 0 ]; then
     echo "编译失败"
@@ -37,7 +38,7 @@ echo "注意: 示例需要配置中心服务器运行在 http://localhost:8080"
 echo "如果服务器未运行，示例会显示连接错误，这是正常的"
 
 # 运行示例
-mvn exec:java -Dexec.mainClass="com.bank.config.client.example.ConfigClientExample" \
+mvn exec:java -pl config-client-all -Dexec.mainClass="com.bank.config.client.example.ConfigClientExample" \
     -Dexec.args="" \
     -Dexec.classpathScope="compile"
 
@@ -14,7 +14,8 @@ if ! command -v mvn &> /dev/null; then
 fi
 
 echo "1. 编译项目..."
-mvn clean compile
+# 示例所在的 config-client-all 依赖其它子模块，先安装到本地仓库
+mvn clean install -DskipTests
 if [ $? -ne 0 ]; then
     echo "❌ 编译失败"
     exit 1
@@ -25,7 +26,7 @@ echo "注意: 确保配置中心服务器运行在 http://localhost:8080"
 echo "GUI界面将显示配置客户端的实时状态和监控信息"
 echo ""
 
-mvn exec:java -Dexec.mainClass="com.bank.config.client.gui.ConfigClientGUI" \
+mvn exec:java -pl config-client-gui -Dexec.mainClass="com.bank.config.client.gui.ConfigClientGUI" \
     -Dexec.args="" \
     -Dexec.classpathScope="compile"
 
@@ -0,0 +1,51 @@
+package com.bank.config.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端接口耗时统计拦截器
+ * 按接口路径模板、请求方法和响应状态记录 config.client.requests 耗时直方图。
+ * SSE监听等异步请求不会回调 afterCompletion，长连接不计入耗时
+ *
+ * @author bank
+ */
+@Component
+public class ClientApiMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ClientApiMetricsInterceptor.class.getName() + ".start";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (!(start instanceof Long)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Timer.builder("config.client.requests")
+            .description("客户端接口耗时")
+            .tag("endpoint", pattern != null ? pattern.toString() : "UNKNOWN")
+            .tag("method", request.getMethod())
+            .tag("status", String.valueOf(response.getStatus()))
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.config.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 拉取间隔提示拦截器
+ * 在配置拉取和修订号查询的响应头 X-Config-Poll-Interval 中给出建议的下次拉取间隔（毫秒）。
+ * 正在处理的拉取请求超过阈值时返回过载间隔，让客户端放慢拉取；未配置基础间隔且未过载时不返回提示
+ *
+ * @author bank
+ */
+@Component
+public class PollIntervalHintInterceptor implements HandlerInterceptor {
+
+    public static final String POLL_INTERVAL_HEADER = "X-Config-Poll-Interval";
+
+    private static final String COUNTED_ATTRIBUTE = PollIntervalHintInterceptor.class.getName() + ".counted";
+
+    @Value("${config.poll.interval-hint:0}")
+    private long intervalHint;
+
+    @Value("${config.poll.overload-concurrency:200}")
+    private int overloadConcurrency;
+
+    @Value("${config.poll.overload-interval:120000}")
+    private long overloadInterval;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        int current = inFlight.incrementAndGet();
+        request.setAttribute(COUNTED_ATTRIBUTE, Boolean.TRUE);
+        long hint = overloadConcurrency > 0 && current > overloadConcurrency ? overloadInterval : intervalHint;
+        if (hint > 0) {
+            response.setHeader(POLL_INTERVAL_HEADER, String.valueOf(hint));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(COUNTED_ATTRIBUTE) != null) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 当前正在处理的拉取请求数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -1,7 +1,9 @@
 package com.bank.config.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -12,6 +14,22 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private ClientApiMetricsInterceptor clientApiMetricsInterceptor;
+
+    @Autowired
+    private PollIntervalHintInterceptor pollIntervalHintInterceptor;
+
+    /**
+     * 客户端接口耗时统计，拉取接口返回拉取间隔提示
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(clientApiMetricsInterceptor).addPathPatterns("/api/client/**");
+        registry.addInterceptor(pollIntervalHintInterceptor)
+            .addPathPatterns("/api/client/configs/**", "/api/client/revision/**");
+    }
+
     /**
      * 配置CORS
      */
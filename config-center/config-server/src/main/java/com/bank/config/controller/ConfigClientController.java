@@ -1,15 +1,30 @@
 package com.bank.config.controller;
 
 import com.bank.config.common.ApiResponse;
+import com.bank.config.dto.ConfigDataResponse;
+import com.bank.config.dto.KeySubset;
 import com.bank.config.entity.Application;
 import com.bank.config.entity.Environment;
 import com.bank.config.entity.ConfigItem;
+import com.bank.config.entity.ConfigSnapshot;
+import com.bank.config.entity.ConfigSnapshotItem;
 import com.bank.config.repository.ApplicationRepository;
 import com.bank.config.repository.EnvironmentRepository;
+import com.bank.config.service.ConfigAccessService;
 import com.bank.config.service.ConfigItemService;
+import com.bank.config.service.ConfigPropagationService;
+import com.bank.config.service.ConfigSnapshotService;
+import com.bank.config.service.ConfigWatchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
+
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +50,18 @@ public class ConfigClientController {
     @Autowired
     private EnvironmentRepository environmentRepository;
 
+    @Autowired
+    private ConfigWatchService configWatchService;
+
+    @Autowired
+    private ConfigSnapshotService configSnapshotService;
+
+    @Autowired
+    private ConfigPropagationService configPropagationService;
+
+    @Autowired
+    private ConfigAccessService configAccessService;
+
     /**
      * 获取单个配置项
      */
@@ -73,7 +100,8 @@ public class ConfigClientController {
     @GetMapping("/configs/{appCode}/{envCode}")
     public ApiResponse<Map<String, String>> getConfigs(
             @PathVariable String appCode,
-            @PathVariable String envCode) {
+            @PathVariable String envCode,
+            HttpServletResponse httpResponse) {
         try {
             // 根据appCode和envCode获取对应的ID
             Optional<Application> application = applicationRepository.findByAppCodeAndStatus(appCode, 1);
@@ -86,18 +114,119 @@ public class ConfigClientController {
                 return ApiResponse.error(404, "环境不存在或已禁用: " + envCode);
             }
             
-            List<ConfigItem> configItems = configItemService.findByAppIdAndEnvId(
-                application.get().getId(), environment.get().getId());
-            Map<String, String> configMap = new HashMap<>();
-            for (ConfigItem configItem : configItems) {
-                configMap.put(configItem.getConfigKey(), configItem.getConfigValue());
+            return loadConfigs(application.get().getId(), environment.get().getId(), null, httpResponse);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 获取订阅子集内的配置
+     * 请求体：instanceId（用于按子集推送，可选）、keys、prefixes，
+     * additive 为true时只拉取请求中的配置并并入已登记的子集（客户端按需拉取未订阅的配置）。
+     * 响应格式和响应头与全量拉取相同
+     */
+    @PostMapping("/configs/{appCode}/{envCode}/subset")
+    public ApiResponse<Map<String, String>> getConfigSubset(
+            @PathVariable String appCode,
+            @PathVariable String envCode,
+            @RequestBody Map<String, Object> request,
+            HttpServletResponse httpResponse) {
+        try {
+            Optional<Application> application = applicationRepository.findByAppCodeAndStatus(appCode, 1);
+            if (!application.isPresent()) {
+                return ApiResponse.error(404, "应用不存在或已禁用: " + appCode);
+            }
+            
+            Optional<Environment> environment = environmentRepository.findByEnvCodeAndStatus(envCode, 1);
+            if (!environment.isPresent()) {
+                return ApiResponse.error(404, "环境不存在或已禁用: " + envCode);
             }
-            return ApiResponse.success(configMap);
+            
+            @SuppressWarnings("unchecked")
+            List<String> keys = (List<String>) request.get("keys");
+            @SuppressWarnings("unchecked")
+            List<String> prefixes = (List<String>) request.get("prefixes");
+            KeySubset requested = KeySubset.of(keys, prefixes);
+            configAccessService.registerSubset(application.get().getId(), environment.get().getId(),
+                (String) request.get("instanceId"), keys, prefixes, Boolean.TRUE.equals(request.get("additive")));
+            return loadConfigs(application.get().getId(), environment.get().getId(), requested, httpResponse);
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
         }
     }
 
+    /**
+     * 查询最新发布快照的配置并写入修订号和发布时间响应头，响应内容与修订号对应同一快照；
+     * 加密项列表随配置放在响应体中，不受响应头长度限制
+     *
+     * @param subset 只返回该子集内的配置，为空时返回全部配置
+     */
+    private ConfigDataResponse loadConfigs(Long appId, Long envId, KeySubset subset,
+                                           HttpServletResponse httpResponse) {
+        Map<String, String> configMap = new HashMap<>();
+        List<String> encryptedKeys = new ArrayList<>();
+        Optional<ConfigSnapshot> published = configSnapshotService.getLatestPublishedSnapshot(appId, envId);
+        if (published.isPresent()) {
+            // 返回最新发布快照的配置及其修订号和发布时间，与推送的修订一致，客户端据此计算发布到生效的延迟
+            httpResponse.setHeader("X-Config-Revision", String.valueOf(published.get().getId()));
+            if (published.get().getCreatedAt() != null) {
+                httpResponse.setHeader("X-Config-Published-At", String.valueOf(published.get().getCreatedAt()
+                    .atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli()));
+            }
+            for (ConfigSnapshotItem item : configSnapshotService.getSnapshotItems(published.get().getId())) {
+                addConfig(configMap, encryptedKeys, subset, item.getConfigKey(), item.getConfigValue(), item.getIsEncrypted());
+            }
+        } else {
+            // 尚未发布过时返回当前配置项，不带修订号
+            for (ConfigItem configItem : configItemService.findByAppIdAndEnvId(appId, envId)) {
+                addConfig(configMap, encryptedKeys, subset, configItem.getConfigKey(), configItem.getConfigValue(),
+                    configItem.getIsEncrypted());
+            }
+        }
+        // 加密项以密文下发，客户端按该列表在读取时解密
+        return new ConfigDataResponse(configMap, encryptedKeys);
+    }
+
+    private void addConfig(Map<String, String> configMap, List<String> encryptedKeys, KeySubset subset,
+                           String configKey, String configValue, Integer isEncrypted) {
+        if (subset != null && !subset.matches(configKey)) {
+            return;
+        }
+        configMap.put(configKey, configValue);
+        if (isEncrypted != null && isEncrypted == 1) {
+            encryptedKeys.add(configKey);
+        }
+    }
+
+    /**
+     * 获取最新发布的修订号
+     * 只查询发布快照，不加载配置项，供客户端健康探测和版本检查使用；
+     * HEAD 请求只返回 X-Config-Revision 响应头
+     */
+    @RequestMapping(value = "/revision/{appCode}/{envCode}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public ResponseEntity<ApiResponse<Long>> getRevision(
+            @PathVariable String appCode,
+            @PathVariable String envCode) {
+        Optional<Application> application = applicationRepository.findByAppCodeAndStatus(appCode, 1);
+        if (!application.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(404, "应用不存在或已禁用: " + appCode));
+        }
+
+        Optional<Environment> environment = environmentRepository.findByEnvCodeAndStatus(envCode, 1);
+        if (!environment.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(404, "环境不存在或已禁用: " + envCode));
+        }
+
+        long revision = configSnapshotService.getLatestPublishedSnapshot(
+                application.get().getId(), environment.get().getId())
+            .map(ConfigSnapshot::getId)
+            .orElse(0L);
+        return ResponseEntity.ok()
+            .header("X-Config-Revision", String.valueOf(revision))
+            .body(ApiResponse.success(revision));
+    }
+
     /**
      * 获取配置项详情
      */
@@ -184,4 +313,108 @@ public class ConfigClientController {
             return ApiResponse.error(e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 监听配置变更（Server-Sent Events）
+     * 事件ID为配置修订号，断线重连时客户端通过 Last-Event-ID 请求头续传；
+     * 带 instanceId 且该实例已登记订阅子集时，只推送子集内的配置
+     */
+    @GetMapping(value = "/watch/{appCode}/{envCode}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> watch(
+            @PathVariable String appCode,
+            @PathVariable String envCode,
+            @RequestParam(value = "instanceId", required = false) String instanceId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Optional<Application> application = applicationRepository.findByAppCodeAndStatus(appCode, 1);
+        if (!application.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        Optional<Environment> environment = environmentRepository.findByEnvCodeAndStatus(envCode, 1);
+        if (!environment.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        Long lastRevision = null;
+        if (lastEventId != null && !lastEventId.isEmpty()) {
+            try {
+                lastRevision = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        return ResponseEntity.ok(configWatchService.watch(
+            application.get().getId(), environment.get().getId(), lastRevision, instanceId));
+    }
+
+    /**
+     * 上报配置修订生效结果
+     */
+    @PostMapping("/applied/{appCode}/{envCode}")
+    public ApiResponse<Void> reportApplied(
+            @PathVariable String appCode,
+            @PathVariable String envCode,
+            @RequestBody Map<String, Object> request) {
+        try {
+            Optional<Application> application = applicationRepository.findByAppCodeAndStatus(appCode, 1);
+            if (!application.isPresent()) {
+                return ApiResponse.error(404, "应用不存在或已禁用: " + appCode);
+            }
+            
+            Optional<Environment> environment = environmentRepository.findByEnvCodeAndStatus(envCode, 1);
+            if (!environment.isPresent()) {
+                return ApiResponse.error(404, "环境不存在或已禁用: " + envCode);
+            }
+            
+            Object revision = request.get("revision");
+            Object latency = request.get("publishToAppliedMs");
+            configPropagationService.reportApplied(
+                application.get().getId(),
+                environment.get().getId(),
+                (String) request.get("instanceId"),
+                revision instanceof Number ? ((Number) revision).longValue() : null,
+                !Boolean.FALSE.equals(request.get("success")),
+                latency instanceof Number ? ((Number) latency).longValue() : null,
+                (String) request.get("errorMessage"));
+            return ApiResponse.success("上报成功");
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 上报配置读取
+     * 请求体：instanceId、reads（配置键 -> 上报周期内的估计读取次数）
+     */
+    @PostMapping("/access/{appCode}/{envCode}")
+    public ApiResponse<Void> reportAccess(
+            @PathVariable String appCode,
+            @PathVariable String envCode,
+            @RequestBody Map<String, Object> request) {
+        try {
+            Optional<Application> application = applicationRepository.findByAppCodeAndStatus(appCode, 1);
+            if (!application.isPresent()) {
+                return ApiResponse.error(404, "应用不存在或已禁用: " + appCode);
+            }
+            
+            Optional<Environment> environment = environmentRepository.findByEnvCodeAndStatus(envCode, 1);
+            if (!environment.isPresent()) {
+                return ApiResponse.error(404, "环境不存在或已禁用: " + envCode);
+            }
+            
+            Map<String, Long> reads = new HashMap<>();
+            if (request.get("reads") instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) request.get("reads")).entrySet()) {
+                    reads.put(String.valueOf(entry.getKey()),
+                        entry.getValue() instanceof Number ? ((Number) entry.getValue()).longValue() : 1L);
+                }
+            }
+            configAccessService.recordReads(application.get().getId(), environment.get().getId(),
+                (String) request.get("instanceId"), reads);
+            return ApiResponse.success("上报成功");
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bank.config.controller;
 
 import com.bank.config.common.ApiResponse;
 import com.bank.config.entity.ConfigItem;
+import com.bank.config.service.ConfigAccessService;
 import com.bank.config.service.ConfigItemService;
 import com.bank.config.service.FileParseService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +35,9 @@ public class ConfigItemController {
     @Autowired
     private FileParseService fileParseService;
 
+    @Autowired
+    private ConfigAccessService configAccessService;
+
     /**
      * 创建配置项
      */
@@ -117,6 +121,21 @@ public class ConfigItemController {
         }
     }
 
+    /**
+     * 获取最近 days 天内没有任何客户端读取过的配置项，依据客户端上报的配置读取统计
+     */
+    @GetMapping("/app/{appId}/env/{envId}/unread")
+    public ApiResponse<Map<String, Object>> getUnreadConfigKeys(
+            @PathVariable Long appId,
+            @PathVariable Long envId,
+            @RequestParam(defaultValue = "30") int days) {
+        try {
+            return ApiResponse.success(configAccessService.getUnreadKeys(appId, envId, days));
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取应用在指定环境下的完整配置（包含继承的配置）
      */
@@ -95,6 +95,35 @@ public class ConfigPushController {
         }
     }
 
+    /**
+     * 通知客户端在本地回滚到指定修订（发布快照ID）
+     * 只推送修订号，客户端从本地版本历史中切换，服务端的发布状态不变；
+     * 需要长期回滚时仍应通过快照回滚重新发布
+     */
+    @PostMapping("/app/{appId}/env/{envId}/rollback-to/{revision}")
+    public ApiResponse<Void> pushRollback(@PathVariable Long appId,
+                                        @PathVariable Long envId,
+                                        @PathVariable Long revision) {
+        try {
+            java.util.Optional<com.bank.config.entity.ConfigSnapshot> snapshotOpt = configSnapshotService.findById(revision);
+            if (!snapshotOpt.isPresent()) {
+                return ApiResponse.error("快照不存在");
+            }
+            
+            com.bank.config.entity.ConfigSnapshot snapshot = snapshotOpt.get();
+            if (!appId.equals(snapshot.getAppId()) || !envId.equals(snapshot.getEnvId())
+                    || !Integer.valueOf(2).equals(snapshot.getSnapshotType())) {
+                return ApiResponse.error("修订不是该应用环境的发布快照");
+            }
+            
+            configPushService.pushRollback(appId, envId, revision);
+            
+            return ApiResponse.success("回滚指令推送成功");
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     /**
      * 推送配置变更通知
      */
@@ -127,6 +156,20 @@ public class ConfigPushController {
         }
     }
 
+    /**
+     * 获取指定环境下的在线客户端列表
+     */
+    @GetMapping("/app/{appId}/env/{envId}/clients")
+    public ApiResponse<List<Map<String, Object>>> getOnlineClients(@PathVariable Long appId,
+                                                                   @PathVariable Long envId) {
+        try {
+            List<Map<String, Object>> clients = configPushService.getOnlineClients(appId, envId);
+            return ApiResponse.success(clients);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取客户端连接统计
      */
@@ -1,16 +1,23 @@
 package com.bank.config.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.bank.config.entity.Application;
+import com.bank.config.entity.Environment;
+import com.bank.config.repository.ApplicationRepository;
+import com.bank.config.repository.EnvironmentRepository;
 import com.bank.config.service.ConfigPushService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * WebSocket消息控制器
@@ -29,6 +36,12 @@ public class WebSocketMessageController {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private ApplicationRepository applicationRepository;
+    
+    @Autowired
+    private EnvironmentRepository environmentRepository;
+    
     /**
      * 处理客户端注册消息
      * 客户端发送消息到 /app/client/register
@@ -47,16 +60,26 @@ public class WebSocketMessageController {
                 String connectionId = headerAccessor.getSessionId();
                 
                 // 获取注册信息
-                Long appId = ((Number) registration.get("appId")).longValue();
+                // 客户端只知道应用编码和环境编码时，在注册时解析为ID，保证连接能按环境建立索引
+                Long appId = registration.get("appId") instanceof Number
+                    ? ((Number) registration.get("appId")).longValue()
+                    : resolveAppId((String) registration.get("appCode"));
+                Long envId = registration.get("envId") instanceof Number
+                    ? ((Number) registration.get("envId")).longValue()
+                    : resolveEnvId((String) registration.get("envCode"));
+                if (appId == null) {
+                    logger.warn("客户端注册缺少有效的应用信息，忽略: {}", message);
+                    return;
+                }
                 String instanceId = (String) registration.get("instanceId");
                 String instanceIp = (String) registration.get("instanceIp");
                 String clientVersion = (String) registration.get("clientVersion");
                 
-                logger.info("注册客户端: connectionId={}, appId={}, instanceId={}, instanceIp={}, version={}", 
-                    connectionId, appId, instanceId, instanceIp, clientVersion);
+                logger.info("注册客户端: connectionId={}, appId={}, envId={}, instanceId={}, instanceIp={}, version={}", 
+                    connectionId, appId, envId, instanceId, instanceIp, clientVersion);
                 
                 // 注册客户端到推送服务
-                configPushService.registerClient(connectionId, appId, instanceId, instanceIp, clientVersion);
+                configPushService.registerClient(connectionId, appId, envId, instanceId, instanceIp, clientVersion);
                 
                 logger.info("客户端注册成功: {}", instanceId);
             }
@@ -66,6 +89,22 @@ public class WebSocketMessageController {
         }
     }
     
+    private Long resolveAppId(String appCode) {
+        if (appCode == null) {
+            return null;
+        }
+        Optional<Application> application = applicationRepository.findByAppCodeAndStatus(appCode, 1);
+        return application.map(Application::getId).orElse(null);
+    }
+    
+    private Long resolveEnvId(String envCode) {
+        if (envCode == null) {
+            return null;
+        }
+        Optional<Environment> environment = environmentRepository.findByEnvCodeAndStatus(envCode, 1);
+        return environment.map(Environment::getId).orElse(null);
+    }
+    
     /**
      * 处理客户端心跳消息
      * 客户端发送消息到 /app/client/heartbeat
@@ -83,4 +122,19 @@ public class WebSocketMessageController {
             logger.error("处理客户端心跳消息失败: {}", e.getMessage(), e);
         }
     }
+    
+    /**
+     * 处理WebSocket会话断开事件
+     * 从注册表中移除连接，避免已断开的会话一直占用在线统计
+     */
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        try {
+            String connectionId = event.getSessionId();
+            logger.debug("客户端会话断开: connectionId={}", connectionId);
+            configPushService.removeClient(connectionId);
+        } catch (Exception e) {
+            logger.error("处理客户端断开事件失败: {}", e.getMessage(), e);
+        }
+    }
 }
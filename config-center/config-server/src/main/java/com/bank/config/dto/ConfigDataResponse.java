@@ -0,0 +1,33 @@
+package com.bank.config.dto;
+
+import com.bank.config.common.ApiResponse;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 客户端拉取配置的响应
+ * data 为配置键值，encryptedKeys 为以密文下发的配置键，客户端按该列表在读取时解密
+ *
+ * @author bank
+ */
+public class ConfigDataResponse extends ApiResponse<Map<String, String>> {
+
+    private List<String> encryptedKeys;
+
+    public ConfigDataResponse() {
+    }
+
+    public ConfigDataResponse(Map<String, String> data, List<String> encryptedKeys) {
+        super(200, "操作成功", data);
+        this.encryptedKeys = encryptedKeys;
+    }
+
+    public List<String> getEncryptedKeys() {
+        return encryptedKeys;
+    }
+
+    public void setEncryptedKeys(List<String> encryptedKeys) {
+        this.encryptedKeys = encryptedKeys;
+    }
+}
@@ -0,0 +1,101 @@
+package com.bank.config.dto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 客户端订阅的配置子集
+ * 由明确的配置键和键前缀组成，前缀按字符串前缀匹配（如 "db." 匹配 db.url、db.pool.size）；
+ * 实例不可变，合并时返回新实例
+ *
+ * @author bank
+ */
+public final class KeySubset {
+
+    private final Set<String> keys;
+    private final List<String> prefixes;
+
+    private KeySubset(Set<String> keys, List<String> prefixes) {
+        this.keys = keys;
+        this.prefixes = prefixes;
+    }
+
+    public static KeySubset of(Collection<String> keys, Collection<String> prefixes) {
+        Set<String> keySet = keys == null || keys.isEmpty()
+            ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<>(keys));
+        List<String> prefixList = prefixes == null || prefixes.isEmpty()
+            ? Collections.<String>emptyList() : Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(prefixes)));
+        return new KeySubset(keySet, prefixList);
+    }
+
+    /**
+     * 合并另一个子集，结果包含两者的键和前缀
+     */
+    public KeySubset merge(KeySubset other) {
+        if (other == null || (keys.containsAll(other.keys) && prefixes.containsAll(other.prefixes))) {
+            return this;
+        }
+        Set<String> mergedKeys = new HashSet<>(keys);
+        mergedKeys.addAll(other.keys);
+        Set<String> mergedPrefixes = new LinkedHashSet<>(prefixes);
+        mergedPrefixes.addAll(other.prefixes);
+        return of(mergedKeys, mergedPrefixes);
+    }
+
+    public boolean matches(String key) {
+        if (keys.contains(key)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 只保留子集内的配置
+     */
+    public Map<String, String> filter(Map<String, String> configs) {
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<String, String> entry : configs.entrySet()) {
+            if (matches(entry.getKey())) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    public Set<String> getKeys() {
+        return keys;
+    }
+
+    public List<String> getPrefixes() {
+        return prefixes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeySubset)) {
+            return false;
+        }
+        KeySubset other = (KeySubset) o;
+        return keys.equals(other.keys) && new HashSet<>(prefixes).equals(new HashSet<>(other.prefixes));
+    }
+
+    @Override
+    public int hashCode() {
+        return keys.hashCode() * 31 + new HashSet<>(prefixes).hashCode();
+    }
+}
@@ -42,6 +42,16 @@ public class ConfigPublishRecord extends BaseEntity {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    // 发布到客户端生效的传播延迟（毫秒），由客户端上报汇总
+    @Column(name = "propagation_p50_ms")
+    private Long propagationP50Ms;
+
+    @Column(name = "propagation_p99_ms")
+    private Long propagationP99Ms;
+
+    @Column(name = "propagation_max_ms")
+    private Long propagationMaxMs;
+
     @Column(name = "published_by", nullable = false, length = 64)
     private String publishedBy;
 
@@ -144,6 +154,30 @@ public class ConfigPublishRecord extends BaseEntity {
         this.errorMessage = errorMessage;
     }
 
+    public Long getPropagationP50Ms() {
+        return propagationP50Ms;
+    }
+
+    public void setPropagationP50Ms(Long propagationP50Ms) {
+        this.propagationP50Ms = propagationP50Ms;
+    }
+
+    public Long getPropagationP99Ms() {
+        return propagationP99Ms;
+    }
+
+    public void setPropagationP99Ms(Long propagationP99Ms) {
+        this.propagationP99Ms = propagationP99Ms;
+    }
+
+    public Long getPropagationMaxMs() {
+        return propagationMaxMs;
+    }
+
+    public void setPropagationMaxMs(Long propagationMaxMs) {
+        this.propagationMaxMs = propagationMaxMs;
+    }
+
     public String getPublishedBy() {
         return publishedBy;
     }
@@ -31,7 +31,7 @@ public class ConfigSnapshot extends BaseEntity {
     private Integer snapshotType = 1; // 1-暂存，2-发布
 
     @Column(name = "status", nullable = false, columnDefinition = "TINYINT DEFAULT 1")
-    private Integer status = 1; // 1-有效，0-无效
+    private Integer status = 1; // 1-有效，0-无效，2-待提交（两阶段发布）
 
     @Column(name = "config_data", nullable = false, columnDefinition = "LONGTEXT")
     private String configData; // JSON格式的完整配置数据
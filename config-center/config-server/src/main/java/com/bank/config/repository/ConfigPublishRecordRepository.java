@@ -4,11 +4,14 @@ import com.bank.config.entity.ConfigPublishRecord;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 配置发布记录Repository
@@ -33,6 +36,46 @@ public interface ConfigPublishRecordRepository extends JpaRepository<ConfigPubli
      */
     List<ConfigPublishRecord> findBySnapshotIdOrderByCreatedAtDesc(Long snapshotId);
 
+    /**
+     * 根据快照ID查找最近一条发布记录
+     */
+    Optional<ConfigPublishRecord> findFirstBySnapshotIdOrderByCreatedAtDesc(Long snapshotId);
+
+    /**
+     * 累加客户端上报的成功和失败数，多个节点并发写入时不会互相覆盖
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE ConfigPublishRecord r SET r.successCount = r.successCount + :success, r.failCount = r.failCount + :fail WHERE r.id = :id")
+    int incrementReportCounts(@Param("id") Long id, @Param("success") int success, @Param("fail") int fail);
+
+    /**
+     * 更新传播延迟，最大延迟只增不减
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE ConfigPublishRecord r SET r.propagationP50Ms = :p50, r.propagationP99Ms = :p99, "
+        + "r.propagationMaxMs = CASE WHEN r.propagationMaxMs IS NULL OR r.propagationMaxMs < :max THEN :max ELSE r.propagationMaxMs END "
+        + "WHERE r.id = :id")
+    int updatePropagationLatency(@Param("id") Long id, @Param("p50") Long p50, @Param("p99") Long p99, @Param("max") Long max);
+
+    /**
+     * 更新最近的错误信息
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE ConfigPublishRecord r SET r.errorMessage = :errorMessage WHERE r.id = :id")
+    int updateErrorMessage(@Param("id") Long id, @Param("errorMessage") String errorMessage);
+
+    /**
+     * 所有目标实例都已上报时结束发布：有失败时为失败，否则为成功
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE ConfigPublishRecord r SET r.publishStatus = CASE WHEN r.failCount > 0 THEN 3 ELSE 2 END "
+        + "WHERE r.id = :id AND r.successCount + r.failCount >= :targets")
+    int completeIfAllReported(@Param("id") Long id, @Param("targets") int targets);
+
     /**
      * 根据发布状态查找发布记录
      */
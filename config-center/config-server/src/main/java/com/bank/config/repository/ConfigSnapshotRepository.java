@@ -4,10 +4,13 @@ import com.bank.config.entity.ConfigSnapshot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -73,6 +76,20 @@ public interface ConfigSnapshotRepository extends JpaRepository<ConfigSnapshot,
     @Query("SELECT s FROM ConfigSnapshot s WHERE s.appId = :appId AND s.envId = :envId AND s.snapshotType = 1 AND s.status = 1 ORDER BY s.createdAt DESC")
     List<ConfigSnapshot> findLatestStagedSnapshots(@Param("appId") Long appId, @Param("envId") Long envId, Pageable pageable);
 
+    /**
+     * 查找在指定时间之前创建、仍待提交的两阶段发布快照，按创建时间升序
+     */
+    @Query("SELECT s FROM ConfigSnapshot s WHERE s.snapshotType = 2 AND s.status = 2 AND s.createdAt <= :before ORDER BY s.createdAt ASC")
+    List<ConfigSnapshot> findPendingCommitSnapshots(@Param("before") LocalDateTime before);
+
+    /**
+     * 将待提交的发布快照标记为有效，返回更新行数；多个节点同时提交时只有一个节点更新成功
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConfigSnapshot s SET s.status = 1 WHERE s.id = :id AND s.status = 2")
+    int markCommitted(@Param("id") Long id);
+
     /**
      * 根据应用ID、环境ID、版本号和快照类型查找快照
      */
@@ -0,0 +1,42 @@
+package com.bank.config.service;
+
+import com.bank.config.dto.KeySubset;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 客户端配置访问Service接口
+ * 记录各客户端实例订阅的配置子集，用于按子集返回和推送配置；
+ * 汇总客户端上报的配置读取，找出长期无人读取的配置
+ *
+ * @author bank
+ */
+public interface ConfigAccessService {
+
+    /**
+     * 登记客户端实例订阅的配置子集
+     *
+     * @param additive 为true时并入已登记的子集（按需拉取单个配置），否则整体替换
+     * @return 登记后的子集
+     */
+    KeySubset registerSubset(Long appId, Long envId, String instanceId, Collection<String> keys,
+                             Collection<String> prefixes, boolean additive);
+
+    /**
+     * 获取客户端实例订阅的配置子集，未登记时返回null（即订阅全部配置）
+     */
+    KeySubset getSubset(Long appId, Long envId, String instanceId);
+
+    /**
+     * 记录客户端上报的配置读取
+     *
+     * @param reads 配置键 -> 上报周期内的估计读取次数
+     */
+    void recordReads(Long appId, Long envId, String instanceId, Map<String, Long> reads);
+
+    /**
+     * 获取最近 days 天内没有任何客户端读取过的配置
+     */
+    Map<String, Object> getUnreadKeys(Long appId, Long envId, int days);
+}
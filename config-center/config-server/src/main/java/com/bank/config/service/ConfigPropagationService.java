@@ -0,0 +1,34 @@
+package com.bank.config.service;
+
+import com.bank.config.entity.ConfigPublishRecord;
+
+import java.util.List;
+
+/**
+ * 配置传播跟踪Service接口
+ * 记录每次发布，并汇总客户端上报的生效结果和发布到生效的延迟
+ *
+ * @author bank
+ */
+public interface ConfigPropagationService {
+
+    /**
+     * 创建发布记录
+     *
+     * @param snapshotId 发布快照ID，即客户端上报的修订号
+     * @param targetInstances 发布时在线的客户端实例
+     */
+    ConfigPublishRecord createPublishRecord(Long appId, Long envId, Long snapshotId, String versionNumber,
+                                            String publishedBy, List<String> targetInstances);
+
+    /**
+     * 客户端上报修订生效结果
+     *
+     * @param revision 生效的修订号
+     * @param success 是否生效成功
+     * @param publishToAppliedMs 发布到生效的耗时（毫秒），未知时为空
+     * @param errorMessage 失败原因
+     */
+    void reportApplied(Long appId, Long envId, String instanceId, Long revision, boolean success,
+                       Long publishToAppliedMs, String errorMessage);
+}
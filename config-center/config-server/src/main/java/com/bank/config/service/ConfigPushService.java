@@ -15,6 +15,29 @@ public interface ConfigPushService {
      */
     void pushConfigToApp(Long appId, Long envId, Map<String, Object> configData);
 
+    /**
+     * 推送指定修订号的配置到应用的所有客户端
+     * 修订号用于集群内按顺序投递，旧修订号的消息会被丢弃
+     */
+    void pushConfigToApp(Long appId, Long envId, Map<String, Object> configData, Long revision);
+
+    /**
+     * 两阶段推送的第一阶段：推送 CONFIG_PREPARE（完整配置），客户端只暂存不生效
+     */
+    void pushConfigPrepare(Long appId, Long envId, Map<String, Object> configData, Long revision);
+
+    /**
+     * 两阶段推送的第二阶段：推送 CONFIG_COMMIT（只含修订号），客户端收到后原子切换到暂存的配置
+     */
+    void pushConfigCommit(Long appId, Long envId, Long revision);
+
+    /**
+     * 推送本地回滚指令 ROLLBACK_TO
+     * 消息只含修订号，客户端从本地版本历史中切换到该修订，不传输配置；
+     * 历史中没有该修订的客户端忽略指令，服务端的发布状态不变
+     */
+    void pushRollback(Long appId, Long envId, Long revision);
+
     /**
      * 推送配置到指定的客户端实例
      */
@@ -25,11 +48,21 @@ public interface ConfigPushService {
      */
     void pushConfigChangeNotification(Long appId, Long envId, String versionNumber, String changeType);
 
+    /**
+     * 推送指定修订号的配置变更通知
+     */
+    void pushConfigChangeNotification(Long appId, Long envId, String versionNumber, String changeType, Long revision);
+
     /**
      * 获取在线客户端列表
      */
     List<Map<String, Object>> getOnlineClients(Long appId);
 
+    /**
+     * 获取指定环境下的在线客户端列表
+     */
+    List<Map<String, Object>> getOnlineClients(Long appId, Long envId);
+
     /**
      * 获取客户端连接统计
      */
@@ -59,6 +92,11 @@ public interface ConfigPushService {
      * 注册客户端连接
      */
     void registerClient(String connectionId, Long appId, String instanceId, String instanceIp, String clientVersion);
+
+    /**
+     * 注册客户端连接（带环境ID）
+     */
+    void registerClient(String connectionId, Long appId, Long envId, String instanceId, String instanceIp, String clientVersion);
     
     /**
      * 更新客户端心跳时间
@@ -0,0 +1,35 @@
+package com.bank.config.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * 配置监听Service接口
+ * 通过Server-Sent Events向客户端推送配置修订通知和增量
+ *
+ * @author bank
+ */
+public interface ConfigWatchService {
+
+    /**
+     * 注册监听连接
+     *
+     * @param appId 应用ID
+     * @param envId 环境ID
+     * @param lastEventId 客户端最后收到的修订号，为空表示首次连接
+     */
+    SseEmitter watch(Long appId, Long envId, Long lastEventId);
+
+    /**
+     * 注册监听连接，实例已登记订阅子集时只推送子集内的配置
+     *
+     * @param instanceId 客户端实例ID，为空时推送全部配置
+     */
+    SseEmitter watch(Long appId, Long envId, Long lastEventId, String instanceId);
+
+    /**
+     * 获取监听连接统计
+     */
+    Map<String, Object> getWatchStats();
+}
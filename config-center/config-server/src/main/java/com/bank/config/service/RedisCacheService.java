@@ -2,10 +2,13 @@ package com.bank.config.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +28,20 @@ public class RedisCacheService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void initMetrics() {
+        hitCounter = Counter.builder("config.cache.requests").tag("cache", "redis").tag("result", "hit")
+            .description("Redis缓存读取次数").register(meterRegistry);
+        missCounter = Counter.builder("config.cache.requests").tag("cache", "redis").tag("result", "miss")
+            .description("Redis缓存读取次数").register(meterRegistry);
+    }
+
     /**
      * 设置缓存
      */
@@ -45,15 +62,21 @@ public class RedisCacheService {
     public <T> Optional<T> get(String key, Class<T> clazz) {
         Object value = redisTemplate.opsForValue().get(key);
         if (value == null) {
+            missCounter.increment();
             return Optional.empty();
         }
         try {
+            Optional<T> result;
             if (value instanceof String) {
-                return Optional.of(objectMapper.readValue((String) value, clazz));
+                result = Optional.of(objectMapper.readValue((String) value, clazz));
             } else {
-                return Optional.of(objectMapper.convertValue(value, clazz));
+                result = Optional.of(objectMapper.convertValue(value, clazz));
             }
+            hitCounter.increment();
+            return result;
         } catch (Exception e) {
+            // 无法反序列化的缓存值按未命中处理
+            missCounter.increment();
             return Optional.empty();
         }
     }
@@ -64,15 +87,20 @@ public class RedisCacheService {
     public <T> Optional<T> get(String key, TypeReference<T> typeReference) {
         Object value = redisTemplate.opsForValue().get(key);
         if (value == null) {
+            missCounter.increment();
             return Optional.empty();
         }
         try {
+            Optional<T> result;
             if (value instanceof String) {
-                return Optional.of(objectMapper.readValue((String) value, typeReference));
+                result = Optional.of(objectMapper.readValue((String) value, typeReference));
             } else {
-                return Optional.of(objectMapper.convertValue(value, typeReference));
+                result = Optional.of(objectMapper.convertValue(value, typeReference));
             }
+            hitCounter.increment();
+            return result;
         } catch (Exception e) {
+            missCounter.increment();
             return Optional.empty();
         }
     }
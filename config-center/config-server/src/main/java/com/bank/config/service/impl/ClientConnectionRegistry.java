@@ -0,0 +1,262 @@
+package com.bank.config.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 客户端连接注册表
+ * 按 connectionId、appId、envId、instanceId 建立索引，并为每个应用维护在线/离线计数，
+ * 使按应用查询和统计只与该应用的客户端数量相关，而不是全部连接数
+ *
+ * @author bank
+ */
+public class ClientConnectionRegistry {
+
+    private final Map<String, ClientConnection> connections = new ConcurrentHashMap<>();
+    private final Map<Long, AppConnections> appConnections = new ConcurrentHashMap<>();
+    private final Map<String, Set<ClientConnection>> instanceConnections = new ConcurrentHashMap<>();
+
+    /**
+     * 注册客户端连接，同一 connectionId 重复注册时替换旧连接
+     */
+    public ClientConnection register(String connectionId, Long appId, Long envId, String instanceId,
+                                     String instanceIp, String clientVersion) {
+        ClientConnection connection = new ClientConnection(connectionId, appId, envId, instanceId,
+                instanceIp, clientVersion, System.currentTimeMillis());
+
+        ClientConnection previous = connections.put(connectionId, connection);
+        if (previous != null) {
+            unindex(previous);
+        }
+
+        appConnections.computeIfAbsent(appId, k -> new AppConnections()).add(connection);
+        if (instanceId != null) {
+            instanceConnections.computeIfAbsent(instanceId, k -> ConcurrentHashMap.newKeySet()).add(connection);
+        }
+        return connection;
+    }
+
+    /**
+     * 更新心跳时间（无锁写入）
+     */
+    public ClientConnection touch(String connectionId) {
+        ClientConnection connection = connections.get(connectionId);
+        if (connection != null) {
+            connection.lastHeartbeat = System.currentTimeMillis();
+        }
+        return connection;
+    }
+
+    /**
+     * 标记客户端离线，连接仍保留在注册表中
+     */
+    public ClientConnection markOffline(String connectionId) {
+        ClientConnection connection = connections.get(connectionId);
+        if (connection != null && connection.transition(ClientConnection.ONLINE, ClientConnection.OFFLINE)) {
+            AppConnections app = appConnections.get(connection.appId);
+            if (app != null) {
+                app.onlineCount.decrementAndGet();
+                app.offlineCount.incrementAndGet();
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * 移除客户端连接
+     */
+    public ClientConnection remove(String connectionId) {
+        ClientConnection connection = connections.remove(connectionId);
+        if (connection != null) {
+            unindex(connection);
+        }
+        return connection;
+    }
+
+    public ClientConnection get(String connectionId) {
+        return connections.get(connectionId);
+    }
+
+    /**
+     * 获取应用下的所有连接
+     */
+    public Collection<ClientConnection> getByApp(Long appId) {
+        AppConnections app = appConnections.get(appId);
+        return app != null ? app.connections.values() : Collections.<ClientConnection>emptyList();
+    }
+
+    /**
+     * 获取应用在指定环境下的所有连接
+     */
+    public Collection<ClientConnection> getByAppAndEnv(Long appId, Long envId) {
+        AppConnections app = appConnections.get(appId);
+        if (app == null) {
+            return Collections.emptyList();
+        }
+        Set<ClientConnection> envSet = app.envConnections.get(envKey(envId));
+        return envSet != null ? envSet : Collections.<ClientConnection>emptyList();
+    }
+
+    /**
+     * 获取实例的所有连接
+     */
+    public Collection<ClientConnection> getByInstance(String instanceId) {
+        Set<ClientConnection> instanceSet = instanceConnections.get(instanceId);
+        return instanceSet != null ? instanceSet : Collections.<ClientConnection>emptyList();
+    }
+
+    /**
+     * 获取应用下的在线连接
+     */
+    public List<ClientConnection> getOnlineByApp(Long appId) {
+        List<ClientConnection> online = new ArrayList<>();
+        for (ClientConnection connection : getByApp(appId)) {
+            if (connection.isOnline()) {
+                online.add(connection);
+            }
+        }
+        return online;
+    }
+
+    public int getOnlineCount(Long appId) {
+        AppConnections app = appConnections.get(appId);
+        return app != null ? app.onlineCount.get() : 0;
+    }
+
+    public int getOfflineCount(Long appId) {
+        AppConnections app = appConnections.get(appId);
+        return app != null ? app.offlineCount.get() : 0;
+    }
+
+    /**
+     * 所有应用的在线连接数
+     */
+    public int getOnlineCount() {
+        int total = 0;
+        for (AppConnections app : appConnections.values()) {
+            total += app.onlineCount.get();
+        }
+        return total;
+    }
+
+    public int size() {
+        return connections.size();
+    }
+
+    private void unindex(ClientConnection connection) {
+        int previousState = connection.retire();
+        AppConnections app = appConnections.get(connection.appId);
+        if (app != null) {
+            app.remove(connection, previousState);
+        }
+        if (connection.instanceId != null) {
+            Set<ClientConnection> instanceSet = instanceConnections.get(connection.instanceId);
+            if (instanceSet != null) {
+                instanceSet.remove(connection);
+                if (instanceSet.isEmpty()) {
+                    instanceConnections.remove(connection.instanceId, instanceSet);
+                }
+            }
+        }
+    }
+
+    private static Long envKey(Long envId) {
+        return envId != null ? envId : 0L;
+    }
+
+    /**
+     * 单个应用的连接索引和计数
+     */
+    private static class AppConnections {
+        final Map<String, ClientConnection> connections = new ConcurrentHashMap<>();
+        final Map<Long, Set<ClientConnection>> envConnections = new ConcurrentHashMap<>();
+        final AtomicInteger onlineCount = new AtomicInteger();
+        final AtomicInteger offlineCount = new AtomicInteger();
+
+        void add(ClientConnection connection) {
+            connections.put(connection.connectionId, connection);
+            envConnections.computeIfAbsent(envKey(connection.envId), k -> ConcurrentHashMap.newKeySet()).add(connection);
+            onlineCount.incrementAndGet();
+        }
+
+        void remove(ClientConnection connection, int previousState) {
+            connections.remove(connection.connectionId, connection);
+            Set<ClientConnection> envSet = envConnections.get(envKey(connection.envId));
+            if (envSet != null) {
+                envSet.remove(connection);
+            }
+            if (previousState == ClientConnection.ONLINE) {
+                onlineCount.decrementAndGet();
+            } else if (previousState == ClientConnection.OFFLINE) {
+                offlineCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 客户端连接信息
+     * 身份信息不可变，心跳时间和在线状态支持并发无锁更新
+     */
+    public static class ClientConnection {
+        static final int ONLINE = 0;
+        static final int OFFLINE = 1;
+        static final int REMOVED = 2;
+
+        private final String connectionId;
+        private final Long appId;
+        private final Long envId;
+        private final String instanceId;
+        private final String instanceIp;
+        private final String clientVersion;
+        private final long connectedAt;
+        private volatile long lastHeartbeat;
+        private final AtomicInteger state = new AtomicInteger(ONLINE);
+
+        ClientConnection(String connectionId, Long appId, Long envId, String instanceId,
+                         String instanceIp, String clientVersion, long connectedAt) {
+            this.connectionId = connectionId;
+            this.appId = appId;
+            this.envId = envId;
+            this.instanceId = instanceId;
+            this.instanceIp = instanceIp;
+            this.clientVersion = clientVersion;
+            this.connectedAt = connectedAt;
+            this.lastHeartbeat = connectedAt;
+        }
+
+        boolean transition(int expect, int update) {
+            return state.compareAndSet(expect, update);
+        }
+
+        /**
+         * 将连接标记为已移除，返回移除前的状态；已移除时返回 REMOVED
+         */
+        int retire() {
+            return state.getAndSet(REMOVED);
+        }
+
+        public String getConnectionId() { return connectionId; }
+
+        public Long getAppId() { return appId; }
+
+        public Long getEnvId() { return envId; }
+
+        public String getInstanceId() { return instanceId; }
+
+        public String getInstanceIp() { return instanceIp; }
+
+        public String getClientVersion() { return clientVersion; }
+
+        public long getConnectedAt() { return connectedAt; }
+
+        public long getLastHeartbeat() { return lastHeartbeat; }
+
+        public boolean isOnline() { return state.get() == ONLINE; }
+    }
+}
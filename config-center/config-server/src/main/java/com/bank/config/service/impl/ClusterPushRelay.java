@@ -0,0 +1,257 @@
+package com.bank.config.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 集群推送中继
+ * 推送消息只向Redis频道发布一次，每个节点收到后投递到本节点的WebSocket会话。
+ * 节点内按消息ID去重，并按 (类型, appId, envId) 的修订号丢弃乱序到达的旧消息。
+ * 未启用集群模式时只在本节点投递
+ *
+ * @author bank
+ */
+@Component
+public class ClusterPushRelay implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterPushRelay.class);
+
+    private static final int SEEN_MESSAGE_CAPACITY = 10000;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${config.push.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${config.push.cluster.channel:config:push:relay}")
+    private String channel;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 最近已投递的消息ID
+    private final Map<String, Boolean> seenMessages = Collections.synchronizedMap(
+        new LinkedHashMap<String, Boolean>(SEEN_MESSAGE_CAPACITY, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > SEEN_MESSAGE_CAPACITY;
+            }
+        });
+
+    // 每个排序键最近投递的修订号
+    private final Map<String, Long> deliveredRevisions = new ConcurrentHashMap<>();
+
+    // 本节点的其他投递通道（如SSE）
+    private final List<Consumer<RelayMessage>> localListeners = new CopyOnWriteArrayList<>();
+
+    // 本节点投递耗时和丢弃计数
+    private Timer fanoutTimer;
+    private Counter duplicateCounter;
+    private Counter staleCounter;
+
+    @PostConstruct
+    public void init() {
+        fanoutTimer = Timer.builder("config.push.fanout")
+            .description("推送消息投递到本节点所有会话和监听器的耗时")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        duplicateCounter = Counter.builder("config.push.dropped").tag("reason", "duplicate")
+            .description("本节点丢弃的推送消息数").register(meterRegistry);
+        staleCounter = Counter.builder("config.push.dropped").tag("reason", "stale")
+            .description("本节点丢弃的推送消息数").register(meterRegistry);
+
+        if (clusterEnabled) {
+            if (stringRedisTemplate == null || listenerContainer == null) {
+                logger.warn("集群推送已启用，但Redis未配置，退化为单节点推送");
+                clusterEnabled = false;
+                return;
+            }
+            listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+            logger.info("集群推送中继已启用: nodeId={}, channel={}", nodeId, channel);
+        }
+    }
+
+    /**
+     * 发布消息到一个或多个目的地
+     *
+     * @param destinations STOMP目的地
+     * @param payload 消息内容
+     * @param orderKey 排序键，为空时不做修订号排序
+     * @param revision 修订号，为空时不做修订号排序
+     */
+    public void publish(List<String> destinations, String payload, String orderKey, Long revision) {
+        RelayMessage message = new RelayMessage();
+        message.setOrigin(nodeId);
+        message.setId(nodeId + ":" + sequence.incrementAndGet());
+        message.setDestinations(destinations);
+        message.setPayload(payload);
+        message.setOrderKey(orderKey);
+        message.setRevision(revision);
+
+        // 本节点直接投递，其他节点经由Redis投递
+        deliverLocally(message);
+
+        if (clusterEnabled) {
+            try {
+                stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+            } catch (Exception e) {
+                logger.error("发布集群推送消息失败: id={}", message.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * 发布消息到单个目的地，不做修订号排序
+     */
+    public void publish(String destination, String payload) {
+        publish(Collections.singletonList(destination), payload, null, null);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            RelayMessage relayMessage = objectMapper.readValue(
+                new String(message.getBody(), StandardCharsets.UTF_8), RelayMessage.class);
+            if (nodeId.equals(relayMessage.getOrigin())) {
+                return;
+            }
+            deliverLocally(relayMessage);
+        } catch (Exception e) {
+            logger.error("处理集群推送消息失败", e);
+        }
+    }
+
+    /**
+     * 投递到本节点的会话
+     *
+     * @return 是否实际投递
+     */
+    boolean deliverLocally(RelayMessage message) {
+        if (seenMessages.put(message.getId(), Boolean.TRUE) != null) {
+            logger.debug("丢弃重复的推送消息: {}", message.getId());
+            duplicateCounter.increment();
+            return false;
+        }
+        if (!acceptRevision(message.getOrderKey(), message.getRevision())) {
+            logger.debug("丢弃过期的推送消息: id={}, orderKey={}, revision={}",
+                message.getId(), message.getOrderKey(), message.getRevision());
+            staleCounter.increment();
+            return false;
+        }
+        long start = System.nanoTime();
+        for (String destination : message.getDestinations()) {
+            messagingTemplate.convertAndSend(destination, message.getPayload());
+        }
+        for (Consumer<RelayMessage> listener : localListeners) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                logger.error("本节点推送监听器执行失败: id={}", message.getId(), e);
+            }
+        }
+        fanoutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    /**
+     * 添加本节点投递监听器，每条通过去重和排序检查的消息都会回调一次
+     */
+    public void addLocalListener(Consumer<RelayMessage> listener) {
+        localListeners.add(listener);
+    }
+
+    /**
+     * 仅当修订号不小于已投递的修订号时接受
+     */
+    private boolean acceptRevision(String orderKey, Long revision) {
+        if (orderKey == null || revision == null) {
+            return true;
+        }
+        boolean[] accepted = new boolean[1];
+        deliveredRevisions.compute(orderKey, (key, last) -> {
+            if (last != null && revision < last) {
+                return last;
+            }
+            accepted[0] = true;
+            return revision;
+        });
+        return accepted[0];
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isClusterEnabled() {
+        return clusterEnabled;
+    }
+
+    /**
+     * 中继消息
+     */
+    public static class RelayMessage {
+        private String origin;
+        private String id;
+        private List<String> destinations;
+        private String payload;
+        private String orderKey;
+        private Long revision;
+
+        public String getOrigin() { return origin; }
+        public void setOrigin(String origin) { this.origin = origin; }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+
+        public List<String> getDestinations() { return destinations; }
+        public void setDestinations(List<String> destinations) { this.destinations = destinations; }
+
+        public String getPayload() { return payload; }
+        public void setPayload(String payload) { this.payload = payload; }
+
+        public String getOrderKey() { return orderKey; }
+        public void setOrderKey(String orderKey) { this.orderKey = orderKey; }
+
+        public Long getRevision() { return revision; }
+        public void setRevision(Long revision) { this.revision = revision; }
+    }
+}
@@ -0,0 +1,360 @@
+package com.bank.config.service.impl;
+
+import com.bank.config.dto.KeySubset;
+import com.bank.config.entity.ConfigItem;
+import com.bank.config.service.ConfigAccessService;
+import com.bank.config.service.ConfigItemService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端配置访问Service实现类
+ * 订阅子集写入Redis（每个实例一个键，过期时间为 subscriptionTtl，登记和上报时续期），
+ * 使登记请求与推送连接落在不同节点时也能按子集推送；本节点只缓存 subsetCacheTtl，
+ * 过期后重新读取以获得其他节点上的重新登记。Redis不可用时只使用本节点的登记，集群模式下启动时告警。
+ * 读取时间先在内存中按配置键取最大值合并，定时批量写入Redis（每个应用环境一个Hash），
+ * 使统计在节点重启后保留并在集群内共享；Redis不可用时只使用本节点的统计。
+ * 上报的配置键只保留应用环境中实际存在的键（定时刷新的键集合），每个应用环境的统计条数不超过上限
+ *
+ * @author bank
+ */
+@Service
+public class ConfigAccessServiceImpl implements ConfigAccessService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigAccessServiceImpl.class);
+
+    private static final String KEY_PREFIX = "config:access:";
+
+    @Autowired
+    private ConfigItemService configItemService;
+
+    @Autowired(required = false)
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${config.access.subscription-ttl:86400000}")
+    private long subscriptionTtl;
+
+    @Value("${config.access.subset-cache-ttl:5000}")
+    private long subsetCacheTtl;
+
+    @Value("${config.push.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${config.access.known-keys-ttl:60000}")
+    private long knownKeysTtl;
+
+    @Value("${config.access.max-keys-per-app:10000}")
+    private int maxKeysPerApp;
+
+    // appId:envId:instanceId -> 订阅子集（使用Redis时为缓存）
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    // appId:envId -> 配置键 -> 最近读取时间
+    private final Map<String, Map<String, Long>> lastReads = new ConcurrentHashMap<>();
+
+    // appId:envId -> 待写入Redis的读取时间
+    private final Map<String, Map<String, Long>> pendingReads = new ConcurrentHashMap<>();
+
+    // appId:envId -> 本节点开始统计的时间
+    private final Map<String, Long> trackingSince = new ConcurrentHashMap<>();
+
+    // appId:envId -> 应用环境中存在的配置键
+    private final Map<String, KnownKeys> knownKeys = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (clusterEnabled && stringRedisTemplate == null) {
+            logger.error("集群模式已开启但Redis不可用，订阅子集只保存在本节点，连接在其他节点的实例将收到全部配置");
+        }
+    }
+
+    @Override
+    public KeySubset registerSubset(Long appId, Long envId, String instanceId, Collection<String> keys,
+                                    Collection<String> prefixes, boolean additive) {
+        KeySubset subset = KeySubset.of(keys, prefixes);
+        if (instanceId == null || instanceId.isEmpty()) {
+            return subset;
+        }
+        String key = subscriptionKey(appId, envId, instanceId);
+        if (stringRedisTemplate == null) {
+            Subscription registered = subscriptions.compute(key, (k, current) ->
+                new Subscription(additive && current != null ? current.subset.merge(subset) : subset));
+            return registered.subset;
+        }
+        // 增量登记以Redis中的子集为准，不使用可能过期的本节点缓存
+        KeySubset registered = subset;
+        try {
+            if (additive) {
+                KeySubset current = readSubset(key);
+                if (current != null) {
+                    registered = current.merge(subset);
+                }
+            }
+            Map<String, Object> value = new HashMap<>();
+            value.put("keys", registered.getKeys());
+            value.put("prefixes", registered.getPrefixes());
+            stringRedisTemplate.opsForValue().set(subsetKey(key), objectMapper.writeValueAsString(value),
+                subscriptionTtl, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.error("写入订阅子集失败，只在本节点生效: {}", key, e);
+            Subscription current = subscriptions.get(key);
+            if (additive && current != null) {
+                registered = current.subset.merge(subset);
+            }
+        }
+        subscriptions.put(key, new Subscription(registered));
+        return registered;
+    }
+
+    @Override
+    public KeySubset getSubset(Long appId, Long envId, String instanceId) {
+        if (instanceId == null) {
+            return null;
+        }
+        String key = subscriptionKey(appId, envId, instanceId);
+        Subscription subscription = subscriptions.get(key);
+        if (stringRedisTemplate == null
+            || (subscription != null && System.currentTimeMillis() - subscription.loadedAt < subsetCacheTtl)) {
+            return subscription != null ? subscription.subset : null;
+        }
+        try {
+            KeySubset subset = readSubset(key);
+            if (subset == null) {
+                subscriptions.remove(key);
+                return null;
+            }
+            subscriptions.put(key, new Subscription(subset));
+            return subset;
+        } catch (Exception e) {
+            logger.warn("读取订阅子集失败，使用本节点缓存: {}", key, e);
+            return subscription != null ? subscription.subset : null;
+        }
+    }
+
+    @Override
+    public void recordReads(Long appId, Long envId, String instanceId, Map<String, Long> reads) {
+        if (reads == null || reads.isEmpty()) {
+            return;
+        }
+        String namespace = namespaceKey(appId, envId);
+        long now = System.currentTimeMillis();
+        Set<String> existing = getKnownKeys(appId, envId, now);
+        trackingSince.putIfAbsent(namespace, now);
+        Map<String, Long> latest = lastReads.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
+        Map<String, Long> pending = pendingReads.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
+        for (String key : reads.keySet()) {
+            // 忽略不存在的配置键，统计条数达到上限后不再记录新的键
+            if (!existing.contains(key) || (!latest.containsKey(key) && latest.size() >= maxKeysPerApp)) {
+                continue;
+            }
+            latest.merge(key, now, Math::max);
+            pending.merge(key, now, Math::max);
+        }
+        if (instanceId != null) {
+            String key = subscriptionKey(appId, envId, instanceId);
+            Subscription subscription = subscriptions.get(key);
+            if (subscription != null) {
+                subscription.lastSeen = now;
+            }
+            // 实例可能向未登记子集的节点上报，续期以Redis中的键为准
+            if (stringRedisTemplate != null) {
+                try {
+                    stringRedisTemplate.expire(subsetKey(key), subscriptionTtl, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    logger.warn("续期订阅子集失败: {}", key, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getUnreadKeys(Long appId, Long envId, int days) {
+        String namespace = namespaceKey(appId, envId);
+        Map<String, Long> reads = new HashMap<>();
+        Long since = trackingSince.get(namespace);
+        if (stringRedisTemplate != null) {
+            try {
+                for (Map.Entry<Object, Object> entry : stringRedisTemplate.opsForHash().entries(readsKey(namespace)).entrySet()) {
+                    reads.put((String) entry.getKey(), Long.valueOf((String) entry.getValue()));
+                }
+                String storedSince = stringRedisTemplate.opsForValue().get(sinceKey(namespace));
+                if (storedSince != null) {
+                    since = since != null ? Math.min(since, Long.parseLong(storedSince)) : Long.valueOf(storedSince);
+                }
+            } catch (Exception e) {
+                logger.warn("读取配置访问统计失败，只使用本节点统计: {}", namespace, e);
+            }
+        }
+        Map<String, Long> local = lastReads.get(namespace);
+        if (local != null) {
+            for (Map.Entry<String, Long> entry : local.entrySet()) {
+                reads.merge(entry.getKey(), entry.getValue(), Math::max);
+            }
+        }
+
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+        List<Map<String, Object>> unread = new ArrayList<>();
+        for (ConfigItem item : configItemService.findByAppIdAndEnvId(appId, envId)) {
+            Long lastReadAt = reads.get(item.getConfigKey());
+            if (lastReadAt == null || lastReadAt < cutoff) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("configKey", item.getConfigKey());
+                entry.put("lastReadAt", lastReadAt);
+                unread.add(entry);
+            }
+        }
+        unread.sort((a, b) -> ((String) a.get("configKey")).compareTo((String) b.get("configKey")));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("days", days);
+        // 统计开始不足 days 天时，从未读取的配置不一定真的无人使用
+        result.put("trackingSince", since);
+        result.put("complete", since != null && since <= cutoff);
+        result.put("unreadCount", unread.size());
+        result.put("unreadKeys", unread);
+        return result;
+    }
+
+    /**
+     * 将读取时间批量写入Redis，并清理长时间未再登记的订阅；使用Redis时同时清理过期的本节点缓存
+     */
+    @Scheduled(fixedDelayString = "${config.access.flush-interval:60000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        subscriptions.values().removeIf(subscription -> now - subscription.lastSeen > subscriptionTtl
+            || (stringRedisTemplate != null && now - subscription.loadedAt > subsetCacheTtl));
+
+        if (stringRedisTemplate == null) {
+            pendingReads.clear();
+            return;
+        }
+        Map<String, Map<String, Long>> failed = new HashMap<>();
+        Iterator<Map.Entry<String, Map<String, Long>>> iterator = pendingReads.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Map<String, Long>> entry = iterator.next();
+            iterator.remove();
+            Map<String, String> values = new HashMap<>();
+            for (Map.Entry<String, Long> read : entry.getValue().entrySet()) {
+                values.put(read.getKey(), String.valueOf(read.getValue()));
+            }
+            if (values.isEmpty()) {
+                continue;
+            }
+            try {
+                stringRedisTemplate.opsForHash().putAll(readsKey(entry.getKey()), values);
+                Long since = trackingSince.get(entry.getKey());
+                stringRedisTemplate.opsForValue().setIfAbsent(sinceKey(entry.getKey()),
+                    String.valueOf(since != null ? since : now));
+            } catch (Exception e) {
+                logger.warn("写入配置访问统计失败: {}", entry.getKey(), e);
+                failed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        // 写入失败的留到下次，期间的新读取按最大值合并
+        for (Map.Entry<String, Map<String, Long>> entry : failed.entrySet()) {
+            Map<String, Long> pending = pendingReads.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>());
+            for (Map.Entry<String, Long> read : entry.getValue().entrySet()) {
+                pending.merge(read.getKey(), read.getValue(), Math::max);
+            }
+        }
+    }
+
+    /**
+     * 从Redis读取实例的订阅子集，未登记或已过期时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private KeySubset readSubset(String key) throws Exception {
+        String value = stringRedisTemplate.opsForValue().get(subsetKey(key));
+        if (value == null) {
+            return null;
+        }
+        Map<String, List<String>> stored = objectMapper.readValue(value, Map.class);
+        return KeySubset.of(stored.get("keys"), stored.get("prefixes"));
+    }
+
+    /**
+     * 获取应用环境中存在的配置键，超过 knownKeysTtl 后重新查询
+     */
+    private Set<String> getKnownKeys(Long appId, Long envId, long now) {
+        String namespace = namespaceKey(appId, envId);
+        KnownKeys known = knownKeys.get(namespace);
+        if (known == null || now - known.loadedAt > knownKeysTtl) {
+            Set<String> keys = new HashSet<>();
+            for (ConfigItem item : configItemService.findByAppIdAndEnvId(appId, envId)) {
+                keys.add(item.getConfigKey());
+            }
+            known = new KnownKeys(keys, now);
+            knownKeys.put(namespace, known);
+        }
+        return known.keys;
+    }
+
+    private static String namespaceKey(Long appId, Long envId) {
+        return appId + ":" + envId;
+    }
+
+    private static String subscriptionKey(Long appId, Long envId, String instanceId) {
+        return appId + ":" + envId + ":" + instanceId;
+    }
+
+    private static String subsetKey(String subscriptionKey) {
+        return KEY_PREFIX + "subset:" + subscriptionKey;
+    }
+
+    private static String readsKey(String namespace) {
+        return KEY_PREFIX + "reads:" + namespace;
+    }
+
+    private static String sinceKey(String namespace) {
+        return KEY_PREFIX + "since:" + namespace;
+    }
+
+    /**
+     * 应用环境中存在的配置键及查询时间
+     */
+    private static class KnownKeys {
+        final Set<String> keys;
+        final long loadedAt;
+
+        KnownKeys(Set<String> keys, long loadedAt) {
+            this.keys = keys;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * 实例订阅的子集、在本节点加载的时间及最近一次登记或上报的时间
+     */
+    private static class Subscription {
+        final KeySubset subset;
+        final long loadedAt = System.currentTimeMillis();
+        volatile long lastSeen = loadedAt;
+
+        Subscription(KeySubset subset) {
+            this.subset = subset;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.bank.config.service.impl;
+
+import com.bank.config.entity.ConfigPublishRecord;
+import com.bank.config.repository.ConfigPublishRecordRepository;
+import com.bank.config.service.ConfigPropagationService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 配置传播跟踪Service实现类
+ * 客户端上报先在内存中按修订号聚合，定时批量写入发布记录，避免每个实例上报都写一次数据库
+ *
+ * @author bank
+ */
+@Service
+public class ConfigPropagationServiceImpl implements ConfigPropagationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigPropagationServiceImpl.class);
+
+    // 超过该时间没有新上报的发布不再跟踪
+    private static final long AGGREGATE_IDLE_TIMEOUT = 3600000;
+
+    @Autowired
+    private ConfigPublishRecordRepository publishRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 修订号 -> 上报汇总
+    private final Map<Long, PublishAggregate> aggregates = new ConcurrentHashMap<>();
+
+    @Override
+    public ConfigPublishRecord createPublishRecord(Long appId, Long envId, Long snapshotId, String versionNumber,
+                                                   String publishedBy, List<String> targetInstances) {
+        ConfigPublishRecord record = new ConfigPublishRecord();
+        record.setAppId(appId);
+        record.setEnvId(envId);
+        record.setSnapshotId(snapshotId);
+        record.setVersionNumber(versionNumber);
+        record.setPublishType(1);
+        record.setPublishStatus(1); // 发布中
+        record.setPublishedBy(publishedBy);
+        record.setPublishedAt(new Timestamp(System.currentTimeMillis()));
+        try {
+            record.setTargetInstances(objectMapper.writeValueAsString(targetInstances));
+        } catch (Exception e) {
+            logger.warn("序列化目标实例失败: snapshotId={}", snapshotId, e);
+        }
+        return publishRecordRepository.save(record);
+    }
+
+    @Override
+    public void reportApplied(Long appId, Long envId, String instanceId, Long revision, boolean success,
+                              Long publishToAppliedMs, String errorMessage) {
+        if (revision == null || revision <= 0) {
+            return;
+        }
+        PublishAggregate aggregate = aggregates.computeIfAbsent(revision, k -> new PublishAggregate());
+        // 同一实例可能通过推送和拉取各上报一次，只计一次
+        if (instanceId != null && !aggregate.reportedInstances.add(instanceId)) {
+            return;
+        }
+        if (success) {
+            aggregate.pendingSuccess.incrementAndGet();
+            if (publishToAppliedMs != null && publishToAppliedMs >= 0) {
+                aggregate.addLatency(publishToAppliedMs);
+            }
+        } else {
+            aggregate.pendingFail.incrementAndGet();
+            if (errorMessage != null) {
+                aggregate.lastError = instanceId + ": " + errorMessage;
+            }
+        }
+        aggregate.lastReportAt = System.currentTimeMillis();
+        aggregate.dirty = true;
+    }
+
+    /**
+     * 将上报汇总写入发布记录
+     */
+    @Scheduled(fixedDelayString = "${config.publish.report-flush-interval:5000}")
+    public void flushReports() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Long, PublishAggregate>> iterator = aggregates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, PublishAggregate> entry = iterator.next();
+            PublishAggregate aggregate = entry.getValue();
+            if (aggregate.dirty) {
+                aggregate.dirty = false;
+                try {
+                    flush(entry.getKey(), aggregate);
+                } catch (Exception e) {
+                    aggregate.dirty = true;
+                    logger.error("写入发布传播统计失败: revision={}", entry.getKey(), e);
+                }
+            } else if (now - aggregate.lastReportAt > AGGREGATE_IDLE_TIMEOUT) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void flush(Long revision, PublishAggregate aggregate) throws Exception {
+        Optional<ConfigPublishRecord> recordOpt = publishRecordRepository.findFirstBySnapshotIdOrderByCreatedAtDesc(revision);
+        if (!recordOpt.isPresent()) {
+            // 非发布产生的修订（如手动推送），没有发布记录可更新
+            aggregates.remove(revision);
+            return;
+        }
+        ConfigPublishRecord record = recordOpt.get();
+
+        // 计数以增量累加的方式写入，其他节点汇总的上报不会被覆盖
+        int success = aggregate.pendingSuccess.getAndSet(0);
+        int fail = aggregate.pendingFail.getAndSet(0);
+        try {
+            if (success > 0 || fail > 0) {
+                publishRecordRepository.incrementReportCounts(record.getId(), success, fail);
+            }
+        } catch (Exception e) {
+            aggregate.pendingSuccess.addAndGet(success);
+            aggregate.pendingFail.addAndGet(fail);
+            throw e;
+        }
+
+        if (aggregate.lastError != null) {
+            publishRecordRepository.updateErrorMessage(record.getId(), aggregate.lastError);
+        }
+
+        List<Long> latencies = aggregate.sortedLatencies();
+        if (!latencies.isEmpty()) {
+            publishRecordRepository.updatePropagationLatency(record.getId(), percentile(latencies, 0.50),
+                percentile(latencies, 0.99), latencies.get(latencies.size() - 1));
+        }
+
+        // 所有目标实例都已上报时结束发布
+        int targets = countTargets(record.getTargetInstances());
+        if (targets > 0) {
+            publishRecordRepository.completeIfAllReported(record.getId(), targets);
+        }
+    }
+
+    private int countTargets(String targetInstances) {
+        if (targetInstances == null || targetInstances.isEmpty()) {
+            return 0;
+        }
+        try {
+            List<String> targets = objectMapper.readValue(targetInstances, new TypeReference<List<String>>() {});
+            return targets.size();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    /**
+     * 单次发布的上报汇总
+     */
+    private static class PublishAggregate {
+        final Set<String> reportedInstances = ConcurrentHashMap.newKeySet();
+        final AtomicInteger pendingSuccess = new AtomicInteger();
+        final AtomicInteger pendingFail = new AtomicInteger();
+        private final List<Long> latencies = new ArrayList<>();
+        volatile String lastError;
+        volatile long lastReportAt = System.currentTimeMillis();
+        volatile boolean dirty;
+
+        synchronized void addLatency(long latency) {
+            latencies.add(latency);
+        }
+
+        synchronized List<Long> sortedLatencies() {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -2,12 +2,15 @@ package com.bank.config.service.impl;
 
 import com.bank.config.service.ConfigPushService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 配置推送Service实现类
@@ -17,17 +20,56 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class ConfigPushServiceImpl implements ConfigPushService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ConfigPushServiceImpl.class);
+
+    private static final String DISCONNECT_PREFIX = "/topic/instance/";
+    private static final String DISCONNECT_SUFFIX = "/disconnect";
+
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ClusterPushRelay pushRelay;
 
     @Autowired
     private ObjectMapper objectMapper;
 
-    // 存储客户端连接信息
-    private final Map<String, ClientConnection> clientConnections = new ConcurrentHashMap<>();
+    @Autowired
+    private RedisClientRegistry clusterClientRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 客户端连接注册表（按应用、环境、实例索引）
+    private final ClientConnectionRegistry clientConnections = new ClientConnectionRegistry();
+
+    @PostConstruct
+    public void init() {
+        // 只统计本节点持有的连接，集群总数由各节点指标汇总得到
+        Gauge.builder("config.clients.connected", clientConnections, ClientConnectionRegistry::getOnlineCount)
+            .tag("transport", "websocket")
+            .description("本节点在线的客户端连接数")
+            .register(meterRegistry);
+        // 断开消息经中继送达每个节点，持有该连接的节点据此标记离线，之后不再写入它的心跳
+        pushRelay.addLocalListener(this::onRelayedMessage);
+    }
+
+    /**
+     * 处理本节点收到的中继消息：断开消息对应的本节点连接标记离线
+     */
+    void onRelayedMessage(ClusterPushRelay.RelayMessage message) {
+        for (String destination : message.getDestinations()) {
+            if (destination.startsWith(DISCONNECT_PREFIX) && destination.endsWith(DISCONNECT_SUFFIX)) {
+                clientConnections.markOffline(destination.substring(DISCONNECT_PREFIX.length(),
+                    destination.length() - DISCONNECT_SUFFIX.length()));
+            }
+        }
+    }
 
     @Override
     public void pushConfigToApp(Long appId, Long envId, Map<String, Object> configData) {
+        pushConfigToApp(appId, envId, configData, null);
+    }
+
+    @Override
+    public void pushConfigToApp(Long appId, Long envId, Map<String, Object> configData, Long revision) {
         try {
             Map<String, Object> message = new HashMap<>();
             message.put("type", "CONFIG_UPDATE");
@@ -35,20 +77,88 @@ public class ConfigPushServiceImpl implements ConfigPushService {
             message.put("envId", envId);
             message.put("configData", configData);
             message.put("timestamp", System.currentTimeMillis());
+            if (revision != null) {
+                message.put("revision", revision);
+            }
 
             String messageJson = objectMapper.writeValueAsString(message);
             
-            // 推送到应用的所有客户端
-            messagingTemplate.convertAndSend("/topic/app/" + appId + "/config", messageJson);
-            
-            // 同时推送到环境特定的频道
-            messagingTemplate.convertAndSend("/topic/app/" + appId + "/env/" + envId + "/config", messageJson);
+            // 推送到应用的所有客户端，同时推送到环境特定的频道
+            pushRelay.publish(Arrays.asList(
+                    "/topic/app/" + appId + "/config",
+                    "/topic/app/" + appId + "/env/" + envId + "/config"),
+                messageJson, "CONFIG_UPDATE:" + appId + ":" + envId, revision);
             
         } catch (Exception e) {
             throw new RuntimeException("推送配置失败", e);
         }
     }
 
+    @Override
+    public void pushConfigPrepare(Long appId, Long envId, Map<String, Object> configData, Long revision) {
+        if (revision == null) {
+            throw new IllegalArgumentException("两阶段推送必须指定修订号");
+        }
+        try {
+            Map<String, Object> prepare = new HashMap<>();
+            prepare.put("type", "CONFIG_PREPARE");
+            prepare.put("appId", appId);
+            prepare.put("envId", envId);
+            prepare.put("configData", configData);
+            prepare.put("revision", revision);
+            prepare.put("timestamp", System.currentTimeMillis());
+
+            pushRelay.publish(Arrays.asList(
+                    "/topic/app/" + appId + "/config",
+                    "/topic/app/" + appId + "/env/" + envId + "/config"),
+                objectMapper.writeValueAsString(prepare), "CONFIG_PREPARE:" + appId + ":" + envId, revision);
+        } catch (Exception e) {
+            throw new RuntimeException("推送配置失败", e);
+        }
+    }
+
+    /**
+     * 推送提交消息，消息体只包含修订号，使各客户端尽可能同时收到
+     */
+    @Override
+    public void pushConfigCommit(Long appId, Long envId, Long revision) {
+        try {
+            Map<String, Object> commit = new HashMap<>();
+            commit.put("type", "CONFIG_COMMIT");
+            commit.put("appId", appId);
+            commit.put("envId", envId);
+            commit.put("revision", revision);
+            commit.put("timestamp", System.currentTimeMillis());
+
+            pushRelay.publish(Arrays.asList(
+                    "/topic/app/" + appId + "/config",
+                    "/topic/app/" + appId + "/env/" + envId + "/config"),
+                objectMapper.writeValueAsString(commit), "CONFIG_COMMIT:" + appId + ":" + envId, revision);
+        } catch (Exception e) {
+            logger.error("推送配置提交消息失败: appId={}, envId={}, revision={}", appId, envId, revision, e);
+        }
+    }
+
+    @Override
+    public void pushRollback(Long appId, Long envId, Long revision) {
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "ROLLBACK_TO");
+            message.put("appId", appId);
+            message.put("envId", envId);
+            message.put("revision", revision);
+            message.put("timestamp", System.currentTimeMillis());
+
+            // 回滚目标是旧修订号，不参与修订号排序
+            pushRelay.publish(Arrays.asList(
+                    "/topic/app/" + appId + "/config",
+                    "/topic/app/" + appId + "/env/" + envId + "/config"),
+                objectMapper.writeValueAsString(message), "ROLLBACK_TO:" + appId + ":" + envId, null);
+        } catch (Exception e) {
+            throw new RuntimeException("推送回滚指令失败", e);
+        }
+    }
+
     @Override
     public void pushConfigToInstances(Long appId, Long envId, Map<String, Object> configData, List<String> instanceIds) {
         try {
@@ -62,9 +172,11 @@ public class ConfigPushServiceImpl implements ConfigPushService {
             String messageJson = objectMapper.writeValueAsString(message);
             
             // 推送到指定的客户端实例
+            List<String> destinations = new ArrayList<>(instanceIds.size());
             for (String instanceId : instanceIds) {
-                messagingTemplate.convertAndSend("/topic/instance/" + instanceId + "/config", messageJson);
+                destinations.add("/topic/instance/" + instanceId + "/config");
             }
+            pushRelay.publish(destinations, messageJson, null, null);
             
         } catch (Exception e) {
             throw new RuntimeException("推送配置失败", e);
@@ -73,6 +185,11 @@ public class ConfigPushServiceImpl implements ConfigPushService {
 
     @Override
     public void pushConfigChangeNotification(Long appId, Long envId, String versionNumber, String changeType) {
+        pushConfigChangeNotification(appId, envId, versionNumber, changeType, null);
+    }
+
+    @Override
+    public void pushConfigChangeNotification(Long appId, Long envId, String versionNumber, String changeType, Long revision) {
         try {
             Map<String, Object> message = new HashMap<>();
             message.put("type", "CONFIG_CHANGE_NOTIFICATION");
@@ -81,11 +198,15 @@ public class ConfigPushServiceImpl implements ConfigPushService {
             message.put("versionNumber", versionNumber);
             message.put("changeType", changeType);
             message.put("timestamp", System.currentTimeMillis());
+            if (revision != null) {
+                message.put("revision", revision);
+            }
 
             String messageJson = objectMapper.writeValueAsString(message);
             
             // 推送配置变更通知
-            messagingTemplate.convertAndSend("/topic/app/" + appId + "/notifications", messageJson);
+            pushRelay.publish(Collections.singletonList("/topic/app/" + appId + "/notifications"),
+                messageJson, "CONFIG_CHANGE_NOTIFICATION:" + appId + ":" + envId, revision);
             
         } catch (Exception e) {
             throw new RuntimeException("推送配置变更通知失败", e);
@@ -94,45 +215,37 @@ public class ConfigPushServiceImpl implements ConfigPushService {
 
     @Override
     public List<Map<String, Object>> getOnlineClients(Long appId) {
-        List<Map<String, Object>> clients = new ArrayList<>();
-        
-        for (Map.Entry<String, ClientConnection> entry : clientConnections.entrySet()) {
-            ClientConnection connection = entry.getValue();
-            if (connection.getAppId().equals(appId) && connection.isOnline()) {
-                Map<String, Object> clientInfo = new HashMap<>();
-                clientInfo.put("connectionId", connection.getConnectionId());
-                clientInfo.put("instanceId", connection.getInstanceId());
-                clientInfo.put("instanceIp", connection.getInstanceIp());
-                clientInfo.put("clientVersion", connection.getClientVersion());
-                clientInfo.put("lastHeartbeat", connection.getLastHeartbeat());
-                clientInfo.put("connectedAt", connection.getConnectedAt());
-                clients.add(clientInfo);
+        if (clusterClientRegistry.isEnabled()) {
+            return clusterClientRegistry.getOnlineClients(appId, null);
+        }
+        return toClientInfoList(clientConnections.getOnlineByApp(appId));
+    }
+
+    @Override
+    public List<Map<String, Object>> getOnlineClients(Long appId, Long envId) {
+        if (clusterClientRegistry.isEnabled()) {
+            return clusterClientRegistry.getOnlineClients(appId, envId);
+        }
+        List<ClientConnectionRegistry.ClientConnection> online = new ArrayList<>();
+        for (ClientConnectionRegistry.ClientConnection connection : clientConnections.getByAppAndEnv(appId, envId)) {
+            if (connection.isOnline()) {
+                online.add(connection);
             }
         }
-        
-        return clients;
+        return toClientInfoList(online);
     }
 
     @Override
     public Map<String, Object> getClientConnectionStats(Long appId) {
+        if (clusterClientRegistry.isEnabled()) {
+            return clusterClientRegistry.getConnectionStats(appId);
+        }
         Map<String, Object> stats = new HashMap<>();
         
-        int totalClients = 0;
-        int onlineClients = 0;
-        int offlineClients = 0;
-        
-        for (ClientConnection connection : clientConnections.values()) {
-            if (connection.getAppId().equals(appId)) {
-                totalClients++;
-                if (connection.isOnline()) {
-                    onlineClients++;
-                } else {
-                    offlineClients++;
-                }
-            }
-        }
+        int onlineClients = clientConnections.getOnlineCount(appId);
+        int offlineClients = clientConnections.getOfflineCount(appId);
         
-        stats.put("totalClients", totalClients);
+        stats.put("totalClients", onlineClients + offlineClients);
         stats.put("onlineClients", onlineClients);
         stats.put("offlineClients", offlineClients);
         
@@ -141,102 +254,95 @@ public class ConfigPushServiceImpl implements ConfigPushService {
 
     @Override
     public void disconnectClient(String connectionId) {
-        ClientConnection connection = clientConnections.get(connectionId);
-        if (connection != null) {
-            connection.setOnline(false);
+        ClientConnectionRegistry.ClientConnection connection = clientConnections.markOffline(connectionId);
+        if (clusterClientRegistry.isEnabled()) {
+            // 连接可能属于其他节点，由集群注册表标记离线，断开消息经中继送达持有连接的节点
+            clusterClientRegistry.markOffline(connectionId);
+        }
+        if (connection != null || clusterClientRegistry.isEnabled()) {
             // 这里可以发送断开连接的消息
-            messagingTemplate.convertAndSend("/topic/instance/" + connectionId + "/disconnect", 
+            pushRelay.publish(DISCONNECT_PREFIX + connectionId + DISCONNECT_SUFFIX, 
                 "{\"type\":\"DISCONNECT\",\"message\":\"Server initiated disconnect\"}");
         }
     }
 
     @Override
     public void broadcastMessage(String message) {
-        messagingTemplate.convertAndSend("/topic/broadcast", message);
+        pushRelay.publish("/topic/broadcast", message);
     }
 
     @Override
     public void sendMessageToApp(Long appId, String message) {
-        messagingTemplate.convertAndSend("/topic/app/" + appId + "/message", message);
+        pushRelay.publish("/topic/app/" + appId + "/message", message);
     }
 
     @Override
     public void sendMessageToInstances(List<String> instanceIds, String message) {
+        List<String> destinations = new ArrayList<>(instanceIds.size());
         for (String instanceId : instanceIds) {
-            messagingTemplate.convertAndSend("/topic/instance/" + instanceId + "/message", message);
+            destinations.add("/topic/instance/" + instanceId + "/message");
         }
+        pushRelay.publish(destinations, message, null, null);
     }
 
     /**
      * 注册客户端连接
      */
+    @Override
     public void registerClient(String connectionId, Long appId, String instanceId, String instanceIp, String clientVersion) {
-        ClientConnection connection = new ClientConnection();
-        connection.setConnectionId(connectionId);
-        connection.setAppId(appId);
-        connection.setInstanceId(instanceId);
-        connection.setInstanceIp(instanceIp);
-        connection.setClientVersion(clientVersion);
-        connection.setOnline(true);
-        connection.setConnectedAt(new Date());
-        connection.setLastHeartbeat(new Date());
-        
-        clientConnections.put(connectionId, connection);
+        registerClient(connectionId, appId, null, instanceId, instanceIp, clientVersion);
+    }
+
+    /**
+     * 注册客户端连接（带环境ID）
+     */
+    @Override
+    public void registerClient(String connectionId, Long appId, Long envId, String instanceId, String instanceIp, String clientVersion) {
+        ClientConnectionRegistry.ClientConnection connection =
+            clientConnections.register(connectionId, appId, envId, instanceId, instanceIp, clientVersion);
+        if (clusterClientRegistry.isEnabled()) {
+            clusterClientRegistry.register(connection);
+        }
     }
 
     /**
      * 更新客户端心跳
      */
+    @Override
     public void updateClientHeartbeat(String connectionId) {
-        ClientConnection connection = clientConnections.get(connectionId);
-        if (connection != null) {
-            connection.setLastHeartbeat(new Date());
+        ClientConnectionRegistry.ClientConnection connection = clientConnections.touch(connectionId);
+        if (connection != null && clusterClientRegistry.isEnabled()) {
+            clusterClientRegistry.heartbeat(connection);
         }
     }
 
     /**
      * 移除客户端连接
      */
+    @Override
     public void removeClient(String connectionId) {
         clientConnections.remove(connectionId);
+        if (clusterClientRegistry.isEnabled()) {
+            clusterClientRegistry.remove(connectionId);
+        }
     }
 
     /**
-     * 客户端连接信息内部类
+     * 转换为客户端信息列表
      */
-    private static class ClientConnection {
-        private String connectionId;
-        private Long appId;
-        private String instanceId;
-        private String instanceIp;
-        private String clientVersion;
-        private boolean online;
-        private Date connectedAt;
-        private Date lastHeartbeat;
-
-        // Getters and Setters
-        public String getConnectionId() { return connectionId; }
-        public void setConnectionId(String connectionId) { this.connectionId = connectionId; }
-        
-        public Long getAppId() { return appId; }
-        public void setAppId(Long appId) { this.appId = appId; }
-        
-        public String getInstanceId() { return instanceId; }
-        public void setInstanceId(String instanceId) { this.instanceId = instanceId; }
-        
-        public String getInstanceIp() { return instanceIp; }
-        public void setInstanceIp(String instanceIp) { this.instanceIp = instanceIp; }
-        
-        public String getClientVersion() { return clientVersion; }
-        public void setClientVersion(String clientVersion) { this.clientVersion = clientVersion; }
-        
-        public boolean isOnline() { return online; }
-        public void setOnline(boolean online) { this.online = online; }
-        
-        public Date getConnectedAt() { return connectedAt; }
-        public void setConnectedAt(Date connectedAt) { this.connectedAt = connectedAt; }
-        
-        public Date getLastHeartbeat() { return lastHeartbeat; }
-        public void setLastHeartbeat(Date lastHeartbeat) { this.lastHeartbeat = lastHeartbeat; }
+    private List<Map<String, Object>> toClientInfoList(Collection<ClientConnectionRegistry.ClientConnection> connections) {
+        List<Map<String, Object>> clients = new ArrayList<>(connections.size());
+        for (ClientConnectionRegistry.ClientConnection connection : connections) {
+            Map<String, Object> clientInfo = new HashMap<>();
+            clientInfo.put("connectionId", connection.getConnectionId());
+            clientInfo.put("envId", connection.getEnvId());
+            clientInfo.put("instanceId", connection.getInstanceId());
+            clientInfo.put("instanceIp", connection.getInstanceIp());
+            clientInfo.put("clientVersion", connection.getClientVersion());
+            clientInfo.put("lastHeartbeat", new Date(connection.getLastHeartbeat()));
+            clientInfo.put("connectedAt", new Date(connection.getConnectedAt()));
+            clients.add(clientInfo);
+        }
+        return clients;
     }
 }
@@ -6,14 +6,22 @@ import com.bank.config.entity.ConfigSnapshotItem;
 import com.bank.config.repository.ConfigItemRepository;
 import com.bank.config.repository.ConfigSnapshotItemRepository;
 import com.bank.config.repository.ConfigSnapshotRepository;
+import com.bank.config.service.ConfigPropagationService;
 import com.bank.config.service.ConfigPushService;
 import com.bank.config.service.ConfigSnapshotService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -30,6 +38,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class ConfigSnapshotServiceImpl implements ConfigSnapshotService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ConfigSnapshotServiceImpl.class);
+
     @Autowired
     private ConfigSnapshotRepository configSnapshotRepository;
 
@@ -45,6 +55,19 @@ public class ConfigSnapshotServiceImpl implements ConfigSnapshotService {
     @Autowired
     private ConfigPushService configPushService;
 
+    @Autowired
+    private ConfigPropagationService configPropagationService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // 两阶段发布：先推送暂存，再推送提交，使客户端几乎同时切换
+    @Value("${config.push.two-phase.enabled:false}")
+    private boolean twoPhasePublish;
+
+    @Value("${config.push.two-phase.commit-delay:2000}")
+    private long twoPhaseCommitDelay;
+
     @Override
     @org.springframework.cache.annotation.CacheEvict(value = "snapshots", allEntries = true)
     public ConfigSnapshot createSnapshot(Long appId, Long envId, String snapshotName, String snapshotDesc,
@@ -120,7 +143,8 @@ public class ConfigSnapshotServiceImpl implements ConfigSnapshotService {
         publishSnapshot.setSnapshotDesc("发布版本: " + snapshot.getSnapshotDesc());
         publishSnapshot.setVersionNumber(publishVersionNumber);
         publishSnapshot.setSnapshotType(2); // 发布类型
-        publishSnapshot.setStatus(1);
+        // 两阶段发布的快照在提交前不作为最新发布，客户端拉取和续传仍得到上一个已提交的修订
+        publishSnapshot.setStatus(twoPhasePublish ? 2 : 1);
         publishSnapshot.setConfigData(snapshot.getConfigData());
         publishSnapshot.setConfigCount(snapshot.getConfigCount());
         publishSnapshot.setCreatedBy(publishedBy);
@@ -145,6 +169,17 @@ public class ConfigSnapshotServiceImpl implements ConfigSnapshotService {
             configSnapshotItemRepository.save(newItem);
         }
         
+        // 记录发布，客户端上报生效结果后汇总到该记录
+        List<String> targetInstances = new ArrayList<>();
+        for (Map<String, Object> client : configPushService.getOnlineClients(publishSnapshot.getAppId(), publishSnapshot.getEnvId())) {
+            Object instanceId = client.get("instanceId");
+            if (instanceId != null) {
+                targetInstances.add(instanceId.toString());
+            }
+        }
+        configPropagationService.createPublishRecord(publishSnapshot.getAppId(), publishSnapshot.getEnvId(),
+            publishSnapshot.getId(), publishSnapshot.getVersionNumber(), publishedBy, targetInstances);
+        
         // 通过WebSocket推送配置更新到客户端
         try {
             // 解析配置数据
@@ -154,18 +189,30 @@ public class ConfigSnapshotServiceImpl implements ConfigSnapshotService {
             );
             
             // 推送配置更新
-            configPushService.pushConfigToApp(
-                publishSnapshot.getAppId(), 
-                publishSnapshot.getEnvId(), 
-                configData
-            );
+            if (twoPhasePublish) {
+                // 提交由 commitPendingSnapshots 在延迟到期后完成
+                configPushService.pushConfigPrepare(
+                    publishSnapshot.getAppId(), 
+                    publishSnapshot.getEnvId(), 
+                    configData,
+                    publishSnapshot.getId()
+                );
+            } else {
+                configPushService.pushConfigToApp(
+                    publishSnapshot.getAppId(), 
+                    publishSnapshot.getEnvId(), 
+                    configData,
+                    publishSnapshot.getId()
+                );
+            }
             
             // 推送配置变更通知
             configPushService.pushConfigChangeNotification(
                 publishSnapshot.getAppId(), 
                 publishSnapshot.getEnvId(), 
                 publishSnapshot.getVersionNumber(), 
-                "PUBLISH"
+                "PUBLISH",
+                publishSnapshot.getId()
             );
             
         } catch (Exception e) {
@@ -374,6 +421,46 @@ public class ConfigSnapshotServiceImpl implements ConfigSnapshotService {
         return createSnapshot(appId, envId, rollbackName, rollbackDesc, targetConfigs, createdBy);
     }
 
+    /**
+     * 提交到期的两阶段发布快照
+     * 待提交状态保存在数据库中，任一节点都会提交到期的快照，发布节点宕机后提交不会丢失；
+     * 先标记为有效再推送提交消息，客户端收到提交后拉取到的修订号不低于提交的修订号
+     */
+    @Scheduled(fixedDelayString = "${config.push.two-phase.commit-check-interval:500}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void commitPendingSnapshots() {
+        if (!twoPhasePublish) {
+            return;
+        }
+        List<ConfigSnapshot> pending = configSnapshotRepository.findPendingCommitSnapshots(
+            LocalDateTime.now().minusNanos(twoPhaseCommitDelay * 1_000_000L));
+        for (ConfigSnapshot snapshot : pending) {
+            try {
+                if (configSnapshotRepository.markCommitted(snapshot.getId()) > 0) {
+                    evictSnapshotCache(snapshot);
+                    configPushService.pushConfigCommit(snapshot.getAppId(), snapshot.getEnvId(), snapshot.getId());
+                    logger.info("两阶段发布已提交: appId={}, envId={}, revision={}",
+                        snapshot.getAppId(), snapshot.getEnvId(), snapshot.getId());
+                }
+            } catch (Exception e) {
+                logger.error("提交两阶段发布失败: revision={}", snapshot.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * 清除已提交快照的缓存条目，只在状态确实改变时调用，不影响其他快照的缓存
+     */
+    private void evictSnapshotCache(ConfigSnapshot snapshot) {
+        Cache cache = cacheManager.getCache("snapshots");
+        if (cache == null) {
+            return;
+        }
+        cache.evict(snapshot.getId());
+        cache.evict("app:" + snapshot.getAppId() + ":env:" + snapshot.getEnvId() + ":version:" + snapshot.getVersionNumber());
+        cache.evict("app:" + snapshot.getAppId() + ":env:" + snapshot.getEnvId() + ":list");
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<ConfigSnapshot> getLatestPublishedSnapshot(Long appId, Long envId) {
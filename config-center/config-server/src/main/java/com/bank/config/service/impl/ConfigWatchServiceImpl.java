@@ -0,0 +1,589 @@
+package com.bank.config.service.impl;
+
+import com.bank.config.dto.KeySubset;
+import com.bank.config.entity.ConfigSnapshot;
+import com.bank.config.service.ConfigAccessService;
+import com.bank.config.service.ConfigSnapshotService;
+import com.bank.config.service.ConfigWatchService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 配置监听Service实现类
+ * 监听连接按 appId:envId 分组；推送中继每投递一次配置更新，就计算相对上一修订的增量，
+ * 序列化一次后发送给该组的所有连接；登记了订阅子集的实例按子集过滤，相同子集的连接共用一次序列化结果。
+ * 事件ID为已生效的修订号，客户端重连时通过 Last-Event-ID 续传。
+ * 两阶段发布的暂存事件不带事件ID，也不推进续传位置，提交事件才带修订号，
+ * 因此提交前重连的客户端不会收到未提交的配置。
+ * 事件由单个分发线程按顺序计算，写入连接交给有界的发送线程池，每个连接的事件按入队顺序串行发送；
+ * 待发送事件过多、发送失败或单次写入超过 writeTimeout 的连接被移除，客户端按 Last-Event-ID 重连续传
+ *
+ * @author bank
+ */
+@Service
+public class ConfigWatchServiceImpl implements ConfigWatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigWatchServiceImpl.class);
+
+    @Autowired
+    private ClusterPushRelay pushRelay;
+
+    @Autowired
+    private ConfigSnapshotService configSnapshotService;
+
+    @Autowired
+    private ConfigAccessService configAccessService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${config.watch.timeout:1800000}")
+    private long watchTimeout;
+
+    @Value("${config.watch.send-threads:8}")
+    private int sendThreads;
+
+    @Value("${config.watch.send-queue-capacity:10000}")
+    private int sendQueueCapacity;
+
+    @Value("${config.watch.write-timeout:10000}")
+    private long writeTimeout;
+
+    @Value("${config.watch.max-pending-events:100}")
+    private int maxPendingEvents;
+
+    // 监听连接：appId:envId -> 连接集合
+    private final Map<String, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+
+    // 每个应用环境最近一次生效的修订和扁平化配置，用于计算增量和续传
+    private final Map<String, WatchState> states = new ConcurrentHashMap<>();
+
+    // 两阶段发布中已暂存、尚未提交的修订，提交时成为生效的修订
+    private final Map<String, WatchState> pendingStates = new ConcurrentHashMap<>();
+
+    // 按顺序计算事件，不做网络写入
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "config-watch-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 写入连接，每个连接同一时刻最多占用一个线程
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(sendQueueCapacity), r -> {
+                Thread thread = new Thread(r, "config-watch-sender-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pushRelay.addLocalListener(this::onRelayMessage);
+        Gauge.builder("config.clients.connected", this, ConfigWatchServiceImpl::countWatchers)
+            .tag("transport", "sse")
+            .description("本节点在线的客户端连接数")
+            .register(meterRegistry);
+    }
+
+    private int countWatchers() {
+        int total = 0;
+        for (Set<Watcher> group : watchers.values()) {
+            total += group.size();
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        dispatcher.shutdownNow();
+        sender.shutdownNow();
+        for (Set<Watcher> group : watchers.values()) {
+            for (Watcher watcher : group) {
+                close(watcher, null);
+            }
+        }
+    }
+
+    @Override
+    public SseEmitter watch(Long appId, Long envId, Long lastEventId) {
+        return watch(appId, envId, lastEventId, null);
+    }
+
+    @Override
+    public SseEmitter watch(Long appId, Long envId, Long lastEventId, String instanceId) {
+        String key = watchKey(appId, envId);
+        SseEmitter emitter = createEmitter();
+        Set<Watcher> group = watchers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+        Watcher watcher = new Watcher(emitter, instanceId, group);
+
+        emitter.onCompletion(() -> watcher.detach());
+        emitter.onTimeout(() -> watcher.detach());
+        emitter.onError(e -> watcher.detach());
+
+        // 客户端带着旧修订号重连时，补发当前完整配置；先于加入分组入队，保证在之后的增量之前发送
+        if (lastEventId != null) {
+            try {
+                WatchState state = currentState(appId, envId);
+                if (state != null && state.revision > lastEventId) {
+                    KeySubset subset = configAccessService.getSubset(appId, envId, instanceId);
+                    send(watcher, buildEvent("CONFIG_UPDATE", appId, envId, state.revision, null,
+                        subset != null ? subset.filter(state.configs) : state.configs, null, null, null));
+                }
+            } catch (Exception e) {
+                logger.warn("补发配置失败: appId={}, envId={}, lastEventId={}", appId, envId, lastEventId, e);
+            }
+        }
+        group.add(watcher);
+        if (watcher.closed) {
+            group.remove(watcher);
+        }
+
+        logger.debug("注册配置监听: appId={}, envId={}, lastEventId={}", appId, envId, lastEventId);
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(watchTimeout);
+    }
+
+    @Override
+    public Map<String, Object> getWatchStats() {
+        Map<String, Object> stats = new HashMap<>();
+        int total = 0;
+        Map<String, Integer> groups = new HashMap<>();
+        for (Map.Entry<String, Set<Watcher>> entry : watchers.entrySet()) {
+            int size = entry.getValue().size();
+            groups.put(entry.getKey(), size);
+            total += size;
+        }
+        stats.put("totalWatchers", total);
+        stats.put("watchers", groups);
+        return stats;
+    }
+
+    /**
+     * 定时发送注释行，检测并清理已断开的连接
+     */
+    @Scheduled(fixedDelayString = "${config.watch.keepalive-interval:30000}")
+    public void keepAlive() {
+        for (Set<Watcher> group : watchers.values()) {
+            for (Watcher watcher : group) {
+                send(watcher, SseEmitter.event().comment("keepalive"));
+            }
+        }
+    }
+
+    /**
+     * 移除单次写入超过 writeTimeout 的连接。
+     * 阻塞中的写入无法从其他线程中断，连接在写入返回（容器写超时或客户端断开）后由发送线程结束
+     */
+    @Scheduled(fixedDelayString = "${config.watch.write-timeout-check-interval:1000}")
+    public void closeStalledWatchers() {
+        long now = System.currentTimeMillis();
+        for (Set<Watcher> group : watchers.values()) {
+            for (Watcher watcher : group) {
+                long since = watcher.sendingSince;
+                if (since > 0 && now - since > writeTimeout) {
+                    logger.warn("监听连接写入超时，移除连接: instanceId={}, elapsed={}ms", watcher.instanceId, now - since);
+                    close(watcher, new IllegalStateException("监听连接写入超时"));
+                }
+            }
+        }
+    }
+
+    /**
+     * 将事件加入连接的发送队列，待发送事件超过上限时移除连接
+     */
+    private void send(Watcher watcher, SseEmitter.SseEventBuilder event) {
+        if (watcher.closed) {
+            return;
+        }
+        if (watcher.pendingCount.incrementAndGet() > maxPendingEvents) {
+            logger.warn("监听连接待发送事件过多，移除连接: instanceId={}", watcher.instanceId);
+            close(watcher, new IllegalStateException("监听连接待发送事件过多"));
+            return;
+        }
+        watcher.pending.add(event);
+        if (watcher.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(watcher));
+            } catch (RejectedExecutionException e) {
+                logger.warn("监听发送队列已满，移除连接: instanceId={}", watcher.instanceId);
+                watcher.detach();
+                finish(watcher, new IllegalStateException("监听发送队列已满"));
+            }
+        }
+    }
+
+    /**
+     * 按顺序发送连接的待发送事件，调用方持有 draining 标记
+     */
+    private void drain(Watcher watcher) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            while (!watcher.closed && (event = watcher.pending.poll()) != null) {
+                watcher.pendingCount.decrementAndGet();
+                watcher.sendingSince = System.currentTimeMillis();
+                try {
+                    watcher.emitter.send(event);
+                } catch (Exception e) {
+                    watcher.detach();
+                } finally {
+                    watcher.sendingSince = 0;
+                }
+            }
+            if (watcher.closed) {
+                // 保持 draining 标记，连接不会再被发送
+                finish(watcher, new IllegalStateException("监听连接已断开"));
+                return;
+            }
+            watcher.draining.set(false);
+            // 释放标记后入队的事件由这里或入队方继续发送
+            if (watcher.pending.isEmpty() || !watcher.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 移除连接；没有发送任务时直接结束连接，否则由发送任务在当前写入返回后结束，调用方不会被阻塞的写入卡住
+     *
+     * @param error 结束原因，为空时正常结束
+     */
+    private void close(Watcher watcher, Throwable error) {
+        watcher.detach();
+        if (watcher.draining.compareAndSet(false, true)) {
+            finish(watcher, error);
+        }
+    }
+
+    /**
+     * 结束连接，调用方持有 draining 标记
+     */
+    private void finish(Watcher watcher, Throwable error) {
+        watcher.pending.clear();
+        if (error != null) {
+            watcher.emitter.completeWithError(error);
+        } else {
+            watcher.emitter.complete();
+        }
+    }
+
+    /**
+     * 处理推送中继投递的消息
+     */
+    private void onRelayMessage(ClusterPushRelay.RelayMessage message) {
+        String orderKey = message.getOrderKey();
+        if (orderKey == null) {
+            return;
+        }
+        if (orderKey.startsWith("CONFIG_UPDATE:") || orderKey.startsWith("CONFIG_PREPARE:")
+                || orderKey.startsWith("CONFIG_COMMIT:") || orderKey.startsWith("CONFIG_CHANGE_NOTIFICATION:")
+                || orderKey.startsWith("ROLLBACK_TO:")) {
+            dispatcher.execute(() -> dispatch(message));
+        }
+    }
+
+    private void dispatch(ClusterPushRelay.RelayMessage relayMessage) {
+        try {
+            Map<String, Object> message = objectMapper.readValue(relayMessage.getPayload(),
+                new TypeReference<Map<String, Object>>() {});
+            Long appId = ((Number) message.get("appId")).longValue();
+            Long envId = ((Number) message.get("envId")).longValue();
+            String key = watchKey(appId, envId);
+
+            String type = (String) message.get("type");
+            ConfigUpdate update = null;
+            SseEmitter.SseEventBuilder event;
+            if ("CONFIG_UPDATE".equals(type) || "CONFIG_PREPARE".equals(type)) {
+                update = computeUpdate(key, type, relayMessage.getRevision(), message);
+                event = buildEvent(update, appId, envId, null);
+            } else if ("CONFIG_COMMIT".equals(type)) {
+                commit(key, relayMessage.getRevision());
+                // 提交后才推进续传位置
+                event = SseEmitter.event().name("commit").data(relayMessage.getPayload());
+                if (relayMessage.getRevision() != null) {
+                    event.id(String.valueOf(relayMessage.getRevision()));
+                }
+            } else if ("ROLLBACK_TO".equals(type)) {
+                // 回滚指令同样不带事件ID，不改变续传位置
+                event = SseEmitter.event().name("rollback").data(relayMessage.getPayload());
+            } else {
+                event = SseEmitter.event().name("notification").data(relayMessage.getPayload());
+            }
+
+            Set<Watcher> group = watchers.get(key);
+            if (group == null || group.isEmpty()) {
+                return;
+            }
+            Map<KeySubset, SseEmitter.SseEventBuilder> subsetEvents = new HashMap<>();
+            for (Watcher watcher : group) {
+                SseEmitter.SseEventBuilder watcherEvent = event;
+                KeySubset subset = update != null ? configAccessService.getSubset(appId, envId, watcher.instanceId) : null;
+                if (subset != null) {
+                    watcherEvent = subsetEvents.get(subset);
+                    if (watcherEvent == null) {
+                        watcherEvent = buildEvent(update, appId, envId, subset);
+                        subsetEvents.put(subset, watcherEvent);
+                    }
+                }
+                send(watcher, watcherEvent);
+            }
+        } catch (Exception e) {
+            logger.error("分发配置监听事件失败: id={}", relayMessage.getId(), e);
+        }
+    }
+
+    /**
+     * 计算配置更新，已知上一修订时只包含增量
+     */
+    @SuppressWarnings("unchecked")
+    private ConfigUpdate computeUpdate(String key, String type, Long revision, Map<String, Object> message) {
+        Map<String, String> configs = new HashMap<>();
+        Object configData = message.get("configData");
+        if (configData instanceof Map) {
+            flatten((Map<String, Object>) configData, "", configs);
+        }
+        Long timestamp = message.get("timestamp") instanceof Number ? ((Number) message.get("timestamp")).longValue() : null;
+
+        // 暂存和更新都相对于生效的修订计算增量，暂存的修订只在提交时生效
+        WatchState previous = states.get(key);
+        if (revision != null) {
+            WatchState state = new WatchState(revision, configs);
+            if ("CONFIG_PREPARE".equals(type)) {
+                pendingStates.merge(key, state, (current, candidate) ->
+                    current.revision >= candidate.revision ? current : candidate);
+            } else {
+                states.put(key, state);
+                pendingStates.computeIfPresent(key, (k, pending) -> pending.revision <= revision ? null : pending);
+            }
+        }
+        if (previous == null || revision == null) {
+            return new ConfigUpdate(type, revision, null, configs, null, null, timestamp);
+        }
+
+        Map<String, String> changed = new HashMap<>();
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, String> entry : configs.entrySet()) {
+            if (!entry.getValue().equals(previous.configs.get(entry.getKey()))) {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (String oldKey : previous.configs.keySet()) {
+            if (!configs.containsKey(oldKey)) {
+                removed.add(oldKey);
+            }
+        }
+        return new ConfigUpdate(type, revision, previous.revision, null, changed, removed, timestamp);
+    }
+
+    /**
+     * 提交暂存的修订；本节点没有该修订的暂存状态时（如节点重启），丢弃生效状态，续传时从已提交的发布快照重新加载
+     */
+    private void commit(String key, Long revision) {
+        if (revision == null) {
+            return;
+        }
+        WatchState pending = pendingStates.get(key);
+        if (pending != null && pending.revision == revision) {
+            pendingStates.remove(key, pending);
+            states.put(key, pending);
+            return;
+        }
+        WatchState current = states.get(key);
+        if (current == null || current.revision < revision) {
+            states.remove(key);
+        }
+    }
+
+    /**
+     * 生成配置更新事件
+     *
+     * @param subset 只包含该子集内的配置，为空时包含全部配置
+     */
+    private SseEmitter.SseEventBuilder buildEvent(ConfigUpdate update, Long appId, Long envId, KeySubset subset)
+            throws Exception {
+        if (subset == null) {
+            return buildEvent(update.type, appId, envId, update.revision, update.previousRevision, update.configs,
+                update.changed, update.removed, update.timestamp);
+        }
+        if (update.configs != null) {
+            return buildEvent(update.type, appId, envId, update.revision, null, subset.filter(update.configs),
+                null, null, update.timestamp);
+        }
+        // 增量同样按子集过滤，客户端子集在上一修订的状态加上过滤后的增量即为子集在新修订的状态
+        List<String> removed = new ArrayList<>();
+        for (String removedKey : update.removed) {
+            if (subset.matches(removedKey)) {
+                removed.add(removedKey);
+            }
+        }
+        return buildEvent(update.type, appId, envId, update.revision, update.previousRevision, null,
+            subset.filter(update.changed), removed, update.timestamp);
+    }
+
+    private SseEmitter.SseEventBuilder buildEvent(String type, Long appId, Long envId, Long revision, Long previousRevision,
+                                                  Map<String, String> configData, Map<String, String> changed,
+                                                  List<String> removed, Long timestamp) throws Exception {
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", type);
+        data.put("appId", appId);
+        data.put("envId", envId);
+        data.put("revision", revision);
+        data.put("timestamp", timestamp != null ? timestamp : System.currentTimeMillis());
+        if (configData != null) {
+            data.put("configData", configData);
+        } else {
+            data.put("previousRevision", previousRevision);
+            data.put("changed", changed);
+            data.put("removed", removed);
+        }
+
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name("config").data(objectMapper.writeValueAsString(data));
+        if (revision != null && !"CONFIG_PREPARE".equals(type)) {
+            event.id(String.valueOf(revision));
+        }
+        return event;
+    }
+
+    /**
+     * 获取应用环境的当前生效修订，本节点未收到过推送时从最新已提交的发布快照加载
+     */
+    private WatchState currentState(Long appId, Long envId) {
+        String key = watchKey(appId, envId);
+        WatchState state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+        Optional<ConfigSnapshot> latest = configSnapshotService.getLatestPublishedSnapshot(appId, envId);
+        if (!latest.isPresent()) {
+            return null;
+        }
+        Map<String, String> configs = new HashMap<>();
+        flatten(configSnapshotService.getSnapshotConfigData(latest.get().getId()), "", configs);
+        state = new WatchState(latest.get().getId(), configs);
+        WatchState existing = states.putIfAbsent(key, state);
+        return existing != null ? existing : state;
+    }
+
+    /**
+     * 将嵌套配置扁平化为点分隔的键，与客户端处理推送数据的方式一致
+     */
+    @SuppressWarnings("unchecked")
+    private void flatten(Map<String, Object> configData, String prefix, Map<String, String> result) {
+        for (Map.Entry<String, Object> entry : configData.entrySet()) {
+            String fullKey = prefix.isEmpty() ? entry.getKey() : prefix + "." + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                flatten((Map<String, Object>) value, fullKey, result);
+            } else {
+                result.put(fullKey, value != null ? value.toString() : "");
+            }
+        }
+    }
+
+    private static String watchKey(Long appId, Long envId) {
+        return appId + ":" + envId;
+    }
+
+    /**
+     * 监听连接及其客户端实例和发送队列
+     */
+    private static class Watcher {
+        final SseEmitter emitter;
+        final String instanceId;
+        final Set<Watcher> group;
+        final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pendingCount = new AtomicInteger();
+        // 持有者负责发送或结束连接
+        final AtomicBoolean draining = new AtomicBoolean();
+        // 当前写入的开始时间，未在写入时为0
+        volatile long sendingSince;
+        volatile boolean closed;
+
+        Watcher(SseEmitter emitter, String instanceId, Set<Watcher> group) {
+            this.emitter = emitter;
+            this.instanceId = instanceId;
+            this.group = group;
+        }
+
+        /**
+         * 从分组中移除，不再接收新事件
+         */
+        void detach() {
+            closed = true;
+            group.remove(this);
+        }
+    }
+
+    /**
+     * 一次配置更新：完整配置或相对上一修订的增量
+     */
+    private static class ConfigUpdate {
+        final String type;
+        final Long revision;
+        final Long previousRevision;
+        final Map<String, String> configs;
+        final Map<String, String> changed;
+        final List<String> removed;
+        final Long timestamp;
+
+        ConfigUpdate(String type, Long revision, Long previousRevision, Map<String, String> configs,
+                     Map<String, String> changed, List<String> removed, Long timestamp) {
+            this.type = type;
+            this.revision = revision;
+            this.previousRevision = previousRevision;
+            this.configs = configs;
+            this.changed = changed;
+            this.removed = removed;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * 应用环境的修订状态
+     */
+    private static class WatchState {
+        final long revision;
+        final Map<String, String> configs;
+
+        WatchState(long revision, Map<String, String> configs) {
+            this.revision = revision;
+            this.configs = configs;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.bank.config.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于Redis的集群客户端注册表
+ * 每个应用使用一个Hash保存连接信息，使用两个有序集合分别按心跳时间记录在线连接和按断开时间记录离线连接，
+ * 查询和统计只访问该应用自己的键，不需要扫描键空间。
+ * 心跳先在本节点合并，再定时通过管道批量写入，本节点仍在线的会话被清理后会随心跳重新写入，
+ * 但离线时间不早于心跳时间的会话（如由其他节点断开）不会被心跳恢复；
+ * 过期会话通过Lua脚本按分数范围原子清理，不会误删清理期间刚写入心跳的会话
+ *
+ * @author bank
+ */
+@Component
+public class RedisClientRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisClientRegistry.class);
+
+    private static final String KEY_PREFIX = "config:clients:";
+    private static final String APPS_KEY = KEY_PREFIX + "apps";
+    private static final String CONNECTIONS_KEY = KEY_PREFIX + "connections";
+
+    /**
+     * 清理过期会话：KEYS = [在线集合, 离线集合, 连接信息Hash, 连接索引Hash]，ARGV[1] = 过期分数上限。
+     * 两个集合中都不再存在的连接才删除其信息，返回删除的连接数
+     */
+    private static final RedisScript<Long> SWEEP_SCRIPT = new DefaultRedisScript<>(
+        "local removed = 0\n" +
+        "for i = 1, 2 do\n" +
+        "  local ids = redis.call('ZRANGEBYSCORE', KEYS[i], '-inf', ARGV[1])\n" +
+        "  for _, id in ipairs(ids) do\n" +
+        "    redis.call('ZREM', KEYS[i], id)\n" +
+        "    if not redis.call('ZSCORE', KEYS[1], id) and not redis.call('ZSCORE', KEYS[2], id) then\n" +
+        "      redis.call('HDEL', KEYS[3], id)\n" +
+        "      redis.call('HDEL', KEYS[4], id)\n" +
+        "      removed = removed + 1\n" +
+        "    end\n" +
+        "  end\n" +
+        "end\n" +
+        "return removed", Long.class);
+
+    /**
+     * 写入心跳：KEYS = [连接信息Hash, 在线集合, 离线集合, 连接索引Hash, 应用集合]，
+     * ARGV = [连接ID, 连接信息, 心跳时间, appId]。离线时间不早于心跳时间时不写入，返回是否写入
+     */
+    private static final String HEARTBEAT_SCRIPT =
+        "local offline = redis.call('ZSCORE', KEYS[3], ARGV[1])\n" +
+        "if offline and tonumber(offline) >= tonumber(ARGV[3]) then\n" +
+        "  return 0\n" +
+        "end\n" +
+        "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])\n" +
+        "redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1])\n" +
+        "redis.call('ZREM', KEYS[3], ARGV[1])\n" +
+        "redis.call('HSET', KEYS[4], ARGV[1], ARGV[4])\n" +
+        "redis.call('SADD', KEYS[5], ARGV[4])\n" +
+        "return 1";
+
+    @Autowired(required = false)
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClusterPushRelay pushRelay;
+
+    @Value("${config.push.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${config.push.cluster.client-ttl:90000}")
+    private long clientTtl;
+
+    @Value("${config.push.cluster.stats-cache-ttl:2000}")
+    private long statsCacheTtl;
+
+    // 待批量写入心跳的本节点连接：connectionId -> 连接
+    private final Map<String, ClientConnectionRegistry.ClientConnection> pendingHeartbeats = new ConcurrentHashMap<>();
+
+    // 本节点缓存的应用连接计数
+    private final Map<Long, CachedCounts> countsCache = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled && stringRedisTemplate != null;
+    }
+
+    /**
+     * 注册客户端连接
+     */
+    public void register(ClientConnectionRegistry.ClientConnection connection) {
+        try {
+            String infoJson = toInfoJson(connection);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connectionCallback -> {
+                writeOnline((StringRedisConnection) connectionCallback, connection, infoJson);
+                return null;
+            });
+            countsCache.remove(connection.getAppId());
+        } catch (Exception e) {
+            logger.error("注册集群客户端失败: {}", connection.getConnectionId(), e);
+        }
+    }
+
+    /**
+     * 记录本节点连接的心跳，等待下次批量写入
+     */
+    public void heartbeat(ClientConnectionRegistry.ClientConnection connection) {
+        pendingHeartbeats.put(connection.getConnectionId(), connection);
+    }
+
+    /**
+     * 标记客户端离线，Redis异常时只记录日志，不影响会话断开处理
+     */
+    public void markOffline(String connectionId) {
+        pendingHeartbeats.remove(connectionId);
+        try {
+            String appId = findAppId(connectionId);
+            if (appId == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connectionCallback -> {
+                StringRedisConnection redis = (StringRedisConnection) connectionCallback;
+                redis.zRem(onlineKey(appId), connectionId);
+                redis.zAdd(offlineKey(appId), now, connectionId);
+                return null;
+            });
+            countsCache.remove(Long.valueOf(appId));
+        } catch (Exception e) {
+            logger.warn("标记集群客户端离线失败: connectionId={}, error={}", connectionId, e.getMessage());
+        }
+    }
+
+    /**
+     * 移除客户端连接，Redis异常时只记录日志，残留记录由过期清理移除
+     */
+    public void remove(String connectionId) {
+        pendingHeartbeats.remove(connectionId);
+        try {
+            String appId = findAppId(connectionId);
+            if (appId == null) {
+                return;
+            }
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connectionCallback -> {
+                StringRedisConnection redis = (StringRedisConnection) connectionCallback;
+                redis.hDel(appKey(appId), connectionId);
+                redis.zRem(onlineKey(appId), connectionId);
+                redis.zRem(offlineKey(appId), connectionId);
+                redis.hDel(CONNECTIONS_KEY, connectionId);
+                return null;
+            });
+            countsCache.remove(Long.valueOf(appId));
+        } catch (Exception e) {
+            logger.warn("移除集群客户端失败: connectionId={}, error={}", connectionId, e.getMessage());
+        }
+    }
+
+    /**
+     * 获取应用的在线客户端
+     */
+    public List<Map<String, Object>> getOnlineClients(Long appId, Long envId) {
+        String app = String.valueOf(appId);
+        long minScore = System.currentTimeMillis() - clientTtl;
+        Set<ZSetOperations.TypedTuple<String>> online =
+            stringRedisTemplate.opsForZSet().rangeByScoreWithScores(onlineKey(app), minScore, Double.POSITIVE_INFINITY);
+        if (online == null || online.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Object> connectionIds = new ArrayList<>(online.size());
+        List<Long> heartbeats = new ArrayList<>(online.size());
+        for (ZSetOperations.TypedTuple<String> tuple : online) {
+            connectionIds.add(tuple.getValue());
+            heartbeats.add(tuple.getScore() != null ? tuple.getScore().longValue() : 0L);
+        }
+        List<Object> infos = stringRedisTemplate.opsForHash().multiGet(appKey(app), connectionIds);
+
+        List<Map<String, Object>> clients = new ArrayList<>(infos.size());
+        for (int i = 0; i < infos.size(); i++) {
+            Object infoJson = infos.get(i);
+            if (infoJson == null) {
+                continue;
+            }
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> info = objectMapper.readValue(infoJson.toString(), Map.class);
+                // 与本地注册表一致：未携带环境的连接不属于任何具体环境
+                if (envId != null && (!(info.get("envId") instanceof Number)
+                        || ((Number) info.get("envId")).longValue() != envId)) {
+                    continue;
+                }
+                Map<String, Object> clientInfo = new HashMap<>();
+                clientInfo.put("connectionId", info.get("connectionId"));
+                clientInfo.put("envId", info.get("envId"));
+                clientInfo.put("instanceId", info.get("instanceId"));
+                clientInfo.put("instanceIp", info.get("instanceIp"));
+                clientInfo.put("clientVersion", info.get("clientVersion"));
+                clientInfo.put("nodeId", info.get("nodeId"));
+                clientInfo.put("lastHeartbeat", new Date(heartbeats.get(i)));
+                clientInfo.put("connectedAt", new Date(((Number) info.get("connectedAt")).longValue()));
+                clients.add(clientInfo);
+            } catch (Exception e) {
+                logger.warn("解析集群客户端信息失败: {}", connectionIds.get(i), e);
+            }
+        }
+        return clients;
+    }
+
+    /**
+     * 获取应用的连接统计，结果在本节点短暂缓存
+     */
+    public Map<String, Object> getConnectionStats(Long appId) {
+        long now = System.currentTimeMillis();
+        CachedCounts counts = countsCache.get(appId);
+        if (counts == null || now - counts.loadedAt > statsCacheTtl) {
+            String app = String.valueOf(appId);
+            Long online = stringRedisTemplate.opsForZSet().count(onlineKey(app), now - clientTtl, Double.POSITIVE_INFINITY);
+            Long total = stringRedisTemplate.opsForHash().size(appKey(app));
+            counts = new CachedCounts(online != null ? online : 0, total != null ? total : 0, now);
+            countsCache.put(appId, counts);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalClients", counts.total);
+        stats.put("onlineClients", counts.online);
+        stats.put("offlineClients", Math.max(0, counts.total - counts.online));
+        return stats;
+    }
+
+    /**
+     * 批量写入心跳
+     */
+    @Scheduled(fixedDelayString = "${config.push.cluster.heartbeat-flush-interval:5000}")
+    public void flushHeartbeats() {
+        if (!isEnabled() || pendingHeartbeats.isEmpty()) {
+            return;
+        }
+        List<ClientConnectionRegistry.ClientConnection> batch = new ArrayList<>();
+        for (ClientConnectionRegistry.ClientConnection connection : new ArrayList<>(pendingHeartbeats.values())) {
+            pendingHeartbeats.remove(connection.getConnectionId(), connection);
+            // 只写入本节点仍在线的会话，已断开的会话不会被复活
+            if (connection.isOnline()) {
+                batch.add(connection);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> infoJsons = new ArrayList<>(batch.size());
+            for (ClientConnectionRegistry.ClientConnection connection : batch) {
+                infoJsons.add(toInfoJson(connection));
+            }
+            // 完整写入在线记录，被过期清理（如GC停顿、心跳间隔过长）移除的会话随心跳恢复；
+            // 其他节点在本次心跳之后标记离线的会话不恢复
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connectionCallback -> {
+                StringRedisConnection redis = (StringRedisConnection) connectionCallback;
+                for (int i = 0; i < batch.size(); i++) {
+                    writeHeartbeat(redis, batch.get(i), infoJsons.get(i));
+                }
+                return null;
+            });
+            for (ClientConnectionRegistry.ClientConnection connection : batch) {
+                countsCache.remove(connection.getAppId());
+            }
+        } catch (Exception e) {
+            logger.warn("批量写入心跳失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理过期会话：心跳超时的在线连接和超时的离线连接
+     */
+    @Scheduled(fixedDelayString = "${config.push.cluster.sweep-interval:30000}")
+    public void sweepExpired() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Set<String> appIds = stringRedisTemplate.opsForSet().members(APPS_KEY);
+            if (appIds == null) {
+                return;
+            }
+            String maxScore = String.valueOf(System.currentTimeMillis() - clientTtl);
+            for (String appId : appIds) {
+                Long removed = stringRedisTemplate.execute(SWEEP_SCRIPT,
+                    Arrays.asList(onlineKey(appId), offlineKey(appId), appKey(appId), CONNECTIONS_KEY), maxScore);
+                if (removed == null || removed == 0) {
+                    continue;
+                }
+                countsCache.remove(Long.valueOf(appId));
+                logger.debug("清理过期客户端: appId={}, count={}", appId, removed);
+            }
+        } catch (Exception e) {
+            logger.warn("清理过期客户端失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 写入在线连接的完整记录
+     */
+    private void writeOnline(StringRedisConnection redis, ClientConnectionRegistry.ClientConnection connection,
+                             String infoJson) {
+        String appId = String.valueOf(connection.getAppId());
+        redis.hSet(appKey(appId), connection.getConnectionId(), infoJson);
+        redis.zAdd(onlineKey(appId), connection.getLastHeartbeat(), connection.getConnectionId());
+        redis.zRem(offlineKey(appId), connection.getConnectionId());
+        redis.hSet(CONNECTIONS_KEY, connection.getConnectionId(), appId);
+        redis.sAdd(APPS_KEY, appId);
+    }
+
+    /**
+     * 写入心跳，离线时间不早于心跳时间时跳过
+     */
+    private void writeHeartbeat(StringRedisConnection redis, ClientConnectionRegistry.ClientConnection connection,
+                                String infoJson) {
+        String appId = String.valueOf(connection.getAppId());
+        redis.eval(HEARTBEAT_SCRIPT, ReturnType.INTEGER, 5,
+            appKey(appId), onlineKey(appId), offlineKey(appId), CONNECTIONS_KEY, APPS_KEY,
+            connection.getConnectionId(), infoJson, String.valueOf(connection.getLastHeartbeat()), appId);
+    }
+
+    private String toInfoJson(ClientConnectionRegistry.ClientConnection connection) throws Exception {
+        Map<String, Object> info = new HashMap<>();
+        info.put("connectionId", connection.getConnectionId());
+        info.put("appId", connection.getAppId());
+        info.put("envId", connection.getEnvId());
+        info.put("instanceId", connection.getInstanceId());
+        info.put("instanceIp", connection.getInstanceIp());
+        info.put("clientVersion", connection.getClientVersion());
+        info.put("connectedAt", connection.getConnectedAt());
+        info.put("nodeId", pushRelay.getNodeId());
+        return objectMapper.writeValueAsString(info);
+    }
+
+    private String findAppId(String connectionId) {
+        Object appId = stringRedisTemplate.opsForHash().get(CONNECTIONS_KEY, connectionId);
+        return appId != null ? appId.toString() : null;
+    }
+
+    private static String appKey(String appId) {
+        return KEY_PREFIX + "app:" + appId;
+    }
+
+    private static String onlineKey(String appId) {
+        return KEY_PREFIX + "app:" + appId + ":online";
+    }
+
+    private static String offlineKey(String appId) {
+        return KEY_PREFIX + "app:" + appId + ":offline";
+    }
+
+    /**
+     * 缓存的连接计数
+     */
+    private static class CachedCounts {
+        final long online;
+        final long total;
+        final long loadedAt;
+
+        CachedCounts(long online, long total, long loadedAt) {
+            this.online = online;
+            this.total = total;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- 为发布记录表添加传播延迟字段
+-- 客户端上报配置生效后，服务端按发布汇总成功/失败数量和延迟分位数
+
+USE config_center;
+
+ALTER TABLE config_publish_records
+ADD COLUMN propagation_p50_ms BIGINT NULL COMMENT '发布到客户端生效延迟P50（毫秒）' AFTER error_message,
+ADD COLUMN propagation_p99_ms BIGINT NULL COMMENT '发布到客户端生效延迟P99（毫秒）' AFTER propagation_p50_ms,
+ADD COLUMN propagation_max_ms BIGINT NULL COMMENT '发布到客户端生效最大延迟（毫秒）' AFTER propagation_p99_ms;
+
+-- 验证修复结果
+SELECT 
+    COLUMN_NAME,
+    DATA_TYPE,
+    IS_NULLABLE,
+    COLUMN_COMMENT
+FROM INFORMATION_SCHEMA.COLUMNS 
+WHERE TABLE_SCHEMA = 'config_center' 
+AND TABLE_NAME = 'config_publish_records'
+ORDER BY ORDINAL_POSITION;
@@ -0,0 +1,130 @@
+package com.bank.config.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 客户端连接注册表测试
+ * 验证按应用、环境、实例的索引以及在线/离线计数在注册、离线、移除和重复注册时保持一致
+ *
+ * @author bank
+ */
+class ClientConnectionRegistryTest {
+
+    private ClientConnectionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ClientConnectionRegistry();
+    }
+
+    @Test
+    void testRegisterIndexesByAppEnvAndInstance() {
+        registry.register("c1", 1L, 10L, "i1", "127.0.0.1", "1.0");
+        registry.register("c2", 1L, 20L, "i1", "127.0.0.1", "1.0");
+        registry.register("c3", 2L, 10L, "i2", "127.0.0.2", "1.0");
+
+        assertEquals(3, registry.size());
+        assertEquals(2, registry.getByApp(1L).size());
+        assertEquals(1, registry.getByAppAndEnv(1L, 10L).size());
+        assertEquals("c2", registry.getByAppAndEnv(1L, 20L).iterator().next().getConnectionId());
+        assertEquals(2, registry.getByInstance("i1").size());
+        assertTrue(registry.getByApp(3L).isEmpty());
+        assertTrue(registry.getByAppAndEnv(1L, 30L).isEmpty());
+        assertTrue(registry.getByInstance("missing").isEmpty());
+    }
+
+    @Test
+    void testNullEnvIsIndexedSeparately() {
+        registry.register("c1", 1L, null, null, null, null);
+
+        assertEquals(1, registry.getByAppAndEnv(1L, null).size());
+        assertTrue(registry.getByAppAndEnv(1L, 10L).isEmpty());
+        assertEquals(1, registry.getOnlineCount(1L));
+    }
+
+    @Test
+    void testMarkOfflineMovesCountOnce() {
+        registry.register("c1", 1L, 10L, "i1", null, null);
+        registry.register("c2", 1L, 10L, "i2", null, null);
+
+        registry.markOffline("c1");
+        registry.markOffline("c1");
+
+        assertEquals(1, registry.getOnlineCount(1L));
+        assertEquals(1, registry.getOfflineCount(1L));
+        assertFalse(registry.get("c1").isOnline());
+        // 离线连接仍保留在索引中
+        assertEquals(2, registry.getByApp(1L).size());
+
+        List<ClientConnectionRegistry.ClientConnection> online = registry.getOnlineByApp(1L);
+        assertEquals(1, online.size());
+        assertEquals("c2", online.get(0).getConnectionId());
+    }
+
+    @Test
+    void testRemoveDecrementsMatchingCounter() {
+        registry.register("c1", 1L, 10L, "i1", null, null);
+        registry.register("c2", 1L, 10L, "i2", null, null);
+        registry.markOffline("c2");
+
+        registry.remove("c1");
+        assertEquals(0, registry.getOnlineCount(1L));
+        assertEquals(1, registry.getOfflineCount(1L));
+
+        registry.remove("c2");
+        assertEquals(0, registry.getOfflineCount(1L));
+        assertEquals(0, registry.size());
+        assertTrue(registry.getByApp(1L).isEmpty());
+        assertTrue(registry.getByAppAndEnv(1L, 10L).isEmpty());
+        assertTrue(registry.getByInstance("i1").isEmpty());
+
+        // 重复移除和移除后再标记离线不影响计数
+        assertNull(registry.remove("c1"));
+        assertNull(registry.markOffline("c1"));
+        assertEquals(0, registry.getOnlineCount(1L));
+        assertEquals(0, registry.getOfflineCount(1L));
+    }
+
+    @Test
+    void testReRegisterReplacesPreviousConnection() {
+        registry.register("c1", 1L, 10L, "i1", null, null);
+        registry.markOffline("c1");
+
+        ClientConnectionRegistry.ClientConnection replaced = registry.register("c1", 2L, 20L, "i2", null, null);
+
+        assertEquals(1, registry.size());
+        assertSame(replaced, registry.get("c1"));
+        assertTrue(registry.getByApp(1L).isEmpty());
+        assertTrue(registry.getByInstance("i1").isEmpty());
+        assertEquals(0, registry.getOfflineCount(1L));
+        assertEquals(1, registry.getOnlineCount(2L));
+        assertEquals(1, registry.getByAppAndEnv(2L, 20L).size());
+        assertEquals(1, registry.getOnlineCount());
+    }
+
+    @Test
+    void testTouchUpdatesHeartbeat() throws Exception {
+        ClientConnectionRegistry.ClientConnection connection = registry.register("c1", 1L, 10L, null, null, null);
+        long before = connection.getLastHeartbeat();
+        Thread.sleep(5);
+
+        assertSame(connection, registry.touch("c1"));
+        assertTrue(connection.getLastHeartbeat() > before);
+        assertNull(registry.touch("missing"));
+    }
+
+    @Test
+    void testTotalOnlineCountAcrossApps() {
+        registry.register("c1", 1L, 10L, null, null, null);
+        registry.register("c2", 2L, 10L, null, null, null);
+        registry.register("c3", 2L, 10L, null, null, null);
+        registry.markOffline("c3");
+
+        assertEquals(2, registry.getOnlineCount());
+    }
+}
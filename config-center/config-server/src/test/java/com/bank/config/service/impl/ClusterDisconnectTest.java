@@ -0,0 +1,136 @@
+package com.bank.config.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 集群模式下跨节点断开客户端测试
+ * 连接在节点A，断开请求落在节点B；断开消息经中继送达节点A后，节点A不再写入该连接的心跳
+ *
+ * @author bank
+ */
+class ClusterDisconnectTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ClusterPushRelay relayA;
+    private ClusterPushRelay relayB;
+    private ConfigPushServiceImpl nodeA;
+    private ConfigPushServiceImpl nodeB;
+    private StringRedisTemplate redisTemplate;
+    private RedisClientRegistry registryA;
+    private RedisClientRegistry registryB;
+
+    // 节点B发布的消息，用于转发给节点A
+    private final List<ClusterPushRelay.RelayMessage> publishedByB = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        relayA = createRelay();
+        relayB = createRelay();
+        relayB.addLocalListener(publishedByB::add);
+        redisTemplate = mock(StringRedisTemplate.class);
+        registryA = createRegistry(relayA);
+        registryB = mock(RedisClientRegistry.class);
+        when(registryB.isEnabled()).thenReturn(true);
+        nodeA = createPushService(relayA, registryA);
+        nodeB = createPushService(relayB, registryB);
+    }
+
+    @Test
+    void testDisconnectOnOtherNodeStopsHeartbeatWrites() throws Exception {
+        nodeA.registerClient("c1", 1L, 2L, "instance-1", "127.0.0.1", "1.0");
+        nodeA.updateClientHeartbeat("c1");
+
+        nodeB.disconnectClient("c1");
+        verify(registryB).markOffline("c1");
+        relay(publishedByB.get(0), relayA);
+
+        assertFalse(localConnection("c1").isOnline());
+        registryA.flushHeartbeats();
+        // 只有注册时写入过一次
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testHeartbeatWriteIsGuardedByOfflineTime() {
+        nodeA.registerClient("c1", 1L, 2L, "instance-1", "127.0.0.1", "1.0");
+        nodeA.updateClientHeartbeat("c1");
+        long heartbeat = localConnection("c1").getLastHeartbeat();
+
+        registryA.flushHeartbeats();
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate, times(2)).executePipelined(callback.capture());
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callback.getAllValues().get(1).doInRedis(connection);
+        verify(connection).eval(contains("ZSCORE"), eq(ReturnType.INTEGER), eq(5),
+            eq("config:clients:app:1"), eq("config:clients:app:1:online"), eq("config:clients:app:1:offline"),
+            eq("config:clients:connections"), eq("config:clients:apps"),
+            eq("c1"), anyString(), eq(String.valueOf(heartbeat)), eq("1"));
+        // 心跳不直接覆盖在线记录
+        verify(connection, never()).zRem(anyString(), any(String[].class));
+    }
+
+    private ClientConnectionRegistry.ClientConnection localConnection(String connectionId) {
+        ClientConnectionRegistry registry =
+            (ClientConnectionRegistry) ReflectionTestUtils.getField(nodeA, "clientConnections");
+        return registry.get(connectionId);
+    }
+
+    private ClusterPushRelay createRelay() {
+        ClusterPushRelay relay = new ClusterPushRelay();
+        ReflectionTestUtils.setField(relay, "messagingTemplate", mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(relay, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(relay, "meterRegistry", new SimpleMeterRegistry());
+        relay.init();
+        return relay;
+    }
+
+    private RedisClientRegistry createRegistry(ClusterPushRelay relay) {
+        RedisClientRegistry registry = new RedisClientRegistry();
+        ReflectionTestUtils.setField(registry, "stringRedisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(registry, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(registry, "pushRelay", relay);
+        ReflectionTestUtils.setField(registry, "enabled", true);
+        ReflectionTestUtils.setField(registry, "clientTtl", 90000L);
+        return registry;
+    }
+
+    private ConfigPushServiceImpl createPushService(ClusterPushRelay relay, RedisClientRegistry registry) {
+        ConfigPushServiceImpl service = new ConfigPushServiceImpl();
+        ReflectionTestUtils.setField(service, "pushRelay", relay);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "clusterClientRegistry", registry);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.init();
+        return service;
+    }
+
+    private void relay(ClusterPushRelay.RelayMessage message, ClusterPushRelay target) throws Exception {
+        byte[] body = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+        target.onMessage(new DefaultMessage("config:push:relay".getBytes(StandardCharsets.UTF_8), body), null);
+    }
+}
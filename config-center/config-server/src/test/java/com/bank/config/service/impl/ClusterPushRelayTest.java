@@ -0,0 +1,131 @@
+package com.bank.config.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 集群推送中继测试
+ * 两个节点之间不经过Redis，直接把一个节点发布的消息序列化后交给另一个节点的 onMessage
+ *
+ * @author bank
+ */
+class ClusterPushRelayTest {
+
+    private static final String DESTINATION = "/topic/config/1/2";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ClusterPushRelay nodeA;
+    private ClusterPushRelay nodeB;
+    private SimpMessagingTemplate templateA;
+    private SimpMessagingTemplate templateB;
+
+    // 节点A发布的消息（本节点投递时捕获），用于转发给节点B
+    private final List<ClusterPushRelay.RelayMessage> publishedByA = new ArrayList<>();
+    private final List<ClusterPushRelay.RelayMessage> deliveredOnB = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        templateA = mock(SimpMessagingTemplate.class);
+        templateB = mock(SimpMessagingTemplate.class);
+        nodeA = createRelay(templateA);
+        nodeB = createRelay(templateB);
+        nodeA.addLocalListener(publishedByA::add);
+        nodeB.addLocalListener(deliveredOnB::add);
+    }
+
+    @Test
+    void testDeliversRemoteMessageOnce() throws Exception {
+        nodeA.publish(Collections.singletonList(DESTINATION), "v1", "CONFIG_UPDATE:1:2", 1L);
+        ClusterPushRelay.RelayMessage message = publishedByA.get(0);
+
+        relay(message, nodeB);
+        relay(message, nodeB);
+
+        verify(templateB, times(1)).convertAndSend(DESTINATION, "v1");
+        assertEquals(1, deliveredOnB.size());
+    }
+
+    @Test
+    void testDropsStaleRevisionPerOrderKey() throws Exception {
+        nodeA.publish(Collections.singletonList(DESTINATION), "v2", "CONFIG_UPDATE:1:2", 2L);
+        nodeA.publish(Collections.singletonList(DESTINATION), "v1", "CONFIG_UPDATE:1:2", 1L);
+        nodeA.publish(Collections.singletonList(DESTINATION), "other", "CONFIG_UPDATE:1:3", 1L);
+        // 节点A本地也按修订号丢弃了旧消息，只捕获到两条，这里直接构造乱序到达节点B的旧消息
+        ClusterPushRelay.RelayMessage newer = publishedByA.get(0);
+        ClusterPushRelay.RelayMessage older = copy(newer, "A:old", "v1", 1L);
+
+        relay(newer, nodeB);
+        relay(older, nodeB);
+        relay(publishedByA.get(1), nodeB);
+
+        verify(templateB).convertAndSend(DESTINATION, "v2");
+        verify(templateB, never()).convertAndSend(DESTINATION, "v1");
+        // 不同排序键的修订号互不影响
+        verify(templateB).convertAndSend(DESTINATION, "other");
+        assertEquals(2, deliveredOnB.size());
+    }
+
+    @Test
+    void testSameRevisionAndUnorderedMessagesAccepted() throws Exception {
+        nodeA.publish(Collections.singletonList(DESTINATION), "v3", "CONFIG_UPDATE:1:2", 3L);
+        relay(publishedByA.get(0), nodeB);
+        relay(copy(publishedByA.get(0), "A:retry", "v3-retry", 3L), nodeB);
+        relay(copy(publishedByA.get(0), "A:notify", "notify", null), nodeB);
+
+        assertEquals(3, deliveredOnB.size());
+    }
+
+    @Test
+    void testIgnoresOwnNodeMessages() throws Exception {
+        nodeA.publish(Collections.singletonList(DESTINATION), "v1", "CONFIG_UPDATE:1:2", 1L);
+        ClusterPushRelay.RelayMessage message = publishedByA.get(0);
+
+        // Redis会把消息也投递回发布节点
+        relay(message, nodeA);
+
+        verify(templateA, times(1)).convertAndSend(eq(DESTINATION), any(Object.class));
+        assertEquals(1, publishedByA.size());
+    }
+
+    private ClusterPushRelay createRelay(SimpMessagingTemplate template) {
+        ClusterPushRelay relay = new ClusterPushRelay();
+        ReflectionTestUtils.setField(relay, "messagingTemplate", template);
+        ReflectionTestUtils.setField(relay, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(relay, "meterRegistry", new SimpleMeterRegistry());
+        relay.init();
+        return relay;
+    }
+
+    private void relay(ClusterPushRelay.RelayMessage message, ClusterPushRelay target) throws Exception {
+        byte[] body = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+        target.onMessage(new DefaultMessage("config:push:relay".getBytes(StandardCharsets.UTF_8), body), null);
+    }
+
+    private static ClusterPushRelay.RelayMessage copy(ClusterPushRelay.RelayMessage source, String id,
+                                                      String payload, Long revision) {
+        ClusterPushRelay.RelayMessage message = new ClusterPushRelay.RelayMessage();
+        message.setOrigin(source.getOrigin());
+        message.setId(id);
+        message.setDestinations(source.getDestinations());
+        message.setPayload(payload);
+        message.setOrderKey(source.getOrderKey());
+        message.setRevision(revision);
+        return message;
+    }
+}
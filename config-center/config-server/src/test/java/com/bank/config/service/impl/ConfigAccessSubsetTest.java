@@ -0,0 +1,115 @@
+package com.bank.config.service.impl;
+
+import com.bank.config.dto.KeySubset;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 订阅子集跨节点共享测试
+ * 两个节点共用一个以内存Map模拟的Redis，登记落在一个节点、推送连接在另一个节点
+ *
+ * @author bank
+ */
+class ConfigAccessSubsetTest {
+
+    private static final String SUBSET_KEY = "config:access:subset:1:2:instance-1";
+
+    private final Map<String, String> redis = new HashMap<>();
+
+    private StringRedisTemplate redisTemplate;
+    private ConfigAccessServiceImpl nodeA;
+    private ConfigAccessServiceImpl nodeB;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(values).set(anyString(), anyString(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        when(values.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        nodeA = createService(redisTemplate);
+        nodeB = createService(redisTemplate);
+    }
+
+    private static ConfigAccessServiceImpl createService(StringRedisTemplate redisTemplate) {
+        ConfigAccessServiceImpl service = new ConfigAccessServiceImpl();
+        ReflectionTestUtils.setField(service, "stringRedisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "subscriptionTtl", 86400000L);
+        ReflectionTestUtils.setField(service, "subsetCacheTtl", 0L);
+        return service;
+    }
+
+    @Test
+    void testSubsetRegisteredOnOtherNodeIsVisible() {
+        nodeA.registerSubset(1L, 2L, "instance-1", Collections.singletonList("db.url"),
+            Collections.singletonList("cache."), false);
+
+        KeySubset subset = nodeB.getSubset(1L, 2L, "instance-1");
+        assertNotNull(subset);
+        assertTrue(subset.matches("db.url"));
+        assertTrue(subset.matches("cache.size"));
+        assertFalse(subset.matches("db.password"));
+        assertTrue(redis.containsKey(SUBSET_KEY));
+    }
+
+    @Test
+    void testAdditiveRegistrationMergesAcrossNodes() {
+        nodeA.registerSubset(1L, 2L, "instance-1", Collections.singletonList("a"), null, false);
+        // 节点B没有本地缓存，增量登记应合并节点A的登记
+        nodeB.registerSubset(1L, 2L, "instance-1", Collections.singletonList("b"), null, true);
+
+        KeySubset subset = nodeA.getSubset(1L, 2L, "instance-1");
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), subset.getKeys());
+    }
+
+    @Test
+    void testReplacementOnOtherNodeReplacesCachedSubset() {
+        nodeA.registerSubset(1L, 2L, "instance-1", Collections.singletonList("a"), null, false);
+        assertTrue(nodeA.getSubset(1L, 2L, "instance-1").matches("a"));
+
+        nodeB.registerSubset(1L, 2L, "instance-1", Collections.singletonList("b"), null, false);
+
+        KeySubset subset = nodeA.getSubset(1L, 2L, "instance-1");
+        assertFalse(subset.matches("a"));
+        assertTrue(subset.matches("b"));
+    }
+
+    @Test
+    void testExpiredInRedisMeansNoSubset() {
+        nodeA.registerSubset(1L, 2L, "instance-1", Collections.singletonList("a"), null, false);
+        redis.remove(SUBSET_KEY);
+
+        assertNull(nodeA.getSubset(1L, 2L, "instance-1"));
+    }
+
+    @Test
+    void testRedisFailureFallsBackToLocalSubset() {
+        when(redisTemplate.opsForValue()).thenThrow(new IllegalStateException("redis down"));
+
+        nodeA.registerSubset(1L, 2L, "instance-1", Collections.singletonList("a"), null, false);
+
+        KeySubset subset = nodeA.getSubset(1L, 2L, "instance-1");
+        assertNotNull(subset);
+        assertTrue(subset.matches("a"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.bank.config.service.impl;
+
+import com.bank.config.entity.ConfigSnapshot;
+import com.bank.config.repository.ConfigSnapshotRepository;
+import com.bank.config.service.ConfigPushService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 两阶段发布提交任务测试
+ * 验证未开启两阶段发布时不访问数据库，只有本节点提交成功的快照才推送提交消息并清除对应的缓存条目
+ *
+ * @author bank
+ */
+class ConfigSnapshotCommitTest {
+
+    private ConfigSnapshotServiceImpl service;
+    private ConfigSnapshotRepository repository;
+    private ConfigPushService pushService;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        service = new ConfigSnapshotServiceImpl();
+        repository = mock(ConfigSnapshotRepository.class);
+        pushService = mock(ConfigPushService.class);
+        cache = mock(Cache.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache("snapshots")).thenReturn(cache);
+        ReflectionTestUtils.setField(service, "configSnapshotRepository", repository);
+        ReflectionTestUtils.setField(service, "configPushService", pushService);
+        ReflectionTestUtils.setField(service, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(service, "twoPhaseCommitDelay", 0L);
+    }
+
+    @Test
+    void testDisabledDoesNothing() {
+        ReflectionTestUtils.setField(service, "twoPhasePublish", false);
+
+        service.commitPendingSnapshots();
+
+        verifyNoInteractions(repository, pushService, cache);
+    }
+
+    @Test
+    void testNothingPendingKeepsCache() {
+        ReflectionTestUtils.setField(service, "twoPhasePublish", true);
+        when(repository.findPendingCommitSnapshots(any(LocalDateTime.class))).thenReturn(Collections.emptyList());
+
+        service.commitPendingSnapshots();
+
+        verifyNoInteractions(pushService, cache);
+    }
+
+    @Test
+    void testCommitsOnlySnapshotsMarkedByThisNode() {
+        ReflectionTestUtils.setField(service, "twoPhasePublish", true);
+        ConfigSnapshot won = snapshot(10L, "v10");
+        ConfigSnapshot lost = snapshot(11L, "v11");
+        when(repository.findPendingCommitSnapshots(any(LocalDateTime.class))).thenReturn(Arrays.asList(won, lost));
+        when(repository.markCommitted(10L)).thenReturn(1);
+        // 另一个节点已提交
+        when(repository.markCommitted(11L)).thenReturn(0);
+
+        service.commitPendingSnapshots();
+
+        verify(pushService).pushConfigCommit(1L, 2L, 10L);
+        verify(pushService, never()).pushConfigCommit(anyLong(), anyLong(), eq(11L));
+        verify(cache).evict(10L);
+        verify(cache).evict("app:1:env:2:version:v10");
+        verify(cache).evict("app:1:env:2:list");
+        verify(cache, never()).evict(11L);
+        verify(cache, never()).clear();
+    }
+
+    @Test
+    void testFailedCommitDoesNotStopOthers() {
+        ReflectionTestUtils.setField(service, "twoPhasePublish", true);
+        when(repository.findPendingCommitSnapshots(any(LocalDateTime.class)))
+            .thenReturn(Arrays.asList(snapshot(10L, "v10"), snapshot(11L, "v11")));
+        when(repository.markCommitted(10L)).thenThrow(new IllegalStateException("db down"));
+        when(repository.markCommitted(11L)).thenReturn(1);
+
+        service.commitPendingSnapshots();
+
+        verify(pushService).pushConfigCommit(1L, 2L, 11L);
+        verify(cache, never()).evict(10L);
+    }
+
+    private static ConfigSnapshot snapshot(Long id, String version) {
+        ConfigSnapshot snapshot = new ConfigSnapshot();
+        snapshot.setId(id);
+        snapshot.setAppId(1L);
+        snapshot.setEnvId(2L);
+        snapshot.setVersionNumber(version);
+        snapshot.setStatus(2);
+        snapshot.setSnapshotType(2);
+        return snapshot;
+    }
+}
@@ -0,0 +1,193 @@
+package com.bank.config.service.impl;
+
+import com.bank.config.service.ConfigAccessService;
+import com.bank.config.service.ConfigSnapshotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 配置监听发送测试
+ * 慢连接和失败的连接不影响同组其他连接，写入超时、积压过多或发送失败的连接被移除并结束
+ *
+ * @author bank
+ */
+class ConfigWatchSendTest {
+
+    private ClusterPushRelay relay;
+    private ConfigWatchServiceImpl service;
+
+    // 下一次 watch 使用的连接
+    private final Deque<TestEmitter> nextEmitters = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() {
+        relay = new ClusterPushRelay();
+        ReflectionTestUtils.setField(relay, "messagingTemplate", mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(relay, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(relay, "meterRegistry", new SimpleMeterRegistry());
+        relay.init();
+
+        service = new ConfigWatchServiceImpl() {
+            @Override
+            SseEmitter createEmitter() {
+                return nextEmitters.poll();
+            }
+        };
+        ReflectionTestUtils.setField(service, "pushRelay", relay);
+        ReflectionTestUtils.setField(service, "configSnapshotService", mock(ConfigSnapshotService.class));
+        ReflectionTestUtils.setField(service, "configAccessService", mock(ConfigAccessService.class));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "sendThreads", 2);
+        ReflectionTestUtils.setField(service, "sendQueueCapacity", 100);
+        ReflectionTestUtils.setField(service, "writeTimeout", 100L);
+        ReflectionTestUtils.setField(service, "maxPendingEvents", 3);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 中断仍阻塞在写入中的发送线程
+        service.destroy();
+    }
+
+    @Test
+    void testSlowWatcherDoesNotDelayOthers() throws Exception {
+        TestEmitter slow = watch(new TestEmitter(true, false));
+        TestEmitter fast = watch(new TestEmitter(false, false));
+
+        notifyChange();
+        notifyChange();
+
+        assertTrue(await(() -> fast.sent.size() == 2), "同组的其他连接应正常收到事件");
+        assertTrue(slow.sending.await(1, TimeUnit.SECONDS));
+        assertEquals(0, slow.sent.size());
+        slow.release.countDown();
+        assertTrue(await(() -> slow.sent.size() == 2), "慢连接恢复后按顺序收到积压的事件");
+    }
+
+    @Test
+    void testStalledWatcherRemovedAfterWriteTimeout() throws Exception {
+        TestEmitter slow = watch(new TestEmitter(true, false));
+        watch(new TestEmitter(false, false));
+
+        notifyChange();
+        assertTrue(slow.sending.await(1, TimeUnit.SECONDS));
+        Thread.sleep(150);
+        service.closeStalledWatchers();
+
+        assertEquals(1, service.getWatchStats().get("totalWatchers"));
+        // 阻塞的写入返回后才结束连接
+        assertNull(slow.error);
+        slow.release.countDown();
+        assertTrue(await(() -> slow.error != null));
+    }
+
+    @Test
+    void testTooManyPendingEventsRemovesWatcher() throws Exception {
+        TestEmitter slow = watch(new TestEmitter(true, false));
+
+        for (int i = 0; i < 5; i++) {
+            notifyChange();
+        }
+
+        assertTrue(await(() -> Integer.valueOf(0).equals(service.getWatchStats().get("totalWatchers"))));
+        slow.release.countDown();
+        assertTrue(await(() -> slow.error != null));
+        // 移除后不再发送积压的事件
+        assertTrue(slow.sent.size() <= 1);
+    }
+
+    @Test
+    void testFailedSendRemovesWatcher() throws Exception {
+        TestEmitter broken = watch(new TestEmitter(false, true));
+        TestEmitter healthy = watch(new TestEmitter(false, false));
+
+        notifyChange();
+
+        assertTrue(await(() -> broken.error != null));
+        assertTrue(await(() -> healthy.sent.size() == 1));
+        assertEquals(1, service.getWatchStats().get("totalWatchers"));
+    }
+
+    private TestEmitter watch(TestEmitter emitter) {
+        nextEmitters.add(emitter);
+        service.watch(1L, 2L, null);
+        return emitter;
+    }
+
+    private void notifyChange() {
+        relay.publish(Collections.singletonList("/topic/config/1/2"),
+            "{\"type\":\"CONFIG_CHANGE_NOTIFICATION\",\"appId\":1,\"envId\":2}",
+            "CONFIG_CHANGE_NOTIFICATION:1:2", null);
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return condition.getAsBoolean();
+    }
+
+    /**
+     * 记录发送的事件，可以阻塞写入或让写入失败
+     */
+    private static class TestEmitter extends SseEmitter {
+        final boolean blocking;
+        final boolean failing;
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+        volatile Throwable error;
+
+        TestEmitter(boolean blocking, boolean failing) {
+            this.blocking = blocking;
+            this.failing = failing;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (failing) {
+                throw new IOException("broken pipe");
+            }
+            if (blocking) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.add(builder);
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error = ex;
+        }
+    }
+}